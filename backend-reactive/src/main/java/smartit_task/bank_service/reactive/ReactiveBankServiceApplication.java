@@ -0,0 +1,13 @@
+package smartit_task.bank_service.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveBankServiceApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveBankServiceApplication.class, args);
+	}
+
+}
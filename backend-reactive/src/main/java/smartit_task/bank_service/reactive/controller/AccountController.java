@@ -0,0 +1,54 @@
+package smartit_task.bank_service.reactive.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import smartit_task.bank_service.reactive.dto.AccountCreateRequest;
+import smartit_task.bank_service.reactive.dto.AccountResponse;
+import smartit_task.bank_service.reactive.entity.Account;
+import smartit_task.bank_service.reactive.mapper.AccountMapper;
+import smartit_task.bank_service.reactive.service.AccountService;
+
+@RestController
+@RequestMapping("/api/accounts")
+public class AccountController {
+
+    @Autowired
+    private AccountService accountService;
+
+    @GetMapping
+    public Flux<AccountResponse> getAllAccounts() {
+        return accountService.getAllAccounts().map(AccountMapper::toResponse);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<AccountResponse>> getAccountById(@PathVariable Long id) {
+        return accountService.getAccountById(id)
+                .map(acc -> ResponseEntity.ok(AccountMapper.toResponse(acc)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createAccount(@Valid @RequestBody AccountCreateRequest req) {
+        return respond(accountService.createAccount(req));
+    }
+
+    @PutMapping("/{id}/freeze")
+    public Mono<ResponseEntity<?>> freezeAccount(@PathVariable Long id) {
+        return respond(accountService.freezeAccount(id));
+    }
+
+    @PutMapping("/{id}/unfreeze")
+    public Mono<ResponseEntity<?>> unfreezeAccount(@PathVariable Long id) {
+        return respond(accountService.unfreezeAccount(id));
+    }
+
+    private Mono<ResponseEntity<?>> respond(Mono<Account> account) {
+        return account
+                .<ResponseEntity<?>>map(a -> ResponseEntity.ok(AccountMapper.toResponse(a)))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+}
@@ -0,0 +1,49 @@
+package smartit_task.bank_service.reactive.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import smartit_task.bank_service.reactive.dto.TransferCreateRequest;
+import smartit_task.bank_service.reactive.entity.Transfer;
+import smartit_task.bank_service.reactive.mapper.TransferMapper;
+import smartit_task.bank_service.reactive.service.TransferService;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/transfers")
+public class TransferController {
+
+    @Autowired
+    private TransferService transferService;
+
+    @GetMapping("/account/{accountId}")
+    public Flux<Transfer> getTransfersByAccountId(@PathVariable Long accountId) {
+        return transferService.getAllTransfersByAccountId(accountId);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Transfer>> getTransferById(@PathVariable Long id) {
+        return transferService.getTransferById(id)
+                .map(transfer -> ResponseEntity.ok().body(transfer))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createTransfer(@Valid @RequestBody TransferCreateRequest req,
+                                                  @RequestHeader(value = "Idempotency-Key", required = false)
+                                                          String idempotencyKey) {
+        return transferService.createTransfer(req.fromAccountId(), req.toAccountId(), req.amount(), idempotencyKey)
+                .<ResponseEntity<?>>map(t -> ResponseEntity.status(201).body(TransferMapper.toResponse(t)))
+                .onErrorResume(IllegalArgumentException.class,
+                        ex -> Mono.just(ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()))));
+    }
+
+    @GetMapping
+    public Flux<Transfer> getAllTransfers() {
+        return transferService.getAllTransfers();
+    }
+}
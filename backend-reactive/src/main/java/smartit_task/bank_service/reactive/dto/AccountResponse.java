@@ -0,0 +1,18 @@
+package smartit_task.bank_service.reactive.dto;
+
+import smartit_task.bank_service.reactive.entity.AccountStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record AccountResponse(
+        Long id,
+        String name,
+        String iban,
+        String currency,
+        AccountStatus status,
+        BigDecimal availableAmount,
+        BigDecimal heldAmount,
+        LocalDateTime createdOn,
+        LocalDateTime modifiedOn
+) {}
@@ -0,0 +1,12 @@
+package smartit_task.bank_service.reactive.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+public record TransferCreateRequest(
+        @NotNull Long fromAccountId,
+        @NotNull Long toAccountId,
+        @NotNull @DecimalMin(value = "0.01", message = "Amount must be > 0")
+        BigDecimal amount
+) {}
@@ -0,0 +1,18 @@
+package smartit_task.bank_service.reactive.dto;
+
+import smartit_task.bank_service.reactive.entity.TransferType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record TransferResponse(
+        Long id,
+        Long accountId,
+        Long beneficiaryAccountId,
+        TransferType type,
+        BigDecimal amount,
+        String currency,
+        BigDecimal fxRate,
+        Long fxRateVersion,
+        LocalDateTime createdOn,
+        LocalDateTime modifiedOn
+) {}
@@ -0,0 +1,43 @@
+package smartit_task.bank_service.reactive.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Row of the {@code accounts} table owned by the MVC service; this module never creates or
+ * migrates the schema. Balances are only changed through the conditional updates in
+ * {@link smartit_task.bank_service.reactive.service.TransferService}.
+ */
+@Getter
+@Setter
+@Table("accounts")
+public class Account {
+
+    public static final String DEFAULT_CURRENCY = "EUR";
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    private String iban;
+
+    private String currency;
+
+    private AccountStatus status;
+
+    private BigDecimal availableAmount;
+
+    private BigDecimal heldAmount;
+
+    private BigDecimal openingAmount;
+
+    private LocalDateTime createdOn;
+
+    private LocalDateTime modifiedOn;
+}
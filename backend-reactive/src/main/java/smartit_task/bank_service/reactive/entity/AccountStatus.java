@@ -0,0 +1,8 @@
+package smartit_task.bank_service.reactive.entity;
+
+public enum AccountStatus {
+    ACTIVE,
+    FROZEN,
+    /** Deleted through the servlet API; hidden here as well until it is purged. */
+    CLOSED
+}
@@ -0,0 +1,49 @@
+package smartit_task.bank_service.reactive.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Table("transfers")
+@NoArgsConstructor
+public class Transfer {
+
+    @Id
+    private Long id;
+
+    private Long accountId;
+
+    private Long beneficiaryAccountId;
+
+    private TransferType type;
+
+    private BigDecimal amount;
+
+    private String currency;
+
+    /** Set by the MVC service on transfers between currencies; this module does not convert. */
+    private BigDecimal fxRate;
+
+    private Long fxRateVersion;
+
+    private LocalDateTime createdOn;
+
+    private LocalDateTime modifiedOn;
+
+    private String idempotencyKey;
+
+    public Transfer(Long accountId, Long beneficiaryAccountId, TransferType type, BigDecimal amount, String currency) {
+        this.accountId = accountId;
+        this.beneficiaryAccountId = beneficiaryAccountId;
+        this.type = type;
+        this.amount = amount;
+        this.currency = currency;
+    }
+}
@@ -0,0 +1,6 @@
+package smartit_task.bank_service.reactive.entity;
+
+public enum TransferType {
+    CREDIT,
+    DEBIT
+}
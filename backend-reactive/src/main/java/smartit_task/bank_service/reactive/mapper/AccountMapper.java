@@ -0,0 +1,23 @@
+package smartit_task.bank_service.reactive.mapper;
+
+import smartit_task.bank_service.reactive.dto.AccountResponse;
+import smartit_task.bank_service.reactive.entity.Account;
+
+public final class AccountMapper {
+
+    private AccountMapper() {}
+
+    public static AccountResponse toResponse(Account e) {
+        return new AccountResponse(
+                e.getId(),
+                e.getName(),
+                e.getIban(),
+                e.getCurrency(),
+                e.getStatus(),
+                e.getAvailableAmount(),
+                e.getHeldAmount(),
+                e.getCreatedOn(),
+                e.getModifiedOn()
+        );
+    }
+}
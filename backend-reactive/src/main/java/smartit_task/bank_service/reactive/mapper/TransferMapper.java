@@ -0,0 +1,24 @@
+package smartit_task.bank_service.reactive.mapper;
+
+import smartit_task.bank_service.reactive.dto.TransferResponse;
+import smartit_task.bank_service.reactive.entity.Transfer;
+
+public final class TransferMapper {
+
+    private TransferMapper() {}
+
+    public static TransferResponse toResponse(Transfer t) {
+        return new TransferResponse(
+                t.getId(),
+                t.getAccountId(),
+                t.getBeneficiaryAccountId(),
+                t.getType(),
+                t.getAmount(),
+                t.getCurrency(),
+                t.getFxRate(),
+                t.getFxRateVersion(),
+                t.getCreatedOn(),
+                t.getModifiedOn()
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package smartit_task.bank_service.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import smartit_task.bank_service.reactive.entity.Account;
+
+@Repository
+public interface AccountRepository extends ReactiveCrudRepository<Account, Long> {
+
+    @Query("SELECT * FROM accounts WHERE status <> 'CLOSED' ORDER BY id")
+    Flux<Account> findAllOrdered();
+
+    @Query("SELECT * FROM accounts WHERE id = :id AND status <> 'CLOSED' FOR UPDATE")
+    Mono<Account> lockById(Long id);
+
+    Mono<Boolean> existsByName(String name);
+
+    Mono<Boolean> existsByIban(String iban);
+}
@@ -0,0 +1,22 @@
+package smartit_task.bank_service.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import smartit_task.bank_service.reactive.entity.Transfer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface TransferRepository extends ReactiveCrudRepository<Transfer, Long> {
+
+    @Query("SELECT * FROM transfers WHERE account_id = :accountId OR beneficiary_account_id = :accountId ORDER BY created_on DESC")
+    Flux<Transfer> findAllTransfersByAccountId(Long accountId);
+
+    @Query("SELECT coalesce(sum(amount), 0) FROM transfers " +
+            "WHERE account_id = :accountId AND type = 'DEBIT' AND created_on >= :since")
+    Mono<BigDecimal> sumDebitsSince(Long accountId, LocalDateTime since);
+}
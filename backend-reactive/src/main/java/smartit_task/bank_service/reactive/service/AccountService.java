@@ -0,0 +1,81 @@
+package smartit_task.bank_service.reactive.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import smartit_task.bank_service.reactive.dto.AccountCreateRequest;
+import smartit_task.bank_service.reactive.entity.Account;
+import smartit_task.bank_service.reactive.entity.AccountStatus;
+import smartit_task.bank_service.reactive.repository.AccountRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class AccountService {
+
+    private final AccountRepository accountRepository;
+    private final DatabaseClient db;
+
+    public Flux<Account> getAllAccounts() {
+        return accountRepository.findAllOrdered();
+    }
+
+    public Mono<Account> getAccountById(Long id) {
+        return accountRepository.findById(id).filter(a -> a.getStatus() != AccountStatus.CLOSED);
+    }
+
+    public Mono<Account> createAccount(AccountCreateRequest req) {
+        final String name = req.name().trim();
+        final String iban = req.iban().trim();
+
+        return accountRepository.existsByName(name)
+                .flatMap(taken -> taken
+                        ? Mono.error(new IllegalArgumentException("Account with name '" + name + "' already exists"))
+                        : accountRepository.existsByIban(iban))
+                .flatMap(taken -> {
+                    if (taken) {
+                        return Mono.error(new IllegalArgumentException("Account with IBAN '" + iban + "' already exists"));
+                    }
+                    LocalDateTime now = LocalDateTime.now();
+                    BigDecimal initial = req.initialAmount() == null ? BigDecimal.ZERO : req.initialAmount();
+                    Account a = new Account();
+                    a.setName(req.name());
+                    a.setIban(req.iban());
+                    a.setCurrency(Account.DEFAULT_CURRENCY);
+                    a.setStatus(AccountStatus.ACTIVE);
+                    a.setAvailableAmount(initial);
+                    a.setHeldAmount(BigDecimal.ZERO);
+                    a.setOpeningAmount(initial);
+                    a.setCreatedOn(now);
+                    a.setModifiedOn(now);
+                    return accountRepository.save(a);
+                })
+                .onErrorMap(DataIntegrityViolationException.class,
+                        ex -> new IllegalArgumentException("Account with same name or IBAN already exists", ex));
+    }
+
+    public Mono<Account> freezeAccount(Long id) {
+        return setStatus(id, AccountStatus.FROZEN);
+    }
+
+    public Mono<Account> unfreezeAccount(Long id) {
+        return setStatus(id, AccountStatus.ACTIVE);
+    }
+
+    /** A single UPDATE, so a concurrent transfer's balance change on the same row is never overwritten. */
+    private Mono<Account> setStatus(Long id, AccountStatus status) {
+        return db.sql("UPDATE accounts SET status = :status, modified_on = :now WHERE id = :id AND status <> 'CLOSED'")
+                .bind("status", status.name())
+                .bind("now", LocalDateTime.now())
+                .bind("id", id)
+                .fetch().rowsUpdated()
+                .flatMap(rows -> rows == 0
+                        ? Mono.error(new IllegalArgumentException("Account not found with id: " + id))
+                        : accountRepository.findById(id));
+    }
+}
@@ -0,0 +1,73 @@
+package smartit_task.bank_service.reactive.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * The MVC service's {@code idempotency_keys} table, hashed the same way so a key used on either
+ * stack replays on the other. Expired keys are purged by the MVC service.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    public record Entry(long transferId, long fingerprint) {}
+
+    private final DatabaseClient db;
+    private final Duration ttl;
+
+    public IdempotencyKeyStore(DatabaseClient db, @Value("${app.idempotency.ttl:P1D}") Duration ttl) {
+        this.db = db;
+        this.ttl = ttl;
+    }
+
+    public static byte[] keyHash(long accountId, String key) {
+        MessageDigest sha = sha256();
+        sha.update(ByteBuffer.allocate(Long.BYTES).putLong(accountId).array());
+        sha.update(key.getBytes(StandardCharsets.UTF_8));
+        return Arrays.copyOf(sha.digest(), 16);
+    }
+
+    public static long fingerprint(long fromAccountId, long toAccountId, BigDecimal amount) {
+        MessageDigest sha = sha256();
+        sha.update(ByteBuffer.allocate(2 * Long.BYTES).putLong(fromAccountId).putLong(toAccountId).array());
+        sha.update(amount.stripTrailingZeros().toPlainString().getBytes(StandardCharsets.US_ASCII));
+        return ByteBuffer.wrap(sha.digest()).getLong();
+    }
+
+    public Mono<Entry> find(byte[] keyHash) {
+        return db.sql("SELECT transfer_id, fingerprint FROM idempotency_keys WHERE key_hash = :hash")
+                .bind("hash", keyHash)
+                .map(row -> new Entry(row.get("transfer_id", Long.class), row.get("fingerprint", Long.class)))
+                .one();
+    }
+
+    /** Fails with a duplicate-key error if the key is already stored. */
+    public Mono<Long> remember(byte[] keyHash, long fingerprint, long transferId) {
+        return db.sql("INSERT INTO idempotency_keys (key_hash, transfer_id, fingerprint, expires_at) " +
+                        "VALUES (:hash, :transferId, :fingerprint, :expiresAt)")
+                .bind("hash", keyHash)
+                .bind("transferId", transferId)
+                .bind("fingerprint", fingerprint)
+                .bind("expiresAt", LocalDateTime.now().plus(ttl))
+                .fetch().rowsUpdated();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package smartit_task.bank_service.reactive.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import smartit_task.bank_service.reactive.dto.TransferResponse;
+import smartit_task.bank_service.reactive.entity.Account;
+import smartit_task.bank_service.reactive.entity.AccountStatus;
+import smartit_task.bank_service.reactive.entity.Transfer;
+import smartit_task.bank_service.reactive.entity.TransferType;
+import smartit_task.bank_service.reactive.mapper.TransferMapper;
+import smartit_task.bank_service.reactive.repository.AccountRepository;
+import smartit_task.bank_service.reactive.repository.TransferRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The transfer flow of the MVC service without a blocked thread per request.
+ *
+ * <p>Both accounts are locked with {@code SELECT ... FOR UPDATE} in id order, then the
+ * DEBIT/CREDIT rows, the outbox event and the daily rollups are written in the same R2DBC
+ * transaction, so rows produced here are indistinguishable from those written by the MVC
+ * service against the same database. A request waiting on a row lock holds a pooled
+ * connection but no event-loop thread.
+ *
+ * <p>The MVC service keeps velocity limits in memory and confirms near the limit against the
+ * transfers table; this module has no in-memory windows and always does the table check,
+ * under the lock, when a limit is configured. Limits are in the base currency of
+ * {@code fx_rates}, converted to the source account's currency at the stored rate, as there.
+ *
+ * <p>FX rates live only in the MVC service, so transfers between accounts in different
+ * currencies are rejected here.
+ */
+@Service
+public class TransferService {
+
+    private static final String TRANSFER_CREATED = "TransferCreated";
+
+    record TransferCreatedPayload(TransferResponse debit, TransferResponse credit) {}
+
+    private final AccountRepository accountRepository;
+    private final TransferRepository transferRepository;
+    private final IdempotencyKeyStore idempotencyKeys;
+    private final DatabaseClient db;
+    private final TransactionalOperator tx;
+    private final ObjectMapper objectMapper;
+    private final BigDecimal perMinuteLimit;
+    private final BigDecimal dailyLimit;
+
+    public TransferService(AccountRepository accountRepository,
+                           TransferRepository transferRepository,
+                           IdempotencyKeyStore idempotencyKeys,
+                           DatabaseClient db,
+                           TransactionalOperator tx,
+                           ObjectMapper objectMapper,
+                           @Value("${app.limits.per-minute-amount:0}") BigDecimal perMinuteLimit,
+                           @Value("${app.limits.daily-amount:0}") BigDecimal dailyLimit) {
+        this.accountRepository = accountRepository;
+        this.transferRepository = transferRepository;
+        this.idempotencyKeys = idempotencyKeys;
+        this.db = db;
+        this.tx = tx;
+        this.objectMapper = objectMapper;
+        this.perMinuteLimit = perMinuteLimit;
+        this.dailyLimit = dailyLimit;
+    }
+
+    public Flux<Transfer> getAllTransfers() {
+        return transferRepository.findAll();
+    }
+
+    public Flux<Transfer> getAllTransfersByAccountId(Long accountId) {
+        return transferRepository.findAllTransfersByAccountId(accountId);
+    }
+
+    public Mono<Transfer> getTransferById(Long id) {
+        return transferRepository.findById(id);
+    }
+
+    public Mono<Transfer> createTransfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String idemKey) {
+        if (fromAccountId.equals(toAccountId)) {
+            return Mono.error(new IllegalArgumentException("Cannot transfer to the same account"));
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return Mono.error(new IllegalArgumentException("Transfer amount must be positive"));
+        }
+
+        if (idemKey == null || idemKey.isBlank()) {
+            return book(fromAccountId, toAccountId, amount, null, 0).as(tx::transactional);
+        }
+
+        // a concurrent request with the same key fails on the key's primary key and rolls back
+        byte[] keyHash = IdempotencyKeyStore.keyHash(fromAccountId, idemKey);
+        long fingerprint = IdempotencyKeyStore.fingerprint(fromAccountId, toAccountId, amount);
+        return replay(keyHash, fingerprint)
+                .switchIfEmpty(Mono.defer(() ->
+                        book(fromAccountId, toAccountId, amount, keyHash, fingerprint).as(tx::transactional)))
+                .onErrorResume(DataIntegrityViolationException.class, dup ->
+                        replay(keyHash, fingerprint).switchIfEmpty(Mono.error(dup)));
+    }
+
+    private Mono<Transfer> replay(byte[] keyHash, long fingerprint) {
+        return idempotencyKeys.find(keyHash)
+                .flatMap(entry -> entry.fingerprint() == fingerprint
+                        ? transferRepository.findById(entry.transferId())
+                        : Mono.error(new IllegalArgumentException("Idempotency key was already used for a different transfer")));
+    }
+
+    public Mono<Transfer> createTransfer(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        return createTransfer(fromAccountId, toAccountId, amount, null);
+    }
+
+    private Mono<Transfer> book(Long fromAccountId, Long toAccountId, BigDecimal amount, byte[] keyHash, long fingerprint) {
+        Long firstId  = fromAccountId < toAccountId ? fromAccountId : toAccountId;
+        Long secondId = fromAccountId < toAccountId ? toAccountId   : fromAccountId;
+
+        return lock(firstId)
+                .zipWhen(first -> lock(secondId))
+                .flatMap(locked -> {
+                    Account fromAccount = fromAccountId.equals(firstId) ? locked.getT1() : locked.getT2();
+                    Account toAccount   = toAccountId.equals(secondId) ? locked.getT2() : locked.getT1();
+
+                    if (fromAccount.getStatus() == AccountStatus.FROZEN) {
+                        return Mono.error(new IllegalArgumentException("Source account is frozen"));
+                    }
+                    if (toAccount.getStatus() == AccountStatus.FROZEN) {
+                        return Mono.error(new IllegalArgumentException("Destination account is frozen"));
+                    }
+                    if (!fromAccount.getCurrency().equals(toAccount.getCurrency())) {
+                        return Mono.error(new IllegalArgumentException("Cross-currency transfers are not supported by this service"));
+                    }
+                    if (fromAccount.getAvailableAmount().compareTo(amount) < 0) {
+                        return Mono.error(new IllegalArgumentException("Insufficient funds in source account"));
+                    }
+                    return checkLimits(fromAccountId, amount, fromAccount.getCurrency())
+                            .then(Mono.defer(() -> write(fromAccountId, toAccountId, amount, fromAccount.getCurrency(),
+                                    keyHash, fingerprint)));
+                });
+    }
+
+    private Mono<Account> lock(Long id) {
+        return accountRepository.lockById(id)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Account not found with id: " + id)));
+    }
+
+    private Mono<Void> checkLimits(Long accountId, BigDecimal amount, String currency) {
+        if (!enabled(perMinuteLimit) && !enabled(dailyLimit)) {
+            return Mono.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return perBase(currency).flatMap(rate ->
+                checkLimit(accountId, amount, perMinuteLimit, rate, now.minusMinutes(1), "Per-minute")
+                        .then(checkLimit(accountId, amount, dailyLimit, rate, now.minusDays(1), "Daily")));
+    }
+
+    /** Units of {@code currency} per one unit of the base currency the limits are set in. */
+    private Mono<BigDecimal> perBase(String currency) {
+        if (currency.equals(Account.DEFAULT_CURRENCY)) {
+            return Mono.just(BigDecimal.ONE);
+        }
+        return db.sql("SELECT per_base FROM fx_rates WHERE currency = :currency")
+                .bind("currency", currency)
+                .map(row -> row.get("per_base", BigDecimal.class))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("No FX rate for " + currency)));
+    }
+
+    private static boolean enabled(BigDecimal limit) {
+        return limit != null && limit.signum() > 0;
+    }
+
+    private Mono<Void> checkLimit(Long accountId, BigDecimal amount, BigDecimal limit, BigDecimal perBase,
+                                  LocalDateTime since, String label) {
+        if (!enabled(limit)) {
+            return Mono.empty();
+        }
+        BigDecimal local = limit.multiply(perBase);
+        return transferRepository.sumDebitsSince(accountId, since)
+                .flatMap(spent -> spent.add(amount).compareTo(local) > 0
+                        ? Mono.error(new IllegalArgumentException(label + " transfer limit exceeded for account " + accountId))
+                        : Mono.empty());
+    }
+
+    private Mono<Transfer> write(Long fromAccountId, Long toAccountId, BigDecimal amount, String currency,
+                                 byte[] keyHash, long fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        Transfer debit = transfer(fromAccountId, toAccountId, TransferType.DEBIT, amount, currency, now);
+        Transfer credit = transfer(toAccountId, fromAccountId, TransferType.CREDIT, amount, currency, now);
+
+        return transferRepository.save(debit)
+                .zipWhen(d -> transferRepository.save(credit))
+                .flatMap(saved -> adjust(fromAccountId, amount.negate(), now)
+                        .then(adjust(toAccountId, amount, now))
+                        .then(outbox(saved.getT1(), saved.getT2(), now))
+                        .then(rollup(saved.getT1()))
+                        .then(rollup(saved.getT2()))
+                        .then(keyHash == null ? Mono.empty() : idempotencyKeys.remember(keyHash, fingerprint, saved.getT1().getId()))
+                        .thenReturn(saved.getT1()));
+    }
+
+    private static Transfer transfer(Long accountId, Long beneficiaryId, TransferType type, BigDecimal amount,
+                                     String currency, LocalDateTime now) {
+        Transfer t = new Transfer(accountId, beneficiaryId, type, amount, currency);
+        t.setCreatedOn(now);
+        t.setModifiedOn(now);
+        return t;
+    }
+
+    private Mono<Long> adjust(Long accountId, BigDecimal delta, LocalDateTime now) {
+        return db.sql("UPDATE accounts SET available_amount = available_amount + :delta, modified_on = :now WHERE id = :id")
+                .bind("delta", delta)
+                .bind("now", now)
+                .bind("id", accountId)
+                .fetch().rowsUpdated();
+    }
+
+    private Mono<Long> outbox(Transfer debit, Transfer credit, LocalDateTime now) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(
+                    new TransferCreatedPayload(TransferMapper.toResponse(debit), TransferMapper.toResponse(credit)));
+        } catch (JsonProcessingException ex) {
+            return Mono.error(new IllegalStateException("Could not serialize outbox payload", ex));
+        }
+        return db.sql("INSERT INTO outbox_events (event_type, aggregate_id, payload, created_on) " +
+                        "VALUES (:type, :aggregateId, :payload, :now)")
+                .bind("type", TRANSFER_CREATED)
+                .bind("aggregateId", debit.getId())
+                .bind("payload", payload)
+                .bind("now", now)
+                .fetch().rowsUpdated();
+    }
+
+    /** The account row lock is held, so the day's row cannot be inserted concurrently for this account. */
+    private Mono<Long> rollup(Transfer t) {
+        boolean isDebit = t.getType() == TransferType.DEBIT;
+        long debitCount = isDebit ? 1 : 0;
+        long creditCount = isDebit ? 0 : 1;
+        BigDecimal debitAmount = isDebit ? t.getAmount() : BigDecimal.ZERO;
+        BigDecimal creditAmount = isDebit ? BigDecimal.ZERO : t.getAmount();
+        var day = t.getCreatedOn().toLocalDate();
+
+        return db.sql("UPDATE transfer_daily_rollups SET debit_count = debit_count + :dc, debit_amount = debit_amount + :da, " +
+                        "credit_count = credit_count + :cc, credit_amount = credit_amount + :ca " +
+                        "WHERE account_id = :accountId AND business_date = :day")
+                .bind("dc", debitCount).bind("da", debitAmount)
+                .bind("cc", creditCount).bind("ca", creditAmount)
+                .bind("accountId", t.getAccountId()).bind("day", day)
+                .fetch().rowsUpdated()
+                .flatMap(rows -> rows > 0 ? Mono.just(rows) : db.sql("INSERT INTO transfer_daily_rollups " +
+                                "(debit_count, debit_amount, credit_count, credit_amount, account_id, business_date) " +
+                                "VALUES (:dc, :da, :cc, :ca, :accountId, :day)")
+                        .bind("dc", debitCount).bind("da", debitAmount)
+                        .bind("cc", creditCount).bind("ca", creditAmount)
+                        .bind("accountId", t.getAccountId()).bind("day", day)
+                        .fetch().rowsUpdated());
+    }
+}
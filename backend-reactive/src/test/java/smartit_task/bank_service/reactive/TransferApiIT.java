@@ -0,0 +1,167 @@
+package smartit_task.bank_service.reactive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import smartit_task.bank_service.reactive.dto.AccountCreateRequest;
+import smartit_task.bank_service.reactive.dto.AccountResponse;
+import smartit_task.bank_service.reactive.dto.TransferCreateRequest;
+import smartit_task.bank_service.reactive.dto.TransferResponse;
+import smartit_task.bank_service.reactive.entity.Account;
+import smartit_task.bank_service.reactive.service.AccountService;
+import smartit_task.bank_service.reactive.service.TransferService;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TransferApiIT {
+
+    @Autowired WebTestClient client;
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired DatabaseClient db;
+
+    @BeforeEach
+    void setUp() {
+        Flux.concat(
+                db.sql("DELETE FROM transfer_daily_rollups").then(),
+                db.sql("DELETE FROM outbox_events").then(),
+                db.sql("DELETE FROM transfers").then(),
+                db.sql("DELETE FROM idempotency_keys").then(),
+                db.sql("DELETE FROM accounts").then()
+        ).blockLast();
+    }
+
+    private AccountResponse create(String name, String iban, String amount) {
+        return client.post().uri("/api/accounts")
+                .bodyValue(new AccountCreateRequest(name, iban, new BigDecimal(amount)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AccountResponse.class).returnResult().getResponseBody();
+    }
+
+    private BigDecimal balance(Long id) {
+        return accountService.getAccountById(id).map(Account::getAvailableAmount).block();
+    }
+
+    private long count(String sql) {
+        return db.sql(sql).map(row -> ((Number) row.get(0)).longValue()).one().block();
+    }
+
+    @Test
+    void transfer_movesFunds_writesLedgerOutboxAndRollups_andReplaysByKey() {
+        var from = create("Alice", "BG00REAC00000000000001", "100.00");
+        var to = create("Bob", "BG00REAC00000000000002", "0");
+
+        var first = client.post().uri("/api/transfers")
+                .header("Idempotency-Key", "k-1")
+                .bodyValue(new TransferCreateRequest(from.id(), to.id(), new BigDecimal("40.00")))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(TransferResponse.class).returnResult().getResponseBody();
+        var replay = client.post().uri("/api/transfers")
+                .header("Idempotency-Key", "k-1")
+                .bodyValue(new TransferCreateRequest(from.id(), to.id(), new BigDecimal("40.00")))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(TransferResponse.class).returnResult().getResponseBody();
+
+        assertThat(replay.id()).isEqualTo(first.id());
+        assertThat(first.currency()).isEqualTo("EUR");
+        client.post().uri("/api/transfers")
+                .header("Idempotency-Key", "k-1")
+                .bodyValue(new TransferCreateRequest(from.id(), to.id(), new BigDecimal("41.00")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(balance(from.id())).isEqualByComparingTo("60.00");
+        assertThat(balance(to.id())).isEqualByComparingTo("40.00");
+        assertThat(count("SELECT count(*) FROM transfers")).isEqualTo(2);
+        assertThat(count("SELECT count(*) FROM idempotency_keys")).isEqualTo(1);
+        assertThat(count("SELECT count(*) FROM outbox_events")).isEqualTo(1);
+        assertThat(count("SELECT sum(debit_count + credit_count) FROM transfer_daily_rollups")).isEqualTo(2);
+
+        client.get().uri("/api/transfers/account/{id}", from.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Map.class).hasSize(2);
+    }
+
+    @Test
+    void rejectedTransfers_return400_andChangeNothing() {
+        var from = create("Carol", "BG00REAC00000000000003", "10.00");
+        var to = create("Dave", "BG00REAC00000000000004", "0");
+
+        client.post().uri("/api/transfers")
+                .bodyValue(new TransferCreateRequest(from.id(), to.id(), new BigDecimal("10.01")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST)
+                .expectBody().jsonPath("$.message").isEqualTo("Insufficient funds in source account");
+
+        client.put().uri("/api/accounts/{id}/freeze", to.id()).exchange().expectStatus().isOk();
+        client.post().uri("/api/transfers")
+                .bodyValue(new TransferCreateRequest(from.id(), to.id(), new BigDecimal("1.00")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST)
+                .expectBody().jsonPath("$.message").isEqualTo("Destination account is frozen");
+
+        var dollars = create("Erin", "BG00REAC00000000000005", "0");
+        db.sql("UPDATE accounts SET currency = 'USD' WHERE id = :id").bind("id", dollars.id()).then().block();
+        client.post().uri("/api/transfers")
+                .bodyValue(new TransferCreateRequest(from.id(), dollars.id(), new BigDecimal("1.00")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST)
+                .expectBody().jsonPath("$.message").isEqualTo("Cross-currency transfers are not supported by this service");
+
+        client.post().uri("/api/transfers")
+                .bodyValue(new TransferCreateRequest(from.id(), 999_999L, new BigDecimal("1.00")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST);
+
+        assertThat(balance(from.id())).isEqualByComparingTo("10.00");
+        assertThat(count("SELECT count(*) FROM transfers")).isZero();
+        assertThat(count("SELECT count(*) FROM outbox_events")).isZero();
+    }
+
+    @Test
+    void concurrentTransfersInBothDirections_conserveTotalBalance() {
+        List<Long> ids = Flux.range(0, 4)
+                .concatMap(i -> accountService.createAccount(new AccountCreateRequest(
+                        "Conc" + i, "BG00CONC0000000000000" + i, new BigDecimal("1000.00"))))
+                .map(Account::getId)
+                .collectList().block();
+
+        int transfers = 200;
+        List<Boolean> outcomes = Flux.range(0, transfers)
+                .flatMap(i -> {
+                    int a = ThreadLocalRandom.current().nextInt(4);
+                    int b = (a + 1 + ThreadLocalRandom.current().nextInt(3)) % 4;
+                    return transferService.createTransfer(ids.get(a), ids.get(b), new BigDecimal("7.50"))
+                            .thenReturn(true)
+                            .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(false));
+                }, 32)
+                .collectList().block();
+
+        long succeeded = outcomes.stream().filter(ok -> ok).count();
+        BigDecimal total = Flux.fromIterable(ids).concatMap(accountService::getAccountById)
+                .map(Account::getAvailableAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add).block();
+
+        assertThat(total).isEqualByComparingTo("4000.00");
+        assertThat(count("SELECT count(*) FROM transfers")).isEqualTo(succeeded * 2);
+        assertThat(count("SELECT count(*) FROM outbox_events")).isEqualTo(succeeded);
+        assertThat(count("SELECT sum(debit_count) FROM transfer_daily_rollups")).isEqualTo(succeeded);
+    }
+}
@@ -0,0 +1,133 @@
+package smartit_task.bank_service.reactive.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-loop-ish load against {@code POST /api/transfers} of either stack, for comparing the MVC
+ * service (port 8080) with this module (port 8081) on the same database:
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=smartit_task.bank_service.reactive.loadtest.TransferLoadGenerator \
+ *     -Dexec.args="http://localhost:8081 --accounts 20 --concurrency 512 --seconds 60"
+ * </pre>
+ *
+ * Creates its own accounts, keeps {@code --concurrency} requests in flight and prints
+ * throughput, status counts and latency percentiles. Few accounts means heavy row-lock
+ * contention, which is where the two stacks differ most.
+ */
+public final class TransferLoadGenerator {
+
+    private TransferLoadGenerator() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("usage: TransferLoadGenerator <baseUrl> [--accounts N] [--concurrency N] [--seconds N] [--warmup N]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        Map<String, Integer> opts = new HashMap<>(Map.of("accounts", 20, "concurrency", 256, "seconds", 30, "warmup", 5));
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), Integer.parseInt(args[i + 1]));
+        }
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(8))
+                .build();
+        ObjectMapper json = new ObjectMapper();
+        List<Long> ids = createAccounts(http, json, baseUrl, opts.get("accounts"));
+
+        System.out.printf("warming up for %ds%n", opts.get("warmup"));
+        run(http, baseUrl, ids, opts.get("concurrency"), opts.get("warmup"));
+        Result r = run(http, baseUrl, ids, opts.get("concurrency"), opts.get("seconds"));
+        r.print(baseUrl, opts);
+    }
+
+    private static List<Long> createAccounts(HttpClient http, ObjectMapper json, String baseUrl, int n) throws Exception {
+        String run = Long.toString(System.currentTimeMillis(), 36).toUpperCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String body = json.writeValueAsString(Map.of(
+                    "name", "load-" + run + "-" + i,
+                    "iban", String.format("BG00LOAD%s%06d", run, i),
+                    "initialAmount", "1000000.00"));
+            HttpResponse<String> res = http.send(post(baseUrl + "/api/accounts", body), HttpResponse.BodyHandlers.ofString());
+            if (res.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Could not create account: " + res.statusCode() + " " + res.body());
+            }
+            JsonNode node = json.readTree(res.body());
+            ids.add(node.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private static Result run(HttpClient http, String baseUrl, List<Long> ids, int concurrency, int seconds)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        Result result = new Result();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long start = System.nanoTime();
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            int a = ThreadLocalRandom.current().nextInt(ids.size());
+            int b = (a + 1 + ThreadLocalRandom.current().nextInt(ids.size() - 1)) % ids.size();
+            String body = "{\"fromAccountId\":" + ids.get(a) + ",\"toAccountId\":" + ids.get(b) + ",\"amount\":\"0.01\"}";
+            long sent = System.nanoTime();
+            http.sendAsync(post(baseUrl + "/api/transfers", body), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((res, err) -> {
+                        result.record(res == null ? -1 : res.statusCode(), System.nanoTime() - sent);
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static final class Result {
+        final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        final ConcurrentHashMap<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        long elapsedNanos;
+
+        void record(int status, long nanos) {
+            latencies.add(nanos);
+            statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+        }
+
+        void print(String baseUrl, Map<String, Integer> opts) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double secs = elapsedNanos / 1e9;
+            System.out.printf("%s accounts=%d concurrency=%d%n", baseUrl, opts.get("accounts"), opts.get("concurrency"));
+            System.out.printf("requests=%d  throughput=%.1f req/s  statuses=%s%n", sorted.length, sorted.length / secs, statuses);
+            System.out.printf("latency ms  p50=%.1f  p95=%.1f  p99=%.1f  max=%.1f%n",
+                    pct(sorted, 0.50), pct(sorted, 0.95), pct(sorted, 0.99), pct(sorted, 1.0));
+        }
+
+        private static double pct(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int i = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, i)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+-- Mirrors the tables the MVC service generates; in production that service owns the schema.
+CREATE TABLE IF NOT EXISTS accounts (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(120) NOT NULL,
+    iban VARCHAR(34) NOT NULL,
+    currency VARCHAR(3) DEFAULT 'EUR' NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    available_amount NUMERIC(19, 2) NOT NULL,
+    held_amount NUMERIC(19, 2) NOT NULL,
+    opening_amount NUMERIC(19, 2) NOT NULL,
+    created_on TIMESTAMP NOT NULL,
+    modified_on TIMESTAMP NOT NULL,
+    CONSTRAINT uk_accounts_name UNIQUE (name),
+    CONSTRAINT uk_accounts_iban UNIQUE (iban)
+);
+
+CREATE TABLE IF NOT EXISTS transfers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    beneficiary_account_id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    amount NUMERIC(19, 2) NOT NULL,
+    currency VARCHAR(3) DEFAULT 'EUR' NOT NULL,
+    fx_rate NUMERIC(24, 12),
+    fx_rate_version BIGINT,
+    created_on TIMESTAMP NOT NULL,
+    modified_on TIMESTAMP NOT NULL,
+    idempotency_key VARCHAR(64)
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    key_hash VARBINARY(16) PRIMARY KEY,
+    transfer_id BIGINT NOT NULL,
+    fingerprint BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS fx_rates (
+    currency VARCHAR(3) PRIMARY KEY,
+    per_base NUMERIC(24, 12) NOT NULL,
+    version BIGINT NOT NULL,
+    updated_on TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type VARCHAR(64) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created_on TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS transfer_daily_rollups (
+    account_id BIGINT NOT NULL,
+    business_date DATE NOT NULL,
+    debit_count BIGINT NOT NULL,
+    debit_amount NUMERIC(19, 2) NOT NULL,
+    credit_count BIGINT NOT NULL,
+    credit_amount NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (account_id, business_date)
+);
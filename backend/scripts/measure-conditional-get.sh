@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Compares the account list and one account's transfer history fetched three ways against a
+# running backend: plain, gzip-encoded, and revalidated with If-None-Match (304).
+#
+#   scripts/measure-conditional-get.sh
+#
+# Env: BASE (http://localhost:8080), ACCOUNTS (500), TRANSFERS (200), REQUESTS (200).
+# Creates its own accounts and transfers. Run with app.rate-limit.enabled=false and the velocity
+# limits off (app.limits.*=0), or the setup and timing loops hit 429s and refusals.
+set -euo pipefail
+
+BASE=${BASE:-http://localhost:8080}
+ACCOUNTS=${ACCOUNTS:-500}
+TRANSFERS=${TRANSFERS:-200}
+REQUESTS=${REQUESTS:-200}
+
+tag=$(date +%s)
+body=$(seq "$ACCOUNTS" | awk -v t="$tag" 'BEGIN { printf "[" } {
+  printf "%s{\"name\":\"cg-%s-%d\",\"iban\":\"ZZ00CG%s%06d\",\"initialAmount\":100000}", (NR > 1 ? "," : ""), t, $1, t, $1
+} END { printf "]" }')
+ids=$(curl -sf -H 'Content-Type: application/json' "$BASE/api/accounts/batch" -d "$body" |
+  grep -oE '"id":[0-9]+' | cut -d: -f2)
+from=$(echo "$ids" | sed -n 1p)
+to=$(echo "$ids" | sed -n 2p)
+for _ in $(seq "$TRANSFERS"); do
+  curl -sf -o /dev/null -H 'Content-Type: application/json' "$BASE/api/transfers" \
+    -d "{\"fromAccountId\":$from,\"toAccountId\":$to,\"amount\":0.01}"
+done
+
+measure() { # label url curl-args...
+  local label=$1 url=$2
+  shift 2
+  for _ in $(seq "$REQUESTS"); do
+    curl -s -o /dev/null -w '%{size_download} %{http_code} %{time_total}\n' "$@" "$url"
+  done | sort -k3 -n | awk -v l="$label" '{ b = $1; c = $2; t[NR] = $3 * 1000 } END {
+    printf "  %-14s %3s %8d bytes  p50 %6.2f ms  p99 %6.2f ms\n", l, c, b, t[int(NR * 0.5)], t[int(NR * 0.99)]
+  }'
+}
+
+for path in /api/accounts "/api/transfers/account/$to"; do
+  url="$BASE$path"
+  etag=$(curl -sf -o /dev/null -D - "$url" | tr -d '\r' | sed -n 's/^[Ee][Tt]ag: //p')
+  echo "GET $path"
+  measure plain "$url"
+  measure gzip "$url" -H 'Accept-Encoding: gzip'
+  measure if-none-match "$url" -H 'Accept-Encoding: gzip' -H "If-None-Match: $etag"
+done
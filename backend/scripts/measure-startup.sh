@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Starts the backend with the given command, reports the time until the readiness probe is UP,
+# then the latency of the first transfers it serves.
+#
+#   scripts/measure-startup.sh java -jar target/bank-service-0.0.1-SNAPSHOT.jar
+#   scripts/measure-startup.sh java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+#       -jar app/bank-service-0.0.1-SNAPSHOT.jar --spring.profiles.active=fast-startup
+#
+# Env: PORT (8080), TRANSFERS (500). Needs curl; the database must be reachable as usual.
+set -euo pipefail
+
+PORT=${PORT:-8080}
+TRANSFERS=${TRANSFERS:-500}
+BASE="http://localhost:$PORT"
+[ $# -gt 0 ] || { echo "usage: $0 <java command...>" >&2; exit 2; }
+
+start=$(date +%s%N)
+"$@" --server.port="$PORT" --management.endpoint.health.probes.enabled=true > startup.log 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null || true' EXIT
+
+until curl -sf "$BASE/actuator/health/readiness" > /dev/null; do
+  kill -0 $pid 2>/dev/null || { echo "application exited, see startup.log" >&2; exit 1; }
+  sleep 0.05
+done
+ready=$(date +%s%N)
+echo "ready after $(( (ready - start) / 1000000 )) ms"
+
+tag=$(date +%s)
+account() {
+  curl -sf -H 'Content-Type: application/json' "$BASE/api/accounts" \
+    -d "{\"name\":\"measure-$tag-$1\",\"iban\":\"ZZ00MEAS${tag}$1\",\"initialAmount\":1000000}" |
+    sed -E 's/.*"id":([0-9]+).*/\1/'
+}
+from=$(account A)
+to=$(account B)
+
+for _ in $(seq "$TRANSFERS"); do
+  curl -s -o /dev/null -w '%{time_total}\n' -H 'Content-Type: application/json' "$BASE/api/transfers" \
+    -d "{\"fromAccountId\":$from,\"toAccountId\":$to,\"amount\":0.01}"
+done | sort -n | awk '{ t[NR] = $1 * 1000 } END {
+  printf "first %d transfers: p50 %.1f ms, p99 %.1f ms, max %.1f ms\n", NR, t[int(NR * 0.5)], t[int(NR * 0.99)], t[NR]
+}'
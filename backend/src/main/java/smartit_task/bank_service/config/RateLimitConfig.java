@@ -0,0 +1,25 @@
+package smartit_task.bank_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import smartit_task.bank_service.service.limits.ClientRateLimiter;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    // ahead of the security chain, so rejected requests cost as little as possible
+    @Bean
+    FilterRegistrationBean<RateLimitFilter> rateLimitFilter(ClientRateLimiter limiter, ObjectMapper objectMapper,
+                                                            RateLimitProperties properties) {
+        var registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(limiter, objectMapper, properties.getApiKeyHeader(), properties.getApiKeySha256()));
+        registration.addUrlPatterns("/api/*", "/internal/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,101 @@
+package smartit_task.bank_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import smartit_task.bank_service.service.limits.ClientRateLimiter;
+import smartit_task.bank_service.service.limits.ClientRateLimiter.RequestClass;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Applies {@link ClientRateLimiter} to {@code /api/**} and, with its own budget, to
+ * {@code /internal/**}. Over-budget requests get 429 with
+ * {@code Retry-After} in whole seconds before any controller or database work happens.
+ *
+ * <p>Clients are identified by API key when the header carries one of the trusted keys (hashed,
+ * so keys never show up in metrics), otherwise by remote address. Unknown keys are ignored: a
+ * caller inventing a key per request still draws from its address's bucket. Behind a proxy, set
+ * {@code server.forward-headers-strategy} so that is the caller's address.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final ClientRateLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final String apiKeyHeader;
+    private final Set<String> trustedKeys;
+
+    /** @param trustedKeySha256 SHA-256 hex digests of the keys that identify a client */
+    public RateLimitFilter(ClientRateLimiter limiter, ObjectMapper objectMapper, String apiKeyHeader,
+                           Collection<String> trustedKeySha256) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.apiKeyHeader = apiKeyHeader;
+        this.trustedKeys = trustedKeySha256.stream().map(k -> k.trim().toLowerCase()).filter(k -> !k.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limiter.isEnabled() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestClass type = classify(request);
+        ClientRateLimiter.Decision decision = limiter.acquire(clientId(request), type);
+        if (decision.allowed()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.retryAfterNanos() + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message",
+                "Too many " + type.name().toLowerCase() + " requests; retry in " + seconds + " s"));
+    }
+
+    private static RequestClass classify(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith(request.getContextPath() + "/internal/")) {
+            return RequestClass.INTERNAL;
+        }
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())
+                ? RequestClass.READ : RequestClass.WRITE;
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String key = request.getHeader(apiKeyHeader);
+        if (key != null && !key.isBlank() && !trustedKeys.isEmpty()) {
+            String digest = sha256(key);
+            if (trustedKeys.contains(digest)) {
+                return "key:" + digest.substring(0, 12);
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    static String sha256(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package smartit_task.bank_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Requests carrying a trusted key in this header are limited per key; all others per remote address. */
+    private String apiKeyHeader = "X-API-Key";
+
+    /**
+     * SHA-256 hex digests of the keys trusted to identify a client. Any other key is ignored, so
+     * made-up keys cannot buy fresh buckets; with none configured, every client is its address.
+     */
+    private Set<String> apiKeySha256 = new HashSet<>();
+
+    /** Clients tracked individually; once full, new clients share one overflow budget. */
+    private int maxClients = 10_000;
+
+    /** Also count requests per tracked client; up to six series per client, so off by default. */
+    private boolean perClientMetrics = false;
+
+    /** GET and HEAD requests. */
+    private Budget read = new Budget(50, 100);
+
+    /** Every other method: transfers, holds, account changes. */
+    private Budget write = new Budget(10, 20);
+
+    /** Requests to {@code /internal/**}; one request is a whole stream of transfer frames. */
+    private Budget internal = new Budget(1, 4);
+
+    @Getter
+    @Setter
+    public static class Budget {
+        private double perSecond;
+        private int burst;
+
+        public Budget() {
+        }
+
+        public Budget(double perSecond, int burst) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+        }
+    }
+}
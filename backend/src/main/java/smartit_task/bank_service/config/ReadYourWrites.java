@@ -0,0 +1,70 @@
+package smartit_task.bank_service.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * When the current caller last committed a write, as epoch millis. Kept per thread, and per
+ * request on the API: {@link Filter} takes it from the {@value #HEADER} request header and
+ * returns it on the response after a write, so a client that echoes the header reads its
+ * own writes from the primary while everyone else keeps reading from the replica.
+ */
+public final class ReadYourWrites {
+
+    public static final String HEADER = "X-Last-Write";
+
+    private static final class Caller {
+        long lastWriteMillis = Long.MIN_VALUE;
+        HttpServletResponse response;
+    }
+
+    private static final ThreadLocal<Caller> CALLER = ThreadLocal.withInitial(Caller::new);
+
+    private ReadYourWrites() {}
+
+    static long lastWriteMillis() {
+        return CALLER.get().lastWriteMillis;
+    }
+
+    static void writeCommitted(long millis) {
+        Caller caller = CALLER.get();
+        caller.lastWriteMillis = millis;
+        if (caller.response != null && !caller.response.isCommitted()) {
+            caller.response.setHeader(HEADER, Long.toString(millis));
+        }
+    }
+
+    /** Starts each request from the client's own last write instead of whatever the thread saw before. */
+    public static class Filter extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            Caller caller = CALLER.get();
+            caller.lastWriteMillis = parse(request.getHeader(HEADER));
+            caller.response = response;
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                CALLER.remove();
+            }
+        }
+
+        private static long parse(String header) {
+            if (header == null) {
+                return Long.MIN_VALUE;
+            }
+            try {
+                // a client clock ahead of ours must not pin it to the primary
+                return Math.min(Long.parseLong(header.trim()), System.currentTimeMillis());
+            } catch (NumberFormatException ex) {
+                return Long.MIN_VALUE;
+            }
+        }
+    }
+}
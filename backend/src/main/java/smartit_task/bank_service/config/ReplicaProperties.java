@@ -0,0 +1,26 @@
+package smartit_task.bank_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    private int maximumPoolSize = 10;
+
+    /**
+     * After a caller's write commits, that caller's read-only transactions keep going to the
+     * primary for this long, so it reads its own writes as long as replica lag stays below the
+     * window. Over HTTP the caller is whoever sends back the {@code X-Last-Write} header.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+}
@@ -0,0 +1,71 @@
+package smartit_task.bank_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Active only when {@code app.datasource.replica.url} is set; otherwise Boot's single
+ * auto-configured DataSource is used unchanged.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    HikariDataSource replicaDataSource(ReplicaProperties replica) {
+        HikariDataSource ds = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .driverClassName(replica.getDriverClassName())
+                .build();
+        ds.setPoolName("replica");
+        ds.setMaximumPoolSize(replica.getMaximumPoolSize());
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primaryDataSource,
+                          HikariDataSource replicaDataSource,
+                          ReplicaProperties replica) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replica.getReadYourWritesWindow());
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.Route.REPLICA, replicaDataSource
+        ));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    FilterRegistrationBean<ReadYourWrites.Filter> readYourWritesFilter() {
+        var registration = new FilterRegistrationBean<>(new ReadYourWrites.Filter());
+        registration.addUrlPatterns("/api/*", "/internal/*");
+        return registration;
+    }
+}
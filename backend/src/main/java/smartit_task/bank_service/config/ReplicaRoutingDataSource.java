@@ -0,0 +1,47 @@
+package smartit_task.bank_service.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary, except
+ * reads by a caller that committed a write within the window (see {@link ReadYourWrites}).
+ * Must sit behind a LazyConnectionDataSourceProxy, otherwise the connection is fetched
+ * before the transaction's read-only flag is visible.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final long readYourWritesWindowMillis;
+
+    public ReplicaRoutingDataSource(Duration readYourWritesWindow) {
+        this.readYourWritesWindowMillis = readYourWritesWindow.toMillis();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return isWithinReadYourWritesWindow() ? Route.PRIMARY : Route.REPLICA;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        ReadYourWrites.writeCommitted(System.currentTimeMillis());
+                    }
+                }
+            });
+        }
+        return Route.PRIMARY;
+    }
+
+    boolean isWithinReadYourWritesWindow() {
+        long last = ReadYourWrites.lastWriteMillis();
+        return last != Long.MIN_VALUE && System.currentTimeMillis() - last < readYourWritesWindowMillis;
+    }
+}
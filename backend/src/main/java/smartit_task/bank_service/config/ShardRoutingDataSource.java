@@ -0,0 +1,18 @@
+package smartit_task.bank_service.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+/**
+ * Hands out connections of the shard bound by {@link ShardRouter#onShard}, or of shard 0 when
+ * none is bound. Like the replica router it must sit behind a LazyConnectionDataSourceProxy,
+ * so the shard is looked up when the first statement runs rather than when a transaction opens.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardRouter.currentShard();
+        return shard == null ? 0 : shard;
+    }
+}
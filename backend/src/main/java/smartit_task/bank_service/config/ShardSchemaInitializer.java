@@ -0,0 +1,70 @@
+package smartit_task.bank_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Hibernate runs {@code ddl-auto} against shard 0 only. This applies the same schema action to
+ * every other shard and then moves each shard's identity columns to the start of its id range,
+ * so ids stay globally unique and {@link ShardRouter#shardOf} can place any id.
+ */
+@Slf4j
+class ShardSchemaInitializer implements Integrator {
+
+    private static final List<String> RANGED_TABLES = List.of("accounts", "transfers", "transfer_sagas");
+
+    private final ShardRouter router;
+    private final JdbcTemplate jdbc;
+
+    ShardSchemaInitializer(ShardRouter router, DataSource dataSource) {
+        this.router = router;
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            int s = shard;
+            router.onShard(s, () -> {
+                if (s > 0) {
+                    SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                            sessionFactory.getProperties(), action -> { });
+                }
+                RANGED_TABLES.forEach(table -> moveIdentity(table, router.idBase(s)));
+                return null;
+            });
+        }
+    }
+
+    private void moveIdentity(String table, long base) {
+        if (base == 0) {
+            return;
+        }
+        Long max = jdbc.queryForObject("SELECT coalesce(max(id), 0) FROM " + table, Long.class);
+        if (max != null && max > base) {
+            return;
+        }
+        String product = jdbc.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equalsIgnoreCase(product)) {
+            jdbc.queryForObject("SELECT setval(pg_get_serial_sequence(?, 'id'), ?, false)", Long.class, table, base + 1);
+        } else {
+            jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (base + 1));
+        }
+        log.debug("Identity of {} on shard starting at {}", table, base + 1);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,71 @@
+package smartit_task.bank_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * With {@code app.sharding.enabled=true} the application DataSource routes to one of several
+ * databases chosen by {@link ShardRouter}; otherwise Boot's single DataSource is used unchanged.
+ * Cannot be combined with replica routing.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+    DataSource dataSource(DataSourceProperties properties, ShardingProperties sharding, Environment env) {
+        if (env.containsProperty("app.datasource.replica.url")) {
+            throw new IllegalStateException("Sharding cannot be combined with app.datasource.replica");
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        HikariDataSource first = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        first.setPoolName("shard-0");
+        targets.put(0, first);
+
+        List<ShardingProperties.Shard> shards = sharding.getShards();
+        for (int i = 0; i < shards.size(); i++) {
+            ShardingProperties.Shard shard = shards.get(i);
+            HikariDataSource ds = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            ds.setPoolName("shard-" + (i + 1));
+            ds.setMaximumPoolSize(shard.getMaximumPoolSize());
+            targets.put(i + 1, ds);
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(first);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+    HibernatePropertiesCustomizer shardSchemaCustomizer(ShardRouter router, DataSource dataSource) {
+        ShardSchemaInitializer initializer = new ShardSchemaInitializer(router, dataSource);
+        return props -> props.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(initializer));
+    }
+}
@@ -0,0 +1,36 @@
+package smartit_task.bank_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    /** Shard 0 is {@code spring.datasource}; entries here are shards 1..n in order. */
+    private List<Shard> shards = new ArrayList<>();
+
+    /** Shard i owns account, transfer and saga ids in (i * idRange, (i + 1) * idRange]. */
+    private long idRange = 1_000_000_000_000L;
+
+    /** Cross-shard sagas left DEBITED for longer than this are driven to completion by the recovery job. */
+    private Duration sagaRecoveryAfter = Duration.ofSeconds(30);
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,41 @@
+package smartit_task.bank_service.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * With {@code spring.main.lazy-initialization=true} (the {@code fast-startup} profile) beans are
+ * created on first use. Beans that do their work at startup are kept eager: a lazy
+ * {@code @Scheduled} bean would never be scheduled, a lazy {@link SmartInitializingSingleton}
+ * would never load its state, and {@code @PostConstruct} starts the background workers.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupWork() {
+        return (beanName, definition, beanType) -> SmartInitializingSingleton.class.isAssignableFrom(beanType)
+                || hasMethodAnnotated(beanType, Scheduled.class)
+                || hasMethodAnnotated(beanType, PostConstruct.class);
+    }
+
+    private static boolean hasMethodAnnotated(Class<?> type, Class<? extends Annotation> annotation) {
+        if (!type.getName().startsWith("smartit_task.")) {
+            return false;
+        }
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(type,
+                m -> found.set(true),
+                m -> !found.get() && AnnotatedElementUtils.hasAnnotation(m, annotation));
+        return found.get();
+    }
+}
@@ -12,6 +12,7 @@ public class WebCorsConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET","POST","PUT","PATCH","DELETE","OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(ReadYourWrites.HEADER)
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -1,20 +1,40 @@
 package smartit_task.bank_service.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccountLookupResponse;
 import smartit_task.bank_service.dto.AccountResponse;
+import smartit_task.bank_service.dto.ListVersion;
+import smartit_task.bank_service.dto.PageResponse;
 import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.AccountStatus;
 import smartit_task.bank_service.mapper.AccountMapper;
-import smartit_task.bank_service.service.AccountService;
-
+import smartit_task.bank_service.service.ChangeStreamService;
+import smartit_task.bank_service.service.search.AccountSearchIndex;
+import smartit_task.bank_service.service.sharding.ShardedAccountService;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -24,24 +44,126 @@ public class AccountController {
     private boolean allowSeed;
 
     @Autowired
-    private AccountService accountService;
+    private ShardedAccountService shardedAccountService;
+
+    @Autowired
+    private ChangeStreamService changeStreamService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountSearchIndex searchIndex;
+
+    /**
+     * Weakly tagged with the list's version, read before the list itself, so a concurrent change
+     * can only make the body newer than its tag. Unchanged lists answer 304 after one query.
+     */
     @GetMapping
-    public List<AccountResponse> getAllAccounts() {
-        return AccountMapper.toResponseList(accountService.getAllAccounts());
+    public ResponseEntity<List<AccountResponse>> getAllAccounts(WebRequest request) {
+        String etag = "W/\"accounts-" + shardedAccountService.getAccountsVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(shardedAccountService.getAllAccounts());
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getAccountsByIds(@RequestParam List<Long> ids) {
+        return lookup(ids);
+    }
+
+    /** Same as {@code GET ?ids=} for id sets too large for a query string. */
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookupAccounts(@RequestBody List<Long> ids) {
+        return lookup(ids);
+    }
+
+    private ResponseEntity<?> lookup(List<Long> ids) {
+        try {
+            List<AccountLookupResponse> found = shardedAccountService.lookupAccounts(ids);
+            return ResponseEntity.ok(found);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchAccounts(@RequestParam String q,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Page must be >= 0 and size between 1 and 100"));
+        }
+        if (!searchIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index is still loading");
+        }
+        try {
+            return ResponseEntity.ok(PageResponse.of(searchIndex.search(q, page, size)));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> getAccountsPage(@RequestParam(required = false) AccountStatus status,
+                                             @RequestParam(required = false) String namePrefix,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "50") int size,
+                                             @RequestParam(required = false) String sort) {
+        try {
+            return ResponseEntity.ok(PageResponse.of(shardedAccountService.findAccounts(status, namePrefix, page, size, sort)));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+
+    /** Newline-delimited JSON, one account per line, written as rows are read. */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportAccounts(@RequestParam(required = false) AccountStatus status,
+                                                                @RequestParam(required = false) String namePrefix) {
+        ObjectWriter writer = objectMapper.writerFor(AccountResponse.class);
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            shardedAccountService.exportAccounts(status, namePrefix, account -> {
+                try {
+                    buffered.write(writer.writeValueAsBytes(account));
+                    buffered.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            buffered.flush();
+        };
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"accounts.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAccounts(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeStreamService.subscribeAccounts(lastEventId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<AccountResponse> getAccountById(@PathVariable Long id) {
-        return accountService.getAccountById(id)
-                .map(acc -> ResponseEntity.ok(AccountMapper.toResponse(acc)))
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<AccountResponse> getAccountById(@PathVariable Long id, WebRequest request) {
+        Optional<Account> account = shardedAccountService.getAccountById(id);
+        if (account.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "W/\"account-" + id + "-" + ListVersion.marker(account.get().getModifiedOn()) + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(AccountMapper.toResponse(account.get()));
     }
 
     @PostMapping
     public ResponseEntity<?> createAccount(@Valid @RequestBody AccountCreateRequest req) {
         try {
-            Account saved = accountService.createAccount(req);
+            Account saved = shardedAccountService.createAccount(req);
             return ResponseEntity.ok(AccountMapper.toResponse(saved));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -52,7 +174,7 @@ public class AccountController {
     public ResponseEntity<?> createAccounts(@RequestBody List<@Valid AccountCreateRequest> requests) {
         try {
             var saved = requests.stream()
-                    .map(accountService::createAccount)
+                    .map(shardedAccountService::createAccount)
                     .map(AccountMapper::toResponse)
                     .toList();
             return ResponseEntity.status(201).body(saved);
@@ -65,7 +187,7 @@ public class AccountController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updateAccount(@PathVariable Long id, @Valid @RequestBody Account accountDetails) {
         try {
-            Account updated = accountService.updateAccount(id, accountDetails);
+            Account updated = shardedAccountService.updateAccount(id, accountDetails);
             return ResponseEntity.ok(AccountMapper.toResponse(updated));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -75,7 +197,7 @@ public class AccountController {
     @PutMapping("/{id}/freeze")
     public ResponseEntity<?> freezeAccount(@PathVariable Long id) {
         try {
-            Account account = accountService.freezeAccount(id);
+            Account account = shardedAccountService.freezeAccount(id);
             return ResponseEntity.ok(AccountMapper.toResponse(account));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -85,7 +207,7 @@ public class AccountController {
     @PutMapping("/{id}/unfreeze")
     public ResponseEntity<?> unfreezeAccount(@PathVariable Long id) {
         try {
-            Account account = accountService.unfreezeAccount(id);
+            Account account = shardedAccountService.unfreezeAccount(id);
             return ResponseEntity.ok(AccountMapper.toResponse(account));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -95,7 +217,7 @@ public class AccountController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteAccount(@PathVariable Long id) {
         try {
-            accountService.deleteAccount(id);
+            shardedAccountService.deleteAccount(id);
             return ResponseEntity.ok().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -115,7 +237,14 @@ public class AccountController {
                 new AccountCreateRequest("Carol", "BG29BNBG96611020345680", new BigDecimal("500.00"))
         );
 
-        var saved = accountService.createAccounts(batch);
-        return ResponseEntity.ok(AccountMapper.toResponseList(saved));
+        try {
+            var saved = batch.stream()
+                    .map(shardedAccountService::createAccount)
+                    .map(AccountMapper::toResponse)
+                    .toList();
+            return ResponseEntity.ok(saved);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package smartit_task.bank_service.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import smartit_task.bank_service.service.accrual.EndOfDayAccrualService;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/accrual")
+public class AccrualController {
+
+    @Autowired
+    private EndOfDayAccrualService accrualService;
+
+    @PostMapping("/run")
+    public ResponseEntity<?> run(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate businessDate) {
+        try {
+            return ResponseEntity.ok(accrualService.run(businessDate));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package smartit_task.bank_service.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import smartit_task.bank_service.dto.FxRatesResponse;
+import smartit_task.bank_service.service.fx.FxRateCache;
+import smartit_task.bank_service.service.fx.FxRateSnapshot;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/fx-rates")
+public class FxRateController {
+
+    @Autowired
+    private FxRateCache fxRates;
+
+    @GetMapping
+    public FxRatesResponse current() {
+        return toResponse(fxRates.current());
+    }
+
+    /** Body: units of each currency per one unit of the default currency, e.g. {"USD": 1.0842}. */
+    @PutMapping
+    public ResponseEntity<?> publish(@RequestBody Map<String, BigDecimal> perBase) {
+        try {
+            return ResponseEntity.ok(toResponse(fxRates.publish(perBase)));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+
+    private static FxRatesResponse toResponse(FxRateSnapshot s) {
+        return new FxRatesResponse(s.version(), s.base(), s.perBase());
+    }
+}
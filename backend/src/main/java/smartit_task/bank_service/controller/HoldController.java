@@ -0,0 +1,64 @@
+package smartit_task.bank_service.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import smartit_task.bank_service.dto.HoldCaptureRequest;
+import smartit_task.bank_service.dto.HoldCreateRequest;
+import smartit_task.bank_service.dto.HoldResponse;
+import smartit_task.bank_service.mapper.HoldMapper;
+import smartit_task.bank_service.mapper.TransferMapper;
+import smartit_task.bank_service.service.holds.HoldService;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+
+    @Autowired
+    private HoldService holdService;
+
+    @GetMapping("/account/{accountId}")
+    public List<HoldResponse> getByAccountId(@PathVariable Long accountId) {
+        return HoldMapper.toResponseList(holdService.getByAccountId(accountId));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<HoldResponse> getById(@PathVariable Long id) {
+        return holdService.getById(id)
+                .map(h -> ResponseEntity.ok().body(HoldMapper.toResponse(h)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@Valid @RequestBody HoldCreateRequest req) {
+        try {
+            return ResponseEntity.status(201).body(HoldMapper.toResponse(holdService.create(req)));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/capture")
+    public ResponseEntity<?> capture(@PathVariable Long id,
+                                     @Valid @RequestBody(required = false) HoldCaptureRequest req) {
+        try {
+            var t = holdService.capture(id, req == null ? null : req.amount());
+            return ResponseEntity.status(201).body(TransferMapper.toResponse(t));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/release")
+    public ResponseEntity<?> release(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(HoldMapper.toResponse(holdService.release(id)));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package smartit_task.bank_service.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import smartit_task.bank_service.service.wire.TransferFrameProcessor;
+import smartit_task.bank_service.service.wire.TransferFrames;
+
+import java.io.IOException;
+
+/**
+ * Bulk submission for internal batch systems. The request body is a stream of transfer frames
+ * and the response streams one result frame per request; see {@link TransferFrames}.
+ */
+@RestController
+@RequestMapping("/internal/transfers")
+public class InternalTransferController {
+
+    @Autowired
+    private TransferFrameProcessor frameProcessor;
+
+    @PostMapping(consumes = TransferFrames.MEDIA_TYPE)
+    public void submit(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(TransferFrames.MEDIA_TYPE);
+        frameProcessor.process(request.getInputStream(), response.getOutputStream());
+    }
+}
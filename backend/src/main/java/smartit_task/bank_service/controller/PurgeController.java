@@ -0,0 +1,28 @@
+package smartit_task.bank_service.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import smartit_task.bank_service.dto.PurgeRunReport;
+import smartit_task.bank_service.service.purge.AccountPurgeService;
+
+@RestController
+@RequestMapping("/api/admin/purge")
+public class PurgeController {
+
+    @Autowired
+    private AccountPurgeService purgeService;
+
+    @PostMapping("/run")
+    public ResponseEntity<PurgeRunReport> run() {
+        try {
+            return ResponseEntity.ok(purgeService.run());
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package smartit_task.bank_service.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import smartit_task.bank_service.dto.ReconciliationReport;
+import smartit_task.bank_service.service.LedgerReconciliationService;
+
+@RestController
+@RequestMapping("/api/admin/reconciliation")
+public class ReconciliationController {
+
+    @Autowired
+    private LedgerReconciliationService reconciliationService;
+
+    @PostMapping("/run")
+    public ReconciliationReport run() {
+        try {
+            return reconciliationService.run();
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage());
+        }
+    }
+
+    @GetMapping("/last")
+    public ResponseEntity<ReconciliationReport> lastReport() {
+        return reconciliationService.lastReport()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
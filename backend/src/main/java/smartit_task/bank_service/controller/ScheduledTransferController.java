@@ -0,0 +1,51 @@
+package smartit_task.bank_service.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import smartit_task.bank_service.dto.ScheduledTransferCreateRequest;
+import smartit_task.bank_service.dto.ScheduledTransferResponse;
+import smartit_task.bank_service.mapper.ScheduledTransferMapper;
+import smartit_task.bank_service.service.ScheduledTransferService;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/scheduled-transfers")
+public class ScheduledTransferController {
+
+    @Autowired
+    private ScheduledTransferService scheduledTransferService;
+
+    @GetMapping("/account/{accountId}")
+    public List<ScheduledTransferResponse> getByAccountId(@PathVariable Long accountId) {
+        return ScheduledTransferMapper.toResponseList(scheduledTransferService.getByFromAccountId(accountId));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ScheduledTransferResponse> getById(@PathVariable Long id) {
+        return scheduledTransferService.getById(id)
+                .map(s -> ResponseEntity.ok().body(ScheduledTransferMapper.toResponse(s)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@Valid @RequestBody ScheduledTransferCreateRequest req) {
+        try {
+            var s = scheduledTransferService.create(req);
+            return ResponseEntity.status(201).body(ScheduledTransferMapper.toResponse(s));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@PathVariable Long id) {
+        if (scheduledTransferService.getById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ScheduledTransferMapper.toResponse(scheduledTransferService.cancel(id)));
+    }
+}
@@ -0,0 +1,51 @@
+package smartit_task.bank_service.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import smartit_task.bank_service.service.snapshot.BalanceSnapshotService;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/admin/snapshots")
+public class SnapshotController {
+
+    @Autowired
+    private BalanceSnapshotService snapshotService;
+
+    @PostMapping("/{name}/export")
+    public ResponseEntity<?> export(@PathVariable String name) {
+        return handle(() -> ResponseEntity.status(201).body(snapshotService.export(name)));
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<?> describe(@PathVariable String name) {
+        return handle(() -> ResponseEntity.ok(snapshotService.describe(name)));
+    }
+
+    @GetMapping("/{name}/accounts/{accountId}")
+    public ResponseEntity<?> lookup(@PathVariable String name, @PathVariable long accountId) {
+        return handle(() -> snapshotService.lookup(name, accountId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @PostMapping("/{name}/import")
+    public ResponseEntity<?> importSnapshot(@PathVariable String name,
+                                            @RequestParam(defaultValue = "false") boolean createMissing) {
+        return handle(() -> ResponseEntity.ok(snapshotService.importSnapshot(name, createMissing)));
+    }
+
+    private ResponseEntity<?> handle(Supplier<ResponseEntity<?>> action) {
+        try {
+            return action.get();
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+}
@@ -2,13 +2,18 @@ package smartit_task.bank_service.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import smartit_task.bank_service.dto.TransferCreateRequest;
 import smartit_task.bank_service.entity.Transfer;
 import smartit_task.bank_service.mapper.TransferMapper;
-import smartit_task.bank_service.service.TransferService;
+import smartit_task.bank_service.service.ChangeStreamService;
+import smartit_task.bank_service.service.sharding.ShardedTransferService;
 
 import java.util.List;
 import java.util.Map;
@@ -18,11 +23,24 @@ import java.util.Map;
 public class TransferController {
 
     @Autowired
-    private TransferService transferService;
+    private ShardedTransferService transferService;
+
+    @Autowired
+    private ChangeStreamService changeStreamService;
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTransfers(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeStreamService.subscribeTransfers(lastEventId);
+    }
 
     @GetMapping("/account/{accountId}")
-    public List<Transfer> getTransfersByAccountId(@PathVariable Long accountId) {
-        return transferService.getAllTransfersByAccountId(accountId);
+    public ResponseEntity<List<Transfer>> getTransfersByAccountId(@PathVariable Long accountId, WebRequest request) {
+        String etag = "W/\"transfers-" + accountId + "-" + transferService.getTransfersVersion(accountId).token() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(transferService.getAllTransfersByAccountId(accountId));
     }
 
     @GetMapping("/{id}")
@@ -13,5 +13,12 @@ public record AccountCreateRequest(
         String iban,
 
         @PositiveOrZero(message = "Initial amount must be >= 0")
-        BigDecimal initialAmount
-) {}
+        BigDecimal initialAmount,
+
+        @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a three-letter ISO 4217 code")
+        String currency
+) {
+    public AccountCreateRequest(String name, String iban, BigDecimal initialAmount) {
+        this(name, iban, initialAmount, null);
+    }
+}
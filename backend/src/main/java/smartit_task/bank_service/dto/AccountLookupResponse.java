@@ -0,0 +1,12 @@
+package smartit_task.bank_service.dto;
+
+/** One entry per requested id, in request order; {@code account} is null when not found. */
+public record AccountLookupResponse(
+        Long id,
+        boolean found,
+        AccountResponse account
+) {
+    public static AccountLookupResponse of(Long id, AccountResponse account) {
+        return new AccountLookupResponse(id, account != null, account);
+    }
+}
@@ -2,7 +2,9 @@ package smartit_task.bank_service.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import smartit_task.bank_service.entity.AccountStatus;
 
@@ -11,6 +13,8 @@ import java.time.LocalDateTime;
 
 @Getter
 @Setter
+@NoArgsConstructor
+@AllArgsConstructor
 @Schema(name = "Account", description = "Account resource returned by the API")
 public class AccountResponse {
 
@@ -20,9 +24,14 @@ public class AccountResponse {
 
     private String name;
     private String iban;
+    private String currency;
     private AccountStatus status;
     private BigDecimal availableAmount;
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private BigDecimal heldAmount;
+
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime createdOn;
@@ -0,0 +1,9 @@
+package smartit_task.bank_service.dto;
+
+/** {@code rank}: 0 exact, 1 prefix, 2 word prefix, 3 substring. Lower is better. */
+public record AccountSearchHit(
+        Long id,
+        String name,
+        String iban,
+        int rank
+) {}
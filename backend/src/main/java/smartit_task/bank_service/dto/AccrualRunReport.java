@@ -0,0 +1,15 @@
+package smartit_task.bank_service.dto;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+public record AccrualRunReport(
+        LocalDate businessDate,
+        int ranges,
+        int rangesAlreadyDone,
+        long accountsPosted,
+        BigDecimal interestPosted,
+        BigDecimal feesPosted,
+        Duration duration
+) {}
@@ -0,0 +1,14 @@
+package smartit_task.bank_service.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailyRollupResponse(
+        Long accountId,
+        LocalDate businessDate,
+        long transferCount,
+        long debitCount,
+        BigDecimal debitAmount,
+        long creditCount,
+        BigDecimal creditAmount
+) {}
@@ -0,0 +1,10 @@
+package smartit_task.bank_service.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public record FxRatesResponse(
+        long version,
+        String base,
+        Map<String, BigDecimal> perBase
+) {}
@@ -0,0 +1,15 @@
+package smartit_task.bank_service.dto;
+
+import java.time.Duration;
+import java.util.List;
+
+public record HistoryImportReport(
+        String source,
+        long recordsResumedAfter,
+        long recordsRead,
+        long recordsImported,
+        long recordsRejected,
+        List<String> rejections,
+        long accountsRebalanced,
+        Duration duration
+) {}
@@ -0,0 +1,11 @@
+package smartit_task.bank_service.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+
+import java.math.BigDecimal;
+
+/** Omitting the amount captures the whole hold. */
+public record HoldCaptureRequest(
+        @DecimalMin(value = "0.01", message = "Amount must be > 0")
+        BigDecimal amount
+) {}
@@ -0,0 +1,15 @@
+package smartit_task.bank_service.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record HoldCreateRequest(
+        @NotNull Long accountId,
+        @NotNull Long beneficiaryAccountId,
+        @NotNull @DecimalMin(value = "0.01", message = "Amount must be > 0")
+        BigDecimal amount,
+        @Positive Long ttlSeconds
+) {}
@@ -0,0 +1,18 @@
+package smartit_task.bank_service.dto;
+
+import smartit_task.bank_service.entity.HoldStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record HoldResponse(
+        Long id,
+        Long accountId,
+        Long beneficiaryAccountId,
+        BigDecimal amount,
+        BigDecimal capturedAmount,
+        HoldStatus status,
+        LocalDateTime expiresAt,
+        LocalDateTime createdOn,
+        LocalDateTime modifiedOn
+) {}
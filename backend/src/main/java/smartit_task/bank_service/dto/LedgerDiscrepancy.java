@@ -0,0 +1,10 @@
+package smartit_task.bank_service.dto;
+
+import java.math.BigDecimal;
+
+public record LedgerDiscrepancy(
+        Long accountId,
+        BigDecimal expectedAmount,
+        BigDecimal availableAmount,
+        BigDecimal difference
+) {}
@@ -0,0 +1,41 @@
+package smartit_task.bank_service.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Row count and newest marker (a modification time or the highest id) of a list, read with one
+ * aggregate query. Any insert, update or removal in the list changes one of them. {@code spread}
+ * is an optional sum over all rows (e.g. of their modification times) that also moves when an
+ * update commits after a later one, which the maximum alone would miss.
+ */
+public record ListVersion(long count, Object latest, long spread) {
+
+    public ListVersion(long count, Object latest) {
+        this(count, latest, 0);
+    }
+
+    /**
+     * Spread from two sums over the rows' times: whole epoch seconds and nanoseconds within the
+     * second. Summed apart so neither overflows, then folded together, wrapping like a hash; a
+     * single sum of seconds would miss updates that land within the same second.
+     */
+    public ListVersion(long count, Object latest, long epochSeconds, long nanos) {
+        this(count, latest, epochSeconds * 1_000_000_000L + nanos);
+    }
+
+    public String token() {
+        return Long.toString(count, 36) + "-" + marker(latest) + (spread == 0 ? "" : "-" + Long.toString(spread, 36));
+    }
+
+    public static String marker(Object latest) {
+        if (latest == null) {
+            return "0";
+        }
+        if (latest instanceof LocalDateTime at) {
+            long micros = at.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + at.getNano() / 1_000;
+            return Long.toString(micros, 36);
+        }
+        return Long.toString(((Number) latest).longValue(), 36);
+    }
+}
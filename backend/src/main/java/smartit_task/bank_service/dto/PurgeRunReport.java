@@ -0,0 +1,11 @@
+package smartit_task.bank_service.dto;
+
+import java.time.Duration;
+
+public record PurgeRunReport(
+        int accountsPurged,
+        int accountsPending,
+        long transfersArchived,
+        int batches,
+        Duration duration
+) {}
@@ -0,0 +1,15 @@
+package smartit_task.bank_service.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ReconciliationReport(
+        LocalDateTime startedOn,
+        Duration duration,
+        int ranges,
+        long accountsChecked,
+        long transfersScanned,
+        double transfersPerSecond,
+        List<LedgerDiscrepancy> discrepancies
+) {}
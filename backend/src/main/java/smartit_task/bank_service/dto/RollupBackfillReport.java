@@ -0,0 +1,12 @@
+package smartit_task.bank_service.dto;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+public record RollupBackfillReport(
+        LocalDate from,
+        LocalDate to,
+        int ranges,
+        long rowsWritten,
+        Duration duration
+) {}
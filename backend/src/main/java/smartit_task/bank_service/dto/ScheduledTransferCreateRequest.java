@@ -0,0 +1,18 @@
+package smartit_task.bank_service.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import smartit_task.bank_service.entity.ScheduleRecurrence;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ScheduledTransferCreateRequest(
+        @NotNull Long fromAccountId,
+        @NotNull Long toAccountId,
+        @NotNull @DecimalMin(value = "0.01", message = "Amount must be > 0")
+        BigDecimal amount,
+        @NotNull LocalDateTime firstRunAt,
+        ScheduleRecurrence recurrence,
+        LocalDateTime endsOn
+) {}
@@ -0,0 +1,23 @@
+package smartit_task.bank_service.dto;
+
+import smartit_task.bank_service.entity.ScheduleRecurrence;
+import smartit_task.bank_service.entity.ScheduleStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ScheduledTransferResponse(
+        Long id,
+        Long fromAccountId,
+        Long toAccountId,
+        BigDecimal amount,
+        ScheduleRecurrence recurrence,
+        LocalDateTime firstRunAt,
+        LocalDateTime nextRunAt,
+        LocalDateTime endsOn,
+        long occurrence,
+        ScheduleStatus status,
+        String lastError,
+        LocalDateTime createdOn,
+        LocalDateTime modifiedOn
+) {}
@@ -10,6 +10,9 @@ public record TransferResponse(
         Long beneficiaryAccountId,
         TransferType type,
         BigDecimal amount,
+        String currency,
+        BigDecimal fxRate,
+        Long fxRateVersion,
         LocalDateTime createdOn,
         LocalDateTime modifiedOn
 ) {}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -23,6 +24,8 @@ import java.time.LocalDateTime;
 )
 public class Account {
 
+    public static final String DEFAULT_CURRENCY = "EUR";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,10 +41,26 @@ public class Account {
     @Column(nullable = false, length = 10)
     private AccountStatus status;
 
+    /** ISO 4217 code of every amount on the account and on its transfer rows; fixed at creation. */
+    @ColumnDefault("'" + DEFAULT_CURRENCY + "'")
+    @Column(nullable = false, length = 3, updatable = false)
+    private String currency = DEFAULT_CURRENCY;
+
     @PositiveOrZero
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal availableAmount;
 
+    /**
+     * Reserved by active holds. Only changed through the bulk updates in AccountRepository,
+     * so saving an entity loaded earlier cannot overwrite it.
+     */
+    @Column(nullable = false, precision = 19, scale = 2, updatable = false)
+    private BigDecimal heldAmount = BigDecimal.ZERO;
+
+    /** Balance before any transfer; availableAmount + heldAmount = openingAmount + CREDITs - DEBITs. */
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal openingAmount;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdOn;
@@ -49,4 +68,11 @@ public class Account {
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime modifiedOn;
+
+    @PrePersist
+    void defaultOpeningAmount() {
+        if (openingAmount == null) {
+            openingAmount = availableAmount;
+        }
+    }
 }
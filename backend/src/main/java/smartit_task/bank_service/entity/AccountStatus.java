@@ -2,5 +2,7 @@ package smartit_task.bank_service.entity;
 
 public enum AccountStatus {
     ACTIVE,
-    FROZEN
+    FROZEN,
+    /** Deleted: hidden from reads and transfers until the purger removes the row and its history. */
+    CLOSED
 }
@@ -0,0 +1,38 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** One account id range whose end-of-day postings for a business date are committed. */
+@Getter
+@Setter
+@Entity
+@Table(
+        name = "accrual_checkpoints",
+        uniqueConstraints = @UniqueConstraint(name = "uk_accrual_checkpoints_range", columnNames = {"business_date", "range_start"})
+)
+public class AccrualCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate businessDate;
+
+    @Column(nullable = false)
+    private Long rangeStart;
+
+    @Column(nullable = false)
+    private Long rangeEnd;
+
+    @Column(nullable = false)
+    private Integer accountsPosted;
+
+    @Column(nullable = false)
+    private LocalDateTime completedOn;
+}
@@ -0,0 +1,55 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** A transfer row of a closed account, moved out of {@code transfers} by the purger with its original id. */
+@Getter
+@Setter
+@Entity
+@Table(
+        name = "transfers_archive",
+        indexes = @Index(name = "idx_transfers_archive_account", columnList = "account_id")
+)
+public class ArchivedTransfer {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private Long beneficiaryAccountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransferType type;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(precision = 24, scale = 12)
+    private BigDecimal fxRate;
+
+    private Long fxRateVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime createdOn;
+
+    @Column(nullable = false)
+    private LocalDateTime modifiedOn;
+
+    @Column(length = 64)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedOn;
+}
@@ -0,0 +1,29 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Units of one currency per unit of the default account currency, as of the publish that wrote {@code version}. */
+@Getter
+@Setter
+@Entity
+@Table(name = "fx_rates")
+public class FxRate {
+
+    @Id
+    @Column(length = 3)
+    private String currency;
+
+    @Column(nullable = false, precision = 24, scale = 12)
+    private BigDecimal perBase;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedOn;
+}
@@ -0,0 +1,57 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Funds reserved on an account until they are captured to the beneficiary, released or expire. */
+@Getter
+@Setter
+@Entity
+@Table(
+        name = "holds",
+        indexes = {
+                @Index(name = "idx_holds_expiry", columnList = "status, expires_at"),
+                @Index(name = "idx_holds_account", columnList = "account_id")
+        }
+)
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private Long beneficiaryAccountId;
+
+    @Positive
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal capturedAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private HoldStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdOn;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime modifiedOn;
+}
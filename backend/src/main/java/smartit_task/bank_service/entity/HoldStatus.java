@@ -0,0 +1,8 @@
+package smartit_task.bank_service.entity;
+
+public enum HoldStatus {
+    ACTIVE,
+    CAPTURED,
+    RELEASED,
+    EXPIRED
+}
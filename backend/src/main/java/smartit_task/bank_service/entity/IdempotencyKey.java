@@ -0,0 +1,35 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A client's {@code Idempotency-Key}, stored by a 16-byte hash of (source account, key) instead of
+ * on the transfer rows. Written and read through {@code IdempotencyKeyStore}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(
+        name = "idempotency_keys",
+        indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+)
+public class IdempotencyKey {
+
+    @Id
+    @Column(length = 16)
+    private byte[] keyHash;
+
+    @Column(nullable = false)
+    private Long transferId;
+
+    /** Hash of the request the key was first used with; a retry must match it. */
+    @Column(nullable = false)
+    private long fingerprint;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,27 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/** Highest transfer id already folded into the positions of one account id range. */
+@Getter
+@Setter
+@Entity
+@Table(name = "reconciliation_checkpoints")
+public class ReconciliationCheckpoint {
+
+    @Id
+    private Long rangeStart;
+
+    @Column(nullable = false)
+    private Long rangeEnd;
+
+    @Column(nullable = false)
+    private Long lastTransferId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedOn;
+}
@@ -0,0 +1,21 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/** Running CREDIT minus DEBIT total of one account, up to its range checkpoint. */
+@Getter
+@Setter
+@Entity
+@Table(name = "reconciliation_positions")
+public class ReconciliationPosition {
+
+    @Id
+    private Long accountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal ledgerNet;
+}
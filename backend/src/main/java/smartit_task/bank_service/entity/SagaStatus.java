@@ -0,0 +1,7 @@
+package smartit_task.bank_service.entity;
+
+public enum SagaStatus {
+    DEBITED,
+    COMPLETED,
+    COMPENSATED
+}
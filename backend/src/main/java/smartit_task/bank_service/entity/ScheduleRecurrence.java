@@ -0,0 +1,20 @@
+package smartit_task.bank_service.entity;
+
+import java.time.LocalDateTime;
+
+public enum ScheduleRecurrence {
+    ONCE,
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    /** Run time of the given zero-based occurrence, or null if there is none. */
+    public LocalDateTime occurrence(LocalDateTime first, long n) {
+        return switch (this) {
+            case ONCE -> n == 0 ? first : null;
+            case DAILY -> first.plusDays(n);
+            case WEEKLY -> first.plusWeeks(n);
+            case MONTHLY -> first.plusMonths(n);
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(
+        name = "scheduled_transfers",
+        indexes = @Index(name = "idx_scheduled_transfers_due", columnList = "status, next_run_at, id")
+)
+public class ScheduledTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long fromAccountId;
+
+    @Column(nullable = false)
+    private Long toAccountId;
+
+    @Positive
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ScheduleRecurrence recurrence;
+
+    @Column(nullable = false)
+    private LocalDateTime firstRunAt;
+
+    /** Null once the schedule is no longer active. */
+    @Column(name = "next_run_at")
+    private LocalDateTime nextRunAt;
+
+    private LocalDateTime endsOn;
+
+    /** Zero-based number of the next occurrence; part of its idempotency key. */
+    @Column(nullable = false)
+    private long occurrence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ScheduleStatus status;
+
+    @Column(length = 255)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdOn;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime modifiedOn;
+
+    public String idempotencyKey() {
+        return "sched-" + id + "-" + occurrence;
+    }
+}
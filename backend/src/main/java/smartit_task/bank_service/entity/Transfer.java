@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Positive;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -16,11 +17,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(
         name = "transfers",
-        uniqueConstraints = {
-                @UniqueConstraint(
-                        name = "uk_transfers_idem",
-                        columnNames = {"account_id", "idempotency_key", "type"}
-                )
+        indexes = {
+                @Index(name = "idx_transfers_account_created", columnList = "account_id, created_on"),
+                @Index(name = "idx_transfers_beneficiary_account_id", columnList = "beneficiary_account_id")
         }
 )
 @NoArgsConstructor
@@ -40,10 +39,22 @@ public class Transfer {
     @Column(nullable = false)
     private TransferType type;
 
+    /** In the currency of {@code accountId}, so the two rows of a cross-currency transfer differ. */
     @Positive(message = "Amount must be positive")
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal amount;
 
+    @ColumnDefault("'" + Account.DEFAULT_CURRENCY + "'")
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    /** Units of the credited currency per unit of the debited one; set on both rows when they differ. */
+    @Column(precision = 24, scale = 12)
+    private BigDecimal fxRate;
+
+    /** Version of the FX rate snapshot {@code fxRate} was taken from. */
+    private Long fxRateVersion;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
 //    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // making it impossible for the client
@@ -54,14 +65,19 @@ public class Transfer {
     @Column(nullable = false)
     private LocalDateTime modifiedOn;
 
+    /**
+     * Marks rows posted by internal flows (sagas, holds, accruals) so they can find them again.
+     * Client Idempotency-Keys live in {@code idempotency_keys} and are not copied here.
+     */
     @Column(name = "idempotency_key", length = 64)
     private String idempotencyKey;
 
 
-    public Transfer(Long accountId, Long beneficiaryAccountId, TransferType type, BigDecimal amount) {
+    public Transfer(Long accountId, Long beneficiaryAccountId, TransferType type, BigDecimal amount, String currency) {
         this.accountId = accountId;
         this.beneficiaryAccountId = beneficiaryAccountId;
         this.type = type;
         this.amount = amount;
+        this.currency = currency;
     }
 }
@@ -0,0 +1,49 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Per-account totals of one business day (the date part of the transfers' createdOn). */
+@Getter
+@Setter
+@Entity
+@Table(name = "transfer_daily_rollups")
+@IdClass(TransferDailyRollup.Key.class)
+public class TransferDailyRollup {
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long accountId;
+        private LocalDate businessDate;
+    }
+
+    @Id
+    private Long accountId;
+
+    @Id
+    private LocalDate businessDate;
+
+    @Column(nullable = false)
+    private long debitCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitAmount;
+
+    @Column(nullable = false)
+    private long creditCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditAmount;
+}
@@ -0,0 +1,33 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/** How many input records of one history import file are committed on this database. */
+@Getter
+@Setter
+@Entity
+@Table(name = "transfer_import_checkpoints")
+public class TransferImportCheckpoint {
+
+    @Id
+    @Column(length = 255)
+    private String source;
+
+    @Column(nullable = false)
+    private Long sourceSize;
+
+    @Column(nullable = false)
+    private Long recordsDone;
+
+    @Column(nullable = false)
+    private Long transfersWritten;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedOn;
+
+    private LocalDateTime completedOn;
+}
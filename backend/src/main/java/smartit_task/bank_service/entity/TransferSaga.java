@@ -0,0 +1,90 @@
+package smartit_task.bank_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A transfer between accounts on different shards, stored on the source account's shard next to
+ * its DEBIT row. It is DEBITED once the source has been charged, then either COMPLETED when the
+ * destination has been credited or COMPENSATED when the credit was refused and the debit refunded.
+ */
+@Getter
+@Setter
+@Entity
+@Table(
+        name = "transfer_sagas",
+        uniqueConstraints = @UniqueConstraint(name = "uk_transfer_sagas_key", columnNames = {"from_account_id", "saga_key"}),
+        indexes = @Index(name = "idx_transfer_sagas_status", columnList = "status, modified_on")
+)
+@NoArgsConstructor
+public class TransferSaga {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** The caller's idempotency key, or a generated one; also the key of the DEBIT row. */
+    @Column(nullable = false, length = 64)
+    private String sagaKey;
+
+    @Column(nullable = false)
+    private Long fromAccountId;
+
+    @Column(nullable = false)
+    private Long toAccountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    /** Of the source account and {@code amount}; the credit converts when the destination's differs. */
+    @ColumnDefault("'" + Account.DEFAULT_CURRENCY + "'")
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
+    private SagaStatus status;
+
+    @Column(nullable = false)
+    private Long debitTransferId;
+
+    private Long creditTransferId;
+
+    @Column(length = 255)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdOn;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime modifiedOn;
+
+    public TransferSaga(String sagaKey, Long fromAccountId, Long toAccountId, BigDecimal amount, String currency,
+                        Long debitTransferId) {
+        this.sagaKey = sagaKey;
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.currency = currency;
+        this.debitTransferId = debitTransferId;
+        this.status = SagaStatus.DEBITED;
+    }
+
+    /**
+     * Idempotency key of the CREDIT rows this saga writes (the destination credit or the refund).
+     * Saga ids are unique across shards, so two sagas never share it even when callers reuse keys.
+     */
+    public String creditKey() {
+        return "saga-" + id;
+    }
+}
@@ -0,0 +1,5 @@
+package smartit_task.bank_service.event;
+
+import smartit_task.bank_service.entity.Account;
+
+public record AccountChangedEvent(Account account) {}
@@ -0,0 +1,3 @@
+package smartit_task.bank_service.event;
+
+public record AccountDeletedEvent(Long accountId) {}
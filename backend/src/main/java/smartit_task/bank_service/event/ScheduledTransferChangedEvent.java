@@ -0,0 +1,5 @@
+package smartit_task.bank_service.event;
+
+import java.time.LocalDateTime;
+
+public record ScheduledTransferChangedEvent(Long scheduleId, LocalDateTime nextRunAt) {}
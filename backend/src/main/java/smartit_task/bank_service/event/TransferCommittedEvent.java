@@ -0,0 +1,6 @@
+package smartit_task.bank_service.event;
+
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.Transfer;
+
+public record TransferCommittedEvent(Transfer debit, Transfer credit, Account from, Account to) {}
@@ -49,7 +49,7 @@ public class ApiExceptionHandler {
             msg = "Account name already exists.";
         } else if (mostSpecific.contains("accounts_iban_key") || mostSpecific.contains("uk_accounts_iban")) {
             msg = "Account IBAN already exists.";
-        } else if (mostSpecific.contains("uk_transfers_idem")) {
+        } else if (mostSpecific.contains("idempotency_keys")) {
             msg = "Duplicate idempotency key: this transfer request was already processed.";
         }
 
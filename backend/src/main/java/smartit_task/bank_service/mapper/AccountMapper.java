@@ -13,8 +13,10 @@ public class AccountMapper {
         dto.setId(e.getId());
         dto.setName(e.getName());
         dto.setIban(e.getIban());
+        dto.setCurrency(e.getCurrency());
         dto.setStatus(e.getStatus());
         dto.setAvailableAmount(e.getAvailableAmount());
+        dto.setHeldAmount(e.getHeldAmount());
         dto.setCreatedOn(e.getCreatedOn());
         dto.setModifiedOn(e.getModifiedOn());
         return dto;
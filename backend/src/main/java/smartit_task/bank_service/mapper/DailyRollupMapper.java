@@ -0,0 +1,30 @@
+package smartit_task.bank_service.mapper;
+
+import smartit_task.bank_service.dto.DailyRollupResponse;
+import smartit_task.bank_service.entity.TransferDailyRollup;
+
+import java.util.Collection;
+import java.util.List;
+
+public final class DailyRollupMapper {
+
+    private DailyRollupMapper() {}
+
+    public static DailyRollupResponse toResponse(TransferDailyRollup r) {
+        if (r == null) return null;
+        return new DailyRollupResponse(
+                r.getAccountId(),
+                r.getBusinessDate(),
+                r.getDebitCount() + r.getCreditCount(),
+                r.getDebitCount(),
+                r.getDebitAmount(),
+                r.getCreditCount(),
+                r.getCreditAmount()
+        );
+    }
+
+    public static List<DailyRollupResponse> toResponseList(Collection<TransferDailyRollup> list) {
+        if (list == null || list.isEmpty()) return List.of();
+        return list.stream().map(DailyRollupMapper::toResponse).toList();
+    }
+}
@@ -0,0 +1,32 @@
+package smartit_task.bank_service.mapper;
+
+import smartit_task.bank_service.dto.HoldResponse;
+import smartit_task.bank_service.entity.Hold;
+
+import java.util.Collection;
+import java.util.List;
+
+public final class HoldMapper {
+
+    private HoldMapper() {}
+
+    public static HoldResponse toResponse(Hold h) {
+        if (h == null) return null;
+        return new HoldResponse(
+                h.getId(),
+                h.getAccountId(),
+                h.getBeneficiaryAccountId(),
+                h.getAmount(),
+                h.getCapturedAmount(),
+                h.getStatus(),
+                h.getExpiresAt(),
+                h.getCreatedOn(),
+                h.getModifiedOn()
+        );
+    }
+
+    public static List<HoldResponse> toResponseList(Collection<Hold> list) {
+        if (list == null || list.isEmpty()) return List.of();
+        return list.stream().map(HoldMapper::toResponse).toList();
+    }
+}
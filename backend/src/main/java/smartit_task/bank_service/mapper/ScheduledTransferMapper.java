@@ -0,0 +1,36 @@
+package smartit_task.bank_service.mapper;
+
+import smartit_task.bank_service.dto.ScheduledTransferResponse;
+import smartit_task.bank_service.entity.ScheduledTransfer;
+
+import java.util.Collection;
+import java.util.List;
+
+public final class ScheduledTransferMapper {
+
+    private ScheduledTransferMapper() {}
+
+    public static ScheduledTransferResponse toResponse(ScheduledTransfer s) {
+        if (s == null) return null;
+        return new ScheduledTransferResponse(
+                s.getId(),
+                s.getFromAccountId(),
+                s.getToAccountId(),
+                s.getAmount(),
+                s.getRecurrence(),
+                s.getFirstRunAt(),
+                s.getNextRunAt(),
+                s.getEndsOn(),
+                s.getOccurrence(),
+                s.getStatus(),
+                s.getLastError(),
+                s.getCreatedOn(),
+                s.getModifiedOn()
+        );
+    }
+
+    public static List<ScheduledTransferResponse> toResponseList(Collection<ScheduledTransfer> list) {
+        if (list == null || list.isEmpty()) return List.of();
+        return list.stream().map(ScheduledTransferMapper::toResponse).toList();
+    }
+}
@@ -18,6 +18,9 @@ public final class TransferMapper {
                 t.getBeneficiaryAccountId(),
                 t.getType(),
                 t.getAmount(),
+                t.getCurrency(),
+                t.getFxRate(),
+                t.getFxRateVersion(),
                 t.getCreatedOn(),
                 t.getModifiedOn()
         );
@@ -1,19 +1,85 @@
 package smartit_task.bank_service.repository;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import smartit_task.bank_service.dto.AccountResponse;
+import smartit_task.bank_service.dto.ListVersion;
 import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.AccountStatus;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AccountRepository extends JpaRepository<Account, Long>{
+
+    // Read paths select straight into AccountResponse: no managed entities, no dirty-checking snapshots.
+    String RESPONSE = "select new smartit_task.bank_service.dto.AccountResponse(a.id, a.name, a.iban, a.currency, a.status, " +
+            "a.availableAmount, a.heldAmount, a.createdOn, a.modifiedOn) from Account a";
+    String OPEN = " a.status <> smartit_task.bank_service.entity.AccountStatus.CLOSED";
+    String FILTER = " where" + OPEN + " and (:status is null or a.status = :status) " +
+            "and (:namePrefix is null or a.name like :namePrefix escape '\\')";
+
+    @Query(RESPONSE + " where" + OPEN + " order by a.id")
+    List<AccountResponse> findAllResponses();
+
+    @Query("select new smartit_task.bank_service.dto.ListVersion(count(a), max(a.modifiedOn), " +
+            "coalesce(cast(sum(extract(epoch from a.modifiedOn)) as Long), 0), " +
+            "coalesce(cast(sum(mod(extract(nanosecond from a.modifiedOn), 1000000000)) as Long), 0)) " +
+            "from Account a where" + OPEN)
+    ListVersion listVersion();
+
+    @Query(RESPONSE + " where a.id in :ids and" + OPEN)
+    List<AccountResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = RESPONSE + FILTER, countQuery = "select count(a) from Account a" + FILTER)
+    Page<AccountResponse> findResponses(@Param("status") AccountStatus status,
+                                        @Param("namePrefix") String namePrefix,
+                                        Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE + FILTER + " order by a.id")
+    Stream<AccountResponse> streamResponses(@Param("status") AccountStatus status,
+                                            @Param("namePrefix") String namePrefix);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select a from Account a where a.id = :id")
     Optional<Account> lockById(@Param("id") Long id);
 
+    /** Moves {@code amount} from available to held; 0 if the account is missing, frozen or short of funds. */
+    @Modifying(clearAutomatically = true)
+    @Query("update Account a set a.availableAmount = a.availableAmount - :amount, a.heldAmount = a.heldAmount + :amount, " +
+            "a.modifiedOn = :now where a.id = :id and a.availableAmount >= :amount " +
+            "and a.status = smartit_task.bank_service.entity.AccountStatus.ACTIVE")
+    int placeHold(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    /** Drops {@code held} from the held balance and returns {@code released} of it to available. */
+    @Modifying(clearAutomatically = true)
+    @Query("update Account a set a.heldAmount = a.heldAmount - :held, a.availableAmount = a.availableAmount + :released, " +
+            "a.modifiedOn = :now where a.id = :id")
+    int settleHold(@Param("id") Long id, @Param("held") BigDecimal held, @Param("released") BigDecimal released,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Account a set a.availableAmount = a.availableAmount + :amount, a.modifiedOn = :now " +
+            "where a.id = :id and a.status = smartit_task.bank_service.entity.AccountStatus.ACTIVE")
+    int credit(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    @Query("select a.currency from Account a where a.id = :id")
+    Optional<String> findCurrencyById(@Param("id") Long id);
+
     Optional<Account> findByName(String name);
     Optional<Account> findByIban(String iban);
     boolean existsByName(String name);
@@ -0,0 +1,40 @@
+package smartit_task.bank_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import smartit_task.bank_service.entity.Hold;
+import smartit_task.bank_service.entity.HoldStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    List<Hold> findByAccountIdOrderByIdDesc(Long accountId);
+
+    /**
+     * Moves an unexpired ACTIVE hold to {@code status}. Returns 0 if the hold was already
+     * settled or has expired, which makes concurrent capture/release/expiry mutually exclusive.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Hold h SET h.status = :status, h.capturedAmount = :captured, h.modifiedOn = :now " +
+            "WHERE h.id = :id AND h.status = smartit_task.bank_service.entity.HoldStatus.ACTIVE AND h.expiresAt > :now")
+    int settle(@Param("id") Long id, @Param("status") HoldStatus status,
+               @Param("captured") BigDecimal captured, @Param("now") LocalDateTime now);
+
+    /** Expired ACTIVE holds, oldest first; rows another sweeper has claimed are skipped. */
+    @Query(value = "SELECT * FROM holds WHERE status = 'ACTIVE' AND expires_at <= :now " +
+            "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Hold> claimExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = smartit_task.bank_service.entity.HoldStatus.EXPIRED, h.modifiedOn = :now " +
+            "WHERE h.id IN :ids")
+    int markExpired(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
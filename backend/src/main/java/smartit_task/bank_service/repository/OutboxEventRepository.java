@@ -0,0 +1,27 @@
+package smartit_task.bank_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import smartit_task.bank_service.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /** Rows locked by another relay worker are skipped, so concurrent workers claim disjoint batches. */
+    @Query(value = "SELECT * FROM outbox_events ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> claimBatch(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT min(o.createdOn) FROM OutboxEvent o")
+    LocalDateTime findOldestCreatedOn();
+}
@@ -0,0 +1,36 @@
+package smartit_task.bank_service.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import smartit_task.bank_service.entity.ScheduledTransfer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, Long> {
+
+    interface DueSchedule {
+        Long getId();
+        LocalDateTime getNextRunAt();
+    }
+
+    /**
+     * Keyset page of active schedules due before {@code until}, earliest first, after
+     * {@code (afterRunAt, afterId)}; only id and run time are read.
+     */
+    @Query("SELECT s.id AS id, s.nextRunAt AS nextRunAt FROM ScheduledTransfer s " +
+            "WHERE s.status = smartit_task.bank_service.entity.ScheduleStatus.ACTIVE " +
+            "AND s.nextRunAt < :until " +
+            "AND (s.nextRunAt > :afterRunAt OR (s.nextRunAt = :afterRunAt AND s.id > :afterId)) " +
+            "ORDER BY s.nextRunAt, s.id")
+    List<DueSchedule> findDue(@Param("until") LocalDateTime until,
+                              @Param("afterRunAt") LocalDateTime afterRunAt,
+                              @Param("afterId") Long afterId,
+                              Pageable page);
+
+    List<ScheduledTransfer> findByFromAccountIdOrderByIdDesc(Long fromAccountId);
+}
@@ -0,0 +1,15 @@
+package smartit_task.bank_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import smartit_task.bank_service.entity.TransferDailyRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TransferDailyRollupRepository extends JpaRepository<TransferDailyRollup, TransferDailyRollup.Key> {
+
+    List<TransferDailyRollup> findByAccountIdAndBusinessDateBetweenOrderByBusinessDate(
+            Long accountId, LocalDate from, LocalDate to);
+}
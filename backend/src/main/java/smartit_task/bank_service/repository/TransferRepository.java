@@ -4,9 +4,12 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import smartit_task.bank_service.dto.ListVersion;
 import smartit_task.bank_service.entity.Transfer;
 import smartit_task.bank_service.entity.TransferType;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +18,23 @@ public interface TransferRepository extends JpaRepository<Transfer, Long> {
     @Query("SELECT t FROM Transfer t WHERE t.accountId = :accountId OR t.beneficiaryAccountId = :accountId ORDER BY t.createdOn DESC")
     List<Transfer> findAllTransfersByAccountId(@Param("accountId") Long accountId);
 
-    Optional<Transfer> findByAccountIdAndIdempotencyKeyAndType(
-            Long accountId, String idempotencyKey, TransferType type);
+    /** Version of {@link #findAllTransfersByAccountId}: transfers are never updated, only added or purged. */
+    @Query("SELECT new smartit_task.bank_service.dto.ListVersion(count(t), max(t.id)) FROM Transfer t " +
+            "WHERE t.accountId = :accountId OR t.beneficiaryAccountId = :accountId")
+    ListVersion listVersionByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * The row an internal flow posted under {@code idempotencyKey}. The key column has no index;
+     * {@code since} lets idx_transfers_account_created narrow the scan to the flow's own rows.
+     */
+    @Query("SELECT t FROM Transfer t WHERE t.accountId = :accountId AND t.createdOn >= :since " +
+            "AND t.idempotencyKey = :idempotencyKey AND t.type = :type")
+    Optional<Transfer> findPostedSince(@Param("accountId") Long accountId, @Param("idempotencyKey") String idempotencyKey,
+                                       @Param("type") TransferType type, @Param("since") LocalDateTime since);
+
+    @Query("SELECT coalesce(sum(t.amount), 0) FROM Transfer t " +
+            "WHERE t.accountId = :accountId AND t.type = smartit_task.bank_service.entity.TransferType.DEBIT " +
+            "AND t.createdOn >= :since")
+    BigDecimal sumDebitsSince(@Param("accountId") Long accountId, @Param("since") LocalDateTime since);
 
 }
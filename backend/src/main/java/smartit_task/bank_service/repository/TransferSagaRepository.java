@@ -0,0 +1,27 @@
+package smartit_task.bank_service.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import smartit_task.bank_service.entity.SagaStatus;
+import smartit_task.bank_service.entity.TransferSaga;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransferSagaRepository extends JpaRepository<TransferSaga, Long> {
+
+    Optional<TransferSaga> findByFromAccountIdAndSagaKey(Long fromAccountId, String sagaKey);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from TransferSaga s where s.id = :id")
+    Optional<TransferSaga> lockById(@Param("id") Long id);
+
+    List<TransferSaga> findByStatusAndModifiedOnBeforeOrderById(SagaStatus status, LocalDateTime before, Pageable page);
+}
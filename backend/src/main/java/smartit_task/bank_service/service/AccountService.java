@@ -1,42 +1,182 @@
 package smartit_task.bank_service.service;
 
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccountLookupResponse;
+import smartit_task.bank_service.dto.AccountResponse;
+import smartit_task.bank_service.dto.ListVersion;
 import smartit_task.bank_service.entity.Account;
 import smartit_task.bank_service.entity.AccountStatus;
+import smartit_task.bank_service.event.AccountChangedEvent;
+import smartit_task.bank_service.event.AccountDeletedEvent;
 import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.service.search.AccountSearchIndex;
 
 import java.math.BigDecimal;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class AccountService {
 
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_LOOKUP_IDS = 10_000;
+    static final int LOOKUP_CHUNK = 1_000;
+    private static final Set<String> SORTABLE =
+            Set.of("id", "name", "iban", "status", "availableAmount", "createdOn", "modifiedOn");
+
     private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher events;
+    private final AccountSearchIndex searchIndex;
+
+    @Transactional(readOnly = true)
+    public List<AccountResponse> getAllAccounts() {
+        return accountRepository.findAllResponses();
+    }
+
+    @Transactional(readOnly = true)
+    public ListVersion getAccountsVersion() {
+        return accountRepository.listVersion();
+    }
+
+    /**
+     * Resolves many ids with one {@code IN} query per {@value #LOOKUP_CHUNK} distinct ids.
+     * The result follows the request order, duplicates included, with a not-found entry for
+     * every id that does not exist.
+     */
+    @Transactional(readOnly = true)
+    public List<AccountLookupResponse> lookupAccounts(List<Long> ids) {
+        checkLookupIds(ids);
+
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, AccountResponse> byId = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = distinct.subList(from, Math.min(distinct.size(), from + LOOKUP_CHUNK));
+            accountRepository.findResponsesByIdIn(chunk).forEach(a -> byId.put(a.getId(), a));
+        }
+        return ids.stream().map(id -> AccountLookupResponse.of(id, byId.get(id))).toList();
+    }
+
+    /** @throws IllegalArgumentException for an empty or oversized id list, or a null id */
+    public static void checkLookupIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("No account ids provided");
+        }
+        if (ids.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_LOOKUP_IDS + " ids per lookup");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Account ids must not be null");
+        }
+    }
+
+    /**
+     * @param sort a property, optionally followed by {@code ,asc} or {@code ,desc}; ties break on id
+     */
+    @Transactional(readOnly = true)
+    public Page<AccountResponse> findAccounts(AccountStatus status, String namePrefix, int page, int size, String sort) {
+        checkPage(page, size);
+        return accountRepository.findResponses(status, likePrefix(namePrefix), PageRequest.of(page, size, parseSort(sort)));
+    }
+
+    /** The first {@code limit} matches in {@code sort} order, with the total match count. */
+    @Transactional(readOnly = true)
+    public Page<AccountResponse> findFirstAccounts(AccountStatus status, String namePrefix, int limit, Sort sort) {
+        return accountRepository.findResponses(status, likePrefix(namePrefix), PageRequest.of(0, limit, sort));
+    }
+
+    /** @throws IllegalArgumentException for a negative page or a size outside 1..{@value #MAX_PAGE_SIZE} */
+    public static void checkPage(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must be >= 0");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /** Streams every matching account to {@code sink} in id order without loading them all at once. */
+    @Transactional(readOnly = true)
+    public void exportAccounts(AccountStatus status, String namePrefix, Consumer<AccountResponse> sink) {
+        try (Stream<AccountResponse> rows = accountRepository.streamResponses(status, likePrefix(namePrefix))) {
+            rows.forEach(sink);
+        }
+    }
+
+    // Once the index is loaded, the common "free" answer costs no query; a stale "free" is caught
+    // by the unique constraints. "Taken" is confirmed in the database, since rows can disappear
+    // without passing through this service.
+    private boolean nameTaken(String name) {
+        return (!searchIndex.isReady() || searchIndex.nameTaken(name)) && accountRepository.existsByName(name);
+    }
+
+    private boolean ibanTaken(String iban) {
+        return (!searchIndex.isReady() || searchIndex.ibanTaken(iban)) && accountRepository.existsByIban(iban);
+    }
 
-    public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+    /** @throws IllegalArgumentException for a property that cannot be sorted on, or an unknown direction */
+    public static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE.contains(property)) {
+            throw new IllegalArgumentException("Cannot sort accounts by '" + property + "'");
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim())
+                        .orElseThrow(() -> new IllegalArgumentException("Invalid sort direction: " + parts[1]))
+                : Sort.Direction.ASC;
+        Sort primary = Sort.by(direction, property);
+        return property.equals("id") ? primary : primary.and(Sort.by("id"));
+    }
+
+    private static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        return prefix.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
     }
 
+    @Transactional(readOnly = true)
     public Optional<Account> getAccountById(Long id) {
-        return accountRepository.findById(id);
+        return accountRepository.findById(id).filter(AccountService::isOpen);
+    }
+
+    /** Closed accounts still hold their row until purged, but count as missing everywhere else. */
+    public static boolean isOpen(Account account) {
+        return account.getStatus() != AccountStatus.CLOSED;
+    }
+
+    private static String currencyOf(AccountCreateRequest req) {
+        if (req.currency() == null) {
+            return Account.DEFAULT_CURRENCY;
+        }
+        if (!req.currency().matches("[A-Z]{3}")) {
+            throw new IllegalArgumentException("Currency must be a three-letter ISO 4217 code: " + req.currency());
+        }
+        return req.currency();
     }
 
     public Account createAccount(AccountCreateRequest req) {
         final String name = req.name().trim();
         final String iban = req.iban().trim();
 
-        if (accountRepository.existsByName(name)) {
+        if (nameTaken(name)) {
             throw new IllegalArgumentException("Account with name '" + name + "' already exists");
         }
-        if (accountRepository.existsByIban(iban)) {
+        if (ibanTaken(iban)) {
             throw new IllegalArgumentException("Account with IBAN '" + iban + "' already exists");
         }
 
@@ -45,8 +185,11 @@ public class AccountService {
             a.setName(req.name());
             a.setIban(req.iban());
             a.setAvailableAmount(req.initialAmount() == null ? BigDecimal.ZERO : req.initialAmount());
+            a.setCurrency(currencyOf(req));
             a.setStatus(AccountStatus.ACTIVE);
-            return accountRepository.save(a);
+            Account saved = accountRepository.save(a);
+            events.publishEvent(new AccountChangedEvent(saved));
+            return saved;
         } catch (DataIntegrityViolationException ex) {
             throw new IllegalArgumentException("Account with same name or IBAN already exists", ex);
         }
@@ -76,15 +219,16 @@ public class AccountService {
             if (r.initialAmount() != null && r.initialAmount().signum() < 0) {
                 throw new IllegalArgumentException("Initial amount must be >= 0 for account: " + r.name());
             }
+            currencyOf(r);
         }
 
         for (String name : names) {
-            if (accountRepository.existsByName(name)) {
+            if (nameTaken(name)) {
                 throw new IllegalArgumentException("Account with name '" + name + "' already exists");
             }
         }
         for (String iban : ibans) {
-            if (accountRepository.existsByIban(iban)) {
+            if (ibanTaken(iban)) {
                 throw new IllegalArgumentException("Account with IBAN '" + iban + "' already exists");
             }
         }
@@ -95,53 +239,79 @@ public class AccountService {
             a.setIban(r.iban());
             a.setStatus(AccountStatus.ACTIVE);
             a.setAvailableAmount(r.initialAmount() == null ? BigDecimal.ZERO : r.initialAmount());
+            a.setCurrency(currencyOf(r));
             return a;
         }).toList();
 
-        return accountRepository.saveAll(entities);
+        List<Account> saved;
+        try {
+            saved = accountRepository.saveAll(entities);
+        } catch (DataIntegrityViolationException ex) {
+            throw new IllegalArgumentException("Account with same name or IBAN already exists", ex);
+        }
+        saved.forEach(a -> events.publishEvent(new AccountChangedEvent(a)));
+        return saved;
     }
 
 
+    // Every method below saves the whole row, so it loads it under the same row lock a transfer
+    // takes; an unlocked read would write a stale availableAmount back over a concurrent transfer.
     public Account updateAccount(Long id, Account accountDetails) {
-        Account account = accountRepository.findById(id)
+        Account account = accountRepository.lockById(id).filter(AccountService::isOpen)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + id));
 
         if (!account.getName().equals(accountDetails.getName()) &&
-                accountRepository.existsByName(accountDetails.getName())) {
+                nameTaken(accountDetails.getName())) {
             throw new IllegalArgumentException("Account with name '" + accountDetails.getName() + "' already exists");
         }
         if (!account.getIban().equals(accountDetails.getIban()) &&
-                accountRepository.existsByIban(accountDetails.getIban())) {
+                ibanTaken(accountDetails.getIban())) {
             throw new IllegalArgumentException("Account with IBAN '" + accountDetails.getIban() + "' already exists");
         }
 
         account.setName(accountDetails.getName());
         account.setIban(accountDetails.getIban());
+        // a manual balance edit is booked as an adjustment of the opening amount, so the
+        // ledger identity checked by reconciliation still holds
+        account.setOpeningAmount(account.getOpeningAmount()
+                .add(accountDetails.getAvailableAmount().subtract(account.getAvailableAmount())));
         account.setAvailableAmount(accountDetails.getAvailableAmount());
 
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        events.publishEvent(new AccountChangedEvent(saved));
+        return saved;
     }
 
     public Account freezeAccount(Long id) {
-        Account account = accountRepository.findById(id)
+        Account account = accountRepository.lockById(id).filter(AccountService::isOpen)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + id));
 
         account.setStatus(AccountStatus.FROZEN);
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        events.publishEvent(new AccountChangedEvent(saved));
+        return saved;
     }
 
     public Account unfreezeAccount(Long id) {
-        Account account = accountRepository.findById(id)
+        Account account = accountRepository.lockById(id).filter(AccountService::isOpen)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + id));
 
         account.setStatus(AccountStatus.ACTIVE);
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        events.publishEvent(new AccountChangedEvent(saved));
+        return saved;
     }
 
+    /**
+     * Closes the account: from now on it is missing to reads and transfers. The row and its
+     * transfers are archived and removed later by {@code AccountPurgeService}, so deleting an
+     * account with a long history costs the caller one row update.
+     */
     public void deleteAccount(Long id) {
-        if (!accountRepository.existsById(id)) {
-            throw new IllegalArgumentException("Account not found with id: " + id);
-        }
-        accountRepository.deleteById(id);
+        Account account = accountRepository.lockById(id).filter(AccountService::isOpen)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + id));
+        account.setStatus(AccountStatus.CLOSED);
+        accountRepository.save(account);
+        events.publishEvent(new AccountDeletedEvent(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package smartit_task.bank_service.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * One SSE stream: a bounded buffer of recent events for Last-Event-ID resume plus the
+ * set of connected emitters. Sends run on a single fan-out thread so a slow client never
+ * blocks the request thread that committed the change, and event order is preserved.
+ */
+public class ChangeStream {
+
+    public static final String RESET = "reset";
+
+    record Event(long id, String name, Object data) {}
+
+    private final int capacity;
+    private final Executor fanOut;
+    private final Deque<Event> recent = new ArrayDeque<>();
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private long lastId;
+
+    public ChangeStream(int capacity, Executor fanOut) {
+        this.capacity = capacity;
+        this.fanOut = fanOut;
+    }
+
+    public synchronized void publish(String name, Object data) {
+        Event event = new Event(++lastId, name, data);
+        recent.addLast(event);
+        if (recent.size() > capacity) {
+            recent.removeFirst();
+        }
+        fanOut.execute(() -> emitters.forEach(emitter -> send(emitter, event)));
+    }
+
+    public synchronized SseEmitter subscribe(Long lastEventId, long timeoutMillis) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        long resetId = lastId;
+        List<Event> replay = lastEventId == null ? List.of() : eventsAfter(lastEventId);
+        fanOut.execute(() -> {
+            if (replay == null) {
+                send(emitter, new Event(resetId, RESET, Map.of()));
+            } else {
+                replay.forEach(event -> send(emitter, event));
+            }
+            emitters.add(emitter);
+        });
+        return emitter;
+    }
+
+    /**
+     * Events newer than {@code lastEventId}, or {@code null} when the client is too far
+     * behind (or ahead, after a restart) and has to reload its full state.
+     */
+    synchronized List<Event> eventsAfter(long lastEventId) {
+        if (lastEventId > lastId) {
+            return null;
+        }
+        long oldest = recent.isEmpty() ? lastId + 1 : recent.peekFirst().id();
+        if (lastEventId < oldest - 1) {
+            return null;
+        }
+        List<Event> result = new ArrayList<>();
+        for (Event event : recent) {
+            if (event.id() > lastEventId) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    synchronized long lastId() {
+        return lastId;
+    }
+
+    int subscriberCount() {
+        return emitters.size();
+    }
+
+    private void send(SseEmitter emitter, Event event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.id()))
+                    .name(event.name())
+                    .data(event.data(), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException ex) {
+            emitters.remove(emitter);
+            emitter.completeWithError(ex);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package smartit_task.bank_service.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import smartit_task.bank_service.event.AccountChangedEvent;
+import smartit_task.bank_service.event.AccountDeletedEvent;
+import smartit_task.bank_service.event.TransferCommittedEvent;
+import smartit_task.bank_service.mapper.AccountMapper;
+import smartit_task.bank_service.mapper.TransferMapper;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes committed account and transfer changes to SSE subscribers. Listeners run after
+ * commit, so clients never see a change that was rolled back.
+ */
+@Service
+public class ChangeStreamService {
+
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sse-fan-out");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ChangeStream accounts;
+    private final ChangeStream transfers;
+    private final long timeoutMillis;
+
+    public ChangeStreamService(@Value("${app.stream.buffer-size:1024}") int bufferSize,
+                               @Value("${app.stream.timeout-ms:1800000}") long timeoutMillis) {
+        this.accounts = new ChangeStream(bufferSize, fanOut);
+        this.transfers = new ChangeStream(bufferSize, fanOut);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public SseEmitter subscribeAccounts(Long lastEventId) {
+        return accounts.subscribe(lastEventId, timeoutMillis);
+    }
+
+    public SseEmitter subscribeTransfers(Long lastEventId) {
+        return transfers.subscribe(lastEventId, timeoutMillis);
+    }
+
+    @TransactionalEventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        accounts.publish("account", AccountMapper.toResponse(event.account()));
+    }
+
+    @TransactionalEventListener
+    public void onAccountDeleted(AccountDeletedEvent event) {
+        accounts.publish("account-deleted", Map.of("id", event.accountId()));
+    }
+
+    @TransactionalEventListener
+    public void onTransferCommitted(TransferCommittedEvent event) {
+        transfers.publish("transfer", TransferMapper.toResponse(event.debit()));
+        transfers.publish("transfer", TransferMapper.toResponse(event.credit()));
+        accounts.publish("account", AccountMapper.toResponse(event.from()));
+        accounts.publish("account", AccountMapper.toResponse(event.to()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOut.shutdownNow();
+    }
+}
@@ -0,0 +1,258 @@
+package smartit_task.bank_service.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.dto.LedgerDiscrepancy;
+import smartit_task.bank_service.dto.ReconciliationReport;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Checks availableAmount + heldAmount = openingAmount + CREDITs - DEBITs for every account
+ * that is not closed; a closed account's transfers are being archived away by the purger.
+ *
+ * <p>Accounts are split into fixed id ranges that are reconciled in parallel on a fork-join
+ * pool, one repeatable-read transaction per range so balances and transfers come from the
+ * same snapshot. Each range keeps a checkpoint (highest transfer id folded in) and per-account
+ * running totals, so a run only streams transfers newer than the checkpoint.
+ *
+ * <p>Transfers younger than {@code app.reconciliation.settle-window} are compared but not
+ * checkpointed: a lower id could still be uncommitted, and moving the checkpoint past it
+ * would drop it from every later run.
+ */
+@Slf4j
+@Service
+public class LedgerReconciliationService {
+
+    record Range(long start, long end) {}
+
+    record RangeResult(long accounts, long transfers, List<LedgerDiscrepancy> discrepancies) {
+        static final RangeResult EMPTY = new RangeResult(0, 0, List.of());
+
+        RangeResult plus(RangeResult other) {
+            List<LedgerDiscrepancy> all = new ArrayList<>(discrepancies);
+            all.addAll(other.discrepancies);
+            return new RangeResult(accounts + other.accounts, transfers + other.transfers, all);
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate rangeTx;
+    private final long rangeSize;
+    private final int parallelism;
+    private final Duration settleWindow;
+    private final int fetchSize;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private final AtomicReference<ReconciliationReport> lastReport = new AtomicReference<>();
+    private final Timer runTimer;
+
+    public LedgerReconciliationService(JdbcTemplate jdbc,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.reconciliation.range-size:10000}") long rangeSize,
+                                       @Value("${app.reconciliation.parallelism:4}") int parallelism,
+                                       @Value("${app.reconciliation.settle-window:PT1M}") Duration settleWindow,
+                                       @Value("${app.reconciliation.fetch-size:1000}") int fetchSize) {
+        this.jdbc = jdbc;
+        this.rangeTx = new TransactionTemplate(transactionManager);
+        this.rangeTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+        this.settleWindow = settleWindow;
+        this.fetchSize = fetchSize;
+
+        this.runTimer = Timer.builder("reconciliation.run").register(meterRegistry);
+        Gauge.builder("reconciliation.discrepancies", lastReport,
+                        r -> r.get() == null ? 0 : r.get().discrepancies().size())
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.reconciliation.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        try {
+            ReconciliationReport report = run();
+            log.info("Ledger reconciliation: {} accounts, {} transfers, {} discrepancies in {}",
+                    report.accountsChecked(), report.transfersScanned(),
+                    report.discrepancies().size(), report.duration());
+        } catch (IllegalStateException ex) {
+            log.info("Skipping scheduled reconciliation: {}", ex.getMessage());
+        }
+    }
+
+    public ReconciliationReport run() {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Reconciliation is already running");
+        }
+        try {
+            LocalDateTime startedOn = LocalDateTime.now();
+            long t0 = System.nanoTime();
+
+            List<Range> ranges = ranges();
+            LocalDateTime cutoff = startedOn.minus(settleWindow);
+            RangeResult total = RangeResult.EMPTY;
+            if (!ranges.isEmpty()) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    total = pool.invoke(new RangeTask(ranges, cutoff));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            Duration took = Duration.ofNanos(System.nanoTime() - t0);
+            runTimer.record(took);
+            double seconds = Math.max(took.toNanos() / 1e9, 1e-9);
+            ReconciliationReport report = new ReconciliationReport(startedOn, took, ranges.size(),
+                    total.accounts(), total.transfers(), total.transfers() / seconds,
+                    total.discrepancies().stream()
+                            .sorted(Comparator.comparing(LedgerDiscrepancy::accountId))
+                            .toList());
+            lastReport.set(report);
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public Optional<ReconciliationReport> lastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    private List<Range> ranges() {
+        Map<String, Object> bounds = jdbc.queryForMap("SELECT min(id) AS lo, max(id) AS hi FROM accounts");
+        if (bounds.get("lo") == null) {
+            return List.of();
+        }
+        long lo = ((Number) bounds.get("lo")).longValue();
+        long hi = ((Number) bounds.get("hi")).longValue();
+        List<Range> ranges = new ArrayList<>();
+        for (long start = Math.floorDiv(lo, rangeSize) * rangeSize; start <= hi; start += rangeSize) {
+            ranges.add(new Range(start, start + rangeSize - 1));
+        }
+        return ranges;
+    }
+
+    private class RangeTask extends RecursiveTask<RangeResult> {
+        private final List<Range> ranges;
+        private final LocalDateTime cutoff;
+
+        RangeTask(List<Range> ranges, LocalDateTime cutoff) {
+            this.ranges = ranges;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected RangeResult compute() {
+            if (ranges.size() == 1) {
+                return rangeTx.execute(status -> reconcileRange(ranges.get(0), cutoff));
+            }
+            int mid = ranges.size() / 2;
+            RangeTask left = new RangeTask(ranges.subList(0, mid), cutoff);
+            RangeTask right = new RangeTask(ranges.subList(mid, ranges.size()), cutoff);
+            left.fork();
+            RangeResult r = right.compute();
+            return left.join().plus(r);
+        }
+    }
+
+    RangeResult reconcileRange(Range range, LocalDateTime cutoff) {
+        List<Long> checkpoint = jdbc.queryForList(
+                "SELECT last_transfer_id FROM reconciliation_checkpoints WHERE range_start = ?", Long.class, range.start());
+        long fromId = checkpoint.isEmpty() ? 0 : checkpoint.get(0);
+
+        // Stream new transfers in id order. Rows up to the first unsettled one move the checkpoint.
+        Map<Long, BigDecimal> settled = new HashMap<>();
+        Map<Long, BigDecimal> unsettled = new HashMap<>();
+        long[] newCheckpoint = {fromId};
+        long[] scanned = {0};
+        boolean[] sawUnsettled = {false};
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, account_id, type, amount, created_on FROM transfers " +
+                            "WHERE account_id BETWEEN ? AND ? AND id > ? ORDER BY id");
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, range.start());
+            ps.setLong(2, range.end());
+            ps.setLong(3, fromId);
+            return ps;
+        }, rs -> {
+            scanned[0]++;
+            BigDecimal amount = rs.getBigDecimal("amount");
+            BigDecimal signed = "CREDIT".equals(rs.getString("type")) ? amount : amount.negate();
+            Timestamp createdOn = rs.getTimestamp("created_on");
+            if (!sawUnsettled[0] && createdOn.toLocalDateTime().isBefore(cutoff)) {
+                settled.merge(rs.getLong("account_id"), signed, BigDecimal::add);
+                newCheckpoint[0] = rs.getLong("id");
+            } else {
+                sawUnsettled[0] = true;
+                unsettled.merge(rs.getLong("account_id"), signed, BigDecimal::add);
+            }
+        });
+
+        List<LedgerDiscrepancy> discrepancies = new ArrayList<>();
+        List<Object[]> positionUpdates = new ArrayList<>();
+        List<Object[]> positionInserts = new ArrayList<>();
+        long[] accounts = {0};
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT a.id, a.opening_amount, a.available_amount, a.held_amount, p.ledger_net " +
+                            "FROM accounts a LEFT JOIN reconciliation_positions p ON p.account_id = a.id " +
+                            "WHERE a.id BETWEEN ? AND ? AND a.status <> 'CLOSED'");
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, range.start());
+            ps.setLong(2, range.end());
+            return ps;
+        }, rs -> {
+            accounts[0]++;
+            long id = rs.getLong("id");
+            BigDecimal known = rs.getBigDecimal("ledger_net");
+            BigDecimal settledNet = (known == null ? BigDecimal.ZERO : known)
+                    .add(settled.getOrDefault(id, BigDecimal.ZERO));
+            BigDecimal expected = rs.getBigDecimal("opening_amount")
+                    .add(settledNet)
+                    .add(unsettled.getOrDefault(id, BigDecimal.ZERO))
+                    .subtract(rs.getBigDecimal("held_amount"));
+            BigDecimal available = rs.getBigDecimal("available_amount");
+            if (expected.compareTo(available) != 0) {
+                discrepancies.add(new LedgerDiscrepancy(id, expected, available, available.subtract(expected)));
+            }
+            if (settled.containsKey(id)) {
+                (known == null ? positionInserts : positionUpdates).add(new Object[]{settledNet, id});
+            }
+        });
+
+        jdbc.batchUpdate("UPDATE reconciliation_positions SET ledger_net = ? WHERE account_id = ?", positionUpdates);
+        jdbc.batchUpdate("INSERT INTO reconciliation_positions (ledger_net, account_id) VALUES (?, ?)", positionInserts);
+
+        if (newCheckpoint[0] != fromId) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int updated = jdbc.update(
+                    "UPDATE reconciliation_checkpoints SET last_transfer_id = ?, updated_on = ? WHERE range_start = ?",
+                    newCheckpoint[0], now, range.start());
+            if (updated == 0) {
+                jdbc.update("INSERT INTO reconciliation_checkpoints (range_start, range_end, last_transfer_id, updated_on) " +
+                        "VALUES (?, ?, ?, ?)", range.start(), range.end(), newCheckpoint[0], now);
+            }
+        }
+        return new RangeResult(accounts[0], scanned[0], discrepancies);
+    }
+}
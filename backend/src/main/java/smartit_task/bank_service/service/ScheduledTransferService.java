@@ -0,0 +1,99 @@
+package smartit_task.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import smartit_task.bank_service.dto.ScheduledTransferCreateRequest;
+import smartit_task.bank_service.entity.ScheduleRecurrence;
+import smartit_task.bank_service.entity.ScheduleStatus;
+import smartit_task.bank_service.entity.ScheduledTransfer;
+import smartit_task.bank_service.event.ScheduledTransferChangedEvent;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.repository.ScheduledTransferRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class ScheduledTransferService {
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher events;
+
+    @Transactional(readOnly = true)
+    public Optional<ScheduledTransfer> getById(Long id) {
+        return scheduledTransferRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduledTransfer> getByFromAccountId(Long accountId) {
+        return scheduledTransferRepository.findByFromAccountIdOrderByIdDesc(accountId);
+    }
+
+    public ScheduledTransfer create(ScheduledTransferCreateRequest req) {
+        if (req.fromAccountId().equals(req.toAccountId())) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
+        if (req.endsOn() != null && req.endsOn().isBefore(req.firstRunAt())) {
+            throw new IllegalArgumentException("Schedule end must not be before its first run");
+        }
+        if (accountRepository.findById(req.fromAccountId()).filter(AccountService::isOpen).isEmpty()) {
+            throw new IllegalArgumentException("Account not found with id: " + req.fromAccountId());
+        }
+        if (accountRepository.findById(req.toAccountId()).filter(AccountService::isOpen).isEmpty()) {
+            throw new IllegalArgumentException("Account not found with id: " + req.toAccountId());
+        }
+
+        ScheduledTransfer s = new ScheduledTransfer();
+        s.setFromAccountId(req.fromAccountId());
+        s.setToAccountId(req.toAccountId());
+        s.setAmount(req.amount());
+        s.setRecurrence(req.recurrence() == null ? ScheduleRecurrence.ONCE : req.recurrence());
+        s.setFirstRunAt(req.firstRunAt());
+        s.setNextRunAt(req.firstRunAt());
+        s.setEndsOn(req.endsOn());
+        s.setOccurrence(0);
+        s.setStatus(ScheduleStatus.ACTIVE);
+        ScheduledTransfer saved = scheduledTransferRepository.save(s);
+        events.publishEvent(new ScheduledTransferChangedEvent(saved.getId(), saved.getNextRunAt()));
+        return saved;
+    }
+
+    public ScheduledTransfer cancel(Long id) {
+        ScheduledTransfer s = scheduledTransferRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Scheduled transfer not found with id: " + id));
+        if (s.getStatus() == ScheduleStatus.ACTIVE) {
+            s.setStatus(ScheduleStatus.CANCELLED);
+            s.setNextRunAt(null);
+        }
+        return scheduledTransferRepository.save(s);
+    }
+
+    /**
+     * Moves the schedule past {@code occurrence}. A no-op if another worker already did,
+     * so re-running an occurrence after a crash cannot skip the next one.
+     */
+    public ScheduledTransfer completeOccurrence(Long id, long occurrence, String error) {
+        ScheduledTransfer s = scheduledTransferRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Scheduled transfer not found with id: " + id));
+        if (s.getStatus() != ScheduleStatus.ACTIVE || s.getOccurrence() != occurrence) {
+            return s;
+        }
+        long next = occurrence + 1;
+        LocalDateTime nextRunAt = s.getRecurrence().occurrence(s.getFirstRunAt(), next);
+        s.setOccurrence(next);
+        s.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 255)));
+        if (nextRunAt == null || (s.getEndsOn() != null && nextRunAt.isAfter(s.getEndsOn()))) {
+            s.setStatus(ScheduleStatus.COMPLETED);
+            s.setNextRunAt(null);
+        } else {
+            s.setNextRunAt(nextRunAt);
+        }
+        return scheduledTransferRepository.save(s);
+    }
+}
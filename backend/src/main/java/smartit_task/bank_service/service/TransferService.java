@@ -1,16 +1,24 @@
 package smartit_task.bank_service.service;
 
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import smartit_task.bank_service.dto.ListVersion;
 import smartit_task.bank_service.entity.Account;
 import smartit_task.bank_service.entity.AccountStatus;
 import smartit_task.bank_service.entity.Transfer;
 import smartit_task.bank_service.entity.TransferType;
+import smartit_task.bank_service.event.TransferCommittedEvent;
 import smartit_task.bank_service.repository.AccountRepository;
 import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.service.fx.FxRateSnapshot;
+import smartit_task.bank_service.service.fx.FxRates;
+import smartit_task.bank_service.service.idempotency.IdempotencyKeyStore;
+import smartit_task.bank_service.service.limits.VelocityLimiter;
+import smartit_task.bank_service.service.outbox.OutboxWriter;
+import smartit_task.bank_service.service.rollup.TransferRollupWriter;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -23,11 +31,24 @@ public class TransferService {
 
     private final AccountRepository accountRepository;
     private final TransferRepository transferRepository;
-
+    private final ApplicationEventPublisher events;
+    private final OutboxWriter outbox;
+    private final VelocityLimiter velocityLimiter;
+    private final TransferRollupWriter rollups;
+    private final IdempotencyKeyStore idempotencyKeys;
+    private final FxRates fxRates;
+
+    @Transactional(readOnly = true)
     public List<Transfer> getAllTransfersByAccountId(Long accountId) {
         return transferRepository.findAllTransfersByAccountId(accountId);
     }
 
+    @Transactional(readOnly = true)
+    public ListVersion getTransfersVersion(Long accountId) {
+        return transferRepository.listVersionByAccountId(accountId);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Transfer> getTransferById(Long id) {
         return transferRepository.findById(id);
     }
@@ -41,23 +62,39 @@ public class TransferService {
             throw new IllegalArgumentException("Transfer amount must be positive");
         }
 
-        if (idemKey != null && !idemKey.isBlank()) {
-            var prior = transferRepository.findByAccountIdAndIdempotencyKeyAndType(fromAccountId, idemKey, TransferType.DEBIT);
+        boolean keyed = idemKey != null && !idemKey.isBlank();
+        byte[] keyHash = keyed ? IdempotencyKeyStore.keyHash(fromAccountId, idemKey) : null;
+        long fingerprint = keyed ? IdempotencyKeyStore.fingerprint(fromAccountId, toAccountId, amount) : 0;
+        if (keyed) {
+            var prior = replay(keyHash, fingerprint);
             if (prior.isPresent()) return prior.get();
         }
 
+        VelocityLimiter.Reservation reserved = velocityLimiter.reserve(fromAccountId, amount);
+
         Long firstId  = fromAccountId < toAccountId ? fromAccountId : toAccountId;
         Long secondId = fromAccountId < toAccountId ? toAccountId   : fromAccountId;
 
-        Account firstLocked = accountRepository.lockById(firstId)
+        Account firstLocked = accountRepository.lockById(firstId).filter(AccountService::isOpen)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + firstId));
-        Account secondLocked = accountRepository.lockById(secondId)
+        Account secondLocked = accountRepository.lockById(secondId).filter(AccountService::isOpen)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + secondId));
 
         Account fromAccount = fromAccountId.equals(firstId) ? firstLocked : secondLocked;
         Account toAccount   = toAccountId.equals(secondId) ? secondLocked : firstLocked;
 
 
+        // A concurrent call with the same key may have committed while this one waited for the
+        // lock; every such call locks the same source row, so the check is authoritative here.
+        if (keyed) {
+            var prior = replay(keyHash, fingerprint);
+            if (prior.isPresent()) {
+                // the replay commits, so the rollback hook would not give the reservation back
+                reserved.release();
+                return prior.get();
+            }
+        }
+
         if (fromAccount.getStatus() == AccountStatus.FROZEN) {
             throw new IllegalArgumentException("Source account is frozen");
         }
@@ -67,34 +104,54 @@ public class TransferService {
         if (fromAccount.getAvailableAmount().compareTo(amount) < 0) {
             throw new IllegalArgumentException("Insufficient funds in source account");
         }
+        if (reserved.nearLimit()) {
+            velocityLimiter.verifyExact(fromAccountId, amount, fromAccount.getCurrency());
+        }
 
-        Transfer debitTransfer = new Transfer(fromAccountId, toAccountId, TransferType.DEBIT, amount);
-        Transfer creditTransfer = new Transfer(toAccountId, fromAccountId, TransferType.CREDIT, amount);
+        // the amount is in the source currency; the destination is credited at the current snapshot's rate
+        FxRateSnapshot.Conversion fx = fromAccount.getCurrency().equals(toAccount.getCurrency()) ? null
+                : fxRates.current().convert(amount, fromAccount.getCurrency(), toAccount.getCurrency());
+        BigDecimal credited = fx == null ? amount : fx.amount();
 
-        if (idemKey != null && !idemKey.isBlank()) {
-            debitTransfer.setIdempotencyKey(idemKey);
-            creditTransfer.setIdempotencyKey(idemKey);
+        Transfer debitTransfer = new Transfer(fromAccountId, toAccountId, TransferType.DEBIT, amount, fromAccount.getCurrency());
+        Transfer creditTransfer = new Transfer(toAccountId, fromAccountId, TransferType.CREDIT, credited, toAccount.getCurrency());
+        if (fx != null) {
+            fx.stamp(debitTransfer, creditTransfer);
         }
 
-
         fromAccount.setAvailableAmount(fromAccount.getAvailableAmount().subtract(amount));
-        toAccount.setAvailableAmount(toAccount.getAvailableAmount().add(amount));
-
-
-        try {
-            transferRepository.save(debitTransfer);
-            transferRepository.save(creditTransfer);
-            accountRepository.save(fromAccount);
-            accountRepository.save(toAccount);
-            return debitTransfer;
-        } catch (DataIntegrityViolationException dup) {
-            if (idemKey != null && !idemKey.isBlank()) {
-                return transferRepository
-                        .findByAccountIdAndIdempotencyKeyAndType(fromAccountId, idemKey, TransferType.DEBIT)
-                        .orElseThrow(() -> dup);
-            }
-            throw dup;
+        toAccount.setAvailableAmount(toAccount.getAvailableAmount().add(credited));
+
+
+        transferRepository.save(debitTransfer);
+        transferRepository.save(creditTransfer);
+        accountRepository.save(fromAccount);
+        accountRepository.save(toAccount);
+        if (keyed) {
+            // cannot collide: the replay check above ran under the source row lock every holder of
+            // the key takes, and a failed insert would abort the transaction on PostgreSQL anyway
+            idempotencyKeys.remember(keyHash, fingerprint, debitTransfer.getId());
         }
+        outbox.transferCreated(debitTransfer, creditTransfer);
+        rollups.record(debitTransfer, creditTransfer);
+        events.publishEvent(new TransferCommittedEvent(debitTransfer, creditTransfer, fromAccount, toAccount));
+        return debitTransfer;
+    }
+
+    /**
+     * The transfer a stored key produced, if any.
+     *
+     * @throws IllegalArgumentException when the key was first used with a different request
+     */
+    private Optional<Transfer> replay(byte[] keyHash, long fingerprint) {
+        return idempotencyKeys.find(keyHash)
+                .map(entry -> {
+                    if (entry.fingerprint() != fingerprint) {
+                        throw new IllegalArgumentException("Idempotency key was already used for a different transfer");
+                    }
+                    return entry.transferId();
+                })
+                .flatMap(transferRepository::findById);
     }
 
 
@@ -102,6 +159,7 @@ public class TransferService {
         return createTransfer(fromAccountId, toAccountId, amount, null);
     }
 
+    @Transactional(readOnly = true)
     public List<Transfer> getAllTransfers() {
         return transferRepository.findAll();
     }
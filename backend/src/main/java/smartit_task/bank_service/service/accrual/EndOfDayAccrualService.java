@@ -0,0 +1,283 @@
+package smartit_task.bank_service.service.accrual;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.dto.AccrualRunReport;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.entity.TransferType;
+import smartit_task.bank_service.event.AccountChangedEvent;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.service.outbox.OutboxWriter;
+import smartit_task.bank_service.service.rollup.TransferRollupWriter;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Posts daily interest and a daily fee to every ACTIVE account; FROZEN accounts are skipped.
+ *
+ * <p>Accounts are split into id ranges aligned to multiples of {@code app.accrual.range-size},
+ * so a range covers the same ids on every run. Ranges are posted in parallel, each in one
+ * transaction: lock the range's accounts in id order, batch-update their balances, batch-insert
+ * the CREDIT (interest) and DEBIT (fee) rows with one {@code PostingCreated} outbox event each,
+ * and write the range's checkpoint. Every posted account is published as changed after commit. A run that
+ * stopped part-way is resumed by running the same business date again; committed ranges are
+ * skipped by their checkpoint, and each posting carries the key
+ * {@code accrual-int-<date>}/{@code accrual-fee-<date>}, so an account is never posted
+ * twice for a date even if the range size changed in between.
+ *
+ * <p>Interest is {@code (available + held) * annual-interest-rate / day-count}, rounded half-even
+ * to cents. The fee is only charged when the available amount covers it.
+ */
+@Slf4j
+@Service
+public class EndOfDayAccrualService {
+
+    // postings are never created before their business date, so the key check only has to scan
+    // the account's transfers since then (idx_transfers_account_created)
+    private static final String LOCK_RANGE =
+            "SELECT id, currency, available_amount, held_amount FROM accounts a " +
+                    "WHERE id BETWEEN ? AND ? AND status = 'ACTIVE' AND NOT EXISTS (" +
+                    "SELECT 1 FROM transfers t WHERE t.account_id = a.id AND t.created_on >= ? AND t.idempotency_key IN (?, ?)) " +
+                    "ORDER BY id FOR UPDATE";
+    private static final String INSERT_POSTING =
+            "INSERT INTO transfers (account_id, beneficiary_account_id, type, amount, currency, created_on, modified_on, " +
+                    "idempotency_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    record Range(int shard, long start, long end) {}
+
+    record RangeResult(int accounts, BigDecimal interest, BigDecimal fees) {
+        static final RangeResult DONE = new RangeResult(-1, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate rangeTx;
+    private final TransferRollupWriter rollups;
+    private final OutboxWriter outbox;
+    private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher events;
+    private final ShardRouter shards;
+    private final BigDecimal dailyRate;
+    private final BigDecimal dailyFee;
+    private final long rangeSize;
+    private final int parallelism;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public EndOfDayAccrualService(JdbcTemplate jdbc,
+                                  PlatformTransactionManager transactionManager,
+                                  TransferRollupWriter rollups,
+                                  OutboxWriter outbox,
+                                  AccountRepository accountRepository,
+                                  ApplicationEventPublisher events,
+                                  ShardRouter shards,
+                                  @Value("${app.accrual.annual-interest-rate:0}") BigDecimal annualRate,
+                                  @Value("${app.accrual.day-count:365}") int dayCount,
+                                  @Value("${app.accrual.daily-fee:0}") BigDecimal dailyFee,
+                                  @Value("${app.accrual.range-size:1000}") long rangeSize,
+                                  @Value("${app.accrual.parallelism:4}") int parallelism) {
+        this.jdbc = jdbc;
+        this.rangeTx = new TransactionTemplate(transactionManager);
+        this.rollups = rollups;
+        this.outbox = outbox;
+        this.accountRepository = accountRepository;
+        this.events = events;
+        this.shards = shards;
+        this.dailyRate = annualRate.divide(BigDecimal.valueOf(dayCount), MathContext.DECIMAL64);
+        this.dailyFee = dailyFee.setScale(2, RoundingMode.HALF_EVEN);
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+    }
+
+    /** Posts the day that just ended. */
+    @Scheduled(cron = "${app.accrual.cron:0 5 0 * * *}")
+    public void scheduledRun() {
+        try {
+            AccrualRunReport report = run(LocalDate.now().minusDays(1));
+            log.info("End-of-day accrual {}: {} accounts, interest {}, fees {} in {}", report.businessDate(),
+                    report.accountsPosted(), report.interestPosted(), report.feesPosted(), report.duration());
+        } catch (IllegalStateException ex) {
+            log.warn("End-of-day accrual did not finish: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Posts interest and fees for {@code businessDate}, skipping ranges already posted for it.
+     *
+     * @throws IllegalStateException when another run is in progress or a range failed; committed
+     *                               ranges stay posted and the next run picks up the rest
+     */
+    public AccrualRunReport run(LocalDate businessDate) {
+        if (businessDate == null || businessDate.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Business date must not be in the future");
+        }
+        if (!running.tryLock()) {
+            throw new IllegalStateException("End-of-day accrual is already running");
+        }
+        try {
+            long t0 = System.nanoTime();
+            List<Range> ranges = new ArrayList<>();
+            for (int shard = 0; shard < shards.shardCount(); shard++) {
+                ranges.addAll(ranges(shard));
+            }
+
+            int alreadyDone = 0;
+            long accounts = 0;
+            BigDecimal interest = BigDecimal.ZERO;
+            BigDecimal fees = BigDecimal.ZERO;
+            if (dailyRate.signum() > 0 || dailyFee.signum() > 0) {
+                ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+                try {
+                    List<Future<RangeResult>> results = new ArrayList<>();
+                    for (Range r : ranges) {
+                        results.add(pool.submit(() -> shards.onShard(r.shard(),
+                                () -> rangeTx.execute(status -> postRange(r, businessDate)))));
+                    }
+                    for (Future<RangeResult> f : results) {
+                        RangeResult result = f.get();
+                        if (result == RangeResult.DONE) {
+                            alreadyDone++;
+                            continue;
+                        }
+                        accounts += result.accounts();
+                        interest = interest.add(result.interest());
+                        fees = fees.add(result.fees());
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("End-of-day accrual interrupted", ex);
+                } catch (ExecutionException ex) {
+                    throw new IllegalStateException("End-of-day accrual failed for " + businessDate, ex.getCause());
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+            return new AccrualRunReport(businessDate, ranges.size(), alreadyDone, accounts, interest, fees,
+                    Duration.ofNanos(System.nanoTime() - t0));
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private List<Range> ranges(int shard) {
+        Map<String, Object> bounds = shards.onShard(shard,
+                () -> jdbc.queryForMap("SELECT min(id) AS lo, max(id) AS hi FROM accounts"));
+        if (bounds.get("lo") == null) {
+            return List.of();
+        }
+        long lo = ((Number) bounds.get("lo")).longValue();
+        long hi = ((Number) bounds.get("hi")).longValue();
+        List<Range> ranges = new ArrayList<>();
+        for (long s = Math.floorDiv(lo - 1, rangeSize) * rangeSize + 1; s <= hi; s += rangeSize) {
+            ranges.add(new Range(shard, s, s + rangeSize - 1));
+        }
+        return ranges;
+    }
+
+    RangeResult postRange(Range range, LocalDate businessDate) {
+        Date day = Date.valueOf(businessDate);
+        Integer done = jdbc.queryForObject(
+                "SELECT count(*) FROM accrual_checkpoints WHERE business_date = ? AND range_start = ?",
+                Integer.class, day, range.start());
+        if (done != null && done > 0) {
+            return RangeResult.DONE;
+        }
+
+        String interestKey = "accrual-int-" + businessDate;
+        String feeKey = "accrual-fee-" + businessDate;
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp at = Timestamp.valueOf(now);
+
+        List<Object[]> balances = new ArrayList<>();
+        List<Object[]> postings = new ArrayList<>();
+        List<Transfer> ledger = new ArrayList<>();
+        BigDecimal[] totals = {BigDecimal.ZERO, BigDecimal.ZERO};
+
+        jdbc.query(LOCK_RANGE, rs -> {
+            long id = rs.getLong("id");
+            String currency = rs.getString("currency");
+            BigDecimal available = rs.getBigDecimal("available_amount");
+            BigDecimal balance = available.add(rs.getBigDecimal("held_amount"));
+
+            BigDecimal interest = balance.signum() > 0
+                    ? balance.multiply(dailyRate).setScale(2, RoundingMode.HALF_EVEN)
+                    : BigDecimal.ZERO;
+            BigDecimal fee = available.add(interest).compareTo(dailyFee) >= 0 ? dailyFee : BigDecimal.ZERO;
+            if (interest.signum() == 0 && fee.signum() == 0) {
+                return;
+            }
+            if (interest.signum() > 0) {
+                postings.add(new Object[]{id, id, TransferType.CREDIT.name(), interest, currency, at, at, interestKey});
+                ledger.add(posting(id, TransferType.CREDIT, interest, currency, now));
+                totals[0] = totals[0].add(interest);
+            }
+            if (fee.signum() > 0) {
+                postings.add(new Object[]{id, id, TransferType.DEBIT.name(), fee, currency, at, at, feeKey});
+                ledger.add(posting(id, TransferType.DEBIT, fee, currency, now));
+                totals[1] = totals[1].add(fee);
+            }
+            balances.add(new Object[]{available.add(interest).subtract(fee), at, id});
+        }, range.start(), range.end(), Timestamp.valueOf(businessDate.atStartOfDay()), interestKey, feeKey);
+
+        if (!balances.isEmpty()) {
+            jdbc.batchUpdate("UPDATE accounts SET available_amount = ?, modified_on = ? WHERE id = ?", balances);
+            insertPostings(postings, ledger);
+            outbox.postingsCreated(ledger);
+            rollups.record(ledger.toArray(Transfer[]::new));
+            accountRepository.findAllById(balances.stream().map(b -> (Long) b[2]).toList())
+                    .forEach(a -> events.publishEvent(new AccountChangedEvent(a)));
+        }
+        jdbc.update("INSERT INTO accrual_checkpoints (business_date, range_start, range_end, accounts_posted, completed_on) " +
+                "VALUES (?, ?, ?, ?, ?)", day, range.start(), range.end(), balances.size(), at);
+        return new RangeResult(balances.size(), totals[0], totals[1]);
+    }
+
+    /** Batch-inserts the postings and copies the generated ids onto the matching {@code ledger} entries. */
+    private void insertPostings(List<Object[]> postings, List<Transfer> ledger) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(con -> con.prepareStatement(INSERT_POSTING, new String[]{"id"}), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Object[] row = postings.get(i);
+                for (int c = 0; c < row.length; c++) {
+                    ps.setObject(c + 1, row[c]);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return postings.size();
+            }
+        }, keys);
+        List<Map<String, Object>> ids = keys.getKeyList();
+        for (int i = 0; i < ledger.size(); i++) {
+            ledger.get(i).setId(((Number) ids.get(i).get("id")).longValue());
+        }
+    }
+
+    private static Transfer posting(long accountId, TransferType type, BigDecimal amount, String currency, LocalDateTime at) {
+        Transfer t = new Transfer(accountId, accountId, type, amount, currency);
+        t.setCreatedOn(at);
+        t.setModifiedOn(at);
+        return t;
+    }
+}
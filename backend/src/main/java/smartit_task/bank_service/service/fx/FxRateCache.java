@@ -0,0 +1,112 @@
+package smartit_task.bank_service.service.fx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.entity.Account;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * The rates in {@code fx_rates} as an {@link FxRateSnapshot} behind an AtomicReference.
+ * Transfers read whatever snapshot is current without taking a lock; a refresh builds a new
+ * snapshot off to the side and swaps it in, and never replaces one with an older version.
+ *
+ * <p>Every publish stamps the rows it writes with the next version, and the snapshot version
+ * is the highest row version. A refresh first reads only that number and reloads the table
+ * when it has moved. It runs at startup, every {@code app.fx.refresh-interval-ms} and right
+ * after a publish on this instance, so other instances pick up new rates within one interval.
+ * Rates are quoted against the default account currency and kept on the default shard.
+ */
+@Slf4j
+@Component
+public class FxRateCache implements FxRates, SmartInitializingSingleton {
+
+    private static final Pattern CURRENCY = Pattern.compile("[A-Z]{3}");
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate publishTx;
+    private final AtomicReference<FxRateSnapshot> snapshot =
+            new AtomicReference<>(FxRateSnapshot.empty(Account.DEFAULT_CURRENCY));
+
+    public FxRateCache(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.publishTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public FxRateSnapshot current() {
+        return snapshot.get();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.fx.refresh-interval-ms:30000}",
+            initialDelayString = "${app.fx.refresh-interval-ms:30000}")
+    public void refresh() {
+        Long latest = jdbc.queryForObject("SELECT coalesce(max(version), 0) FROM fx_rates", Long.class);
+        if (latest == null || latest <= snapshot.get().version()) {
+            return;
+        }
+        Map<String, BigDecimal> rates = new HashMap<>();
+        long[] version = {0};
+        jdbc.query("SELECT currency, per_base, version FROM fx_rates", rs -> {
+            rates.put(rs.getString(1), rs.getBigDecimal(2));
+            version[0] = Math.max(version[0], rs.getLong(3));
+        });
+        FxRateSnapshot next = FxRateSnapshot.of(version[0], Account.DEFAULT_CURRENCY, rates);
+        if (snapshot.accumulateAndGet(next, (current, n) -> n.version() > current.version() ? n : current) == next) {
+            log.info("FX rates: snapshot {} with {} currencies", next.version(), next.perBase().size());
+        }
+    }
+
+    /**
+     * Stores {@code perBase} (units per one unit of the default currency) as a new version and
+     * makes it current on this instance. Currencies that are left out keep their last rate.
+     *
+     * @throws IllegalArgumentException for an invalid currency code or rate
+     */
+    public FxRateSnapshot publish(Map<String, BigDecimal> perBase) {
+        if (perBase == null || perBase.isEmpty()) {
+            throw new IllegalArgumentException("No FX rates given");
+        }
+        for (String currency : perBase.keySet()) {
+            if (currency == null || !CURRENCY.matcher(currency).matches()) {
+                throw new IllegalArgumentException("Invalid currency code: " + currency);
+            }
+        }
+        FxRateSnapshot.of(0, Account.DEFAULT_CURRENCY, perBase);
+
+        publishTx.executeWithoutResult(status -> {
+            // locking the existing rows serializes publishers, so each one gets its own version
+            jdbc.queryForList("SELECT currency FROM fx_rates ORDER BY currency FOR UPDATE", String.class);
+            long version = jdbc.queryForObject("SELECT coalesce(max(version), 0) + 1 FROM fx_rates", Long.class);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            perBase.forEach((currency, rate) -> {
+                if (currency.equals(Account.DEFAULT_CURRENCY)) {
+                    return;
+                }
+                if (jdbc.update("UPDATE fx_rates SET per_base = ?, version = ?, updated_on = ? WHERE currency = ?",
+                        rate, version, now, currency) == 0) {
+                    jdbc.update("INSERT INTO fx_rates (currency, per_base, version, updated_on) VALUES (?, ?, ?, ?)",
+                            currency, rate, version, now);
+                }
+            });
+        });
+        refresh();
+        return current();
+    }
+}
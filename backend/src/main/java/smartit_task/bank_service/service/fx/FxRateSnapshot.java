@@ -0,0 +1,125 @@
+package smartit_task.bank_service.service.fx;
+
+import smartit_task.bank_service.entity.Transfer;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * An immutable set of exchange rates, shared by every transfer until a refresh replaces it.
+ * The cross rate of every currency pair is computed when the snapshot is built, so a
+ * conversion is two map lookups, an array read and one multiplication.
+ *
+ * <p>Rates are given as units of a currency per one unit of {@code base}; a cross rate is
+ * rounded to {@link #RATE_SCALE} decimals and converted amounts to cents, half-even.
+ */
+public final class FxRateSnapshot {
+
+    public static final int RATE_SCALE = 12;
+
+    /** {@code amount} in the target currency, converted at {@code rate} from snapshot {@code version}. */
+    public record Conversion(BigDecimal amount, BigDecimal rate, long version) {
+
+        /** Records the rate and the snapshot version on the rows of one transfer. */
+        public void stamp(Transfer... rows) {
+            for (Transfer t : rows) {
+                t.setFxRate(rate);
+                t.setFxRateVersion(version);
+            }
+        }
+    }
+
+    private final long version;
+    private final String base;
+    private final SortedMap<String, BigDecimal> perBase;
+    private final Map<String, Integer> index;
+    private final BigDecimal[][] cross;
+
+    private FxRateSnapshot(long version, String base, SortedMap<String, BigDecimal> perBase) {
+        this.version = version;
+        this.base = base;
+        this.perBase = Collections.unmodifiableSortedMap(perBase);
+        BigDecimal[] rates = perBase.values().toArray(BigDecimal[]::new);
+        Map<String, Integer> positions = new HashMap<>();
+        for (String currency : perBase.keySet()) {
+            positions.put(currency, positions.size());
+        }
+        this.index = Map.copyOf(positions);
+        this.cross = new BigDecimal[rates.length][rates.length];
+        for (int from = 0; from < rates.length; from++) {
+            for (int to = 0; to < rates.length; to++) {
+                cross[from][to] = from == to ? BigDecimal.ONE : rates[to].divide(rates[from], RATE_SCALE, RoundingMode.HALF_EVEN);
+            }
+        }
+    }
+
+    /**
+     * @param perBase units of each currency per one unit of {@code base}; the base may be left out
+     * @throws IllegalArgumentException for a rate that is not positive, or a base rate other than 1
+     */
+    public static FxRateSnapshot of(long version, String base, Map<String, BigDecimal> perBase) {
+        SortedMap<String, BigDecimal> rates = new TreeMap<>(perBase);
+        rates.forEach((currency, rate) -> {
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("FX rate for " + currency + " must be positive");
+            }
+        });
+        BigDecimal own = rates.put(base, BigDecimal.ONE);
+        if (own != null && own.compareTo(BigDecimal.ONE) != 0) {
+            throw new IllegalArgumentException("FX rate of the base currency " + base + " must be 1");
+        }
+        return new FxRateSnapshot(version, base, rates);
+    }
+
+    public static FxRateSnapshot empty(String base) {
+        return of(0, base, Map.of());
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public String base() {
+        return base;
+    }
+
+    /** Units of each currency per one unit of the base currency, by currency code. */
+    public SortedMap<String, BigDecimal> perBase() {
+        return perBase;
+    }
+
+    /** @throws IllegalArgumentException when either currency has no rate */
+    public BigDecimal rate(String from, String to) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        return cross[position(from)][position(to)];
+    }
+
+    /**
+     * Converts {@code amount} from one currency to the other.
+     *
+     * @throws IllegalArgumentException when either currency has no rate, or the amount rounds to zero
+     */
+    public Conversion convert(BigDecimal amount, String from, String to) {
+        BigDecimal rate = rate(from, to);
+        BigDecimal converted = amount.multiply(rate).setScale(2, RoundingMode.HALF_EVEN);
+        if (converted.signum() <= 0) {
+            throw new IllegalArgumentException("Amount is too small to convert from " + from + " to " + to);
+        }
+        return new Conversion(converted, rate, version);
+    }
+
+    private int position(String currency) {
+        Integer i = index.get(currency);
+        if (i == null) {
+            throw new IllegalArgumentException("No FX rate for " + currency);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,7 @@
+package smartit_task.bank_service.service.fx;
+
+/** The rate snapshot transfers convert with; implementations must return without blocking. */
+public interface FxRates {
+
+    FxRateSnapshot current();
+}
@@ -0,0 +1,87 @@
+package smartit_task.bank_service.service.history;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Input of the historical transfer import. Each record is one legacy transfer and becomes a
+ * DEBIT and a CREDIT row, like a transfer booked through the API. Files ending in {@code .csv}
+ * are read as CSV, anything else as binary.
+ *
+ * <pre>
+ * csv     := the header line "from_account_id,to_account_id,amount,created_on", then one record
+ *            per line: decimal ids, amount with at most two decimals, ISO-8601 local date-time
+ * binary  := records of 32 bytes, big-endian, no header:
+ *            int64 fromAccountId, int64 toAccountId, int64 amountCents, int64 createdOn epoch millis
+ * </pre>
+ *
+ * Binary timestamps are converted in the server's time zone, the same one the wire results use.
+ */
+public final class TransferHistoryFormat {
+
+    public static final String CSV_HEADER = "from_account_id,to_account_id,amount,created_on";
+    public static final int RECORD_SIZE = 32;
+
+    /** One legacy transfer; {@code seq} is its zero-based position in the file. */
+    public record Record(long seq, long fromAccountId, long toAccountId, long amountCents, LocalDateTime createdOn) {}
+
+    private TransferHistoryFormat() {}
+
+    public static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    /** @throws IllegalArgumentException saying why the line is not a valid record */
+    public static Record parseCsv(long seq, String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("expected 4 fields, found " + fields.length);
+        }
+        try {
+            BigDecimal amount = new BigDecimal(fields[2].trim());
+            if (amount.stripTrailingZeros().scale() > 2) {
+                throw new IllegalArgumentException("amount has more than two decimals");
+            }
+            return validate(new Record(seq, Long.parseLong(fields[0].trim()), Long.parseLong(fields[1].trim()),
+                    amount.movePointRight(2).longValueExact(), LocalDateTime.parse(fields[3].trim())));
+        } catch (NumberFormatException | ArithmeticException | DateTimeParseException ex) {
+            throw new IllegalArgumentException(ex.getMessage());
+        }
+    }
+
+    /** Reads one record from {@code buf}; the record's bytes are consumed even when it is invalid. */
+    public static Record decode(long seq, ByteBuffer buf, ZoneId zone) {
+        long from = buf.getLong();
+        long to = buf.getLong();
+        long cents = buf.getLong();
+        long createdOnMillis = buf.getLong();
+        return validate(new Record(seq, from, to, cents,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(createdOnMillis), zone)));
+    }
+
+    public static void encode(DataOutputStream out, long fromAccountId, long toAccountId, long amountCents,
+                              long createdOnMillis) throws IOException {
+        out.writeLong(fromAccountId);
+        out.writeLong(toAccountId);
+        out.writeLong(amountCents);
+        out.writeLong(createdOnMillis);
+    }
+
+    private static Record validate(Record r) {
+        if (r.amountCents() <= 0) {
+            throw new IllegalArgumentException("amount must be positive");
+        }
+        if (r.fromAccountId() == r.toAccountId()) {
+            throw new IllegalArgumentException("source and destination account are the same");
+        }
+        return r;
+    }
+}
@@ -0,0 +1,55 @@
+package smartit_task.bank_service.service.history;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import smartit_task.bank_service.dto.HistoryImportReport;
+
+import java.nio.file.Path;
+
+/**
+ * Offline import mode: started with {@code app.import.file}, the application imports that file,
+ * logs the report and exits with status 0, or 1 when the import failed. Run it with
+ * {@code --spring.main.web-application-type=none} and no other instance serving the same
+ * database; running it again with the same file resumes from its checkpoint.
+ *
+ * <p>Like the startup warmup, the switch is read at run time rather than as a bean condition.
+ */
+@Slf4j
+@Component
+public class TransferHistoryImportRunner implements ApplicationRunner {
+
+    private final TransferHistoryImportService importService;
+    private final ConfigurableApplicationContext context;
+    private final String file;
+
+    public TransferHistoryImportRunner(TransferHistoryImportService importService,
+                                       ConfigurableApplicationContext context,
+                                       @Value("${app.import.file:}") String file) {
+        this.importService = importService;
+        this.context = context;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (file.isBlank()) {
+            return;
+        }
+        int status;
+        try {
+            HistoryImportReport report = importService.importFile(Path.of(file));
+            report.rejections().forEach(r -> log.warn("Transfer import {}: rejected {}", report.source(), r));
+            status = 0;
+        } catch (RuntimeException ex) {
+            log.error("Transfer import of {} failed; run again to resume", file, ex);
+            status = 1;
+        }
+        int exitCode = status;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
@@ -0,0 +1,417 @@
+package smartit_task.bank_service.service.history;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.dto.HistoryImportReport;
+import smartit_task.bank_service.service.history.TransferHistoryFormat.Record;
+import smartit_task.bank_service.service.rollup.TransferRollupService;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Loads legacy transfer history without going through {@code createTransfer}: no row locks, no
+ * balance updates, no outbox events, no idempotency keys. Meant for an offline migration, see
+ * {@link TransferHistoryImportRunner}; live transfers during an import would be overwritten by
+ * the final rebalance.
+ *
+ * <p>The file is read sequentially in chunks of {@code app.import.batch-size} records. Chunks
+ * are parsed and validated on {@code app.import.parsers} threads (including one account lookup
+ * per chunk and shard), while the calling thread writes the finished chunks in file order. Each
+ * chunk is one transaction per shard, written with {@code COPY} on PostgreSQL and batched inserts
+ * elsewhere, and moves that shard's checkpoint in {@code transfer_import_checkpoints} in the same
+ * transaction. A restarted import skips what every shard has committed, so no record is written
+ * twice. The checkpoint remembers the file size and refuses a file that has changed.
+ *
+ * <p>Both accounts of a record must be in the same currency, since a record has only one amount.
+ * Balances are not touched while loading. Once the file is done every open account's balance
+ * is recomputed in one statement per shard as opening amount plus CREDITs minus DEBITs, minus
+ * what is held, and the daily rollups are rebuilt.
+ */
+@Slf4j
+@Service
+public class TransferHistoryImportService {
+
+    private static final String COLUMNS =
+            "transfers (account_id, beneficiary_account_id, type, amount, currency, created_on, modified_on)";
+    private static final String INSERT = "INSERT INTO " + COLUMNS + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String COPY = "COPY " + COLUMNS + " FROM STDIN";
+    private static final String REBALANCE =
+            "UPDATE accounts SET available_amount = opening_amount - held_amount + coalesce((" +
+                    "SELECT sum(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END) " +
+                    "FROM transfers t WHERE t.account_id = accounts.id), 0), modified_on = CURRENT_TIMESTAMP " +
+                    "WHERE status <> 'CLOSED'";
+
+    private static final int MAX_REJECTIONS_REPORTED = 20;
+    private static final int ID_LOOKUP_CHUNK = 1000;
+
+    /** Records {@code [firstSeq, endSeq)} of the file that passed validation, in file order, with their accounts' currency. */
+    record Batch(long firstSeq, long endSeq, long endOffset, List<Record> records, Map<Long, String> currencies,
+                 List<String> rejections) {}
+
+    /** One chunk of the file, read but not yet parsed; null from {@link #next()} at the end. */
+    private interface ChunkReader {
+        Callable<Batch> next() throws IOException;
+    }
+
+    private static final class ImportRun {
+        final String source;
+        final long size;
+        final long[] done;
+        final boolean copy;
+        final long t0 = System.nanoTime();
+        long nextLog;
+        long read;
+        long imported;
+        long rejected;
+        long offset;
+        final List<String> rejections = new ArrayList<>();
+
+        ImportRun(String source, long size, long[] done, boolean copy) {
+            this.source = source;
+            this.size = size;
+            this.done = done;
+            this.copy = copy;
+        }
+
+        long resumeAfter() {
+            return Arrays.stream(done).min().orElse(0);
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final ShardRouter shards;
+    private final TransferRollupService rollups;
+    private final TransactionTemplate batchTx;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final int batchSize;
+    private final int parsers;
+    private final Duration progressInterval;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public TransferHistoryImportService(JdbcTemplate jdbc,
+                                        PlatformTransactionManager transactionManager,
+                                        ShardRouter shards,
+                                        TransferRollupService rollups,
+                                        @Value("${app.import.batch-size:5000}") int batchSize,
+                                        @Value("${app.import.parsers:4}") int parsers,
+                                        @Value("${app.import.progress-interval:PT10S}") Duration progressInterval) {
+        this.jdbc = jdbc;
+        this.shards = shards;
+        this.rollups = rollups;
+        this.batchTx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.parsers = parsers;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Imports {@code file}, resuming after its last checkpoint.
+     *
+     * @throws IllegalStateException when another import is in progress
+     */
+    public HistoryImportReport importFile(Path file) {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("A transfer history import is already running");
+        }
+        try {
+            return run(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read " + file, ex);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private HistoryImportReport run(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchElementException("Import file not found: " + file);
+        }
+        boolean csv = TransferHistoryFormat.isCsv(file);
+        long size = Files.size(file);
+        if (!csv && size % TransferHistoryFormat.RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Import file " + file.getFileName() + " is not a whole number of "
+                    + TransferHistoryFormat.RECORD_SIZE + "-byte records");
+        }
+        String source = file.getFileName().toString();
+        long[] done = shards.onEachShard(s -> checkpoint(source, size)).stream().mapToLong(Long::longValue).toArray();
+        ImportRun run = new ImportRun(source, size, done, isPostgres());
+        long resumeAfter = run.resumeAfter();
+        if (resumeAfter > 0) {
+            log.info("Transfer import {}: resuming after {} records", source, resumeAfter);
+        }
+        run.nextLog = run.t0 + progressInterval.toNanos();
+
+        ExecutorService pool = Executors.newFixedThreadPool(parsers);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            ChunkReader chunks = csv ? csvChunks(in, resumeAfter) : binaryChunks(in, resumeAfter);
+            Deque<Future<Batch>> inFlight = new ArrayDeque<>();
+            Callable<Batch> chunk;
+            while ((chunk = chunks.next()) != null) {
+                inFlight.add(pool.submit(chunk));
+                if (inFlight.size() > parsers) {
+                    write(inFlight.poll().get(), run);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.poll().get(), run);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Transfer history import interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Transfer history import failed", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        logProgress(run);
+
+        long rebalanced = 0;
+        for (Integer n : shards.onEachShard(s -> batchTx.execute(status -> jdbc.update(REBALANCE)))) {
+            rebalanced += n;
+        }
+        rollups.backfill(null, null);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        shards.onEachShard(s -> jdbc.update(
+                "UPDATE transfer_import_checkpoints SET completed_on = ?, updated_on = ? WHERE source = ?", now, now, source));
+
+        HistoryImportReport report = new HistoryImportReport(source, resumeAfter, run.read, run.imported, run.rejected,
+                List.copyOf(run.rejections), rebalanced, Duration.ofNanos(System.nanoTime() - run.t0));
+        log.info("Transfer import {}: {} records imported, {} rejected, {} accounts rebalanced in {}",
+                source, report.recordsImported(), report.recordsRejected(), rebalanced, report.duration());
+        return report;
+    }
+
+    /** Returns the records already committed on the current shard, creating the checkpoint on first use. */
+    private long checkpoint(String source, long size) {
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "SELECT source_size, records_done FROM transfer_import_checkpoints WHERE source = ?", source);
+        if (rows.isEmpty()) {
+            jdbc.update("INSERT INTO transfer_import_checkpoints (source, source_size, records_done, transfers_written, updated_on) " +
+                    "VALUES (?, ?, 0, 0, ?)", source, size, Timestamp.valueOf(LocalDateTime.now()));
+            return 0;
+        }
+        long stored = ((Number) rows.get(0).get("source_size")).longValue();
+        if (stored != size) {
+            throw new IllegalArgumentException("Import file " + source + " changed since its checkpoint (" +
+                    stored + " bytes, now " + size + ")");
+        }
+        return ((Number) rows.get(0).get("records_done")).longValue();
+    }
+
+    private ChunkReader csvChunks(InputStream in, long skip) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null || !header.trim().equalsIgnoreCase(TransferHistoryFormat.CSV_HEADER)) {
+            throw new IllegalArgumentException("CSV import must start with the header " + TransferHistoryFormat.CSV_HEADER);
+        }
+        long[] position = {0, header.length() + 1};
+        for (; position[0] < skip; position[0]++) {
+            String line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            position[1] += line.length() + 1;
+        }
+        return () -> {
+            List<String> lines = new ArrayList<>(batchSize);
+            String line;
+            while (lines.size() < batchSize && (line = reader.readLine()) != null) {
+                lines.add(line);
+                position[1] += line.length() + 1;
+            }
+            if (lines.isEmpty()) {
+                return null;
+            }
+            long first = position[0];
+            position[0] += lines.size();
+            long endOffset = position[1];
+            // the header is line 1, so record n is on line n + 2
+            return () -> parse(first, lines.size(), endOffset, seq -> "line " + (seq + 2),
+                    seq -> TransferHistoryFormat.parseCsv(seq, lines.get((int) (seq - first))));
+        };
+    }
+
+    private ChunkReader binaryChunks(InputStream in, long skip) throws IOException {
+        in.skipNBytes(skip * TransferHistoryFormat.RECORD_SIZE);
+        long[] seq = {skip};
+        return () -> {
+            byte[] bytes = in.readNBytes(batchSize * TransferHistoryFormat.RECORD_SIZE);
+            if (bytes.length == 0) {
+                return null;
+            }
+            long first = seq[0];
+            int count = bytes.length / TransferHistoryFormat.RECORD_SIZE;
+            seq[0] += count;
+            long endOffset = seq[0] * TransferHistoryFormat.RECORD_SIZE;
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            return () -> parse(first, count, endOffset, n -> "record " + n,
+                    n -> TransferHistoryFormat.decode(n, buf, zone));
+        };
+    }
+
+    /** Runs on a parser thread; {@code decode} is called once per record, in order. */
+    private Batch parse(long first, int count, long endOffset, LongFunction<String> where, LongFunction<Record> decode) {
+        List<Record> records = new ArrayList<>(count);
+        List<String> rejections = new ArrayList<>();
+        for (long seq = first; seq < first + count; seq++) {
+            try {
+                records.add(decode.apply(seq));
+            } catch (IllegalArgumentException ex) {
+                rejections.add(where.apply(seq) + ": " + ex.getMessage());
+            }
+        }
+        Map<Long, String> currencies = openAccounts(records);
+        List<Record> valid = new ArrayList<>(records.size());
+        for (Record r : records) {
+            String from = currencies.get(r.fromAccountId());
+            String to = currencies.get(r.toAccountId());
+            if (from == null) {
+                rejections.add(where.apply(r.seq()) + ": account " + r.fromAccountId() + " not found or closed");
+            } else if (to == null) {
+                rejections.add(where.apply(r.seq()) + ": account " + r.toAccountId() + " not found or closed");
+            } else if (!from.equals(to)) {
+                // a record has one amount, so it cannot say what the other side received
+                rejections.add(where.apply(r.seq()) + ": accounts are in different currencies (" + from + ", " + to + ")");
+            } else {
+                valid.add(r);
+            }
+        }
+        return new Batch(first, first + count, endOffset, valid, currencies, rejections);
+    }
+
+    /** Currency of every open account among the records' accounts, by id. */
+    private Map<Long, String> openAccounts(List<Record> records) {
+        Map<Integer, Set<Long>> byShard = new HashMap<>();
+        for (Record r : records) {
+            for (long id : new long[]{r.fromAccountId(), r.toAccountId()}) {
+                try {
+                    byShard.computeIfAbsent(shards.shardOf(id), s -> new HashSet<>()).add(id);
+                } catch (IllegalArgumentException ex) {
+                    // outside every shard, so it cannot exist
+                }
+            }
+        }
+        Map<Long, String> known = new HashMap<>();
+        byShard.forEach((shard, ids) -> {
+            List<Long> all = new ArrayList<>(ids);
+            for (int i = 0; i < all.size(); i += ID_LOOKUP_CHUNK) {
+                List<Long> part = all.subList(i, Math.min(all.size(), i + ID_LOOKUP_CHUNK));
+                String in = String.join(", ", Collections.nCopies(part.size(), "?"));
+                known.putAll(shards.onShard(shard, () -> {
+                    Map<Long, String> found = new HashMap<>();
+                    jdbc.query("SELECT id, currency FROM accounts WHERE status <> 'CLOSED' AND id IN (" + in + ")",
+                            (RowCallbackHandler) rs -> found.put(rs.getLong(1), rs.getString(2)), part.toArray());
+                    return found;
+                }));
+            }
+        });
+        return known;
+    }
+
+    /**
+     * Writes each shard's rows of {@code batch} and moves that shard's checkpoint in the same
+     * transaction; records a shard already committed in an earlier run are left out.
+     */
+    private void write(Batch batch, ImportRun run) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            long committed = run.done[shard];
+            if (batch.endSeq() <= committed) {
+                continue;
+            }
+            List<Object[]> rows = new ArrayList<>(2 * batch.records().size());
+            for (Record r : batch.records()) {
+                if (r.seq() < committed) {
+                    continue;
+                }
+                BigDecimal amount = BigDecimal.valueOf(r.amountCents(), 2);
+                String currency = batch.currencies().get(r.fromAccountId());
+                Timestamp at = Timestamp.valueOf(r.createdOn());
+                if (shards.shardOf(r.fromAccountId()) == shard) {
+                    rows.add(new Object[]{r.fromAccountId(), r.toAccountId(), "DEBIT", amount, currency, at, at});
+                }
+                if (shards.shardOf(r.toAccountId()) == shard) {
+                    rows.add(new Object[]{r.toAccountId(), r.fromAccountId(), "CREDIT", amount, currency, at, at});
+                }
+            }
+            shards.onShard(shard, () -> batchTx.execute(status -> {
+                if (run.copy) {
+                    copy(rows);
+                } else {
+                    jdbc.batchUpdate(INSERT, rows);
+                }
+                return jdbc.update("UPDATE transfer_import_checkpoints SET records_done = ?, " +
+                                "transfers_written = transfers_written + ?, updated_on = ? WHERE source = ?",
+                        batch.endSeq(), rows.size(), now, run.source);
+            }));
+            run.done[shard] = batch.endSeq();
+        }
+        run.read += batch.endSeq() - batch.firstSeq();
+        run.imported += batch.records().size();
+        run.rejected += batch.rejections().size();
+        run.offset = batch.endOffset();
+        for (String r : batch.rejections()) {
+            if (run.rejections.size() == MAX_REJECTIONS_REPORTED) {
+                break;
+            }
+            run.rejections.add(r);
+        }
+        if (System.nanoTime() >= run.nextLog) {
+            run.nextLog = System.nanoTime() + progressInterval.toNanos();
+            logProgress(run);
+        }
+    }
+
+    /** Streams the rows through {@code COPY ... FROM STDIN} on the transaction's connection. */
+    private void copy(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(rows.size() * 64);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                text.append(row[i]).append(i == row.length - 1 ? '\n' : '\t');
+            }
+        }
+        jdbc.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY, new StringReader(text.toString()));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    private void logProgress(ImportRun run) {
+        double seconds = Math.max(1e-3, (System.nanoTime() - run.t0) / 1e9);
+        log.info("Transfer import {}: {} records read ({}% of the file), {} imported, {} rejected, {} records/s",
+                run.source, run.read, run.size == 0 ? 100 : run.offset * 100 / run.size,
+                run.imported, run.rejected, Math.round(run.read / seconds));
+    }
+
+    private boolean isPostgres() {
+        return "PostgreSQL".equalsIgnoreCase(
+                jdbc.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName()));
+    }
+}
@@ -0,0 +1,89 @@
+package smartit_task.bank_service.service.holds;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.entity.Hold;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.repository.HoldRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Releases expired holds in batches instead of arming a timer per hold. A batch is claimed
+ * with {@code FOR UPDATE SKIP LOCKED}, so a hold being captured right now is left alone, and
+ * each account in the batch gets a single UPDATE for all of its expired holds. Accounts are
+ * updated in id order to stay consistent with transfer locking.
+ */
+@Slf4j
+@Component
+public class HoldExpirySweeper {
+
+    private final HoldRepository holdRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final boolean enabled;
+    private final Counter expired;
+
+    public HoldExpirySweeper(HoldRepository holdRepository,
+                             AccountRepository accountRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.holds.sweep-batch-size:500}") int batchSize,
+                             @Value("${app.holds.sweeper.enabled:true}") boolean enabled) {
+        this.holdRepository = holdRepository;
+        this.accountRepository = accountRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.enabled = enabled;
+        this.expired = Counter.builder("holds.expired").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.holds.sweep-interval-ms:5000}")
+    public void scheduledSweep() {
+        if (!enabled) {
+            return;
+        }
+        int n = sweep();
+        if (n > 0) {
+            log.info("Released {} expired holds", n);
+        }
+    }
+
+    /** Expires everything that is due; returns the number of holds released. */
+    public int sweep() {
+        int total = 0;
+        int n;
+        do {
+            n = tx.execute(status -> sweepBatch());
+            total += n;
+        } while (n == batchSize);
+        return total;
+    }
+
+    private int sweepBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Hold> batch = holdRepository.claimExpired(now, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<Long, BigDecimal> perAccount = new TreeMap<>();
+        for (Hold h : batch) {
+            perAccount.merge(h.getAccountId(), h.getAmount(), BigDecimal::add);
+        }
+        holdRepository.markExpired(batch.stream().map(Hold::getId).toList(), now);
+        perAccount.forEach((accountId, amount) -> accountRepository.settleHold(accountId, amount, amount, now));
+        expired.increment(batch.size());
+        return batch.size();
+    }
+}
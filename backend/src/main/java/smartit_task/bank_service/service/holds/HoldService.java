@@ -0,0 +1,185 @@
+package smartit_task.bank_service.service.holds;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import smartit_task.bank_service.dto.HoldCreateRequest;
+import smartit_task.bank_service.entity.*;
+import smartit_task.bank_service.event.TransferCommittedEvent;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.repository.HoldRepository;
+import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.fx.FxRateSnapshot;
+import smartit_task.bank_service.service.fx.FxRates;
+import smartit_task.bank_service.service.outbox.OutboxWriter;
+import smartit_task.bank_service.service.rollup.TransferRollupWriter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Authorize/capture on top of the account balance. A hold moves funds from available to held
+ * with one conditional UPDATE of the account row, so it never takes the explicit
+ * {@code lockById} locks that {@code createTransfer} uses and needs no lock ordering of its
+ * own. Capture books a normal DEBIT/CREDIT pair; the account rows are updated in id order,
+ * the same order {@code createTransfer} locks them in.
+ */
+@Service
+@Transactional
+public class HoldService {
+
+    private final HoldRepository holdRepository;
+    private final AccountRepository accountRepository;
+    private final TransferRepository transferRepository;
+    private final OutboxWriter outbox;
+    private final TransferRollupWriter rollups;
+    private final ApplicationEventPublisher events;
+    private final FxRates fxRates;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    public HoldService(HoldRepository holdRepository,
+                       AccountRepository accountRepository,
+                       TransferRepository transferRepository,
+                       OutboxWriter outbox,
+                       TransferRollupWriter rollups,
+                       ApplicationEventPublisher events,
+                       FxRates fxRates,
+                       @Value("${app.holds.default-ttl:P7D}") Duration defaultTtl,
+                       @Value("${app.holds.max-ttl:P30D}") Duration maxTtl) {
+        this.holdRepository = holdRepository;
+        this.accountRepository = accountRepository;
+        this.transferRepository = transferRepository;
+        this.outbox = outbox;
+        this.rollups = rollups;
+        this.events = events;
+        this.fxRates = fxRates;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Hold> getById(Long id) {
+        return holdRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Hold> getByAccountId(Long accountId) {
+        return holdRepository.findByAccountIdOrderByIdDesc(accountId);
+    }
+
+    public Hold create(HoldCreateRequest req) {
+        if (req.accountId().equals(req.beneficiaryAccountId())) {
+            throw new IllegalArgumentException("Cannot hold funds for the same account");
+        }
+        Duration ttl = req.ttlSeconds() == null ? defaultTtl : Duration.ofSeconds(req.ttlSeconds());
+        if (ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("Hold cannot last longer than " + maxTtl);
+        }
+        if (accountRepository.findById(req.beneficiaryAccountId()).filter(AccountService::isOpen).isEmpty()) {
+            throw new IllegalArgumentException("Account not found with id: " + req.beneficiaryAccountId());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (accountRepository.placeHold(req.accountId(), req.amount(), now) == 0) {
+            Account account = accountRepository.findById(req.accountId()).filter(AccountService::isOpen)
+                    .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + req.accountId()));
+            if (account.getStatus() == AccountStatus.FROZEN) {
+                throw new IllegalArgumentException("Source account is frozen");
+            }
+            throw new IllegalArgumentException("Insufficient funds in source account");
+        }
+
+        Hold hold = new Hold();
+        hold.setAccountId(req.accountId());
+        hold.setBeneficiaryAccountId(req.beneficiaryAccountId());
+        hold.setAmount(req.amount());
+        hold.setStatus(HoldStatus.ACTIVE);
+        hold.setExpiresAt(now.plus(ttl));
+        return holdRepository.save(hold);
+    }
+
+    /**
+     * Captures {@code amount} (the whole hold if null) to the beneficiary and releases the
+     * rest. A hold can be captured once. The hold is in the payer's currency; a payee in another
+     * currency is credited the converted amount.
+     */
+    public Transfer capture(Long holdId, BigDecimal amount) {
+        Hold hold = find(holdId);
+        BigDecimal captured = amount == null ? hold.getAmount() : amount;
+        if (captured.signum() <= 0 || captured.compareTo(hold.getAmount()) > 0) {
+            throw new IllegalArgumentException("Capture amount must be between 0.01 and " + hold.getAmount());
+        }
+        Long payer = hold.getAccountId();
+        Long payee = hold.getBeneficiaryAccountId();
+        String payerCurrency = currencyOf(payer);
+        String payeeCurrency = currencyOf(payee);
+        FxRateSnapshot.Conversion fx = payerCurrency.equals(payeeCurrency) ? null
+                : fxRates.current().convert(captured, payerCurrency, payeeCurrency);
+        BigDecimal credited = fx == null ? captured : fx.amount();
+
+        LocalDateTime now = LocalDateTime.now();
+        if (holdRepository.settle(holdId, HoldStatus.CAPTURED, captured, now) == 0) {
+            throw new IllegalArgumentException("Hold is no longer active: " + holdId);
+        }
+
+        if (payer < payee) {
+            accountRepository.settleHold(payer, hold.getAmount(), hold.getAmount().subtract(captured), now);
+            creditBeneficiary(payee, credited, now);
+        } else {
+            creditBeneficiary(payee, credited, now);
+            accountRepository.settleHold(payer, hold.getAmount(), hold.getAmount().subtract(captured), now);
+        }
+
+        Transfer debit = new Transfer(payer, payee, TransferType.DEBIT, captured, payerCurrency);
+        Transfer credit = new Transfer(payee, payer, TransferType.CREDIT, credited, payeeCurrency);
+        if (fx != null) {
+            fx.stamp(debit, credit);
+        }
+        debit.setIdempotencyKey("hold-" + holdId);
+        credit.setIdempotencyKey("hold-" + holdId);
+        transferRepository.save(debit);
+        transferRepository.save(credit);
+        outbox.transferCreated(debit, credit);
+        rollups.record(debit, credit);
+
+        Map<Long, Account> accounts = accountRepository.findAllById(List.of(payer, payee)).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        events.publishEvent(new TransferCommittedEvent(debit, credit, accounts.get(payer), accounts.get(payee)));
+        return debit;
+    }
+
+    public Hold release(Long holdId) {
+        Hold hold = find(holdId);
+        LocalDateTime now = LocalDateTime.now();
+        if (holdRepository.settle(holdId, HoldStatus.RELEASED, null, now) == 0) {
+            throw new IllegalArgumentException("Hold is no longer active: " + holdId);
+        }
+        accountRepository.settleHold(hold.getAccountId(), hold.getAmount(), hold.getAmount(), now);
+        return find(holdId);
+    }
+
+    private void creditBeneficiary(Long accountId, BigDecimal amount, LocalDateTime now) {
+        if (accountRepository.credit(accountId, amount, now) == 0) {
+            throw new IllegalArgumentException("Destination account is frozen or missing: " + accountId);
+        }
+    }
+
+    private String currencyOf(Long accountId) {
+        return accountRepository.findCurrencyById(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Destination account is frozen or missing: " + accountId));
+    }
+
+    private Hold find(Long holdId) {
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> new IllegalArgumentException("Hold not found with id: " + holdId));
+    }
+}
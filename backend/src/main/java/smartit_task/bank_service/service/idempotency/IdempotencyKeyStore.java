@@ -0,0 +1,118 @@
+package smartit_task.bank_service.service.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Client idempotency keys in {@code idempotency_keys}, one fixed-size row per key: the first 16
+ * bytes of SHA-256 over (source account, key), the DEBIT transfer it produced and a 64-bit
+ * fingerprint of the request. Keys are scoped to the source account, so every request with a
+ * given key locks the same account row, and the transfer service's check under that lock decides
+ * between replay and a new transfer.
+ *
+ * <p>A key is honoured for at least {@code app.idempotency.ttl}. Expired rows are deleted in
+ * batches of {@code app.idempotency.purge-batch-size} by a scheduled purge on every shard; until
+ * then they still replay.
+ */
+@Slf4j
+@Component
+public class IdempotencyKeyStore {
+
+    /** The transfer a key produced, and the fingerprint of the request that produced it. */
+    public record Entry(long transferId, long fingerprint) {}
+
+    private static final String PURGE_BATCH =
+            "DELETE FROM idempotency_keys WHERE key_hash IN (" +
+                    "SELECT key_hash FROM idempotency_keys WHERE expires_at <= ? LIMIT ?)";
+
+    private final JdbcTemplate jdbc;
+    private final ShardRouter shards;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+
+    public IdempotencyKeyStore(JdbcTemplate jdbc,
+                               ShardRouter shards,
+                               @Value("${app.idempotency.ttl:P1D}") Duration ttl,
+                               @Value("${app.idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        this.jdbc = jdbc;
+        this.shards = shards;
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    public static byte[] keyHash(long accountId, String key) {
+        MessageDigest sha = sha256();
+        sha.update(ByteBuffer.allocate(Long.BYTES).putLong(accountId).array());
+        sha.update(key.getBytes(StandardCharsets.UTF_8));
+        return Arrays.copyOf(sha.digest(), 16);
+    }
+
+    /** Equal for equal requests; the amount's scale does not matter (10 and 10.00 match). */
+    public static long fingerprint(long fromAccountId, long toAccountId, BigDecimal amount) {
+        MessageDigest sha = sha256();
+        sha.update(ByteBuffer.allocate(2 * Long.BYTES).putLong(fromAccountId).putLong(toAccountId).array());
+        sha.update(amount.stripTrailingZeros().toPlainString().getBytes(StandardCharsets.US_ASCII));
+        return ByteBuffer.wrap(sha.digest()).getLong();
+    }
+
+    public Optional<Entry> find(byte[] keyHash) {
+        return jdbc.query("SELECT transfer_id, fingerprint FROM idempotency_keys WHERE key_hash = ?",
+                rs -> rs.next() ? Optional.of(new Entry(rs.getLong(1), rs.getLong(2))) : Optional.empty(),
+                (Object) keyHash);
+    }
+
+    /** Joins the caller's transaction; fails with a duplicate-key error if the key is already stored. */
+    public void remember(byte[] keyHash, long fingerprint, long transferId) {
+        jdbc.update("INSERT INTO idempotency_keys (key_hash, transfer_id, fingerprint, expires_at) VALUES (?, ?, ?, ?)",
+                keyHash, transferId, fingerprint, Timestamp.valueOf(LocalDateTime.now().plus(ttl)));
+    }
+
+    @Scheduled(cron = "${app.idempotency.purge-cron:0 */10 * * * *}")
+    public void scheduledPurge() {
+        long n = purgeExpired();
+        if (n > 0) {
+            log.info("Purged {} expired idempotency keys", n);
+        }
+    }
+
+    /** Deletes expired keys on every shard, one batch per statement; returns the number deleted. */
+    public long purgeExpired() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long total = 0;
+        for (long n : shards.onEachShard(s -> {
+            long deleted = 0;
+            int batch;
+            do {
+                batch = jdbc.update(PURGE_BATCH, now, purgeBatchSize);
+                deleted += batch;
+            } while (batch == purgeBatchSize);
+            return deleted;
+        })) {
+            total += n;
+        }
+        return total;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
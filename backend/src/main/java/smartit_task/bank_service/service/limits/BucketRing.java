@@ -0,0 +1,65 @@
+package smartit_task.bank_service.service.limits;
+
+import java.util.Arrays;
+
+/**
+ * Fixed ring of time buckets holding amounts in cents. The window sum includes the whole
+ * oldest bucket, so it can only overestimate recent spend, never underestimate it.
+ * Not thread-safe; callers hold the owning stripe's lock.
+ */
+final class BucketRing {
+
+    private final long[] buckets;
+    private final long bucketMillis;
+    private long head = Long.MIN_VALUE;
+    private long sum;
+
+    BucketRing(int buckets, long bucketMillis) {
+        this.buckets = new long[buckets];
+        this.bucketMillis = bucketMillis;
+    }
+
+    long sum(long nowMillis) {
+        advance(nowMillis / bucketMillis);
+        return sum;
+    }
+
+    void add(long atMillis, long cents) {
+        long index = atMillis / bucketMillis;
+        if (head != Long.MIN_VALUE && index <= head - buckets.length) {
+            return;
+        }
+        advance(index);
+        buckets[slot(index)] += cents;
+        sum += cents;
+    }
+
+    /** Undoes an {@link #add} made at {@code atMillis}, unless that bucket has already expired. */
+    void subtract(long atMillis, long nowMillis, long cents) {
+        long index = atMillis / bucketMillis;
+        advance(nowMillis / bucketMillis);
+        if (index > head - buckets.length && index <= head) {
+            buckets[slot(index)] -= cents;
+            sum -= cents;
+        }
+    }
+
+    private void advance(long index) {
+        if (head == Long.MIN_VALUE || index - head >= buckets.length) {
+            Arrays.fill(buckets, 0);
+            sum = 0;
+            head = index;
+            return;
+        }
+        while (head < index) {
+            head++;
+            int s = slot(head);
+            sum -= buckets[s];
+            buckets[s] = 0;
+        }
+    }
+
+    private int slot(long index) {
+        return (int) Math.floorMod(index, (long) buckets.length);
+    }
+}
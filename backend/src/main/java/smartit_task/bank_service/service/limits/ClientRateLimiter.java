@@ -0,0 +1,173 @@
+package smartit_task.bank_service.service.limits;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import smartit_task.bank_service.config.RateLimitProperties;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client request budgets for the HTTP API, one {@link TokenBucket} per client and
+ * {@link RequestClass}.
+ *
+ * <p>At most {@code app.rate-limit.max-clients} clients are tracked. When the map is full, clients
+ * whose buckets have refilled completely are dropped first; that loses nothing, since a new
+ * bucket starts full. If every tracked client is still busy, newcomers share one overflow
+ * client, so a flood of distinct addresses costs bounded memory and competes for one budget.
+ *
+ * <p>{@code api.ratelimit.requests} counts every decision by class and outcome only, so the
+ * number of series does not depend on who calls. With {@code app.rate-limit.per-client-metrics}
+ * each tracked client also gets {@code api.ratelimit.client.requests} counters tagged with its
+ * id; they are removed with the client.
+ */
+@Component
+public class ClientRateLimiter {
+
+    public enum RequestClass { READ, WRITE, INTERNAL }
+
+    /** {@code retryAfterNanos} is 0 when the request may proceed. */
+    public record Decision(long retryAfterNanos, long remaining) {
+        public boolean allowed() {
+            return retryAfterNanos == 0;
+        }
+    }
+
+    static final String OVERFLOW = "overflow";
+    private static final long SWEEP_EVERY_NANOS = 1_000_000_000L;
+
+    private final class Client {
+        final TokenBucket read;
+        final TokenBucket write;
+        final TokenBucket internal;
+        final Counter[] counters;
+
+        Client(String id, long now) {
+            read = newBucket(properties.getRead(), now);
+            write = newBucket(properties.getWrite(), now);
+            internal = newBucket(properties.getInternal(), now);
+            counters = properties.isPerClientMetrics()
+                    ? counters("api.ratelimit.client.requests", Tags.of("client", id)) : null;
+        }
+
+        TokenBucket bucket(RequestClass type) {
+            return switch (type) {
+                case READ -> read;
+                case WRITE -> write;
+                case INTERNAL -> internal;
+            };
+        }
+
+        boolean idle(long now) {
+            return read.isFull(now) && write.isFull(now) && internal.isFull(now);
+        }
+
+        void remove() {
+            if (counters == null) {
+                return;
+            }
+            for (Counter c : counters) {
+                meterRegistry.remove(c);
+            }
+        }
+    }
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Counter[] totals;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    @Autowired
+    public ClientRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ClientRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.lastSweep.set(nanoClock.getAsLong() - SWEEP_EVERY_NANOS);
+        this.totals = counters("api.ratelimit.requests", Tags.empty());
+        Gauge.builder("api.ratelimit.clients", clients, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Decision acquire(String clientId, RequestClass type) {
+        long now = nanoClock.getAsLong();
+        Client client = clientFor(clientId, now);
+        TokenBucket bucket = client.bucket(type);
+        long wait = bucket.tryAcquire(now);
+        int outcome = type.ordinal() * 2 + (wait == 0 ? 0 : 1);
+        totals[outcome].increment();
+        if (client.counters != null) {
+            client.counters[outcome].increment();
+        }
+        return new Decision(wait, bucket.available(now));
+    }
+
+    /** Drops clients whose buckets are full again. */
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        lastSweep.set(now);
+        clients.entrySet().removeIf(e -> {
+            if (!e.getValue().idle(now)) {
+                return false;
+            }
+            e.getValue().remove();
+            return true;
+        });
+    }
+
+    /** One counter per class and outcome, indexed {@code class.ordinal() * 2 + (rejected ? 1 : 0)}. */
+    private Counter[] counters(String name, Tags tags) {
+        Counter[] counters = new Counter[RequestClass.values().length * 2];
+        int i = 0;
+        for (RequestClass type : RequestClass.values()) {
+            for (String outcome : List.of("allowed", "rejected")) {
+                counters[i++] = Counter.builder(name).tags(tags)
+                        .tag("class", type.name().toLowerCase()).tag("outcome", outcome)
+                        .register(meterRegistry);
+            }
+        }
+        return counters;
+    }
+
+    private static TokenBucket newBucket(RateLimitProperties.Budget budget, long now) {
+        return new TokenBucket(budget.getPerSecond(), budget.getBurst(), now);
+    }
+
+    int trackedClients() {
+        return clients.size();
+    }
+
+    private Client clientFor(String clientId, long now) {
+        Client known = clients.get(clientId);
+        if (known != null) {
+            return known;
+        }
+        if (clients.size() >= properties.getMaxClients()) {
+            long last = lastSweep.get();
+            if (now - last >= SWEEP_EVERY_NANOS && lastSweep.compareAndSet(last, now)) {
+                evictIdle();
+            }
+            if (clients.size() >= properties.getMaxClients()) {
+                return clients.computeIfAbsent(OVERFLOW, id -> new Client(id, now));
+            }
+        }
+        return clients.computeIfAbsent(clientId, id -> new Client(id, now));
+    }
+}
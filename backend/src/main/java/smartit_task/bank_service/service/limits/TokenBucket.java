@@ -0,0 +1,45 @@
+package smartit_task.bank_service.service.limits;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as a single "theoretical arrival time" (the GCRA form): the moment the
+ * bucket would be full again. Taking a token pushes that moment one refill interval further;
+ * the request is refused when it would lie more than a full bucket ahead of now. One CAS per
+ * request and no lock, so contended clients never block each other.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(double perSecond, int burst, long nowNanos) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / perSecond));
+        this.capacityNanos = intervalNanos * Math.max(1, burst);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /** Takes a token; returns 0 on success, otherwise the nanos until one is available. */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > capacityNanos) {
+                return ahead - capacityNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    long available(long nowNanos) {
+        return (capacityNanos - Math.max(0, fullAt.get() - nowNanos)) / intervalNanos;
+    }
+
+    boolean isFull(long nowNanos) {
+        return fullAt.get() <= nowNanos;
+    }
+}
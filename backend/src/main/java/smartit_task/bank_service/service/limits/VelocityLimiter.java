@@ -0,0 +1,321 @@
+package smartit_task.bank_service.service.limits;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.service.fx.FxRateSnapshot;
+import smartit_task.bank_service.service.fx.FxRates;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-account outgoing limits over a sliding minute and a sliding day.
+ *
+ * <p>Totals live in memory, sharded over lock stripes by account id, so the check in
+ * {@code createTransfer} costs a hash lookup and a few array reads before any row lock is
+ * taken. The amount is reserved on
+ * success and given back if the transaction rolls back, which keeps concurrent transfers from
+ * the same account from overshooting together. A caller that finds an idempotent replay once it
+ * holds the lock commits without transferring, so it gives its {@link Reservation} back itself.
+ *
+ * <p>Limits are amounts in the FX base currency. Windows count in the account's own currency and
+ * each check converts the limit at the current rate, so the same settings mean the same money
+ * for a EUR and a JPY account, and nothing in memory needs converting when rates move. An
+ * account in a currency without a rate cannot send while a limit is on.
+ *
+ * <p>Buckets make the in-memory totals slightly pessimistic. When a transfer would take an
+ * account past {@code app.limits.near-ratio} of a limit, {@link #verifyExact} re-checks
+ * against the transfers table while the caller holds the account's row lock.
+ */
+@Component
+public class VelocityLimiter implements SmartInitializingSingleton {
+
+    static final int MINUTE_BUCKETS = 6;
+    static final long MINUTE_BUCKET_MILLIS = 10_000;
+    static final int DAY_BUCKETS = 24;
+    static final long DAY_BUCKET_MILLIS = 3_600_000;
+
+    /** What {@link #reserve} took; {@link #release} gives it back, once. */
+    public static final class Reservation {
+
+        public static final Reservation NONE = new Reservation(false, () -> { });
+
+        private final boolean nearLimit;
+        private final AtomicReference<Runnable> release;
+
+        public Reservation(boolean nearLimit, Runnable release) {
+            this.nearLimit = nearLimit;
+            this.release = new AtomicReference<>(release);
+        }
+
+        /**
+         * True when the account is close enough to a limit that the caller must confirm with
+         * {@link #verifyExact} once it holds the account lock.
+         */
+        public boolean nearLimit() {
+            return nearLimit;
+        }
+
+        public void release() {
+            Runnable r = release.getAndSet(null);
+            if (r != null) {
+                r.run();
+            }
+        }
+    }
+
+    private static final class Windows {
+        /** The account's currency, which never changes; looked up on first use. */
+        String currency;
+        final BucketRing minute = new BucketRing(MINUTE_BUCKETS, MINUTE_BUCKET_MILLIS);
+        final BucketRing day = new BucketRing(DAY_BUCKETS, DAY_BUCKET_MILLIS);
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Long, Windows> windows = new HashMap<>();
+    }
+
+    private final TransferRepository transferRepository;
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbc;
+    private final FxRates fxRates;
+    private final ShardRouter shards;
+    private final Clock clock;
+    private final long perMinuteCents;
+    private final long dailyCents;
+    private final double nearRatio;
+    private final Stripe[] stripes;
+
+    @Autowired
+    public VelocityLimiter(TransferRepository transferRepository,
+                           AccountRepository accountRepository,
+                           JdbcTemplate jdbc,
+                           FxRates fxRates,
+                           ShardRouter shards,
+                           @Value("${app.limits.per-minute-amount:0}") BigDecimal perMinute,
+                           @Value("${app.limits.daily-amount:0}") BigDecimal daily,
+                           @Value("${app.limits.near-ratio:0.8}") double nearRatio,
+                           @Value("${app.limits.stripes:64}") int stripes) {
+        this(transferRepository, accountRepository, jdbc, fxRates, shards, Clock.systemDefaultZone(),
+                perMinute, daily, nearRatio, stripes);
+    }
+
+    VelocityLimiter(TransferRepository transferRepository, AccountRepository accountRepository, JdbcTemplate jdbc,
+                    FxRates fxRates, Clock clock, BigDecimal perMinute, BigDecimal daily, double nearRatio, int stripes) {
+        this(transferRepository, accountRepository, jdbc, fxRates, ShardRouter.single(), clock,
+                perMinute, daily, nearRatio, stripes);
+    }
+
+    VelocityLimiter(TransferRepository transferRepository, AccountRepository accountRepository, JdbcTemplate jdbc,
+                    FxRates fxRates, ShardRouter shards, Clock clock, BigDecimal perMinute, BigDecimal daily,
+                    double nearRatio, int stripes) {
+        this.transferRepository = transferRepository;
+        this.accountRepository = accountRepository;
+        this.jdbc = jdbc;
+        this.fxRates = fxRates;
+        this.shards = shards;
+        this.clock = clock;
+        this.perMinuteCents = toCents(perMinute);
+        this.dailyCents = toCents(daily);
+        this.nearRatio = nearRatio;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return perMinuteCents > 0 || dailyCents > 0;
+    }
+
+    /**
+     * Reserves {@code amount}, in the account's currency, against the account's limits; needs no
+     * row lock. The reservation is given back if the transaction does not commit.
+     *
+     * @throws IllegalArgumentException when the in-memory totals already exceed a limit, the
+     *         account does not exist, or there is no FX rate for its currency
+     */
+    public Reservation reserve(Long accountId, BigDecimal amount) {
+        if (!isEnabled()) {
+            return Reservation.NONE;
+        }
+        String currency = currencyOf(accountId);
+        long perMinuteCents = limitIn(this.perMinuteCents, currency);
+        long dailyCents = limitIn(this.dailyCents, currency);
+        long cents = toCents(amount);
+        long now = clock.millis();
+        Stripe stripe = stripeFor(accountId);
+        boolean near;
+        stripe.lock.lock();
+        try {
+            Windows w = stripe.windows.computeIfAbsent(accountId, id -> new Windows());
+            w.currency = currency;
+            long minute = w.minute.sum(now) + cents;
+            long day = w.day.sum(now) + cents;
+            if (perMinuteCents > 0 && minute > perMinuteCents) {
+                throw new IllegalArgumentException("Per-minute transfer limit exceeded for account " + accountId);
+            }
+            if (dailyCents > 0 && day > dailyCents) {
+                throw new IllegalArgumentException("Daily transfer limit exceeded for account " + accountId);
+            }
+            w.minute.add(now, cents);
+            w.day.add(now, cents);
+            near = (perMinuteCents > 0 && minute >= perMinuteCents * nearRatio)
+                    || (dailyCents > 0 && day >= dailyCents * nearRatio);
+        } finally {
+            stripe.lock.unlock();
+        }
+        Reservation reservation = new Reservation(near, () -> release(accountId, cents, now));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reservation.release();
+                    }
+                }
+            });
+        }
+        return reservation;
+    }
+
+    /** Authoritative check against committed transfers; call while holding the account row lock. */
+    public void verifyExact(Long accountId, BigDecimal amount, String currency) {
+        long perMinuteCents = limitIn(this.perMinuteCents, currency);
+        long dailyCents = limitIn(this.dailyCents, currency);
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (perMinuteCents > 0) {
+            BigDecimal spent = transferRepository.sumDebitsSince(accountId, now.minusMinutes(1));
+            if (toCents(spent.add(amount)) > perMinuteCents) {
+                throw new IllegalArgumentException("Per-minute transfer limit exceeded for account " + accountId);
+            }
+        }
+        if (dailyCents > 0) {
+            BigDecimal spent = transferRepository.sumDebitsSince(accountId, now.minusDays(1));
+            if (toCents(spent.add(amount)) > dailyCents) {
+                throw new IllegalArgumentException("Daily transfer limit exceeded for account " + accountId);
+            }
+        }
+    }
+
+    /** Rebuilds the windows from the last day of DEBIT rows on every shard before the app takes traffic. */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!isEnabled()) {
+            return;
+        }
+        ZoneId zone = clock.getZone();
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now(clock).minusDays(1));
+        shards.onEachShard(s -> {
+            jdbc.query("SELECT account_id, amount, created_on FROM transfers WHERE type = 'DEBIT' AND created_on >= ?",
+                    rs -> {
+                        long at = rs.getTimestamp("created_on").toLocalDateTime().atZone(zone).toInstant().toEpochMilli();
+                        record(rs.getLong("account_id"), toCents(rs.getBigDecimal("amount")), at);
+                    }, since);
+            return null;
+        });
+    }
+
+    /** Drops windows of accounts with no spend left in either window. */
+    @Scheduled(fixedDelayString = "${app.limits.evict-interval-ms:600000}")
+    public void evictIdle() {
+        long now = clock.millis();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.windows.values().removeIf(w -> w.day.sum(now) == 0 && w.minute.sum(now) == 0);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    long dailyTotalCents(Long accountId) {
+        Stripe stripe = stripeFor(accountId);
+        stripe.lock.lock();
+        try {
+            Windows w = stripe.windows.get(accountId);
+            return w == null ? 0 : w.day.sum(clock.millis());
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void record(long accountId, long cents, long atMillis) {
+        Stripe stripe = stripeFor(accountId);
+        stripe.lock.lock();
+        try {
+            Windows w = stripe.windows.computeIfAbsent(accountId, id -> new Windows());
+            w.day.add(atMillis, cents);
+            w.minute.add(atMillis, cents);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void release(Long accountId, long cents, long reservedAtMillis) {
+        Stripe stripe = stripeFor(accountId);
+        stripe.lock.lock();
+        try {
+            Windows w = stripe.windows.get(accountId);
+            if (w != null) {
+                long now = clock.millis();
+                w.minute.subtract(reservedAtMillis, now, cents);
+                w.day.subtract(reservedAtMillis, now, cents);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private String currencyOf(Long accountId) {
+        Stripe stripe = stripeFor(accountId);
+        stripe.lock.lock();
+        try {
+            Windows w = stripe.windows.get(accountId);
+            if (w != null && w.currency != null) {
+                return w.currency;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        return accountRepository.findCurrencyById(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + accountId));
+    }
+
+    /** A limit given in cents of the FX base currency, in cents of {@code currency} at the current rate. */
+    private long limitIn(long baseCents, String currency) {
+        FxRateSnapshot rates = fxRates.current();
+        if (baseCents <= 0 || currency.equals(rates.base())) {
+            return baseCents;
+        }
+        BigDecimal cents = BigDecimal.valueOf(baseCents).multiply(rates.rate(rates.base(), currency));
+        return Math.max(1, cents.setScale(0, RoundingMode.DOWN).longValueExact());
+    }
+
+    private Stripe stripeFor(long accountId) {
+        return stripes[(int) Math.floorMod(Long.hashCode(accountId) * 0x9E3779B9, (long) stripes.length)];
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,137 @@
+package smartit_task.bank_service.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import smartit_task.bank_service.entity.OutboxEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Appends one JSON line per event to a file kept open between batches. The default sink; any
+ * other {@code app.outbox.sink} value without a matching sink stops the application at startup.
+ *
+ * <p>Relay workers serialize their lines outside any lock and only hold the append lock for the
+ * write itself. {@link #deliver} returns once an fsync covering its batch has finished; one worker
+ * forces the channel while the others wait for it, so batches appended concurrently share one
+ * fsync. If the file is moved or deleted (log rotation) the next batch reopens the path.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private FileChannel channel;        // guarded by appendLock
+    private long appended;              // guarded by appendLock
+    private volatile long synced;
+
+    public FileOutboxSink(@Value("${app.outbox.file:outbox-events.jsonl}") Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> batch) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent e : batch) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("id", e.getId());
+            line.put("type", e.getEventType());
+            line.put("aggregateId", e.getAggregateId());
+            line.put("createdOn", e.getCreatedOn());
+            line.put("payload", objectMapper.readTree(e.getPayload()));
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+        ByteBuffer buf = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        long mine;
+        FileChannel ch;
+        synchronized (appendLock) {
+            ch = open();
+            try {
+                while (buf.hasRemaining()) {
+                    ch.write(buf);
+                }
+            } catch (IOException ex) {
+                closeQuietly();
+                throw ex;
+            }
+            mine = ++appended;
+        }
+
+        if (synced >= mine) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= mine) {
+                return;
+            }
+            long upTo;
+            synchronized (appendLock) {
+                upTo = appended;
+            }
+            // a reopen since our write forced the old channel and moved synced past it, unless that
+            // force failed; then the closed channel throws here and the batch is redelivered
+            ch.force(false);
+            synced = upTo;
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    private FileChannel open() throws IOException {
+        if (channel != null && channel.isOpen() && Files.exists(path)) {
+            return channel;
+        }
+        closeQuietly();
+        channel = FileChannel.open(path, CREATE, WRITE, APPEND);
+        return channel;
+    }
+
+    /** Forces and closes the current channel; batches appended to it are durable afterwards. */
+    private void closeQuietly() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (channel.isOpen()) {
+                channel.force(false);
+            }
+            synced = appended;
+        } catch (IOException ignored) {
+            // the batches that were waiting on this channel fail in their own force() call
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+            channel = null;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        synchronized (appendLock) {
+            closeQuietly();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package smartit_task.bank_service.service.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.entity.OutboxEvent;
+import smartit_task.bank_service.repository.OutboxEventRepository;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves outbox rows to the {@link OutboxSink}. Each worker claims a batch with
+ * {@code FOR UPDATE SKIP LOCKED}, delivers it and deletes it in the same transaction, so
+ * workers never contend on the same rows and throughput grows with {@code app.outbox.workers}.
+ * A failed delivery rolls back and the batch is claimed again on the next poll. With sharding
+ * enabled every poll visits each shard's outbox in turn.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final ShardRouter shards;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int workers;
+    private final long pollIntervalMillis;
+    private final boolean enabled;
+
+    private final Timer lag;
+    private final Counter delivered;
+    private ExecutorService pool;
+    private volatile boolean running;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink sink,
+                       ShardRouter shards,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.workers:2}") int workers,
+                       @Value("${app.outbox.poll-interval-ms:200}") long pollIntervalMillis,
+                       @Value("${app.outbox.relay.enabled:true}") boolean enabled) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.shards = shards;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.enabled = enabled;
+
+        this.lag = Timer.builder("outbox.relay.lag")
+                .description("Time from outbox insert to delivery")
+                .register(meterRegistry);
+        this.delivered = Counter.builder("outbox.relay.delivered").register(meterRegistry);
+        Gauge.builder("outbox.relay.oldest.age", this, OutboxRelay::oldestPendingAgeSeconds)
+                .description("Age in seconds of the oldest undelivered outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        AtomicInteger n = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "outbox-relay-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workers; i++) {
+            pool.execute(this::pollLoop);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (pool != null) {
+            pool.shutdown();
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Claims, delivers and purges one batch per shard; returns how many events were relayed. */
+    public int relayOnce() {
+        return shards.onEachShard(s -> relayShard()).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private int relayShard() {
+        Integer count = tx.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.claimBatch(batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.deliver(batch);
+            } catch (Exception ex) {
+                throw new IllegalStateException("Outbox delivery failed", ex);
+            }
+            outboxEventRepository.deleteByIdIn(batch.stream().map(OutboxEvent::getId).toList());
+
+            LocalDateTime now = LocalDateTime.now();
+            batch.forEach(e -> lag.record(Duration.between(e.getCreatedOn(), now)));
+            delivered.increment(batch.size());
+            return batch.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                if (relayOnce() < batchSize) {
+                    Thread.sleep(pollIntervalMillis);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Outbox relay batch failed, retrying in {} ms", pollIntervalMillis, ex);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollIntervalMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double oldestPendingAgeSeconds() {
+        LocalDateTime oldest = shards.onEachShard(s -> outboxEventRepository.findOldestCreatedOn()).stream()
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+        return oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
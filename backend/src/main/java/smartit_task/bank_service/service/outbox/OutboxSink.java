@@ -0,0 +1,15 @@
+package smartit_task.bank_service.service.outbox;
+
+import smartit_task.bank_service.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events. A batch is deleted from the outbox only after
+ * {@link #deliver} returns, so delivery is at-least-once and consumers must tolerate
+ * duplicates (the event id is stable across redeliveries).
+ */
+public interface OutboxSink {
+
+    void deliver(List<OutboxEvent> batch) throws Exception;
+}
@@ -0,0 +1,63 @@
+package smartit_task.bank_service.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import smartit_task.bank_service.dto.TransferResponse;
+import smartit_task.bank_service.entity.OutboxEvent;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.mapper.TransferMapper;
+import smartit_task.bank_service.repository.OutboxEventRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records outgoing events in the caller's transaction, so an event exists if and only if
+ * the change that produced it committed.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    public static final String TRANSFER_CREATED = "TransferCreated";
+    public static final String POSTING_CREATED = "PostingCreated";
+
+    record TransferCreatedPayload(TransferResponse debit, TransferResponse credit) {}
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbc;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transferCreated(Transfer debit, Transfer credit) {
+        var payload = new TransferCreatedPayload(TransferMapper.toResponse(debit), TransferMapper.toResponse(credit));
+        outboxEventRepository.save(new OutboxEvent(TRANSFER_CREATED, debit.getId(), toJson(payload)));
+    }
+
+    /**
+     * One {@value #POSTING_CREATED} event per single-sided posting (interest, fees), inserted as
+     * one batch; the postings must already carry their ids.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void postingsCreated(List<Transfer> postings) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbc.batchUpdate("INSERT INTO outbox_events (event_type, aggregate_id, payload, created_on) VALUES (?, ?, ?, ?)",
+                postings.stream()
+                        .map(p -> new Object[]{POSTING_CREATED, p.getId(), toJson(TransferMapper.toResponse(p)), now})
+                        .toList());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize outbox payload", ex);
+        }
+    }
+}
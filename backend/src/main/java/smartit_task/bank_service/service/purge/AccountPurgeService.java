@@ -0,0 +1,168 @@
+package smartit_task.bank_service.service.purge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.dto.PurgeRunReport;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Removes closed accounts together with their transfer history.
+ *
+ * <p>An account's transfers are moved to {@code transfers_archive} in batches of
+ * {@code app.purge.batch-size} rows, walking its transfer ids in order so every batch is one
+ * index range scan. Each batch is its own short transaction, followed by a pause of
+ * {@code app.purge.batch-pause}, so the purge never holds locks or produces log volume that
+ * live traffic would notice. Once the history is gone the account's rollups, reconciliation
+ * position and finally the row itself are deleted; only then are its name and IBAN free again.
+ *
+ * <p>A run stops after {@code app.purge.max-batches} batches; whatever is left is picked up by
+ * the next run, since the batches already done are committed. Accounts that still have active
+ * holds wait until the holds are settled or expire.
+ */
+@Slf4j
+@Service
+public class AccountPurgeService {
+
+    private static final String ARCHIVE_BATCH =
+            "INSERT INTO transfers_archive (id, account_id, beneficiary_account_id, type, amount, currency, fx_rate, " +
+                    "fx_rate_version, created_on, modified_on, idempotency_key, archived_on) " +
+                    "SELECT id, account_id, beneficiary_account_id, type, amount, currency, fx_rate, fx_rate_version, " +
+                    "created_on, modified_on, idempotency_key, ? " +
+                    "FROM transfers WHERE account_id = ? AND id BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate batchTx;
+    private final ShardRouter shards;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final int maxBatches;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public AccountPurgeService(JdbcTemplate jdbc,
+                               PlatformTransactionManager transactionManager,
+                               ShardRouter shards,
+                               @Value("${app.purge.batch-size:500}") int batchSize,
+                               @Value("${app.purge.batch-pause:50ms}") Duration batchPause,
+                               @Value("${app.purge.max-batches:1000}") int maxBatches) {
+        this.jdbc = jdbc;
+        this.batchTx = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(cron = "${app.purge.cron:0 */5 * * * *}")
+    public void scheduledRun() {
+        try {
+            PurgeRunReport report = run();
+            if (report.accountsPurged() > 0 || report.accountsPending() > 0) {
+                log.info("Account purge: {} accounts purged, {} pending, {} transfers archived in {} batches, {}",
+                        report.accountsPurged(), report.accountsPending(), report.transfersArchived(),
+                        report.batches(), report.duration());
+            }
+        } catch (IllegalStateException ex) {
+            log.warn("Account purge did not finish: {}", ex.getMessage());
+        }
+    }
+
+    /** @throws IllegalStateException when another run is in progress */
+    public PurgeRunReport run() {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Account purge is already running");
+        }
+        try {
+            long t0 = System.nanoTime();
+            int purged = 0;
+            int pending = 0;
+            long[] archived = {0};
+            int[] batches = {0};
+            for (int shard = 0; shard < shards.shardCount(); shard++) {
+                int s = shard;
+                List<Long> closed = shards.onShard(shard, () -> jdbc.queryForList(
+                        "SELECT id FROM accounts a WHERE status = 'CLOSED' AND NOT EXISTS (" +
+                                "SELECT 1 FROM holds h WHERE h.account_id = a.id AND h.status = 'ACTIVE') ORDER BY id",
+                        Long.class));
+                for (Long accountId : closed) {
+                    if (batches[0] < maxBatches && purgeAccount(s, accountId, archived, batches)) {
+                        purged++;
+                    } else {
+                        pending++;
+                    }
+                }
+            }
+            return new PurgeRunReport(purged, pending, archived[0], batches[0], Duration.ofNanos(System.nanoTime() - t0));
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /** Returns true once the account row is gone, false when the batch budget ran out first. */
+    private boolean purgeAccount(int shard, long accountId, long[] archived, int[] batches) {
+        long after = 0;
+        while (true) {
+            if (batches[0] >= maxBatches) {
+                return false;
+            }
+            long from = after;
+            long[] moved = shards.onShard(shard, () -> batchTx.execute(status -> archiveBatch(accountId, from)));
+            if (moved == null) {
+                break;
+            }
+            batches[0]++;
+            archived[0] += moved[1];
+            after = moved[0];
+            pause();
+        }
+        Integer deleted = shards.onShard(shard, () -> batchTx.execute(status -> {
+            jdbc.update("UPDATE scheduled_transfers SET status = 'CANCELLED' WHERE status = 'ACTIVE' " +
+                    "AND (from_account_id = ? OR to_account_id = ?)", accountId, accountId);
+            jdbc.update("DELETE FROM transfer_daily_rollups WHERE account_id = ?", accountId);
+            jdbc.update("DELETE FROM reconciliation_positions WHERE account_id = ?", accountId);
+            return jdbc.update("DELETE FROM accounts WHERE id = ? AND status = 'CLOSED' " +
+                    "AND NOT EXISTS (SELECT 1 FROM transfers WHERE account_id = ?)", accountId, accountId);
+        }));
+        return deleted != null && deleted > 0;
+    }
+
+    /** Moves the next batch after {@code afterId}; returns {last id, rows moved}, or null when nothing is left. */
+    private long[] archiveBatch(long accountId, long afterId) {
+        List<Long> ids = jdbc.queryForList(
+                "SELECT id FROM transfers WHERE account_id = ? AND id > ? ORDER BY id LIMIT ?",
+                Long.class, accountId, afterId, batchSize);
+        if (ids.isEmpty()) {
+            return null;
+        }
+        long first = ids.get(0);
+        long last = ids.get(ids.size() - 1);
+        int copied = jdbc.update(ARCHIVE_BATCH, Timestamp.valueOf(LocalDateTime.now()), accountId, first, last);
+        int removed = jdbc.update("DELETE FROM transfers WHERE account_id = ? AND id BETWEEN ? AND ?", accountId, first, last);
+        if (copied != ids.size() || removed != ids.size()) {
+            throw new IllegalStateException("Transfers of account " + accountId + " changed during purge");
+        }
+        return new long[]{last, removed};
+    }
+
+    private void pause() {
+        if (batchPause.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPause.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Account purge interrupted", ex);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package smartit_task.bank_service.service.rollup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.dto.RollupBackfillReport;
+import smartit_task.bank_service.entity.TransferDailyRollup;
+import smartit_task.bank_service.repository.TransferDailyRollupRepository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads daily rollups and rebuilds them from the transfers table.
+ *
+ * <p>The backfill splits accounts into id ranges and rebuilds each range in its own
+ * transaction on a small pool. A range first locks its accounts in id order, the same order
+ * transfers use, so no transfer on those accounts is in flight while the range's rows are
+ * deleted and re-aggregated with one {@code INSERT ... SELECT ... GROUP BY}.
+ */
+@Slf4j
+@Service
+public class TransferRollupService {
+
+    private final TransferDailyRollupRepository rollupRepository;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate rangeTx;
+    private final long rangeSize;
+    private final int parallelism;
+    private final int maxQueryDays;
+    private final ReentrantLock backfilling = new ReentrantLock();
+
+    public TransferRollupService(TransferDailyRollupRepository rollupRepository,
+                                 JdbcTemplate jdbc,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.rollups.backfill.range-size:1000}") long rangeSize,
+                                 @Value("${app.rollups.backfill.parallelism:4}") int parallelism,
+                                 @Value("${app.rollups.max-query-days:400}") int maxQueryDays) {
+        this.rollupRepository = rollupRepository;
+        this.jdbc = jdbc;
+        this.rangeTx = new TransactionTemplate(transactionManager);
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+        this.maxQueryDays = maxQueryDays;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransferDailyRollup> getRollups(Long accountId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxQueryDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxQueryDays + " days");
+        }
+        return rollupRepository.findByAccountIdAndBusinessDateBetweenOrderByBusinessDate(accountId, from, to);
+    }
+
+    /** Rebuilds rollups for business dates in [from, to]; null bounds default to the whole history. */
+    public RollupBackfillReport backfill(LocalDate from, LocalDate to) {
+        if (!backfilling.tryLock()) {
+            throw new IllegalStateException("Rollup backfill is already running");
+        }
+        try {
+            long t0 = System.nanoTime();
+            Map<String, Object> span = jdbc.queryForMap(
+                    "SELECT min(created_on) AS lo, max(created_on) AS hi FROM transfers");
+            if (span.get("lo") == null && (from == null || to == null)) {
+                return new RollupBackfillReport(from, to, 0, 0, Duration.ZERO);
+            }
+            LocalDate start = from != null ? from : ((Timestamp) span.get("lo")).toLocalDateTime().toLocalDate();
+            LocalDate end = to != null ? to : ((Timestamp) span.get("hi")).toLocalDateTime().toLocalDate();
+            if (start.isAfter(end)) {
+                throw new IllegalArgumentException("'from' must not be after 'to'");
+            }
+
+            List<long[]> ranges = ranges();
+            ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+            long rows = 0;
+            try {
+                List<Future<Integer>> results = new ArrayList<>();
+                for (long[] r : ranges) {
+                    results.add(pool.submit(() -> rangeTx.execute(status -> rebuildRange(r[0], r[1], start, end))));
+                }
+                for (Future<Integer> f : results) {
+                    rows += f.get();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Rollup backfill interrupted", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Rollup backfill failed", ex.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+
+            RollupBackfillReport report = new RollupBackfillReport(start, end, ranges.size(), rows,
+                    Duration.ofNanos(System.nanoTime() - t0));
+            log.info("Rollup backfill {}..{}: {} rows over {} ranges in {}", start, end, rows, ranges.size(), report.duration());
+            return report;
+        } finally {
+            backfilling.unlock();
+        }
+    }
+
+    private List<long[]> ranges() {
+        Map<String, Object> bounds = jdbc.queryForMap("SELECT min(id) AS lo, max(id) AS hi FROM accounts");
+        if (bounds.get("lo") == null) {
+            return List.of();
+        }
+        long lo = ((Number) bounds.get("lo")).longValue();
+        long hi = ((Number) bounds.get("hi")).longValue();
+        List<long[]> ranges = new ArrayList<>();
+        for (long s = lo; s <= hi; s += rangeSize) {
+            ranges.add(new long[]{s, Math.min(hi, s + rangeSize - 1)});
+        }
+        return ranges;
+    }
+
+    int rebuildRange(long firstId, long lastId, LocalDate from, LocalDate to) {
+        jdbc.queryForList("SELECT id FROM accounts WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE",
+                Long.class, firstId, lastId);
+        jdbc.update("DELETE FROM transfer_daily_rollups WHERE account_id BETWEEN ? AND ? AND business_date BETWEEN ? AND ?",
+                firstId, lastId, Date.valueOf(from), Date.valueOf(to));
+        return jdbc.update(
+                "INSERT INTO transfer_daily_rollups " +
+                        "(account_id, business_date, debit_count, debit_amount, credit_count, credit_amount) " +
+                        "SELECT account_id, CAST(created_on AS DATE), " +
+                        "SUM(CASE WHEN type = 'DEBIT' THEN 1 ELSE 0 END), " +
+                        "COALESCE(SUM(CASE WHEN type = 'DEBIT' THEN amount END), 0), " +
+                        "SUM(CASE WHEN type = 'CREDIT' THEN 1 ELSE 0 END), " +
+                        "COALESCE(SUM(CASE WHEN type = 'CREDIT' THEN amount END), 0) " +
+                        "FROM transfers WHERE account_id BETWEEN ? AND ? AND created_on >= ? AND created_on < ? " +
+                        "GROUP BY account_id, CAST(created_on AS DATE)",
+                firstId, lastId,
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+    }
+}
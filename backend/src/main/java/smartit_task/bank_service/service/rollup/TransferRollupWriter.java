@@ -0,0 +1,106 @@
+package smartit_task.bank_service.service.rollup;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.entity.TransferType;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds transfers to their account's daily rollup row in the caller's transaction.
+ *
+ * <p>Callers already hold the row lock of every account they book against, so increments to
+ * the same rollup row are serialized by the account lock and add no lock ordering of their
+ * own. On PostgreSQL the increment is a single {@code INSERT ... ON CONFLICT DO UPDATE}; other
+ * databases update first and insert when the day's row does not exist yet.
+ */
+@Component
+public class TransferRollupWriter {
+
+    private static final String UPSERT_POSTGRES =
+            "INSERT INTO transfer_daily_rollups " +
+                    "(debit_count, debit_amount, credit_count, credit_amount, account_id, business_date) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (account_id, business_date) DO UPDATE SET " +
+                    "debit_count = transfer_daily_rollups.debit_count + EXCLUDED.debit_count, " +
+                    "debit_amount = transfer_daily_rollups.debit_amount + EXCLUDED.debit_amount, " +
+                    "credit_count = transfer_daily_rollups.credit_count + EXCLUDED.credit_count, " +
+                    "credit_amount = transfer_daily_rollups.credit_amount + EXCLUDED.credit_amount";
+    private static final String INCREMENT =
+            "UPDATE transfer_daily_rollups SET debit_count = debit_count + ?, debit_amount = debit_amount + ?, " +
+                    "credit_count = credit_count + ?, credit_amount = credit_amount + ? " +
+                    "WHERE account_id = ? AND business_date = ?";
+    private static final String INSERT =
+            "INSERT INTO transfer_daily_rollups " +
+                    "(debit_count, debit_amount, credit_count, credit_amount, account_id, business_date) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private record Key(long accountId, LocalDate date) {}
+
+    private record Delta(long debitCount, BigDecimal debitAmount, long creditCount, BigDecimal creditAmount) {
+        static Delta of(Transfer t) {
+            return t.getType() == TransferType.DEBIT
+                    ? new Delta(1, t.getAmount(), 0, BigDecimal.ZERO)
+                    : new Delta(0, BigDecimal.ZERO, 1, t.getAmount());
+        }
+
+        Delta plus(Delta o) {
+            return new Delta(debitCount + o.debitCount, debitAmount.add(o.debitAmount),
+                    creditCount + o.creditCount, creditAmount.add(o.creditAmount));
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private volatile Boolean postgres;
+
+    public TransferRollupWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Transfer... transfers) {
+        Map<Key, Delta> deltas = new LinkedHashMap<>();
+        for (Transfer t : transfers) {
+            LocalDate day = t.getCreatedOn() == null ? LocalDate.now() : t.getCreatedOn().toLocalDate();
+            deltas.merge(new Key(t.getAccountId(), day), Delta.of(t), Delta::plus);
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((k, d) -> rows.add(new Object[]{
+                d.debitCount(), d.debitAmount(), d.creditCount(), d.creditAmount(), k.accountId(), Date.valueOf(k.date())}));
+
+        if (isPostgres()) {
+            jdbc.batchUpdate(UPSERT_POSTGRES, rows);
+            return;
+        }
+        for (Object[] row : rows) {
+            if (jdbc.update(INCREMENT, row) == 0) {
+                try {
+                    jdbc.update(INSERT, row);
+                } catch (DuplicateKeyException raced) {
+                    jdbc.update(INCREMENT, row);
+                }
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean p = postgres;
+        if (p == null) {
+            p = jdbc.execute((ConnectionCallback<Boolean>) con ->
+                    "PostgreSQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName()));
+            postgres = p;
+        }
+        return p;
+    }
+}
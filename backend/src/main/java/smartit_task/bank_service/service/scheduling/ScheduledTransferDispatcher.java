@@ -0,0 +1,234 @@
+package smartit_task.bank_service.service.scheduling;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import smartit_task.bank_service.entity.ScheduleStatus;
+import smartit_task.bank_service.entity.ScheduledTransfer;
+import smartit_task.bank_service.event.ScheduledTransferChangedEvent;
+import smartit_task.bank_service.repository.ScheduledTransferRepository;
+import smartit_task.bank_service.service.ScheduledTransferService;
+import smartit_task.bank_service.service.TransferService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Executes due scheduled transfers.
+ *
+ * <p>Only schedules due within {@code app.scheduling.horizon} are held in memory, capped at
+ * {@code app.scheduling.max-loaded}, so the number of stored schedules does not matter. They
+ * sit in a {@link TimingWheel}; each tick collects what came due, groups it by source account
+ * and runs every group sequentially on one worker, so two workers never queue on the same
+ * account row lock. Each occurrence goes through {@link TransferService} with the key
+ * {@code sched-<id>-<occurrence>}, which makes re-running an occurrence after a crash a no-op.
+ *
+ * <p>Overdue schedules (after downtime) load as immediately due, and each tick advances them
+ * by one occurrence until they have caught up.
+ */
+@Slf4j
+@Component
+public class ScheduledTransferDispatcher {
+
+    /** Before any schedule's run time; the first page's keyset bound. */
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final ScheduledTransferService scheduledTransferService;
+    private final TransferService transferService;
+    private final long tickMillis;
+    private final Duration horizon;
+    private final int pageSize;
+    private final int maxLoaded;
+    private final int workerCount;
+    private final boolean enabled;
+
+    private final TimingWheel<Long> wheel;
+    private final Set<Long> loaded = new HashSet<>();
+    private final ArrayDeque<Long> overdue = new ArrayDeque<>();
+    private final Queue<ScheduledTransferChangedEvent> inbox = new ConcurrentLinkedQueue<>();
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService workers;
+
+    public ScheduledTransferDispatcher(ScheduledTransferRepository scheduledTransferRepository,
+                                       ScheduledTransferService scheduledTransferService,
+                                       TransferService transferService,
+                                       @Value("${app.scheduling.tick-ms:1000}") long tickMillis,
+                                       @Value("${app.scheduling.horizon:PT5M}") Duration horizon,
+                                       @Value("${app.scheduling.page-size:500}") int pageSize,
+                                       @Value("${app.scheduling.max-loaded:100000}") int maxLoaded,
+                                       @Value("${app.scheduling.workers:4}") int workerCount,
+                                       @Value("${app.scheduling.enabled:true}") boolean enabled) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.scheduledTransferService = scheduledTransferService;
+        this.transferService = transferService;
+        this.tickMillis = tickMillis;
+        this.horizon = horizon;
+        this.pageSize = pageSize;
+        this.maxLoaded = maxLoaded;
+        this.workerCount = workerCount;
+        this.enabled = enabled;
+        this.wheel = new TimingWheel<>(tickMillis, 64, 3, System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    void start() {
+        workers = Executors.newFixedThreadPool(workerCount, daemon("scheduled-transfer-worker"));
+        if (!enabled) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(daemon("scheduled-transfer-ticker"));
+        ticker.scheduleWithFixedDelay(guarded(this::load), 0, horizon.toMillis() / 2, TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(guarded(this::tick), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        workers.shutdownNow();
+    }
+
+    /** Newly created schedules that fall inside the horizon join the wheel without waiting for a reload. */
+    @TransactionalEventListener
+    public void onScheduleChanged(ScheduledTransferChangedEvent event) {
+        inbox.add(event);
+    }
+
+    /**
+     * Pulls schedules due within the horizon into memory, earliest first, so a wheel capped at
+     * {@code max-loaded} holds the schedules that run soonest; returns how many were added.
+     */
+    public synchronized int load() {
+        LocalDateTime until = LocalDateTime.now().plus(horizon);
+        LocalDateTime afterRunAt = KEYSET_START;
+        long afterId = 0;
+        int added = 0;
+        while (loaded.size() < maxLoaded) {
+            int limit = Math.min(pageSize, maxLoaded - loaded.size());
+            var page = scheduledTransferRepository.findDue(until, afterRunAt, afterId, PageRequest.of(0, limit));
+            for (var due : page) {
+                if (track(due.getId(), due.getNextRunAt())) {
+                    added++;
+                }
+                afterRunAt = due.getNextRunAt();
+                afterId = due.getId();
+            }
+            if (page.size() < limit) {
+                break;
+            }
+        }
+        return added;
+    }
+
+    /** Runs everything that is due now; returns how many occurrences were attempted. */
+    public synchronized int tick() {
+        for (ScheduledTransferChangedEvent e; (e = inbox.poll()) != null; ) {
+            if (e.nextRunAt() != null && e.nextRunAt().isBefore(LocalDateTime.now().plus(horizon))) {
+                track(e.scheduleId(), e.nextRunAt());
+            }
+        }
+
+        List<Long> due = new ArrayList<>(overdue);
+        overdue.clear();
+        wheel.advance(System.currentTimeMillis(), due::add);
+        due.forEach(loaded::remove);
+
+        int attempted = 0;
+        for (int from = 0; from < due.size(); from += pageSize) {
+            attempted += runBatch(due.subList(from, Math.min(due.size(), from + pageSize)));
+        }
+        return attempted;
+    }
+
+    private int runBatch(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, List<ScheduledTransfer>> byAccount = scheduledTransferRepository.findAllById(ids).stream()
+                .filter(s -> s.getStatus() == ScheduleStatus.ACTIVE && s.getNextRunAt() != null
+                        && !s.getNextRunAt().isAfter(now))
+                .sorted(Comparator.comparing(ScheduledTransfer::getId))
+                .collect(Collectors.groupingBy(ScheduledTransfer::getFromAccountId, LinkedHashMap::new, Collectors.toList()));
+
+        List<Future<List<ScheduledTransfer>>> results = new ArrayList<>();
+        for (List<ScheduledTransfer> group : byAccount.values()) {
+            results.add(workers.submit(() -> group.stream().map(this::runOccurrence).filter(Objects::nonNull).toList()));
+        }
+
+        int attempted = 0;
+        for (Future<List<ScheduledTransfer>> f : results) {
+            try {
+                for (ScheduledTransfer s : f.get()) {
+                    attempted++;
+                    if (s.getStatus() == ScheduleStatus.ACTIVE
+                            && s.getNextRunAt().isBefore(LocalDateTime.now().plus(horizon))) {
+                        track(s.getId(), s.getNextRunAt());
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ex) {
+                log.warn("Scheduled transfer group failed", ex.getCause());
+            }
+        }
+        return attempted;
+    }
+
+    /** Returns the advanced schedule, or null if the attempt hit an infrastructure error and should be retried. */
+    private ScheduledTransfer runOccurrence(ScheduledTransfer s) {
+        String error = null;
+        try {
+            transferService.createTransfer(s.getFromAccountId(), s.getToAccountId(), s.getAmount(), s.idempotencyKey());
+        } catch (IllegalArgumentException | DataIntegrityViolationException ex) {
+            error = ex.getMessage();
+        } catch (RuntimeException ex) {
+            log.warn("Scheduled transfer {} occurrence {} failed, will retry", s.getId(), s.getOccurrence(), ex);
+            return null;
+        }
+        return scheduledTransferService.completeOccurrence(s.getId(), s.getOccurrence(), error);
+    }
+
+    private boolean track(Long id, LocalDateTime runAt) {
+        if (!loaded.add(id)) {
+            return false;
+        }
+        if (!wheel.add(id, runAt.atZone(zone).toInstant().toEpochMilli())) {
+            overdue.add(id);
+        }
+        return true;
+    }
+
+    int loadedCount() {
+        return loaded.size();
+    }
+
+    private Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                log.warn("Scheduled transfer dispatcher step failed", ex);
+            }
+        };
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package smartit_task.bank_service.service.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Level {@code i} has {@code wheelSize} slots of
+ * {@code tickMillis * wheelSize^i} each; an entry sits in the lowest level whose span covers
+ * its deadline and cascades down as time approaches it. Adding and expiring are O(1) per
+ * entry regardless of how many entries are pending.
+ *
+ * <p>Not thread-safe: owned by a single dispatcher thread.
+ */
+public class TimingWheel<T> {
+
+    private record Entry<T>(T item, long deadline) {}
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final ArrayDeque<Entry<T>>[][] levels;
+    private final long[] levelTicks;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levels = new ArrayDeque[levelCount][wheelSize];
+        this.levelTicks = new long[levelCount];
+        long ticks = 1;
+        for (int l = 0; l < levelCount; l++) {
+            levelTicks[l] = ticks;
+            ticks *= wheelSize;
+            for (int s = 0; s < wheelSize; s++) {
+                levels[l][s] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * @return false if the deadline is not in the future; the caller should run the item now
+     */
+    public boolean add(T item, long deadlineMillis) {
+        long deadlineTick = deadlineMillis / tickMillis;
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(new Entry<>(item, deadlineTick));
+        size++;
+        return true;
+    }
+
+    /** Moves the wheel to {@code nowMillis}, handing every entry that came due to {@code expired}. */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            // cascade higher levels whose slot boundary we just crossed, top-down
+            for (int l = levels.length - 1; l > 0; l--) {
+                if (currentTick % levelTicks[l] == 0) {
+                    cascade(levels[l][slot(l, currentTick)], expired);
+                }
+            }
+            drain(levels[0][slot(0, currentTick)], expired);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void place(Entry<T> e) {
+        long delta = e.deadline() - currentTick;
+        int level = 0;
+        while (level < levels.length - 1 && delta >= levelTicks[level] * wheelSize) {
+            level++;
+        }
+        levels[level][slot(level, e.deadline())].add(e);
+    }
+
+    private void cascade(ArrayDeque<Entry<T>> bucket, Consumer<T> expired) {
+        List<Entry<T>> moving = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Entry<T> e : moving) {
+            if (e.deadline() <= currentTick) {
+                size--;
+                expired.accept(e.item());
+            } else {
+                place(e);
+            }
+        }
+    }
+
+    private void drain(ArrayDeque<Entry<T>> bucket, Consumer<T> expired) {
+        int n = bucket.size();
+        for (int i = 0; i < n; i++) {
+            Entry<T> e = bucket.poll();
+            if (e.deadline() <= currentTick) {
+                size--;
+                expired.accept(e.item());
+            } else {
+                // beyond the top level's span: parked in the top wheel and still in the future
+                bucket.add(e);
+            }
+        }
+    }
+
+    private int slot(int level, long tick) {
+        return (int) ((tick / levelTicks[level]) % wheelSize);
+    }
+}
@@ -0,0 +1,264 @@
+package smartit_task.bank_service.service.search;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import smartit_task.bank_service.dto.AccountSearchHit;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.event.AccountChangedEvent;
+import smartit_task.bank_service.event.AccountDeletedEvent;
+import smartit_task.bank_service.service.sharding.ShardRouter;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search over account names and IBANs.
+ *
+ * <p>Queries of three or more characters intersect trigram posting sets and then confirm the
+ * substring on the few candidates left. Shorter queries match name words and IBAN prefixes
+ * through a sorted term map. Both the index and the exact name/IBAN maps used for the
+ * uniqueness precheck are loaded once at startup and then follow committed
+ * {@link AccountChangedEvent}/{@link AccountDeletedEvent}s, so they lag the database only by
+ * the commit-to-listener gap; the unique constraints still catch anything that slips through.
+ */
+@Component
+public class AccountSearchIndex implements SmartInitializingSingleton {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private record Doc(long id, String name, String iban, String normName, String normIban) {}
+
+    private final JdbcTemplate jdbc;
+    private final ShardRouter shards;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final Map<String, Long> byName = new HashMap<>();
+    private final Map<String, Long> byIban = new HashMap<>();
+    private final Map<String, Set<Long>> trigrams = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> terms = new TreeMap<>();
+    private volatile boolean ready;
+
+    public AccountSearchIndex(JdbcTemplate jdbc) {
+        this(jdbc, ShardRouter.single());
+    }
+
+    @Autowired
+    public AccountSearchIndex(JdbcTemplate jdbc, ShardRouter shards) {
+        this.jdbc = jdbc;
+        this.shards = shards;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        lock.writeLock().lock();
+        try {
+            shards.onEachShard(s -> {
+                jdbc.query("SELECT id, name, iban FROM accounts WHERE status <> 'CLOSED'",
+                        rs -> { put(rs.getLong("id"), rs.getString("name"), rs.getString("iban")); });
+                return null;
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** False until the startup load has finished; callers then fall back to the database. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean nameTaken(String name) {
+        return lookup(byName, name);
+    }
+
+    public boolean ibanTaken(String iban) {
+        return lookup(byIban, iban);
+    }
+
+    @TransactionalEventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        Account a = event.account();
+        lock.writeLock().lock();
+        try {
+            remove(a.getId());
+            put(a.getId(), a.getName(), a.getIban());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAccountDeleted(AccountDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.accountId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Page<AccountSearchHit> search(String query, int page, int size) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        String compact = q.replace(" ", "");
+
+        List<AccountSearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (long id : candidates(q, compact)) {
+                Doc d = docs.get(id);
+                int rank = rank(d, q, compact);
+                if (rank >= 0) {
+                    hits.add(new AccountSearchHit(d.id(), d.name(), d.iban(), rank));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingInt(AccountSearchHit::rank)
+                .thenComparingInt(h -> h.name().length())
+                .thenComparing(AccountSearchHit::id));
+        int from = Math.min(hits.size(), page * size);
+        int to = Math.min(hits.size(), from + size);
+        return new PageImpl<>(hits.subList(from, to), PageRequest.of(page, size), hits.size());
+    }
+
+    int size() {
+        return docs.size();
+    }
+
+    private boolean lookup(Map<String, Long> map, String key) {
+        lock.readLock().lock();
+        try {
+            return map.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> candidates(String q, String compact) {
+        if (compact.length() < 3) {
+            Set<Long> out = new HashSet<>();
+            terms.subMap(compact, true, compact + Character.MAX_VALUE, false).values().forEach(out::addAll);
+            return out;
+        }
+        Set<Long> out = intersect(q);
+        if (!compact.equals(q)) {
+            out.addAll(intersect(compact));
+        }
+        return out;
+    }
+
+    private Set<Long> intersect(String q) {
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String g : grams(q)) {
+            Set<Long> p = trigrams.get(g);
+            if (p == null) {
+                return new HashSet<>();
+            }
+            postings.add(p);
+        }
+        if (postings.isEmpty()) {
+            return new HashSet<>();
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> out = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !out.isEmpty(); i++) {
+            out.retainAll(postings.get(i));
+        }
+        return out;
+    }
+
+    private static int rank(Doc d, String q, String compact) {
+        if (d.normName().equals(q) || d.normIban().equals(compact)) {
+            return 0;
+        }
+        if (d.normName().startsWith(q) || d.normIban().startsWith(compact)) {
+            return 1;
+        }
+        if (d.normName().contains(" " + q)) {
+            return 2;
+        }
+        if (d.normName().contains(q) || d.normIban().contains(compact)) {
+            return 3;
+        }
+        return -1;
+    }
+
+    private void put(long id, String name, String iban) {
+        Doc d = new Doc(id, name, iban, normalize(name), normalize(iban).replace(" ", ""));
+        docs.put(id, d);
+        byName.put(name, id);
+        byIban.put(iban, id);
+        for (String g : docGrams(d)) {
+            trigrams.computeIfAbsent(g, k -> new HashSet<>()).add(id);
+        }
+        for (String t : docTerms(d)) {
+            terms.computeIfAbsent(t, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void remove(long id) {
+        Doc d = docs.remove(id);
+        if (d == null) {
+            return;
+        }
+        byName.remove(d.name(), id);
+        byIban.remove(d.iban(), id);
+        for (String g : docGrams(d)) {
+            unlink(trigrams, g, id);
+        }
+        for (String t : docTerms(d)) {
+            unlink(terms, t, id);
+        }
+    }
+
+    private static void unlink(Map<String, Set<Long>> postings, String key, long id) {
+        Set<Long> p = postings.get(key);
+        if (p != null && p.remove(id) && p.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private static Set<String> docGrams(Doc d) {
+        Set<String> out = grams(d.normName());
+        out.addAll(grams(d.normIban()));
+        return out;
+    }
+
+    private static Set<String> docTerms(Doc d) {
+        Set<String> out = new HashSet<>(Arrays.asList(d.normName().split(" ")));
+        out.add(d.normIban());
+        out.remove("");
+        return out;
+    }
+
+    private static Set<String> grams(String s) {
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            out.add(s.substring(i, i + 3));
+        }
+        return out;
+    }
+
+    static String normalize(String s) {
+        if (s == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFKD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
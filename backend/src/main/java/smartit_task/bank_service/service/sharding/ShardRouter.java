@@ -0,0 +1,105 @@
+package smartit_task.bank_service.service.sharding;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import smartit_task.bank_service.config.ShardingProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Places accounts on shards and binds the shard that {@code ShardRoutingDataSource} connects to.
+ *
+ * <p>Placement is by id range: shard i owns ids in {@code (i * idRange, (i + 1) * idRange]},
+ * and each shard's identity columns start at the bottom of its range, so the shard of an
+ * account or transfer follows from its id alone. New accounts go to the shard picked by a hash
+ * of their IBAN. With sharding disabled there is a single shard and every call runs in place.
+ */
+@Component
+public class ShardRouter {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final long idRange;
+
+    @Autowired
+    public ShardRouter(ShardingProperties properties) {
+        this(properties.isEnabled() ? properties.getShards().size() + 1 : 1, properties.getIdRange());
+    }
+
+    ShardRouter(int shardCount, long idRange) {
+        this.shardCount = shardCount;
+        this.idRange = idRange;
+    }
+
+    public static ShardRouter single() {
+        return new ShardRouter(1, Long.MAX_VALUE);
+    }
+
+    public static Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public long idBase(int shard) {
+        return shard * idRange;
+    }
+
+    /** @throws IllegalArgumentException when the id lies outside every shard's range */
+    public int shardOf(long id) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        long shard = (id - 1) / idRange;
+        if (id < 1 || shard >= shardCount) {
+            throw new IllegalArgumentException("Account not found with id: " + id);
+        }
+        return (int) shard;
+    }
+
+    public int placeNew(String iban) {
+        return Math.floorMod(iban.hashCode(), shardCount);
+    }
+
+    /**
+     * Runs {@code action} with {@code shard} bound; transactions opened inside it use that shard.
+     * Switching shards inside a running transaction is refused, since its connection is already bound.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        if (previous != null && previous != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch from shard " + previous + " to " + shard + " inside a transaction");
+        }
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /** Runs {@code action} once per shard, in shard order. */
+    public <T> List<T> onEachShard(IntFunction<T> action) {
+        List<T> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int s = shard;
+            results.add(onShard(s, () -> action.apply(s)));
+        }
+        return results;
+    }
+}
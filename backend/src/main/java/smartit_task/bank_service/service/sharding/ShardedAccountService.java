@@ -0,0 +1,182 @@
+package smartit_task.bank_service.service.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccountLookupResponse;
+import smartit_task.bank_service.dto.AccountResponse;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.AccountStatus;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.service.AccountService;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Routes account operations to the shard that owns the account. Each call runs
+ * {@link AccountService} unchanged on one shard; listing, paging and export fan out to all of
+ * them, and a lookup to the shards its ids belong to.
+ * Name and IBAN uniqueness is enforced by each shard's constraints, plus a check of the other
+ * shards before an account is created or renamed.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShardedAccountService {
+
+    /** Deepest row a sharded page may reach; every shard returns up to this many rows to be merged. */
+    static final int MAX_MERGED_ROWS = 10_000;
+
+    private static final Map<String, Comparator<AccountResponse>> ORDER = Map.of(
+            "id", Comparator.comparing(AccountResponse::getId),
+            "name", Comparator.comparing(AccountResponse::getName),
+            "iban", Comparator.comparing(AccountResponse::getIban),
+            "status", Comparator.comparing(a -> a.getStatus().name()),
+            "availableAmount", Comparator.comparing(AccountResponse::getAvailableAmount),
+            "createdOn", Comparator.comparing(AccountResponse::getCreatedOn),
+            "modifiedOn", Comparator.comparing(AccountResponse::getModifiedOn));
+
+    private final ShardRouter shards;
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+
+    public List<AccountResponse> getAllAccounts() {
+        if (!shards.isSharded()) {
+            return accountService.getAllAccounts();
+        }
+        return shards.onEachShard(s -> accountService.getAllAccounts()).stream().flatMap(List::stream).toList();
+    }
+
+    /** Changes whenever {@link #getAllAccounts()} would; one version query per shard. */
+    public String getAccountsVersion() {
+        if (!shards.isSharded()) {
+            return accountService.getAccountsVersion().token();
+        }
+        return String.join(".", shards.onEachShard(s -> accountService.getAccountsVersion().token()));
+    }
+
+    /**
+     * One page across all shards: each shard returns its first {@code (page + 1) * size} matches in
+     * the requested order and the merged, re-sorted rows are cut to the page. Deep pages cost every
+     * shard that many rows, so they stop at {@value #MAX_MERGED_ROWS}.
+     */
+    public Page<AccountResponse> findAccounts(AccountStatus status, String namePrefix, int page, int size, String sort) {
+        if (!shards.isSharded()) {
+            return accountService.findAccounts(status, namePrefix, page, size, sort);
+        }
+        AccountService.checkPage(page, size);
+        Sort order = AccountService.parseSort(sort);
+        long head = (long) (page + 1) * size;
+        if (head > MAX_MERGED_ROWS) {
+            throw new IllegalArgumentException("Pages beyond the first " + MAX_MERGED_ROWS + " accounts are not available; " +
+                    "narrow the filter or use the export");
+        }
+        List<Page<AccountResponse>> parts = shards.onEachShard(
+                s -> accountService.findFirstAccounts(status, namePrefix, (int) head, order));
+        List<AccountResponse> content = parts.stream()
+                .flatMap(p -> p.getContent().stream())
+                .sorted(comparator(order))
+                .skip((long) page * size)
+                .limit(size)
+                .toList();
+        long total = parts.stream().mapToLong(Page::getTotalElements).sum();
+        return new PageImpl<>(content, PageRequest.of(page, size, order), total);
+    }
+
+    /**
+     * {@link AccountService#exportAccounts} on each shard in turn. Shards own ascending id ranges,
+     * so the concatenation is in id order as well.
+     */
+    public void exportAccounts(AccountStatus status, String namePrefix, Consumer<AccountResponse> sink) {
+        shards.onEachShard(s -> {
+            accountService.exportAccounts(status, namePrefix, sink);
+            return null;
+        });
+    }
+
+    public Optional<Account> getAccountById(Long id) {
+        int shard;
+        try {
+            shard = shards.shardOf(id);
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        return shards.onShard(shard, () -> accountService.getAccountById(id));
+    }
+
+    /** {@link AccountService#lookupAccounts} on each shard that owns some of the ids, merged in request order. */
+    public List<AccountLookupResponse> lookupAccounts(List<Long> ids) {
+        if (!shards.isSharded()) {
+            return accountService.lookupAccounts(ids);
+        }
+        AccountService.checkLookupIds(ids);
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            try {
+                byShard.computeIfAbsent(shards.shardOf(id), s -> new ArrayList<>()).add(id);
+            } catch (IllegalArgumentException ex) {
+                // outside every shard's id range: reported as not found
+            }
+        }
+        Map<Long, AccountResponse> found = new HashMap<>();
+        byShard.forEach((shard, group) -> shards.onShard(shard, () -> accountService.lookupAccounts(group)).stream()
+                .filter(AccountLookupResponse::found)
+                .forEach(r -> found.put(r.id(), r.account())));
+        return ids.stream().map(id -> AccountLookupResponse.of(id, found.get(id))).toList();
+    }
+
+    public Account createAccount(AccountCreateRequest req) {
+        int home = shards.placeNew(req.iban().trim());
+        checkTakenElsewhere(home, req.name().trim(), req.iban().trim());
+        return shards.onShard(home, () -> accountService.createAccount(req));
+    }
+
+    public Account updateAccount(Long id, Account accountDetails) {
+        int home = shards.shardOf(id);
+        checkTakenElsewhere(home, accountDetails.getName(), accountDetails.getIban());
+        return shards.onShard(home, () -> accountService.updateAccount(id, accountDetails));
+    }
+
+    public Account freezeAccount(Long id) {
+        return shards.onShard(shards.shardOf(id), () -> accountService.freezeAccount(id));
+    }
+
+    public Account unfreezeAccount(Long id) {
+        return shards.onShard(shards.shardOf(id), () -> accountService.unfreezeAccount(id));
+    }
+
+    public void deleteAccount(Long id) {
+        shards.onShard(shards.shardOf(id), () -> {
+            accountService.deleteAccount(id);
+            return null;
+        });
+    }
+
+    private static Comparator<AccountResponse> comparator(Sort sort) {
+        Comparator<AccountResponse> result = null;
+        for (Sort.Order o : sort) {
+            Comparator<AccountResponse> c = ORDER.get(o.getProperty());
+            c = o.isAscending() ? c : c.reversed();
+            result = result == null ? c : result.thenComparing(c);
+        }
+        return result;
+    }
+
+    private void checkTakenElsewhere(int home, String name, String iban) {
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            if (shard == home) {
+                continue;
+            }
+            if (shards.onShard(shard, () -> accountRepository.existsByName(name))) {
+                throw new IllegalArgumentException("Account with name '" + name + "' already exists");
+            }
+            if (shards.onShard(shard, () -> accountRepository.existsByIban(iban))) {
+                throw new IllegalArgumentException("Account with IBAN '" + iban + "' already exists");
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package smartit_task.bank_service.service.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import smartit_task.bank_service.dto.ListVersion;
+import smartit_task.bank_service.entity.AccountStatus;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.entity.TransferSaga;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.TransferService;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Entry point for transfers when accounts may live on different shards.
+ *
+ * <p>If both accounts share a shard the transfer is {@link TransferService#createTransfer} on
+ * that shard, with its usual ordered locking. Otherwise it runs as a saga of local steps
+ * ({@link TransferSagaSteps}): debit on the source shard, credit on the destination shard,
+ * then complete on the source shard, or refund there if the credit was refused. A crash
+ * between steps leaves the saga DEBITED, and {@link TransferSagaRecovery} finishes it later.
+ * Until then the amount has left the source but not reached the destination.
+ *
+ * <p>The returned transfer is the DEBIT row, as for a same-shard transfer, and a retry with
+ * the same idempotency key returns it again without charging twice.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShardedTransferService {
+
+    private final ShardRouter shards;
+    private final TransferService transferService;
+    private final AccountService accountService;
+    private final TransferSagaSteps steps;
+
+    public Transfer createTransfer(Long fromAccountId, Long toAccountId, BigDecimal amount, String idemKey) {
+        int source = shards.shardOf(fromAccountId);
+        int target = shards.shardOf(toAccountId);
+        if (source == target) {
+            return shards.onShard(source, () -> transferService.createTransfer(fromAccountId, toAccountId, amount, idemKey));
+        }
+
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+        String sagaKey = idemKey == null || idemKey.isBlank() ? "xs-" + UUID.randomUUID() : idemKey;
+
+        var existing = shards.onShard(source, () -> steps.find(fromAccountId, sagaKey));
+        if (existing.isPresent()) {
+            TransferSaga saga = existing.get();
+            if (!saga.getToAccountId().equals(toAccountId) || saga.getAmount().compareTo(amount) != 0) {
+                throw new IllegalArgumentException("Idempotency key was already used for a different transfer");
+            }
+            return advance(saga);
+        }
+
+        // refuse obvious failures up front; the credit step still re-checks under the row lock
+        var destination = shards.onShard(target, () -> accountService.getAccountById(toAccountId))
+                .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + toAccountId));
+        if (destination.getStatus() == AccountStatus.FROZEN) {
+            throw new IllegalArgumentException("Destination account is frozen");
+        }
+
+        TransferSaga saga;
+        try {
+            saga = shards.onShard(source, () -> steps.begin(fromAccountId, toAccountId, amount, sagaKey));
+        } catch (DataIntegrityViolationException dup) {
+            saga = shards.onShard(source, () -> steps.find(fromAccountId, sagaKey)).orElseThrow(() -> dup);
+        }
+        return advance(saga);
+    }
+
+    /**
+     * Drives a saga from its recorded state to the end and returns its DEBIT row.
+     *
+     * @throws IllegalArgumentException when the saga is (or becomes) compensated
+     */
+    public Transfer advance(TransferSaga saga) {
+        int source = shards.shardOf(saga.getFromAccountId());
+        switch (saga.getStatus()) {
+            case COMPLETED -> {
+                return shards.onShard(source, () -> steps.debitOf(saga));
+            }
+            case COMPENSATED -> throw new IllegalArgumentException(saga.getLastError());
+            default -> { }
+        }
+
+        Transfer credit;
+        try {
+            credit = shards.onShard(shards.shardOf(saga.getToAccountId()), () -> steps.credit(saga));
+        } catch (IllegalArgumentException refused) {
+            TransferSaga compensated = shards.onShard(source, () -> steps.compensate(saga.getId(), refused.getMessage()));
+            return advance(compensated);
+        }
+        TransferSaga completed = shards.onShard(source, () -> steps.complete(saga.getId(), credit));
+        return advance(completed);
+    }
+
+    public List<Transfer> getAllTransfersByAccountId(Long accountId) {
+        int shard;
+        try {
+            shard = shards.shardOf(accountId);
+        } catch (IllegalArgumentException ex) {
+            return List.of();
+        }
+        return shards.onShard(shard, () -> transferService.getAllTransfersByAccountId(accountId));
+    }
+
+    public ListVersion getTransfersVersion(Long accountId) {
+        int shard;
+        try {
+            shard = shards.shardOf(accountId);
+        } catch (IllegalArgumentException ex) {
+            return new ListVersion(0, null);
+        }
+        return shards.onShard(shard, () -> transferService.getTransfersVersion(accountId));
+    }
+
+    public Optional<Transfer> getTransferById(Long id) {
+        int shard;
+        try {
+            shard = shards.shardOf(id);
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        return shards.onShard(shard, () -> transferService.getTransferById(id));
+    }
+
+    public List<Transfer> getAllTransfers() {
+        if (!shards.isSharded()) {
+            return transferService.getAllTransfers();
+        }
+        return shards.onEachShard(s -> transferService.getAllTransfers()).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Transfer::getId))
+                .toList();
+    }
+}
@@ -0,0 +1,64 @@
+package smartit_task.bank_service.service.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import smartit_task.bank_service.config.ShardingProperties;
+import smartit_task.bank_service.entity.TransferSaga;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Finishes cross-shard transfers whose coordinator stopped between steps. */
+@Slf4j
+@Component
+public class TransferSagaRecovery {
+
+    private static final int BATCH = 100;
+
+    private final ShardRouter shards;
+    private final ShardedTransferService transfers;
+    private final TransferSagaSteps steps;
+    private final Duration recoverAfter;
+
+    public TransferSagaRecovery(ShardRouter shards, ShardedTransferService transfers, TransferSagaSteps steps,
+                                ShardingProperties properties) {
+        this.shards = shards;
+        this.transfers = transfers;
+        this.steps = steps;
+        this.recoverAfter = properties.getSagaRecoveryAfter();
+    }
+
+    @Scheduled(fixedDelayString = "${app.sharding.saga-recovery-interval-ms:30000}")
+    public void recover() {
+        if (shards.isSharded()) {
+            recoverOnce();
+        }
+    }
+
+    /** Advances every saga that has been DEBITED for longer than the recovery delay; returns how many. */
+    public int recoverOnce() {
+        int recovered = 0;
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            int s = shard;
+            List<TransferSaga> stale;
+            do {
+                LocalDateTime before = LocalDateTime.now().minus(recoverAfter);
+                stale = shards.onShard(s, () -> steps.findStale(before, BATCH));
+                for (TransferSaga saga : stale) {
+                    try {
+                        transfers.advance(saga);
+                    } catch (IllegalArgumentException compensated) {
+                        log.info("Saga {} compensated during recovery: {}", saga.getId(), compensated.getMessage());
+                    } catch (RuntimeException ex) {
+                        log.warn("Saga {} could not be recovered, will retry", saga.getId(), ex);
+                        return recovered;
+                    }
+                    recovered++;
+                }
+            } while (stale.size() == BATCH);
+        }
+        return recovered;
+    }
+}
@@ -0,0 +1,177 @@
+package smartit_task.bank_service.service.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import smartit_task.bank_service.entity.*;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.repository.TransferSagaRepository;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.fx.FxRateSnapshot;
+import smartit_task.bank_service.service.fx.FxRates;
+import smartit_task.bank_service.service.limits.VelocityLimiter;
+import smartit_task.bank_service.service.outbox.OutboxWriter;
+import smartit_task.bank_service.service.rollup.TransferRollupWriter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The local transactions of a cross-shard transfer. Each one runs on a single shard, bound by
+ * the caller, and can be repeated: a step that already happened finds its own effect and
+ * returns it instead of applying it twice.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class TransferSagaSteps {
+
+    private static final Duration CLOCK_STEP_MARGIN = Duration.ofHours(1);
+
+    private final AccountRepository accountRepository;
+    private final TransferRepository transferRepository;
+    private final TransferSagaRepository sagaRepository;
+    private final VelocityLimiter velocityLimiter;
+    private final TransferRollupWriter rollups;
+    private final OutboxWriter outbox;
+    private final FxRates fxRates;
+
+    @Transactional(readOnly = true)
+    public Optional<TransferSaga> find(Long fromAccountId, String sagaKey) {
+        return sagaRepository.findByFromAccountIdAndSagaKey(fromAccountId, sagaKey);
+    }
+
+    @Transactional(readOnly = true)
+    public Transfer debitOf(TransferSaga saga) {
+        return transferRepository.findById(saga.getDebitTransferId())
+                .orElseThrow(() -> new IllegalStateException("Debit of saga " + saga.getId() + " is missing"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransferSaga> findStale(LocalDateTime before, int limit) {
+        return sagaRepository.findByStatusAndModifiedOnBeforeOrderById(SagaStatus.DEBITED, before, PageRequest.of(0, limit));
+    }
+
+    /** Source shard: charges the source account and records the saga as DEBITED. */
+    public TransferSaga begin(Long fromAccountId, Long toAccountId, BigDecimal amount, String sagaKey) {
+        var existing = sagaRepository.findByFromAccountIdAndSagaKey(fromAccountId, sagaKey);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        VelocityLimiter.Reservation reserved = velocityLimiter.reserve(fromAccountId, amount);
+        Account source = accountRepository.lockById(fromAccountId).filter(AccountService::isOpen)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + fromAccountId));
+        if (source.getStatus() == AccountStatus.FROZEN) {
+            throw new IllegalArgumentException("Source account is frozen");
+        }
+        if (source.getAvailableAmount().compareTo(amount) < 0) {
+            throw new IllegalArgumentException("Insufficient funds in source account");
+        }
+        if (reserved.nearLimit()) {
+            velocityLimiter.verifyExact(fromAccountId, amount, source.getCurrency());
+        }
+
+        source.setAvailableAmount(source.getAvailableAmount().subtract(amount));
+        accountRepository.save(source);
+        Transfer debit = new Transfer(fromAccountId, toAccountId, TransferType.DEBIT, amount, source.getCurrency());
+        debit.setIdempotencyKey(sagaKey);
+        transferRepository.save(debit);
+        rollups.record(debit);
+        return sagaRepository.save(new TransferSaga(sagaKey, fromAccountId, toAccountId, amount, source.getCurrency(),
+                debit.getId()));
+    }
+
+    /**
+     * Destination shard: credits the destination account.
+     *
+     * The destination's currency is only known on its shard, so a conversion happens here, at the
+     * rate current when the credit is written; the rate is recorded on the CREDIT row only.
+     *
+     * @throws IllegalArgumentException when the destination is missing or frozen, or there is no
+     *         rate for the pair; the saga must be compensated
+     */
+    public Transfer credit(TransferSaga saga) {
+        var prior = priorCredit(saga);
+        if (prior.isPresent()) {
+            return prior.get();
+        }
+
+        Account destination = accountRepository.lockById(saga.getToAccountId()).filter(AccountService::isOpen)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + saga.getToAccountId()));
+        // a concurrent retry or recovery run may have credited while this one waited for the lock
+        prior = priorCredit(saga);
+        if (prior.isPresent()) {
+            return prior.get();
+        }
+        if (destination.getStatus() == AccountStatus.FROZEN) {
+            throw new IllegalArgumentException("Destination account is frozen");
+        }
+
+        FxRateSnapshot.Conversion fx = saga.getCurrency().equals(destination.getCurrency()) ? null
+                : fxRates.current().convert(saga.getAmount(), saga.getCurrency(), destination.getCurrency());
+        BigDecimal credited = fx == null ? saga.getAmount() : fx.amount();
+
+        destination.setAvailableAmount(destination.getAvailableAmount().add(credited));
+        accountRepository.save(destination);
+        Transfer credit = new Transfer(saga.getToAccountId(), saga.getFromAccountId(), TransferType.CREDIT, credited,
+                destination.getCurrency());
+        if (fx != null) {
+            fx.stamp(credit);
+        }
+        credit.setIdempotencyKey(saga.creditKey());
+        transferRepository.save(credit);
+        rollups.record(credit);
+        return credit;
+    }
+
+    /** Source shard: marks the saga COMPLETED and emits the transfer event. */
+    public TransferSaga complete(Long sagaId, Transfer credit) {
+        TransferSaga saga = lock(sagaId);
+        if (saga.getStatus() != SagaStatus.DEBITED) {
+            return saga;
+        }
+        saga.setStatus(SagaStatus.COMPLETED);
+        saga.setCreditTransferId(credit.getId());
+        outbox.transferCreated(debitOf(saga), credit);
+        return saga;
+    }
+
+    /** Source shard: refunds the debit with a CREDIT row and marks the saga COMPENSATED. */
+    public TransferSaga compensate(Long sagaId, String reason) {
+        TransferSaga saga = lock(sagaId);
+        if (saga.getStatus() != SagaStatus.DEBITED) {
+            return saga;
+        }
+        Account source = accountRepository.lockById(saga.getFromAccountId())
+                .orElseThrow(() -> new IllegalStateException("Source of saga " + sagaId + " is missing"));
+        source.setAvailableAmount(source.getAvailableAmount().add(saga.getAmount()));
+        accountRepository.save(source);
+
+        Transfer refund = new Transfer(saga.getFromAccountId(), saga.getToAccountId(), TransferType.CREDIT, saga.getAmount(),
+                saga.getCurrency());
+        refund.setIdempotencyKey(saga.creditKey());
+        transferRepository.save(refund);
+        rollups.record(refund);
+
+        saga.setStatus(SagaStatus.COMPENSATED);
+        saga.setLastError(reason == null || reason.length() <= 255 ? reason : reason.substring(0, 255));
+        return saga;
+    }
+
+    /** Credits are written after their saga; the margin only covers a clock stepping back. */
+    private Optional<Transfer> priorCredit(TransferSaga saga) {
+        return transferRepository.findPostedSince(saga.getToAccountId(), saga.creditKey(), TransferType.CREDIT,
+                saga.getCreatedOn().minus(CLOCK_STEP_MARGIN));
+    }
+
+    private TransferSaga lock(Long sagaId) {
+        return sagaRepository.lockById(sagaId)
+                .orElseThrow(() -> new IllegalStateException("Saga not found: " + sagaId));
+    }
+}
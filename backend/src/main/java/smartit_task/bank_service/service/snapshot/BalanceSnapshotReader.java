@@ -0,0 +1,135 @@
+package smartit_task.bank_service.service.snapshot;
+
+import smartit_task.bank_service.entity.AccountStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import static smartit_task.bank_service.service.snapshot.SnapshotFormat.*;
+
+/** Read-only view of a snapshot file; only the windows that are touched get paged in. */
+public final class BalanceSnapshotReader implements Closeable {
+
+    public record Header(int version, long count, Instant createdAt, long lastTransferId, long checksum) {}
+
+    public record Entry(long id, AccountStatus status, BigDecimal availableAmount, BigDecimal heldAmount) {}
+
+    private final FileChannel channel;
+    private final Header header;
+    private final MappedByteBuffer[] windows;
+
+    private BalanceSnapshotReader(FileChannel channel, Header header) {
+        this.channel = channel;
+        this.header = header;
+        this.windows = new MappedByteBuffer[(int) ((header.count() + RECORDS_PER_WINDOW - 1) / RECORDS_PER_WINDOW)];
+    }
+
+    public static BalanceSnapshotReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalArgumentException("Not a balance snapshot: " + path.getFileName());
+            }
+            MappedByteBuffer h = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (h.getLong(0) != MAGIC) {
+                throw new IllegalArgumentException("Not a balance snapshot: " + path.getFileName());
+            }
+            int version = h.getInt(8);
+            if (version != VERSION || h.getInt(12) != RECORD_SIZE) {
+                throw new IllegalArgumentException("Unsupported snapshot version " + version);
+            }
+            long count = h.getLong(COUNT_OFFSET);
+            if (channel.size() != HEADER_SIZE + count * RECORD_SIZE) {
+                throw new IllegalArgumentException("Snapshot is truncated: " + path.getFileName());
+            }
+            Header header = new Header(version, count, Instant.ofEpochMilli(h.getLong(CREATED_AT_OFFSET)),
+                    h.getLong(LAST_TRANSFER_OFFSET), h.getLong(CHECKSUM_OFFSET));
+            return new BalanceSnapshotReader(channel, header);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public Header header() {
+        return header;
+    }
+
+    /** Recomputes the record checksum; reads the whole file once. */
+    public boolean verify() throws IOException {
+        CRC32C crc = new CRC32C();
+        for (int w = 0; w < windows.length; w++) {
+            crc.update(window(w).duplicate().clear());
+        }
+        return crc.getValue() == header.checksum();
+    }
+
+    /** Binary search over the id-ordered records. */
+    public Optional<Entry> find(long id) throws IOException {
+        long lo = 0;
+        long hi = header.count() - 1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            long midId = idAt(mid);
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId > id) {
+                hi = mid - 1;
+            } else {
+                return Optional.of(entry(mid));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void forEach(Consumer<Entry> consumer) throws IOException {
+        for (long i = 0; i < header.count(); i++) {
+            consumer.accept(entry(i));
+        }
+    }
+
+    private long idAt(long index) throws IOException {
+        return windowOf(index).getLong(offset(index));
+    }
+
+    private Entry entry(long index) throws IOException {
+        MappedByteBuffer w = windowOf(index);
+        int at = offset(index);
+        return new Entry(
+                w.getLong(at),
+                AccountStatus.values()[w.get(at + 8)],
+                BigDecimal.valueOf(w.getLong(at + 16), 2),
+                BigDecimal.valueOf(w.getLong(at + 24), 2));
+    }
+
+    private MappedByteBuffer windowOf(long index) throws IOException {
+        return window((int) (index / RECORDS_PER_WINDOW));
+    }
+
+    private MappedByteBuffer window(int w) throws IOException {
+        if (windows[w] == null) {
+            long first = (long) w * RECORDS_PER_WINDOW;
+            long records = Math.min(RECORDS_PER_WINDOW, header.count() - first);
+            windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+        }
+        return windows[w];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % RECORDS_PER_WINDOW) * RECORD_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
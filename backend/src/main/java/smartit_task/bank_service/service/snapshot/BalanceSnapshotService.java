@@ -0,0 +1,220 @@
+package smartit_task.bank_service.service.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.entity.AccountStatus;
+import smartit_task.bank_service.service.snapshot.BalanceSnapshotReader.Entry;
+import smartit_task.bank_service.service.snapshot.BalanceSnapshotReader.Header;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Binary balance snapshots under {@code app.snapshots.dir}; see {@link SnapshotFormat}.
+ *
+ * <p>Export reads the count, the rows and the highest transfer id in one read-only
+ * repeatable-read transaction, so the file is a single consistent point in time. It is
+ * written to a temporary file and moved into place once complete.
+ *
+ * <p>Import verifies the checksum before touching the database, then applies the records in
+ * chunks of {@code app.snapshots.import-chunk} with batched updates, one transaction per chunk.
+ * Hold rows are not part of a snapshot, so active holds on restored accounts are released and
+ * the whole balance becomes available. The opening amount is recomputed from the account's transfers, which books the
+ * restore as an opening adjustment the same way a manual balance edit is.
+ */
+@Slf4j
+@Service
+public class BalanceSnapshotService {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9._-]{1,100}");
+
+    public record ImportResult(long records, long updated, long created) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate snapshotTx;
+    private final TransactionTemplate chunkTx;
+    private final Path dir;
+    private final int fetchSize;
+    private final int importChunk;
+
+    public BalanceSnapshotService(JdbcTemplate jdbc,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.snapshots.dir:snapshots}") Path dir,
+                                  @Value("${app.snapshots.fetch-size:1000}") int fetchSize,
+                                  @Value("${app.snapshots.import-chunk:5000}") int importChunk) {
+        this.jdbc = jdbc;
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setReadOnly(true);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.dir = dir;
+        this.fetchSize = fetchSize;
+        this.importChunk = importChunk;
+    }
+
+    public Header export(String name) {
+        Path target = resolve(name);
+        try {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, name, ".part");
+            try {
+                snapshotTx.executeWithoutResult(status -> writeSnapshot(tmp));
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            try (BalanceSnapshotReader reader = BalanceSnapshotReader.open(target)) {
+                log.info("Balance snapshot {}: {} accounts up to transfer {}", name,
+                        reader.header().count(), reader.header().lastTransferId());
+                return reader.header();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write snapshot " + name, ex);
+        }
+    }
+
+    private void writeSnapshot(Path file) {
+        long count = jdbc.queryForObject("SELECT count(*) FROM accounts", Long.class);
+        long lastTransferId = jdbc.queryForObject("SELECT coalesce(max(id), 0) FROM transfers", Long.class);
+        try (BalanceSnapshotWriter writer = new BalanceSnapshotWriter(file, count)) {
+            jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT id, status, available_amount, held_amount FROM accounts ORDER BY id");
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, rs -> {
+                try {
+                    writer.write(rs.getLong(1), AccountStatus.valueOf(rs.getString(2)).ordinal(),
+                            cents(rs.getBigDecimal(3)), cents(rs.getBigDecimal(4)));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            writer.finish(System.currentTimeMillis(), lastTransferId);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public Header describe(String name) {
+        try (BalanceSnapshotReader reader = BalanceSnapshotReader.open(existing(name))) {
+            return reader.header();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public Optional<Entry> lookup(String name, long accountId) {
+        try (BalanceSnapshotReader reader = BalanceSnapshotReader.open(existing(name))) {
+            return reader.find(accountId);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Restores status and balance of every account in the snapshot. With {@code createMissing},
+     * ids that do not exist are created with placeholder name and IBAN, which is meant for
+     * seeding test environments.
+     */
+    public ImportResult importSnapshot(String name, boolean createMissing) {
+        try (BalanceSnapshotReader reader = BalanceSnapshotReader.open(existing(name))) {
+            if (!reader.verify()) {
+                throw new IllegalArgumentException("Snapshot checksum does not match: " + name);
+            }
+            long[] totals = new long[2];
+            List<Entry> chunk = new ArrayList<>(importChunk);
+            reader.forEach(e -> {
+                chunk.add(e);
+                if (chunk.size() == importChunk) {
+                    applyChunk(chunk, createMissing, totals);
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                applyChunk(chunk, createMissing, totals);
+            }
+            if (totals[1] > 0) {
+                restartIdentity();
+            }
+            return new ImportResult(reader.header().count(), totals[0], totals[1]);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void applyChunk(List<Entry> chunk, boolean createMissing, long[] totals) {
+        chunkTx.executeWithoutResult(status -> {
+            long first = chunk.get(0).id();
+            long last = chunk.get(chunk.size() - 1).id();
+            Set<Long> present = new HashSet<>(jdbc.queryForList(
+                    "SELECT id FROM accounts WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE", Long.class, first, last));
+
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> inserts = new ArrayList<>();
+            for (Entry e : chunk) {
+                BigDecimal balance = e.availableAmount().add(e.heldAmount());
+                if (present.contains(e.id())) {
+                    updates.add(new Object[]{e.status().name(), balance, e.id()});
+                } else if (createMissing) {
+                    inserts.add(new Object[]{e.id(), "Account " + e.id(), String.format("ZZ00SNAP%018d", e.id()),
+                            e.status().name(), balance, balance});
+                }
+            }
+            jdbc.batchUpdate("UPDATE accounts SET status = ?, available_amount = ?, held_amount = 0, " +
+                    "modified_on = CURRENT_TIMESTAMP WHERE id = ?", updates);
+            jdbc.batchUpdate("INSERT INTO accounts (id, name, iban, status, available_amount, held_amount, opening_amount, " +
+                    "created_on, modified_on) VALUES (?, ?, ?, ?, ?, 0, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", inserts);
+            jdbc.update("UPDATE holds SET status = 'RELEASED', modified_on = CURRENT_TIMESTAMP " +
+                    "WHERE status = 'ACTIVE' AND account_id BETWEEN ? AND ?", first, last);
+            jdbc.update("UPDATE accounts SET opening_amount = available_amount + held_amount - coalesce((" +
+                    "SELECT sum(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END) " +
+                    "FROM transfers t WHERE t.account_id = accounts.id), 0) WHERE id BETWEEN ? AND ?", first, last);
+            totals[0] += updates.size();
+            totals[1] += inserts.size();
+        });
+    }
+
+    /** Inserting explicit ids does not advance the identity, so move it past the highest id. */
+    private void restartIdentity() {
+        long next = jdbc.queryForObject("SELECT coalesce(max(id), 0) + 1 FROM accounts", Long.class);
+        String product = jdbc.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equalsIgnoreCase(product)) {
+            jdbc.queryForObject("SELECT setval(pg_get_serial_sequence('accounts', 'id'), ?, false)", Long.class, next);
+        } else {
+            jdbc.execute("ALTER TABLE accounts ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    private Path existing(String name) {
+        Path file = resolve(name);
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchElementException("Snapshot not found: " + name);
+        }
+        return file;
+    }
+
+    private Path resolve(String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Snapshot name may only contain letters, digits, '.', '_' and '-'");
+        }
+        return dir.resolve(name + ".snap");
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2).unscaledValue().longValueExact();
+    }
+}
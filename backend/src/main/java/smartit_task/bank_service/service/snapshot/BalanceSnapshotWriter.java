@@ -0,0 +1,69 @@
+package smartit_task.bank_service.service.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+import static smartit_task.bank_service.service.snapshot.SnapshotFormat.*;
+
+/** Writes a snapshot of a known record count through memory-mapped windows. */
+final class BalanceSnapshotWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final long count;
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private MappedByteBuffer window;
+    private long written;
+    private long lastId = Long.MIN_VALUE;
+
+    BalanceSnapshotWriter(Path path, long count) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.count = count;
+    }
+
+    void write(long id, int status, long availableCents, long heldCents) throws IOException {
+        if (written == count) {
+            throw new IllegalStateException("More records than the " + count + " announced");
+        }
+        if (id <= lastId) {
+            throw new IllegalStateException("Records must be written in ascending id order");
+        }
+        record.clear();
+        record.putLong(id).put((byte) status).put(new byte[7]).putLong(availableCents).putLong(heldCents);
+        crc.update(record.array(), 0, RECORD_SIZE);
+
+        if (window == null || !window.hasRemaining()) {
+            long records = Math.min(RECORDS_PER_WINDOW, count - written);
+            window = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + written * RECORD_SIZE, records * RECORD_SIZE);
+        }
+        window.put(record.array());
+        written++;
+        lastId = id;
+    }
+
+    /** Writes the header last, so a file with a valid header always has all of its records. */
+    void finish(long createdAtMillis, long lastTransferId) throws IOException {
+        if (written != count) {
+            throw new IllegalStateException("Wrote " + written + " of " + count + " records");
+        }
+        if (window != null) {
+            window.force();
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.putLong(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putLong(count)
+                .putLong(createdAtMillis).putLong(lastTransferId).putLong(crc.getValue()).put(new byte[16]);
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
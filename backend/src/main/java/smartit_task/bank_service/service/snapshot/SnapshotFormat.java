@@ -0,0 +1,44 @@
+package smartit_task.bank_service.service.snapshot;
+
+/**
+ * Layout of a balance snapshot file. All numbers are big-endian.
+ *
+ * <pre>
+ * header, 64 bytes
+ *   0  magic "BKSNAP01"      8
+ *   8  version               4
+ *  12  record size           4
+ *  16  record count          8
+ *  24  created at, epoch ms  8
+ *  32  highest transfer id   8   (the snapshot reflects every transfer up to here)
+ *  40  CRC32C of the records 8
+ *  48  reserved             16
+ * records, 32 bytes each, ascending by account id
+ *   0  account id            8
+ *   8  status ordinal        1
+ *   9  padding               7
+ *  16  available, in cents   8
+ *  24  held, in cents        8
+ * </pre>
+ *
+ * Fixed-width records in id order are their own index: record {@code i} is at
+ * {@code HEADER_SIZE + i * RECORD_SIZE}, so an id is found by binary search over the mapped
+ * file without reading the rest of it.
+ */
+final class SnapshotFormat {
+
+    static final long MAGIC = 0x424B534E41503031L;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 32;
+
+    static final int COUNT_OFFSET = 16;
+    static final int CREATED_AT_OFFSET = 24;
+    static final int LAST_TRANSFER_OFFSET = 32;
+    static final int CHECKSUM_OFFSET = 40;
+
+    /** Records per mapped window; keeps every mapping far below the 2 GB MappedByteBuffer limit. */
+    static final int RECORDS_PER_WINDOW = 1 << 20;
+
+    private SnapshotFormat() {}
+}
@@ -0,0 +1,119 @@
+package smartit_task.bank_service.service.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccountResponse;
+import smartit_task.bank_service.dto.TransferCreateRequest;
+import smartit_task.bank_service.dto.TransferResponse;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.mapper.AccountMapper;
+import smartit_task.bank_service.mapper.TransferMapper;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.TransferService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Runs the transfer path, the mappers and JSON (de)serialization a few thousand times before the
+ * application reports ready, so the first real requests do not pay for class loading, lazy
+ * bean creation and interpretation.
+ *
+ * <p>Boot runs {@link ApplicationRunner}s before publishing readiness, so the readiness probe
+ * stays down until this returns. Every batch runs in a transaction that is rolled back: the
+ * scratch accounts and transfers are never committed, no events or outbox rows escape, and
+ * velocity limit reservations are released.
+ *
+ * <p>The switch is read at run time rather than as a bean condition, because AOT processing
+ * fixes bean conditions when the image is built.
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final int BATCH = 200;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    private final AccountService accountService;
+    private final TransferService transferService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate scratchTx;
+    private final boolean enabled;
+    private final int transfers;
+
+    public StartupWarmup(AccountService accountService,
+                         TransferService transferService,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.warmup.enabled:false}") boolean enabled,
+                         @Value("${app.warmup.transfers:2000}") int transfers) {
+        this.accountService = accountService;
+        this.transferService = transferService;
+        this.objectMapper = objectMapper;
+        this.scratchTx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.transfers = transfers;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long t0 = System.nanoTime();
+        int done = 0;
+        try {
+            while (done < transfers) {
+                int batch = Math.min(BATCH, transfers - done);
+                scratchTx.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    warmBatch(batch);
+                });
+                done += batch;
+            }
+        } catch (RuntimeException ex) {
+            // a failed warmup only costs latency, never availability
+            log.warn("Warmup stopped after {} transfers", done, ex);
+        }
+        log.info("Warmup ran {} transfers in {}", done, Duration.ofNanos(System.nanoTime() - t0));
+    }
+
+    private void warmBatch(int count) {
+        String tag = UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+        Account from = accountService.createAccount(
+                new AccountCreateRequest("warmup-" + tag + "-a", "ZZ00WARM" + tag + "A", new BigDecimal("1000000.00")));
+        Account to = accountService.createAccount(
+                new AccountCreateRequest("warmup-" + tag + "-b", "ZZ00WARM" + tag + "B", BigDecimal.ZERO));
+
+        for (int i = 0; i < count; i++) {
+            String key = i % 2 == 0 ? null : "warmup-" + tag + "-" + i;
+            Transfer t = i % 4 == 3
+                    ? transferService.createTransfer(to.getId(), from.getId(), AMOUNT, key)
+                    : transferService.createTransfer(from.getId(), to.getId(), AMOUNT, key);
+            roundTrip(TransferMapper.toResponse(t), TransferResponse.class);
+            roundTrip(new TransferCreateRequest(from.getId(), to.getId(), AMOUNT), TransferCreateRequest.class);
+        }
+        roundTrip(AccountMapper.toResponse(accountService.getAccountById(from.getId()).orElseThrow()), AccountResponse.class);
+        TransferMapper.toResponseList(transferService.getAllTransfersByAccountId(from.getId()))
+                .forEach(r -> roundTrip(r, TransferResponse.class));
+    }
+
+    private <T> void roundTrip(Object value, Class<T> type) {
+        try {
+            objectMapper.readValue(objectMapper.writeValueAsBytes(value), type);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
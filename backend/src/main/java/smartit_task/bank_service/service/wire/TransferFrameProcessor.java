@@ -0,0 +1,69 @@
+package smartit_task.bank_service.service.wire;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.service.TransferService;
+import smartit_task.bank_service.service.sharding.ShardedTransferService;
+import smartit_task.bank_service.service.wire.TransferFrames.MalformedFrameException;
+import smartit_task.bank_service.service.wire.TransferFrames.Request;
+import smartit_task.bank_service.service.wire.TransferFrames.Result;
+
+import java.io.*;
+import java.time.ZoneId;
+
+/**
+ * Runs a stream of {@link TransferFrames} requests through {@link TransferService}, writing one
+ * result per request as it completes. Each transfer is its own transaction, exactly as if it had
+ * been posted to {@code /api/transfers}; a rejected transfer does not affect the ones after it.
+ *
+ * <p>Output is flushed whenever no further request bytes are buffered, so a client that
+ * pipelines requests gets results in batches and one that waits for each result gets it
+ * immediately.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferFrameProcessor {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ShardedTransferService transferService;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /** Returns the number of transfer requests processed. */
+    public long process(InputStream requests, OutputStream results) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(requests, BUFFER_SIZE));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(results, BUFFER_SIZE));
+        long processed = 0;
+        try {
+            for (Request req; (req = TransferFrames.readRequest(in)) != null; ) {
+                TransferFrames.writeResult(out, execute(req));
+                processed++;
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (MalformedFrameException ex) {
+            TransferFrames.writeResult(out, Result.error(-1, TransferFrames.MALFORMED, ex.getMessage()));
+        }
+        out.flush();
+        return processed;
+    }
+
+    private Result execute(Request req) {
+        try {
+            Transfer t = transferService.createTransfer(req.fromAccountId(), req.toAccountId(),
+                    req.amount(), req.idempotencyKey());
+            long createdOn = t.getCreatedOn() == null ? 0 : t.getCreatedOn().atZone(zone).toInstant().toEpochMilli();
+            return Result.ok(req.correlationId(), t.getId(), createdOn);
+        } catch (IllegalArgumentException | DataIntegrityViolationException ex) {
+            return Result.error(req.correlationId(), TransferFrames.REJECTED, ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.warn("Binary transfer {} failed", req.correlationId(), ex);
+            return Result.error(req.correlationId(), TransferFrames.FAILED, "Internal error");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package smartit_task.bank_service.service.wire;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-prefixed binary framing for bulk transfer submission. All integers are big-endian.
+ *
+ * <pre>
+ * request  := int32 length, then length bytes:
+ *             int8 version (2), int64 correlationId, int64 fromAccountId, int64 toAccountId,
+ *             int64 amountUnscaled, int8 amountScale (0..18),
+ *             int8 keyLength (0..64), keyLength bytes of ASCII idempotency key
+ * result   := int32 length, then length bytes:
+ *             int64 correlationId, int8 status,
+ *             status OK:              int64 transferId (the DEBIT row), int64 createdOn epoch millis
+ *             status REJECTED/FAILED: int16 messageLength, messageLength bytes of UTF-8
+ * </pre>
+ *
+ * The amount is {@code amountUnscaled * 10^-amountScale} in the source account's currency, so
+ * currencies with any number of minor units are sent exactly. Version 1 requests have no
+ * {@code amountScale} byte and are read with scale 2.
+ *
+ * <p>Results are written in request order, one per request, so a client can keep writing
+ * requests while it reads results and match them by position or correlation id.
+ */
+public final class TransferFrames {
+
+    public static final String MEDIA_TYPE = "application/x-transfer-frames";
+    public static final int VERSION = 2;
+    public static final int MAX_SCALE = 18;
+    public static final int MAX_KEY_LENGTH = 64;
+
+    public static final int OK = 0;
+    /** The transfer was refused by validation (same cases as a 400 from the JSON API). */
+    public static final int REJECTED = 1;
+    /** Unexpected error; the transfer may be retried with the same idempotency key. */
+    public static final int FAILED = 2;
+    /** The request stream could not be parsed; it is the last result and the stream is closed. */
+    public static final int MALFORMED = 3;
+
+    static final int V1_REQUEST_FIXED_SIZE = 1 + 8 + 8 + 8 + 8 + 1;
+    static final int REQUEST_FIXED_SIZE = V1_REQUEST_FIXED_SIZE + 1;
+    private static final int MAX_MESSAGE_LENGTH = 1024;
+
+    public record Request(long correlationId, long fromAccountId, long toAccountId, long amountUnscaled, int amountScale,
+                          String idempotencyKey) {
+
+        /** An amount in hundredths, as version 1 frames carry it. */
+        public Request(long correlationId, long fromAccountId, long toAccountId, long amountCents, String idempotencyKey) {
+            this(correlationId, fromAccountId, toAccountId, amountCents, 2, idempotencyKey);
+        }
+
+        public BigDecimal amount() {
+            return BigDecimal.valueOf(amountUnscaled, amountScale);
+        }
+    }
+
+    public record Result(long correlationId, int status, long transferId, long createdOnMillis, String message) {
+
+        public static Result ok(long correlationId, long transferId, long createdOnMillis) {
+            return new Result(correlationId, OK, transferId, createdOnMillis, null);
+        }
+
+        public static Result error(long correlationId, int status, String message) {
+            return new Result(correlationId, status, 0, 0, message == null ? "" : message);
+        }
+    }
+
+    /** Thrown when the request stream is not valid framing; the caller cannot resynchronize. */
+    public static class MalformedFrameException extends IOException {
+        public MalformedFrameException(String message) {
+            super(message);
+        }
+    }
+
+    private TransferFrames() {}
+
+    /** Returns null on a clean end of stream between frames. */
+    public static Request readRequest(DataInputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        try {
+            int length = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+            if (length < V1_REQUEST_FIXED_SIZE || length > REQUEST_FIXED_SIZE + MAX_KEY_LENGTH) {
+                throw new MalformedFrameException("Invalid frame length " + length);
+            }
+            int version = in.readUnsignedByte();
+            if (version != 1 && version != VERSION) {
+                throw new MalformedFrameException("Unsupported frame version " + version);
+            }
+            long correlationId = in.readLong();
+            long from = in.readLong();
+            long to = in.readLong();
+            long unscaled = in.readLong();
+            int scale = version == 1 ? 2 : in.readUnsignedByte();
+            if (scale > MAX_SCALE) {
+                throw new MalformedFrameException("Invalid amount scale " + scale);
+            }
+            int keyLength = in.readUnsignedByte();
+            if (keyLength != length - (version == 1 ? V1_REQUEST_FIXED_SIZE : REQUEST_FIXED_SIZE)) {
+                throw new MalformedFrameException("Key length " + keyLength + " does not match frame length " + length);
+            }
+            String key = null;
+            if (keyLength > 0) {
+                byte[] raw = new byte[keyLength];
+                in.readFully(raw);
+                key = new String(raw, StandardCharsets.US_ASCII);
+            }
+            return new Request(correlationId, from, to, unscaled, scale, key);
+        } catch (EOFException ex) {
+            throw new MalformedFrameException("Stream ended inside a frame");
+        }
+    }
+
+    public static void writeRequest(DataOutputStream out, Request r) throws IOException {
+        byte[] key = r.idempotencyKey() == null ? new byte[0] : r.idempotencyKey().getBytes(StandardCharsets.US_ASCII);
+        if (key.length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key longer than " + MAX_KEY_LENGTH + " bytes");
+        }
+        out.writeInt(REQUEST_FIXED_SIZE + key.length);
+        out.writeByte(VERSION);
+        out.writeLong(r.correlationId());
+        out.writeLong(r.fromAccountId());
+        out.writeLong(r.toAccountId());
+        out.writeLong(r.amountUnscaled());
+        out.writeByte(r.amountScale());
+        out.writeByte(key.length);
+        out.write(key);
+    }
+
+    public static void writeResult(DataOutputStream out, Result r) throws IOException {
+        if (r.status() == OK) {
+            out.writeInt(8 + 1 + 8 + 8);
+            out.writeLong(r.correlationId());
+            out.writeByte(OK);
+            out.writeLong(r.transferId());
+            out.writeLong(r.createdOnMillis());
+            return;
+        }
+        byte[] message = r.message().getBytes(StandardCharsets.UTF_8);
+        int len = Math.min(message.length, MAX_MESSAGE_LENGTH);
+        out.writeInt(8 + 1 + 2 + len);
+        out.writeLong(r.correlationId());
+        out.writeByte(r.status());
+        out.writeShort(len);
+        out.write(message, 0, len);
+    }
+
+    /** Returns null on a clean end of stream between frames. */
+    public static Result readResult(DataInputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        int length = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+        long correlationId = in.readLong();
+        int status = in.readUnsignedByte();
+        if (status == OK) {
+            return Result.ok(correlationId, in.readLong(), in.readLong());
+        }
+        byte[] message = new byte[in.readUnsignedShort()];
+        if (length != 8 + 1 + 2 + message.length) {
+            throw new MalformedFrameException("Invalid result frame length " + length);
+        }
+        in.readFully(message);
+        return Result.error(correlationId, status, new String(message, StandardCharsets.UTF_8));
+    }
+}
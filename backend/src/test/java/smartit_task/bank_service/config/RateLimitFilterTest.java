@@ -0,0 +1,98 @@
+package smartit_task.bank_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import smartit_task.bank_service.service.limits.ClientRateLimiter;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    SimpleMeterRegistry meters;
+    RateLimitProperties properties;
+    RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meters = new SimpleMeterRegistry();
+        properties = new RateLimitProperties();
+        properties.setRead(new RateLimitProperties.Budget(100, 2));
+        properties.setWrite(new RateLimitProperties.Budget(0.5, 1));
+        properties.setInternal(new RateLimitProperties.Budget(0.5, 1));
+        filter = new RateLimitFilter(new ClientRateLimiter(properties, meters), new ObjectMapper(), "X-API-Key",
+                List.of(RateLimitFilter.sha256("secret-key").toUpperCase()));
+    }
+
+    private MockHttpServletResponse send(String method, String addr, String apiKey) throws Exception {
+        return send(method, "/api/transfers", addr, apiKey);
+    }
+
+    private MockHttpServletResponse send(String method, String path, String addr, String apiKey) throws Exception {
+        var request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(addr);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void overBudgetWrite_gets429WithRetryAfter() throws Exception {
+        assertThat(send("POST", "10.0.0.1", null).getStatus()).isEqualTo(200);
+
+        var refused = send("POST", "10.0.0.1", null);
+        assertThat(refused.getStatus()).isEqualTo(429);
+        assertThat(refused.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(refused.getContentAsString()).contains("Too many write requests");
+
+        // reads have their own budget, other addresses their own buckets
+        assertThat(send("GET", "10.0.0.1", null).getStatus()).isEqualTo(200);
+        assertThat(send("POST", "10.0.0.2", null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void apiKey_isTheClient_andIsNotExposedInMetrics() throws Exception {
+        properties.setPerClientMetrics(true);
+        assertThat(send("POST", "10.0.0.1", "secret-key").getStatus()).isEqualTo(200);
+        assertThat(send("POST", "10.0.0.9", "secret-key").getStatus()).isEqualTo(429);
+
+        assertThat(meters.find("api.ratelimit.client.requests").counters()).isNotEmpty()
+                .allSatisfy(c -> assertThat(c.getId().getTag("client")).startsWith("key:").doesNotContain("secret"));
+    }
+
+    @Test
+    void unknownApiKeys_fallBackToTheRemoteAddress() throws Exception {
+        assertThat(send("POST", "10.0.0.1", "made-up-1").getStatus()).isEqualTo(200);
+        assertThat(send("POST", "10.0.0.1", "made-up-2").getStatus()).isEqualTo(429);
+        assertThat(send("POST", "10.0.0.1", null).getStatus()).isEqualTo(429);
+        assertThat(send("POST", "10.0.0.2", "made-up-3").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void internalFrameStreams_haveTheirOwnBudget() throws Exception {
+        assertThat(send("POST", "/internal/transfers", "10.0.0.1", null).getStatus()).isEqualTo(200);
+
+        var refused = send("POST", "/internal/transfers", "10.0.0.1", null);
+        assertThat(refused.getStatus()).isEqualTo(429);
+        assertThat(refused.getContentAsString()).contains("Too many internal requests");
+        assertThat(send("POST", "10.0.0.1", null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void disabled_orPreflight_passesThrough() throws Exception {
+        send("POST", "10.0.0.1", null);
+        assertThat(send("OPTIONS", "10.0.0.1", null).getStatus()).isEqualTo(200);
+
+        properties.setEnabled(false);
+        assertThat(send("POST", "10.0.0.1", null).getStatus()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,125 @@
+package smartit_task.bank_service.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccountResponse;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.TransferService;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for primary and replica. Nothing replicates between
+ * them, which makes it visible where each read was served from.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.datasource.replica.driver-class-name=org.h2.Driver",
+        "app.datasource.replica.read-your-writes-window=300ms"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingIT {
+
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+
+    @Autowired @Qualifier("primaryDataSource") DataSource primary;
+    @Autowired @Qualifier("replicaDataSource") DataSource replica;
+
+    JdbcTemplate primaryJdbc;
+    JdbcTemplate replicaJdbc;
+
+    @BeforeEach
+    void copySchemaToReplica() {
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+
+        primaryJdbc.execute("DELETE FROM transfers");
+        primaryJdbc.execute("DELETE FROM accounts");
+        replicaJdbc.execute("DROP ALL OBJECTS");
+        primaryJdbc.queryForList("SCRIPT NODATA", String.class).stream()
+                .filter(sql -> !sql.startsWith("CREATE USER") && !sql.startsWith("--"))
+                .forEach(replicaJdbc::execute);
+    }
+
+    @Test
+    void readOnlyMethods_goToReplica_onceReadYourWritesWindowHasPassed() throws Exception {
+        accountService.createAccount(new AccountCreateRequest("Alice", "BG80BNBG96611020345678", BigDecimal.TEN));
+
+        // just written: served by the primary
+        assertThat(accountService.getAllAccounts()).extracting(AccountResponse::getName).containsExactly("Alice");
+
+        Thread.sleep(400);
+
+        // replica has not caught up (it never does here), so the read returns its empty view
+        assertThat(accountService.getAllAccounts()).isEmpty();
+
+        replicaJdbc.update("INSERT INTO accounts (name, iban, status, available_amount, held_amount, opening_amount, created_on, modified_on) " +
+                "VALUES ('Replica', 'BG00REPL00000000000001', 'ACTIVE', 1.00, 0.00, 1.00, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        assertThat(accountService.getAllAccounts()).extracting(AccountResponse::getName).containsExactly("Replica");
+    }
+
+    @Test
+    void transferHistory_isReadFromPrimary_rightAfterTransfer() throws Exception {
+        var from = accountService.createAccount(new AccountCreateRequest("From", "BG00FROM00000000000001", new BigDecimal("100.00")));
+        var to = accountService.createAccount(new AccountCreateRequest("To", "BG00TO00000000000002", BigDecimal.ZERO));
+        Thread.sleep(400);
+
+        transferService.createTransfer(from.getId(), to.getId(), new BigDecimal("15.00"));
+
+        assertThat(transferService.getAllTransfersByAccountId(from.getId())).hasSize(2);
+        assertThat(accountService.getAccountById(to.getId()))
+                .get().extracting(Account::getAvailableAmount)
+                .satisfies(amount -> assertThat(amount).isEqualByComparingTo("15.00"));
+
+        Thread.sleep(400);
+        assertThat(transferService.getAllTransfersByAccountId(from.getId())).isEmpty();
+    }
+
+    @Test
+    void anotherCallersWrite_doesNotPinReadsToThePrimary() {
+        accountService.createAccount(new AccountCreateRequest("Bea", "BG00BEA000000000000001", BigDecimal.TEN));
+
+        List<AccountResponse> otherCaller = CompletableFuture.supplyAsync(accountService::getAllAccounts).join();
+
+        assertThat(otherCaller).isEmpty();
+        assertThat(accountService.getAllAccounts()).extracting(AccountResponse::getName).containsExactly("Bea");
+    }
+
+    @Test
+    void httpCaller_readsItsOwnWrites_byEchoingTheLastWriteHeader() throws Exception {
+        var filter = new ReadYourWrites.Filter();
+        var written = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/accounts"), written, (req, res) ->
+                accountService.createAccount(new AccountCreateRequest("Cid", "BG00CID000000000000001", BigDecimal.TEN)));
+        String lastWrite = written.getHeader(ReadYourWrites.HEADER);
+        assertThat(lastWrite).isNotNull();
+
+        List<List<AccountResponse>> reads = new ArrayList<>();
+        var echoing = new MockHttpServletRequest("GET", "/api/accounts");
+        echoing.addHeader(ReadYourWrites.HEADER, lastWrite);
+        filter.doFilter(echoing, new MockHttpServletResponse(), (req, res) -> reads.add(accountService.getAllAccounts()));
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/accounts"), new MockHttpServletResponse(),
+                (req, res) -> reads.add(accountService.getAllAccounts()));
+
+        assertThat(reads.get(0)).extracting(AccountResponse::getName).containsExactly("Cid");
+        assertThat(reads.get(1)).isEmpty();
+    }
+}
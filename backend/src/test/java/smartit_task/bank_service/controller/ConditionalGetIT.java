@@ -0,0 +1,126 @@
+package smartit_task.bank_service.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.TransferService;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditionalget;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc(addFilters = false)
+class ConditionalGetIT {
+
+    @Autowired MockMvc mvc;
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired JdbcTemplate jdbc;
+
+    Account ann;
+    Account ben;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        String tag = Long.toString(System.nanoTime(), 36).toUpperCase();
+        ann = accountService.createAccount(new AccountCreateRequest("Ann " + tag, "BG00CG" + tag + "1", new BigDecimal("100.00")));
+        ben = accountService.createAccount(new AccountCreateRequest("Ben " + tag, "BG00CG" + tag + "2", new BigDecimal("100.00")));
+    }
+
+    @Test
+    void accountList_answers304UntilABalanceChanges() throws Exception {
+        String etag = etagOf("/api/accounts");
+        assertThat(etag).startsWith("W/\"accounts-");
+        mvc.perform(get("/api/accounts").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        transferService.createTransfer(ann.getId(), ben.getId(), BigDecimal.ONE);
+
+        mvc.perform(get("/api/accounts").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(jsonPath("$[0].availableAmount").value(99.0));
+        assertThat(etagOf("/api/accounts")).isNotEqualTo(etag);
+    }
+
+    @Test
+    void accountList_tagChangesWhenAnAccountCloses() throws Exception {
+        String etag = etagOf("/api/accounts");
+
+        accountService.deleteAccount(ben.getId());
+
+        mvc.perform(get("/api/accounts").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void accountList_tagChangesForAnUpdateWithinTheSameSecond() throws Exception {
+        jdbc.update("UPDATE accounts SET modified_on = TIMESTAMP '2024-01-01 10:00:00.500' WHERE id = ?", ann.getId());
+        jdbc.update("UPDATE accounts SET modified_on = TIMESTAMP '2024-01-01 10:00:00.100' WHERE id = ?", ben.getId());
+        String etag = etagOf("/api/accounts");
+
+        // same count, same newest time, same whole seconds: only the sub-second part moved
+        jdbc.update("UPDATE accounts SET modified_on = TIMESTAMP '2024-01-01 10:00:00.300' WHERE id = ?", ben.getId());
+
+        mvc.perform(get("/api/accounts").header("If-None-Match", etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void account_answers304UntilItIsUpdated() throws Exception {
+        String path = "/api/accounts/" + ann.getId();
+        String etag = etagOf(path);
+        mvc.perform(get(path).header("If-None-Match", etag)).andExpect(status().isNotModified());
+
+        accountService.freezeAccount(ann.getId());
+
+        mvc.perform(get(path).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("FROZEN"));
+        mvc.perform(get("/api/accounts/999999").header("If-None-Match", etag)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void accountTransfers_answer304UntilATransferTouchesTheAccount() throws Exception {
+        Account cid = accountService.createAccount(new AccountCreateRequest("Cid " + ann.getId(), "BG00CGX" + ann.getId(), BigDecimal.TEN));
+        String path = "/api/transfers/account/" + ben.getId();
+        transferService.createTransfer(ann.getId(), ben.getId(), BigDecimal.ONE);
+        String etag = etagOf(path);
+        mvc.perform(get(path).header("If-None-Match", etag)).andExpect(status().isNotModified());
+
+        transferService.createTransfer(ann.getId(), cid.getId(), BigDecimal.ONE);
+        mvc.perform(get(path).header("If-None-Match", etag)).andExpect(status().isNotModified());
+
+        transferService.createTransfer(cid.getId(), ben.getId(), BigDecimal.ONE);
+        mvc.perform(get(path).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4));
+    }
+
+    private String etagOf(String path) throws Exception {
+        String etag = mvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+}
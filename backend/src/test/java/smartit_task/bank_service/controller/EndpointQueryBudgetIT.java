@@ -0,0 +1,235 @@
+package smartit_task.bank_service.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.TransferService;
+import smartit_task.bank_service.support.SqlStatementRecorder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact number of SQL round trips per call of each account and transfer endpoint. A change in
+ * a count is either a regression or an improvement; either way update the budget on purpose.
+ * Fixtures hold several accounts and transfers, so a per-row query shows up as a count that
+ * no longer matches.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querybudget;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc(addFilters = false)
+@Import(SqlStatementRecorder.Config.class)
+class EndpointQueryBudgetIT {
+
+    @Autowired MockMvc mvc;
+    @Autowired SqlStatementRecorder sql;
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired JdbcTemplate jdbc;
+
+    Account ann;
+    Account ben;
+    Transfer transfer;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM idempotency_keys");
+        jdbc.execute("DELETE FROM accounts");
+        ann = accountService.createAccount(new AccountCreateRequest("Ann", "BG00QBGT00000000000001", new BigDecimal("500.00")));
+        ben = accountService.createAccount(new AccountCreateRequest("Ben", "BG00QBGT00000000000002", new BigDecimal("500.00")));
+        for (int i = 3; i <= 6; i++) {
+            accountService.createAccount(new AccountCreateRequest("Extra " + i, "BG00QBGT0000000000000" + i, BigDecimal.TEN));
+        }
+        for (int i = 0; i < 3; i++) {
+            transfer = transferService.createTransfer(ann.getId(), ben.getId(), BigDecimal.ONE);
+        }
+    }
+
+    // --- AccountController
+
+    @Test
+    void listAccounts() throws Exception {
+        String etag = assertQueries(2, get("/api/accounts")).getResponse().getHeader("ETag");
+        assertQueries(1, get("/api/accounts").header("If-None-Match", etag));
+    }
+
+    @Test
+    void lookupAccounts() throws Exception {
+        assertQueries(1, get("/api/accounts").param("ids", ann.getId() + "," + ben.getId() + ",999999"));
+        assertQueries(1, post("/api/accounts/lookup").contentType(MediaType.APPLICATION_JSON)
+                .content("[" + ann.getId() + "," + ben.getId() + "]"));
+    }
+
+    @Test
+    void searchAccounts_isServedFromMemory() throws Exception {
+        assertQueries(0, get("/api/accounts/search").param("q", "ann"));
+    }
+
+    @Test
+    void pageAccounts() throws Exception {
+        assertQueries(2, get("/api/accounts/page").param("size", "2"));
+        assertQueries(1, get("/api/accounts/page").param("size", "50"));
+    }
+
+    @Test
+    void exportAccounts() throws Exception {
+        assertQueries(1, get("/api/accounts/export"));
+    }
+
+    @Test
+    void getAccount() throws Exception {
+        String etag = assertQueries(1, get("/api/accounts/{id}", ann.getId())).getResponse().getHeader("ETag");
+        assertQueries(1, get("/api/accounts/{id}", ann.getId()).header("If-None-Match", etag));
+        assertQueries(1, get("/api/accounts/{id}", 999999));
+    }
+
+    @Test
+    void createAccount() throws Exception {
+        assertQueries(1, post("/api/accounts").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Cora\",\"iban\":\"BG00QBGT00000000000010\",\"initialAmount\":5}"));
+    }
+
+    @Test
+    void createAccount_duplicateName() throws Exception {
+        assertQueries(1, post("/api/accounts").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Ann\",\"iban\":\"BG00QBGT00000000000011\",\"initialAmount\":5}"));
+    }
+
+    @Test
+    void createAccountsBatch() throws Exception {
+        String body = IntStream.range(0, 5)
+                .mapToObj(i -> "{\"name\":\"Batch " + i + "\",\"iban\":\"BG00QBGT0000000000002" + i + "\",\"initialAmount\":1}")
+                .collect(Collectors.joining(",", "[", "]"));
+        assertQueries(5, post("/api/accounts/batch").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    @Test
+    void updateAccount() throws Exception {
+        assertQueries(2, put("/api/accounts/{id}", ann.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Ann B\",\"iban\":\"BG00QBGT00000000000001\",\"availableAmount\":600}"));
+    }
+
+    @Test
+    void freezeAndUnfreeze() throws Exception {
+        assertQueries(2, put("/api/accounts/{id}/freeze", ann.getId()));
+        assertQueries(2, put("/api/accounts/{id}/unfreeze", ann.getId()));
+    }
+
+    @Test
+    void deleteAccount() throws Exception {
+        Account dora = accountService.createAccount(new AccountCreateRequest("Dora", "BG00QBGT00000000000012", BigDecimal.ONE));
+        assertQueries(2, delete("/api/accounts/{id}", dora.getId()));
+    }
+
+    @Test
+    void seed() throws Exception {
+        assertQueries(3, post("/api/accounts/seed"));
+    }
+
+    @Test
+    void accountStream_opensWithoutQueries() throws Exception {
+        assertQueriesOnOpen(0, get("/api/accounts/stream"));
+    }
+
+    // --- TransferController
+
+    @Test
+    void listTransfers() throws Exception {
+        assertQueries(1, get("/api/transfers"));
+        String etag = assertQueries(2, get("/api/transfers/account/{id}", ann.getId())).getResponse().getHeader("ETag");
+        assertQueries(1, get("/api/transfers/account/{id}", ann.getId()).header("If-None-Match", etag));
+    }
+
+    @Test
+    void getTransfer() throws Exception {
+        assertQueries(1, get("/api/transfers/{id}", transfer.getId()));
+    }
+
+    @Test
+    void createTransfer() throws Exception {
+        String body = "{\"fromAccountId\":" + ann.getId() + ",\"toAccountId\":" + ben.getId() + ",\"amount\":2.50}";
+        assertQueries(9, post("/api/transfers").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    @Test
+    void createTransfer_withIdempotencyKey_andReplay() throws Exception {
+        String body = "{\"fromAccountId\":" + ann.getId() + ",\"toAccountId\":" + ben.getId() + ",\"amount\":2.50}";
+        assertQueries(12, post("/api/transfers").header("Idempotency-Key", "qb-1")
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+        assertQueries(2, post("/api/transfers").header("Idempotency-Key", "qb-1")
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    @Test
+    void createTransfer_insufficientFunds() throws Exception {
+        String body = "{\"fromAccountId\":" + ann.getId() + ",\"toAccountId\":" + ben.getId() + ",\"amount\":100000}";
+        assertQueries(2, post("/api/transfers").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    @Test
+    void transferStream_opensWithoutQueries() throws Exception {
+        assertQueriesOnOpen(0, get("/api/transfers/stream"));
+    }
+
+    private MvcResult assertQueries(int budget, RequestBuilder request) throws Exception {
+        sql.start();
+        MvcResult result;
+        try {
+            result = mvc.perform(request).andReturn();
+            if (result.getRequest().isAsyncStarted()) {
+                result = mvc.perform(asyncDispatch(result)).andReturn();
+            }
+        } finally {
+            check(budget, request, sql.stop());
+        }
+        assertThat(result.getResponse().getStatus()).isLessThan(500);
+        return result;
+    }
+
+    /** For streams that stay open: counts what runs until the response has started. */
+    private void assertQueriesOnOpen(int budget, RequestBuilder request) throws Exception {
+        sql.start();
+        try {
+            mvc.perform(request).andExpect(status().isOk());
+        } finally {
+            check(budget, request, sql.stop());
+        }
+    }
+
+    private void check(int budget, RequestBuilder request, List<String> executed) {
+        var req = request.buildRequest(null);
+        String listing = IntStream.range(0, executed.size())
+                .mapToObj(i -> "  " + (i + 1) + ". " + executed.get(i))
+                .collect(Collectors.joining("\n"));
+        assertThat(executed)
+                .withFailMessage("%s %s ran %d statements, budget is %d:%n%s",
+                        req.getMethod(), req.getRequestURI(), executed.size(), budget, listing)
+                .hasSize(budget);
+    }
+}
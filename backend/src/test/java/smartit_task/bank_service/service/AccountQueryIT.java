@@ -0,0 +1,75 @@
+package smartit_task.bank_service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccountResponse;
+import smartit_task.bank_service.entity.AccountStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:accountquery;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@ActiveProfiles("test")
+class AccountQueryIT {
+
+    @Autowired AccountService accountService;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM accounts");
+        String[] names = {"Anna", "Andrew", "Bob", "An_dy", "Carol"};
+        for (int i = 0; i < names.length; i++) {
+            accountService.createAccount(new AccountCreateRequest(
+                    names[i], "BG00PAGE0000000000000" + i, new BigDecimal(10 * (i + 1))));
+        }
+        accountService.freezeAccount(accountService.findAccounts(null, "Bob", 0, 1, null).getContent().get(0).getId());
+    }
+
+    @Test
+    void pages_filtersAndSorts() {
+        var first = accountService.findAccounts(null, null, 0, 2, "availableAmount,desc");
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getTotalPages()).isEqualTo(3);
+        assertThat(first.getContent()).extracting(AccountResponse::getName).containsExactly("Carol", "An_dy");
+
+        var an = accountService.findAccounts(AccountStatus.ACTIVE, "An", 0, 10, "name");
+        assertThat(an.getContent()).extracting(AccountResponse::getName).containsExactly("An_dy", "Andrew", "Anna");
+
+        var underscore = accountService.findAccounts(null, "An_", 0, 10, null);
+        assertThat(underscore.getContent()).extracting(AccountResponse::getName).containsExactly("An_dy");
+
+        var frozen = accountService.findAccounts(AccountStatus.FROZEN, null, 0, 10, null);
+        assertThat(frozen.getContent()).singleElement()
+                .satisfies(a -> {
+                    assertThat(a.getName()).isEqualTo("Bob");
+                    assertThat(a.getHeldAmount()).isEqualByComparingTo("0.00");
+                });
+    }
+
+    @Test
+    void lookup_resolvesIdsWithOneQuery_inRequestOrder() {
+        List<Long> ids = accountService.getAllAccounts().stream().map(AccountResponse::getId).toList();
+
+        var result = accountService.lookupAccounts(List.of(ids.get(4), -1L, ids.get(0)));
+
+        assertThat(result).extracting(r -> r.found() ? r.account().getName() : null)
+                .containsExactly("Carol", null, "Anna");
+    }
+
+    @Test
+    void export_streamsMatchingAccountsInIdOrder() {
+        List<AccountResponse> exported = new ArrayList<>();
+        accountService.exportAccounts(AccountStatus.ACTIVE, null, exported::add);
+
+        assertThat(exported).extracting(AccountResponse::getName).containsExactly("Anna", "Andrew", "An_dy", "Carol");
+    }
+}
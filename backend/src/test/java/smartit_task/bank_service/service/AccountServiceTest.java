@@ -5,12 +5,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccountLookupResponse;
+import smartit_task.bank_service.dto.AccountResponse;
 import smartit_task.bank_service.entity.Account;
 import smartit_task.bank_service.entity.AccountStatus;
 import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.service.search.AccountSearchIndex;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -25,6 +33,8 @@ import static org.mockito.Mockito.*;
 class AccountServiceTest {
 
     @Mock AccountRepository accountRepository;
+    @Mock ApplicationEventPublisher events;
+    @Mock AccountSearchIndex searchIndex;
     @InjectMocks AccountService accountService;
 
     Account existing;
@@ -37,12 +47,96 @@ class AccountServiceTest {
         existing.setIban("BG11TEST00000000000001");
         existing.setStatus(AccountStatus.ACTIVE);
         existing.setAvailableAmount(new BigDecimal("100.00"));
+        existing.setOpeningAmount(new BigDecimal("100.00"));
     }
 
     @Test
-    void getAllAccounts_delegatesToRepo() {
-        when(accountRepository.findAll()).thenReturn(List.of(existing));
-        assertThat(accountService.getAllAccounts()).containsExactly(existing);
+    void getAllAccounts_usesProjection() {
+        var row = new AccountResponse();
+        when(accountRepository.findAllResponses()).thenReturn(List.of(row));
+        assertThat(accountService.getAllAccounts()).containsExactly(row);
+        verify(accountRepository, never()).findAll();
+    }
+
+    @Test
+    void findAccounts_escapesPrefix_andBreaksSortTiesOnId() {
+        Page<AccountResponse> empty = new PageImpl<>(List.of());
+        when(accountRepository.findResponses(any(), any(), any())).thenReturn(empty);
+
+        accountService.findAccounts(AccountStatus.ACTIVE, "50%_off", 2, 20, "name,desc");
+
+        var pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(accountRepository).findResponses(eq(AccountStatus.ACTIVE), eq("50\\%\\_off%"), pageable.capture());
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(2);
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(20);
+        assertThat(pageable.getValue().getSort())
+                .containsExactly(Sort.Order.desc("name"), Sort.Order.asc("id"));
+    }
+
+    @Test
+    void createAccount_skipsDbUniquenessChecks_whenLoadedIndexHasNoMatch() {
+        when(searchIndex.isReady()).thenReturn(true);
+        when(accountRepository.save(any(Account.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        accountService.createAccount(new AccountCreateRequest("Zed", "BG99", null));
+
+        verify(accountRepository, never()).existsByName(anyString());
+        verify(accountRepository, never()).existsByIban(anyString());
+    }
+
+    @Test
+    void createAccount_confirmsIndexMatchInDb() {
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.nameTaken("Alice")).thenReturn(true);
+        when(accountRepository.existsByName("Alice")).thenReturn(true);
+
+        assertThatThrownBy(() -> accountService.createAccount(new AccountCreateRequest("Alice", "BG99", null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("name 'Alice'");
+        verify(accountRepository, never()).existsByIban(anyString());
+    }
+
+    private static AccountResponse response(long id) {
+        var r = new AccountResponse();
+        r.setId(id);
+        return r;
+    }
+
+    @Test
+    void lookupAccounts_keepsRequestOrder_andMarksMissingIds() {
+        when(accountRepository.findResponsesByIdIn(List.of(3L, 1L, 9L))).thenReturn(List.of(response(1), response(3)));
+
+        var result = accountService.lookupAccounts(List.of(3L, 1L, 9L, 3L));
+
+        assertThat(result).extracting(AccountLookupResponse::id).containsExactly(3L, 1L, 9L, 3L);
+        assertThat(result).extracting(AccountLookupResponse::found).containsExactly(true, true, false, true);
+        assertThat(result.get(2).account()).isNull();
+    }
+
+    @Test
+    void lookupAccounts_queriesInChunks() {
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, 2 * AccountService.LOOKUP_CHUNK + 1).boxed().toList();
+        when(accountRepository.findResponsesByIdIn(anyList()))
+                .thenAnswer(inv -> inv.<List<Long>>getArgument(0).stream().map(AccountServiceTest::response).toList());
+
+        assertThat(accountService.lookupAccounts(ids)).allMatch(AccountLookupResponse::found).hasSize(ids.size());
+        verify(accountRepository, times(3)).findResponsesByIdIn(anyList());
+    }
+
+    @Test
+    void lookupAccounts_rejectsEmptyAndNullIds() {
+        assertThatThrownBy(() -> accountService.lookupAccounts(List.of())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> accountService.lookupAccounts(java.util.Arrays.asList(1L, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findAccounts_rejectsUnknownSortAndOversizedPage() {
+        assertThatThrownBy(() -> accountService.findAccounts(null, null, 0, 20, "openingAmount"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> accountService.findAccounts(null, null, 0, AccountService.MAX_PAGE_SIZE + 1, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(accountRepository);
     }
 
     @Test
@@ -196,7 +290,7 @@ class AccountServiceTest {
 
     @Test
     void updateAccount_success_updatesFields_respectsUniqueness() {
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(accountRepository.lockById(1L)).thenReturn(Optional.of(existing));
         when(accountRepository.existsByName("NewName")).thenReturn(false);
         when(accountRepository.existsByIban("NEWIBAN")).thenReturn(false);
         when(accountRepository.save(any(Account.class))).thenAnswer(inv -> inv.getArgument(0));
@@ -211,11 +305,12 @@ class AccountServiceTest {
         assertThat(updated.getName()).isEqualTo("NewName");
         assertThat(updated.getIban()).isEqualTo("NEWIBAN");
         assertThat(updated.getAvailableAmount()).isEqualByComparingTo("55.55");
+        assertThat(updated.getOpeningAmount()).isEqualByComparingTo("55.55");
     }
 
     @Test
     void updateAccount_rejectsDuplicateName() {
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(accountRepository.lockById(1L)).thenReturn(Optional.of(existing));
         when(accountRepository.existsByName("Taken")).thenReturn(true);
 
         var patch = new Account();
@@ -230,7 +325,7 @@ class AccountServiceTest {
 
     @Test
     void updateAccount_rejectsDuplicateIban() {
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(accountRepository.lockById(1L)).thenReturn(Optional.of(existing));
         when(accountRepository.existsByIban("TAKEN")).thenReturn(true);
 
         var patch = new Account();
@@ -245,7 +340,7 @@ class AccountServiceTest {
 
     @Test
     void updateAccount_notFound() {
-        when(accountRepository.findById(99L)).thenReturn(Optional.empty());
+        when(accountRepository.lockById(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> accountService.updateAccount(99L, new Account()))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -254,7 +349,7 @@ class AccountServiceTest {
 
     @Test
     void freezeAccount_setsFrozen() {
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(accountRepository.lockById(1L)).thenReturn(Optional.of(existing));
         when(accountRepository.save(any(Account.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Account a = accountService.freezeAccount(1L);
@@ -264,7 +359,7 @@ class AccountServiceTest {
     @Test
     void unfreezeAccount_setsActive() {
         existing.setStatus(AccountStatus.FROZEN);
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(accountRepository.lockById(1L)).thenReturn(Optional.of(existing));
         when(accountRepository.save(any(Account.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Account a = accountService.unfreezeAccount(1L);
@@ -273,7 +368,7 @@ class AccountServiceTest {
 
     @Test
     void freeze_unfreeze_notFound() {
-        when(accountRepository.findById(123L)).thenReturn(Optional.empty());
+        when(accountRepository.lockById(123L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> accountService.freezeAccount(123L))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -285,15 +380,18 @@ class AccountServiceTest {
     }
 
     @Test
-    void deleteAccount_success() {
-        when(accountRepository.existsById(1L)).thenReturn(true);
+    void deleteAccount_closesInsteadOfDeleting() {
+        when(accountRepository.lockById(1L)).thenReturn(Optional.of(existing));
         accountService.deleteAccount(1L);
-        verify(accountRepository).deleteById(1L);
+
+        assertThat(existing.getStatus()).isEqualTo(AccountStatus.CLOSED);
+        verify(accountRepository).save(existing);
+        verify(accountRepository, never()).deleteById(anyLong());
     }
 
     @Test
     void deleteAccount_notFound() {
-        when(accountRepository.existsById(77L)).thenReturn(false);
+        when(accountRepository.lockById(77L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> accountService.deleteAccount(77L))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -301,4 +399,17 @@ class AccountServiceTest {
 
         verify(accountRepository, never()).deleteById(anyLong());
     }
+
+    @Test
+    void closedAccount_isNotFound() {
+        existing.setStatus(AccountStatus.CLOSED);
+        when(accountRepository.lockById(1L)).thenReturn(Optional.of(existing));
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        assertThat(accountService.getAccountById(1L)).isEmpty();
+        assertThatThrownBy(() -> accountService.deleteAccount(1L))
+                .hasMessageContaining("Account not found with id: 1");
+        assertThatThrownBy(() -> accountService.freezeAccount(1L))
+                .hasMessageContaining("Account not found with id: 1");
+    }
 }
@@ -0,0 +1,60 @@
+package smartit_task.bank_service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ChangeStreamTest {
+
+    ChangeStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new ChangeStream(3, Runnable::run);
+    }
+
+    @Test
+    void assignsIncreasingIds() {
+        stream.publish("account", "a");
+        stream.publish("account", "b");
+
+        assertThat(stream.lastId()).isEqualTo(2);
+        assertThat(stream.eventsAfter(0)).extracting(ChangeStream.Event::data).containsExactly("a", "b");
+    }
+
+    @Test
+    void resume_returnsOnlyNewerEvents() {
+        stream.publish("account", "a");
+        stream.publish("account", "b");
+        stream.publish("account", "c");
+
+        assertThat(stream.eventsAfter(1)).extracting(ChangeStream.Event::id).containsExactly(2L, 3L);
+        assertThat(stream.eventsAfter(3)).isEmpty();
+    }
+
+    @Test
+    void resume_signalsResetWhenClientFellOutOfBuffer() {
+        for (int i = 0; i < 5; i++) {
+            stream.publish("account", i);
+        }
+
+        // buffer holds ids 3..5, so a client that saw 2 can still catch up, one that saw 1 cannot
+        assertThat(stream.eventsAfter(2)).extracting(ChangeStream.Event::id).containsExactly(3L, 4L, 5L);
+        assertThat(stream.eventsAfter(1)).isNull();
+    }
+
+    @Test
+    void resume_signalsResetWhenClientIsAheadOfServer() {
+        stream.publish("account", "a");
+
+        assertThat(stream.eventsAfter(42)).isNull();
+    }
+
+    @Test
+    void subscribe_registersEmitter() {
+        stream.subscribe(null, 1_000);
+
+        assertThat(stream.subscriberCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,121 @@
+package smartit_task.bank_service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.LedgerDiscrepancy;
+import smartit_task.bank_service.dto.ReconciliationReport;
+import smartit_task.bank_service.entity.Account;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reconciliation;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.reconciliation.range-size=2",
+        "app.reconciliation.settle-window=PT0S"
+})
+@ActiveProfiles("test")
+class LedgerReconciliationIT {
+
+    @Autowired LedgerReconciliationService reconciliation;
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired JdbcTemplate jdbc;
+
+    List<Account> accounts;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM reconciliation_checkpoints");
+        jdbc.execute("DELETE FROM reconciliation_positions");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+
+        accounts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            accounts.add(accountService.createAccount(new AccountCreateRequest(
+                    "Acc" + i, "BG00RECO0000000000000" + i, new BigDecimal("100.00"))));
+        }
+    }
+
+    private void transfer(int from, int to, String amount) {
+        transferService.createTransfer(accounts.get(from).getId(), accounts.get(to).getId(), new BigDecimal(amount));
+    }
+
+    @Test
+    void consistentLedger_hasNoDiscrepancies_andLaterRunsOnlyScanNewTransfers() {
+        transfer(0, 1, "10.00");
+        transfer(1, 4, "25.50");
+        transfer(3, 2, "99.99");
+
+        ReconciliationReport first = reconciliation.run();
+        assertThat(first.discrepancies()).isEmpty();
+        assertThat(first.accountsChecked()).isEqualTo(5);
+        assertThat(first.transfersScanned()).isEqualTo(6);
+        assertThat(first.ranges()).isGreaterThanOrEqualTo(3);
+
+        ReconciliationReport second = reconciliation.run();
+        assertThat(second.discrepancies()).isEmpty();
+        assertThat(second.transfersScanned()).isZero();
+
+        transfer(4, 0, "5.00");
+        ReconciliationReport third = reconciliation.run();
+        assertThat(third.discrepancies()).isEmpty();
+        assertThat(third.transfersScanned()).isEqualTo(2);
+    }
+
+    @Test
+    void balanceChangedOutsideTheLedger_isReported() {
+        transfer(0, 1, "10.00");
+        reconciliation.run();
+
+        Long tampered = accounts.get(1).getId();
+        jdbc.update("UPDATE accounts SET available_amount = available_amount + 1 WHERE id = ?", tampered);
+
+        ReconciliationReport report = reconciliation.run();
+        assertThat(report.discrepancies())
+                .singleElement()
+                .satisfies(d -> {
+                    assertThat(d.accountId()).isEqualTo(tampered);
+                    assertThat(d.expectedAmount()).isEqualByComparingTo("110.00");
+                    assertThat(d.availableAmount()).isEqualByComparingTo("111.00");
+                    assertThat(d.difference()).isEqualByComparingTo("1.00");
+                });
+        assertThat(reconciliation.lastReport()).contains(report);
+    }
+
+    @Test
+    void manualBalanceEdit_isBookedAsOpeningAdjustment() {
+        transfer(0, 1, "10.00");
+        Account edited = accountService.getAccountById(accounts.get(1).getId()).orElseThrow();
+        edited.setAvailableAmount(new BigDecimal("500.00"));
+        accountService.updateAccount(edited.getId(), edited);
+
+        assertThat(reconciliation.run().discrepancies()).extracting(LedgerDiscrepancy::accountId).isEmpty();
+    }
+
+    @Test
+    void unsettledTransfers_areComparedButNotCheckpointed() {
+        transfer(0, 1, "10.00");
+        var range = new LedgerReconciliationService.Range(0, 1_000_000);
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(1);
+
+        var first = reconciliation.reconcileRange(range, longAgo);
+        var second = reconciliation.reconcileRange(range, longAgo);
+
+        assertThat(first.discrepancies()).isEmpty();
+        assertThat(first.transfers()).isEqualTo(2);
+        assertThat(second.transfers()).isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM reconciliation_checkpoints", Long.class)).isZero();
+    }
+}
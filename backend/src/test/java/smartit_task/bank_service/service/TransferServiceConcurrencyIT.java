@@ -5,10 +5,19 @@ import smartit_task.bank_service.entity.Account;
 import smartit_task.bank_service.entity.AccountStatus;
 import smartit_task.bank_service.repository.AccountRepository;
 import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.service.fx.FxRateCache;
+import smartit_task.bank_service.service.idempotency.IdempotencyKeyStore;
+import smartit_task.bank_service.service.limits.VelocityLimiter;
+import smartit_task.bank_service.service.outbox.OutboxWriter;
+import smartit_task.bank_service.service.rollup.TransferRollupWriter;
+import smartit_task.bank_service.service.sharding.ShardRouter;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,9 +31,19 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 @ActiveProfiles("test")
-@Import(TransferService.class)
+@AutoConfigureJson
+@Import({TransferService.class, OutboxWriter.class, VelocityLimiter.class, TransferRollupWriter.class, IdempotencyKeyStore.class,
+        FxRateCache.class, TransferServiceConcurrencyIT.SingleShard.class})
 class TransferServiceConcurrencyIT {
 
+    @TestConfiguration
+    static class SingleShard {
+        @Bean
+        ShardRouter shardRouter() {
+            return ShardRouter.single();
+        }
+    }
+
     @Autowired AccountRepository accountRepository;
     @Autowired TransferService transferService;
 
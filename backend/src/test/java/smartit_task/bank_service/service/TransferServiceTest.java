@@ -6,6 +6,12 @@ import smartit_task.bank_service.entity.AccountStatus;
 import smartit_task.bank_service.entity.Transfer;
 import smartit_task.bank_service.repository.AccountRepository;
 import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.service.fx.FixedFxRates;
+import smartit_task.bank_service.service.fx.FxRates;
+import smartit_task.bank_service.service.idempotency.IdempotencyKeyStore;
+import smartit_task.bank_service.service.limits.VelocityLimiter;
+import smartit_task.bank_service.service.outbox.OutboxWriter;
+import smartit_task.bank_service.service.rollup.TransferRollupWriter;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,12 +20,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +42,12 @@ class TransferServiceTest {
 
     @Mock AccountRepository accountRepository;
     @Mock TransferRepository transferRepository;
+    @Mock ApplicationEventPublisher events;
+    @Mock OutboxWriter outbox;
+    @Mock VelocityLimiter velocityLimiter;
+    @Mock TransferRollupWriter rollups;
+    @Mock IdempotencyKeyStore idempotencyKeys;
+    @Spy FxRates fxRates = FixedFxRates.of(7, Map.of("USD", new BigDecimal("1.25")));
 
     @InjectMocks TransferService transferService;
 
@@ -59,6 +75,7 @@ class TransferServiceTest {
 
         lenient().when(accountRepository.lockById(fromId)).thenReturn(Optional.of(from));
         lenient().when(accountRepository.lockById(toId)).thenReturn(Optional.of(to));
+        lenient().when(velocityLimiter.reserve(any(), any())).thenReturn(VelocityLimiter.Reservation.NONE);
     }
 
     @Test /** Happy path */
@@ -95,6 +112,127 @@ class TransferServiceTest {
         assertThat(hasCreditToFrom).isTrue();
     }
 
+    // ---------- Currencies ----------
+
+    @Test
+    void crossCurrency_creditsConvertedAmount_andStampsRateOnBothRows() {
+        to.setCurrency("USD");
+
+        transferService.createTransfer(fromId, toId, new BigDecimal("25.00"));
+
+        assertThat(from.getAvailableAmount()).isEqualByComparingTo("75.00");
+        assertThat(to.getAvailableAmount()).isEqualByComparingTo("81.25");
+
+        ArgumentCaptor<Transfer> cap = ArgumentCaptor.forClass(Transfer.class);
+        verify(transferRepository, times(2)).save(cap.capture());
+        Transfer debit = cap.getAllValues().stream().filter(t -> t.getType() == DEBIT).findFirst().orElseThrow();
+        Transfer credit = cap.getAllValues().stream().filter(t -> t.getType() == CREDIT).findFirst().orElseThrow();
+        assertThat(debit.getAmount()).isEqualByComparingTo("25.00");
+        assertThat(debit.getCurrency()).isEqualTo("EUR");
+        assertThat(credit.getAmount()).isEqualByComparingTo("31.25");
+        assertThat(credit.getCurrency()).isEqualTo("USD");
+        assertThat(cap.getAllValues()).allSatisfy(t -> {
+            assertThat(t.getFxRate()).isEqualByComparingTo("1.25");
+            assertThat(t.getFxRateVersion()).isEqualTo(7L);
+        });
+    }
+
+    @Test
+    void sameCurrency_leavesRateEmpty() {
+        transferService.createTransfer(fromId, toId, new BigDecimal("25.00"));
+
+        ArgumentCaptor<Transfer> cap = ArgumentCaptor.forClass(Transfer.class);
+        verify(transferRepository, times(2)).save(cap.capture());
+        assertThat(cap.getAllValues()).extracting(Transfer::getFxRateVersion).containsOnlyNulls();
+        verify(fxRates, never()).current();
+    }
+
+    @Test
+    void crossCurrency_withoutRate_isRejectedBeforeMovingMoney() {
+        to.setCurrency("CHF");
+
+        assertThatThrownBy(() -> transferService.createTransfer(fromId, toId, new BigDecimal("25.00")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No FX rate for CHF");
+
+        assertThat(from.getAvailableAmount()).isEqualByComparingTo("100.00");
+        verify(transferRepository, never()).save(any());
+    }
+
+    @Test
+    void createsTransfer_recordsOutboxEventForBothLegs() {
+        transferService.createTransfer(fromId, toId, new BigDecimal("25.00"));
+
+        verify(outbox).transferCreated(
+                argThat(t -> t.getType() == DEBIT && t.getAccountId().equals(fromId)),
+                argThat(t -> t.getType() == CREDIT && t.getAccountId().equals(toId)));
+    }
+
+    @Test
+    void createsTransfer_addsBothLegsToDailyRollups() {
+        transferService.createTransfer(fromId, toId, new BigDecimal("25.00"));
+
+        verify(rollups).record(
+                argThat(t -> t.getType() == DEBIT && t.getAccountId().equals(fromId)),
+                argThat(t -> t.getType() == CREDIT && t.getAccountId().equals(toId)));
+    }
+
+    @Test
+    void failedTransfer_recordsNoOutboxEvent() {
+        assertThatThrownBy(() -> transferService.createTransfer(fromId, toId, new BigDecimal("1000.00")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(outbox, rollups);
+    }
+
+    @Test
+    void velocityLimitExceeded_failsBeforeTakingLocks() {
+        when(velocityLimiter.reserve(fromId, new BigDecimal("25.00")))
+                .thenThrow(new IllegalArgumentException("Daily transfer limit exceeded for account 1"));
+
+        assertThatThrownBy(() -> transferService.createTransfer(fromId, toId, new BigDecimal("25.00")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Daily transfer limit exceeded");
+
+        verify(accountRepository, never()).lockById(any());
+        verifyNoInteractions(transferRepository);
+    }
+
+    @Test
+    void idempotentReplayAfterLock_givesItsReservationBack() {
+        BigDecimal amount = new BigDecimal("10.00");
+        Transfer prior = new Transfer(fromId, toId, DEBIT, amount, "EUR");
+        prior.setId(3L);
+        when(idempotencyKeys.find(IdempotencyKeyStore.keyHash(fromId, "retry")))
+                .thenReturn(Optional.empty(), Optional.of(entry(3L, amount)));
+        when(transferRepository.findById(3L)).thenReturn(Optional.of(prior));
+        AtomicInteger released = new AtomicInteger();
+        when(velocityLimiter.reserve(fromId, amount))
+                .thenReturn(new VelocityLimiter.Reservation(false, released::incrementAndGet));
+
+        assertThat(transferService.createTransfer(fromId, toId, amount, "retry")).isSameAs(prior);
+        assertThat(released).hasValue(1);
+    }
+
+    @Test
+    void nearVelocityLimit_reChecksExactlyUnderLock() {
+        when(velocityLimiter.reserve(fromId, new BigDecimal("25.00")))
+                .thenReturn(new VelocityLimiter.Reservation(true, () -> { }));
+
+        transferService.createTransfer(fromId, toId, new BigDecimal("25.00"));
+
+        var inOrder = inOrder(accountRepository, velocityLimiter);
+        inOrder.verify(accountRepository).lockById(fromId);
+        inOrder.verify(velocityLimiter).verifyExact(fromId, new BigDecimal("25.00"), "EUR");
+    }
+
+    @Test
+    void farFromVelocityLimit_skipsExactCheck() {
+        transferService.createTransfer(fromId, toId, new BigDecimal("25.00"));
+
+        verify(velocityLimiter, never()).verifyExact(any(), any(), any());
+    }
+
     @Test
     void fails_onSameAccount() {
         assertThatThrownBy(() ->
@@ -191,12 +329,13 @@ class TransferServiceTest {
     @Test
     void idempotencyKey_returnsPriorWithoutDoingWork() {
         String key = "IDEM-123";
-        Transfer prior = new Transfer(fromId, toId, DEBIT, new BigDecimal("10.00"));
+        BigDecimal amount = new BigDecimal("10.00");
+        Transfer prior = new Transfer(fromId, toId, DEBIT, amount, "EUR");
         prior.setId(42L);
-        when(transferRepository.findByAccountIdAndIdempotencyKeyAndType(fromId, key, DEBIT))
-                .thenReturn(Optional.of(prior));
+        when(idempotencyKeys.find(any())).thenReturn(Optional.of(entry(42L, amount)));
+        when(transferRepository.findById(42L)).thenReturn(Optional.of(prior));
 
-        Transfer result = transferService.createTransfer(fromId, toId, new BigDecimal("10.00"), key);
+        Transfer result = transferService.createTransfer(fromId, toId, new BigDecimal("10"), key);
 
         assertThat(result.getId()).isEqualTo(42L);
 
@@ -206,51 +345,68 @@ class TransferServiceTest {
     }
 
     @Test
-    void idempotencyKey_setsKeyOnSavedTransfers() {
+    void idempotencyKey_reusedForDifferentTransfer_isRejected() {
+        when(idempotencyKeys.find(any())).thenReturn(Optional.of(entry(42L, new BigDecimal("10.00"))));
+
+        assertThatThrownBy(() -> transferService.createTransfer(fromId, toId, new BigDecimal("11.00"), "IDEM-123"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different transfer");
+
+        verify(accountRepository, never()).lockById(any());
+        verifyNoInteractions(transferRepository);
+    }
+
+    @Test
+    void idempotencyKey_isStoredWithDebitId_notOnTransferRows() {
         String key = "IDEM-XYZ";
+        when(transferRepository.save(any())).thenAnswer(inv -> {
+            Transfer t = inv.getArgument(0);
+            t.setId(t.getType() == DEBIT ? 7L : 8L);
+            return t;
+        });
 
         transferService.createTransfer(fromId, toId, new BigDecimal("5.00"), key);
 
         ArgumentCaptor<Transfer> cap = ArgumentCaptor.forClass(Transfer.class);
         verify(transferRepository, times(2)).save(cap.capture());
-        var saved = cap.getAllValues();
-
-        assertThat(saved).extracting(Transfer::getIdempotencyKey)
-                .allMatch(key::equals);
+        assertThat(cap.getAllValues()).extracting(Transfer::getIdempotencyKey).containsOnlyNulls();
+        verify(idempotencyKeys).remember(IdempotencyKeyStore.keyHash(fromId, key),
+                IdempotencyKeyStore.fingerprint(fromId, toId, new BigDecimal("5.00")), 7L);
     }
 
     @Test
-    void idempotencyKey_handlesDuplicateSaveByLookingUpPrior() {
-        Long fromId = 1L, toId = 2L;
-        var from = new Account();
-        from.setId(fromId);
-        from.setStatus(AccountStatus.ACTIVE);
-        from.setAvailableAmount(new BigDecimal("100"));
-        var to = new Account();
-        to.setId(toId);
-        to.setStatus(AccountStatus.ACTIVE);
-        to.setAvailableAmount(new BigDecimal("0"));
-
-        when(accountRepository.lockById(fromId)).thenReturn(Optional.of(from));
-        when(accountRepository.lockById(toId)).thenReturn(Optional.of(to));
-
-        String idem = "abc-123";
+    void idempotencyKey_duplicateInsert_failsTheTransferInsteadOfReplayingInIt() {
         BigDecimal amount = new BigDecimal("10");
+        when(transferRepository.save(any())).thenAnswer(inv -> {
+            Transfer t = inv.getArgument(0);
+            t.setId(5L);
+            return t;
+        });
+        doThrow(new DataIntegrityViolationException("dup idempotency_keys"))
+                .when(idempotencyKeys).remember(any(), anyLong(), anyLong());
+
+        assertThatThrownBy(() -> transferService.createTransfer(fromId, toId, amount, "abc-123"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verify(idempotencyKeys, times(2)).find(any());
+        verifyNoInteractions(outbox);
+    }
 
-        when(transferRepository.save(argThat(t ->
-                t.getType() == DEBIT && t.getAccountId().equals(fromId))))
-                .thenThrow(new DataIntegrityViolationException("dup uk_transfers_idem"));
-
-        Transfer prior = new Transfer(fromId, toId, DEBIT, amount);
-        prior.setIdempotencyKey(idem);
-        when(transferRepository.findByAccountIdAndIdempotencyKeyAndType(fromId, idem, DEBIT))
-                .thenReturn(Optional.empty(), Optional.of(prior));
+    @Test
+    void idempotencyKey_committedWhileWaitingForLock_returnsThatTransfer() {
+        BigDecimal amount = new BigDecimal("10");
+        Transfer prior = new Transfer(fromId, toId, DEBIT, amount, "EUR");
+        prior.setId(3L);
+        when(idempotencyKeys.find(IdempotencyKeyStore.keyHash(fromId, "race")))
+                .thenReturn(Optional.empty(), Optional.of(entry(3L, amount)));
+        when(transferRepository.findById(3L)).thenReturn(Optional.of(prior));
 
-        var result = transferService.createTransfer(fromId, toId, amount, idem);
+        assertThat(transferService.createTransfer(fromId, toId, amount, "race")).isSameAs(prior);
+        verify(transferRepository, never()).save(any());
+        assertThat(from.getAvailableAmount()).isEqualByComparingTo("100");
+    }
 
-        assertThat(result).isSameAs(prior);
-        verify(transferRepository, times(2))
-                .findByAccountIdAndIdempotencyKeyAndType(fromId, idem, DEBIT);
+    private IdempotencyKeyStore.Entry entry(long transferId, BigDecimal amount) {
+        return new IdempotencyKeyStore.Entry(transferId, IdempotencyKeyStore.fingerprint(fromId, toId, amount));
     }
 
 }
@@ -0,0 +1,215 @@
+package smartit_task.bank_service.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.support.SqlStatementRecorder;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Random transfers over many accounts from many threads, mixed with freezes, idempotent
+ * retries and a shared pool of idempotency keys that several threads submit at once, followed
+ * by the invariants every interleaving must keep. Prints throughput, latency and row-lock wait
+ * so changes to the locking path can be compared run against run.
+ *
+ * <p>Scale with {@code -Dstress.accounts}, {@code -Dstress.threads}, {@code -Dstress.ops}
+ * and {@code -Dstress.hot} (share of transfers that touch one of ten hot accounts); replay a
+ * run with its printed {@code -Dstress.seed}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stress;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+@Import(SqlStatementRecorder.Config.class)
+class TransferStressIT {
+
+    private static final int ACCOUNTS = Integer.getInteger("stress.accounts", 200);
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+    private static final int OPS = Integer.getInteger("stress.ops", 3000);
+    private static final double HOT = Double.parseDouble(System.getProperty("stress.hot", "0.2"));
+    private static final long SEED = Long.getLong("stress.seed", System.nanoTime());
+    private static final BigDecimal OPENING = new BigDecimal("1000.00");
+
+    private record Intent(String key, long from, long to, BigDecimal amount) {}
+
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired SqlStatementRecorder sql;
+    @Autowired JdbcTemplate jdbc;
+
+    private final LongAdder transferred = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder freezes = new LongAdder();
+    private final Map<String, LongAdder> unexpected = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> idsByKey = new ConcurrentHashMap<>();
+    private final List<String> retryMismatches = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void randomTransfers_keepEveryInvariant() throws Exception {
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM idempotency_keys");
+        jdbc.execute("DELETE FROM accounts");
+
+        List<Long> ids = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids.add(accountService.createAccount(new AccountCreateRequest(
+                    "Stress " + i, String.format("BG00STRS%014d", i), OPENING)).getId());
+        }
+        Random setup = new Random(SEED);
+        List<Intent> shared = new ArrayList<>();
+        for (int i = 0; i < Math.max(10, OPS / 50); i++) {
+            long[] pair = pair(setup, ids);
+            shared.add(new Intent("shared-" + i, pair[0], pair[1], amount(setup)));
+        }
+
+        sql.resetLockWait();
+        long[] latencies = new long[OPS];
+        AtomicLong next = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long workerSeed = SEED + t;
+            workers.add(pool.submit(() -> {
+                start.await();
+                Random rnd = new Random(workerSeed);
+                for (long op; (op = next.getAndIncrement()) < OPS; ) {
+                    long t0 = System.nanoTime();
+                    step(rnd, ids, shared, op);
+                    latencies[(int) op] = System.nanoTime() - t0;
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : workers) {
+            f.get(10, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - began;
+        pool.shutdown();
+        SqlStatementRecorder.LockWait lockWait = sql.lockWait();
+
+        report(elapsed, latencies, lockWait);
+
+        assertThat(unexpected).as("errors other than business rejections (deadlocks, lock timeouts, ...)").isEmpty();
+        assertThat(retryMismatches).as("retries that did not return the original transfer").isEmpty();
+        assertThat(idsByKey).allSatisfy((key, seen) -> assertThat(seen).as(key).hasSize(1));
+
+        assertThat(jdbc.queryForObject("SELECT sum(available_amount + held_amount) FROM accounts", BigDecimal.class))
+                .isEqualByComparingTo(OPENING.multiply(BigDecimal.valueOf(ACCOUNTS)));
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM accounts WHERE available_amount < 0", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject(
+                "SELECT count(*) FROM accounts a WHERE a.available_amount + a.held_amount <> a.opening_amount + " +
+                        "coalesce((SELECT sum(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END) " +
+                        "FROM transfers t WHERE t.account_id = a.id), 0)", Integer.class)).isZero();
+
+        // every DEBIT from a to b has exactly one CREDIT on b from a for the same amount
+        assertThat(legs("SELECT account_id, beneficiary_account_id, amount FROM transfers WHERE type = 'DEBIT'"))
+                .isEqualTo(legs("SELECT beneficiary_account_id, account_id, amount FROM transfers WHERE type = 'CREDIT'"));
+        // one stored key per key that went through, each pointing at its own DEBIT
+        assertThat(jdbc.queryForObject("SELECT count(DISTINCT k.transfer_id) FROM idempotency_keys k " +
+                "JOIN transfers t ON t.id = k.transfer_id AND t.type = 'DEBIT'", Long.class))
+                .isEqualTo(idsByKey.size() + retries.sum());
+    }
+
+    private void step(Random rnd, List<Long> ids, List<Intent> shared, long op) {
+        int dice = rnd.nextInt(100);
+        try {
+            if (dice < 5) {
+                long id = ids.get(rnd.nextInt(ids.size()));
+                if (rnd.nextBoolean()) {
+                    accountService.freezeAccount(id);
+                } else {
+                    accountService.unfreezeAccount(id);
+                }
+                freezes.increment();
+            } else if (dice < 20) {
+                Intent intent = shared.get(rnd.nextInt(shared.size()));
+                Transfer t = transferService.createTransfer(intent.from(), intent.to(), intent.amount(), intent.key());
+                idsByKey.computeIfAbsent(intent.key(), k -> ConcurrentHashMap.newKeySet()).add(t.getId());
+                transferred.increment();
+            } else {
+                long[] pair = pair(rnd, ids);
+                BigDecimal amount = amount(rnd);
+                String key = dice < 40 ? "op-" + SEED + "-" + op : null;
+                Transfer t = transferService.createTransfer(pair[0], pair[1], amount, key);
+                transferred.increment();
+                if (key != null) {
+                    Transfer retry = transferService.createTransfer(pair[0], pair[1], amount, key);
+                    retries.increment();
+                    if (!retry.getId().equals(t.getId())) {
+                        retryMismatches.add(key + ": " + t.getId() + " then " + retry.getId());
+                    }
+                }
+            }
+        } catch (IllegalArgumentException businessRule) {
+            rejected.increment();
+        } catch (RuntimeException ex) {
+            unexpected.computeIfAbsent(ex.getClass().getSimpleName() + ": " + ex.getMessage(), k -> new LongAdder()).increment();
+        }
+    }
+
+    /** Two distinct accounts; with probability {@code HOT} one of them is among the first ten. */
+    private static long[] pair(Random rnd, List<Long> ids) {
+        int hotCount = Math.min(10, ids.size());
+        int a = rnd.nextDouble() < HOT ? rnd.nextInt(hotCount) : rnd.nextInt(ids.size());
+        int b;
+        do {
+            b = rnd.nextInt(ids.size());
+        } while (b == a);
+        return rnd.nextBoolean() ? new long[]{ids.get(a), ids.get(b)} : new long[]{ids.get(b), ids.get(a)};
+    }
+
+    private static BigDecimal amount(Random rnd) {
+        return BigDecimal.valueOf(1 + rnd.nextInt(5000), 2);
+    }
+
+    private Map<String, Integer> legs(String query) {
+        Map<String, Integer> legs = new HashMap<>();
+        jdbc.query(query, rs -> {
+            legs.merge(rs.getLong(1) + ">" + rs.getLong(2) + ":" + rs.getBigDecimal(3).stripTrailingZeros().toPlainString(), 1, Integer::sum);
+        });
+        return legs;
+    }
+
+    private void report(long elapsedNanos, long[] latencies, SqlStatementRecorder.LockWait lockWait) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("""
+                        Transfer stress (seed %d): %d accounts, %d threads, %d ops, hot share %.2f
+                          throughput  %.0f ops/s (%d transfers, %d rejected, %d retries, %d freeze toggles) in %.1f s
+                          latency     p50 %.2f ms, p99 %.2f ms, max %.2f ms
+                          row locks   %d FOR UPDATE statements, %.2f ms average, %.1f%% of worker time
+                          unexpected  %s
+                        """,
+                SEED, ACCOUNTS, THREADS, OPS, HOT,
+                OPS / seconds, transferred.sum(), rejected.sum(), retries.sum(), freezes.sum(), seconds,
+                millis(sorted[sorted.length / 2]), millis(sorted[(int) (sorted.length * 0.99)]), millis(sorted[sorted.length - 1]),
+                lockWait.statements(), lockWait.statements() == 0 ? 0 : millis(lockWait.nanos() / lockWait.statements()),
+                100.0 * lockWait.nanos() / (elapsedNanos * (double) THREADS),
+                unexpected.isEmpty() ? "none" : unexpected);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,164 @@
+package smartit_task.bank_service.service.accrual;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccrualRunReport;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.event.AccountChangedEvent;
+import smartit_task.bank_service.service.outbox.OutboxWriter;
+import smartit_task.bank_service.service.AccountService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:accrual;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0",
+        "app.accrual.annual-interest-rate=0.0365",
+        "app.accrual.daily-fee=0.50",
+        "app.accrual.range-size=3",
+        "app.accrual.parallelism=3"
+})
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class EndOfDayAccrualIT {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 31);
+
+    @Autowired EndOfDayAccrualService accrual;
+    @Autowired AccountService accountService;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ApplicationEvents applicationEvents;
+
+    final List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM accrual_checkpoints");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        accounts.clear();
+        for (int i = 0; i < 10; i++) {
+            accounts.add(accountService.createAccount(new AccountCreateRequest(
+                    "Accrual " + i, String.format("BG00ACRL%014d", i), new BigDecimal("10000.00"))));
+        }
+        applicationEvents.clear();
+    }
+
+    @Test
+    void postsInterestAndFee_toActiveAccounts_only() {
+        accountService.freezeAccount(accounts.get(4).getId());
+
+        AccrualRunReport report = accrual.run(DAY);
+
+        assertThat(report.accountsPosted()).isEqualTo(9);
+        assertThat(report.interestPosted()).isEqualByComparingTo("9.00");
+        assertThat(report.feesPosted()).isEqualByComparingTo("4.50");
+        assertThat(balance(0)).isEqualByComparingTo("10000.50");
+        assertThat(balance(4)).isEqualByComparingTo("10000.00");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfers WHERE account_id = ?", Integer.class,
+                accounts.get(4).getId())).isZero();
+        assertLedgerBalanced();
+    }
+
+    @Test
+    void everyPosting_getsAnOutboxEvent() {
+        accrual.run(DAY);
+
+        assertThat(jdbc.queryForObject(
+                "SELECT count(*) FROM outbox_events o JOIN transfers t ON t.id = o.aggregate_id WHERE o.event_type = ?",
+                Integer.class, OutboxWriter.POSTING_CREATED)).isEqualTo(20);
+    }
+
+    @Test
+    void postedAccounts_arePublishedAsChanged() {
+        // recorded events are per thread, so post one range here rather than through the pool
+        long first = accounts.get(0).getId();
+        long start = Math.floorDiv(first - 1, 3) * 3 + 1;
+        EndOfDayAccrualService.Range range = new EndOfDayAccrualService.Range(0, start, start + 2);
+        EndOfDayAccrualService.RangeResult result =
+                new TransactionTemplate(transactionManager).execute(status -> accrual.postRange(range, DAY));
+
+        assertThat(applicationEvents.stream(AccountChangedEvent.class))
+                .hasSize(result.accounts())
+                .allSatisfy(e -> assertThat(e.account().getAvailableAmount()).isEqualByComparingTo("10000.50"));
+    }
+
+    @Test
+    void rerunningADate_postsNothingTwice() {
+        accrual.run(DAY);
+        AccrualRunReport again = accrual.run(DAY);
+
+        assertThat(again.accountsPosted()).isZero();
+        assertThat(again.rangesAlreadyDone()).isEqualTo(again.ranges());
+
+        // lost checkpoints (or a different range size) still do not double-post
+        jdbc.execute("DELETE FROM accrual_checkpoints");
+        assertThat(accrual.run(DAY).accountsPosted()).isZero();
+        assertThat(balance(0)).isEqualByComparingTo("10000.50");
+
+        assertThat(accrual.run(DAY.plusDays(1)).accountsPosted()).isEqualTo(10);
+        assertThat(balance(0)).isEqualByComparingTo("10001.00");
+    }
+
+    @Test
+    void interruptedRun_resumesFromCheckpoints() {
+        long first = accounts.get(0).getId();
+        long start = Math.floorDiv(first - 1, 3) * 3 + 1;
+        EndOfDayAccrualService.Range range = new EndOfDayAccrualService.Range(0, start, start + 2);
+        new TransactionTemplate(transactionManager).execute(status -> accrual.postRange(range, DAY));
+
+        AccrualRunReport resumed = accrual.run(DAY);
+
+        assertThat(resumed.rangesAlreadyDone()).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfers WHERE type = 'CREDIT'", Integer.class)).isEqualTo(10);
+        assertThat(jdbc.queryForObject("SELECT count(DISTINCT account_id) FROM transfers", Integer.class)).isEqualTo(10);
+        assertLedgerBalanced();
+    }
+
+    @Test
+    void feeIsSkipped_whenBalanceCannotCoverIt() {
+        Account poor = accountService.createAccount(new AccountCreateRequest("Poor", "BG00ACRL99999999999999", new BigDecimal("0.20")));
+
+        accrual.run(DAY);
+
+        assertThat(accountService.getAccountById(poor.getId())).get()
+                .extracting(Account::getAvailableAmount)
+                .satisfies(a -> assertThat(a).isEqualByComparingTo("0.20"));
+    }
+
+    @Test
+    void futureBusinessDate_isRejected() {
+        assertThatThrownBy(() -> accrual.run(LocalDate.now().plusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BigDecimal balance(int i) {
+        return accountService.getAccountById(accounts.get(i).getId()).orElseThrow().getAvailableAmount();
+    }
+
+    private void assertLedgerBalanced() {
+        assertThat(jdbc.queryForObject(
+                "SELECT count(*) FROM accounts a WHERE a.available_amount + a.held_amount <> a.opening_amount + " +
+                        "coalesce((SELECT sum(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END) " +
+                        "FROM transfers t WHERE t.account_id = a.id), 0)", Integer.class)).isZero();
+    }
+}
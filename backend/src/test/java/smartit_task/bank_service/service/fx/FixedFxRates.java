@@ -0,0 +1,26 @@
+package smartit_task.bank_service.service.fx;
+
+import smartit_task.bank_service.entity.Account;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/** Stand-in for {@link FxRateCache} in unit tests: one snapshot that never changes. */
+public class FixedFxRates implements FxRates {
+
+    private final FxRateSnapshot snapshot;
+
+    private FixedFxRates(FxRateSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /** @param perBase units of each currency per one EUR */
+    public static FixedFxRates of(long version, Map<String, BigDecimal> perBase) {
+        return new FixedFxRates(FxRateSnapshot.of(version, Account.DEFAULT_CURRENCY, perBase));
+    }
+
+    @Override
+    public FxRateSnapshot current() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,124 @@
+package smartit_task.bank_service.service.fx;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.HoldCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.entity.TransferType;
+import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.LedgerReconciliationService;
+import smartit_task.bank_service.service.TransferService;
+import smartit_task.bank_service.service.holds.HoldService;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fxrates;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.reconciliation.settle-window=PT0S",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class FxRateIT {
+
+    @Autowired FxRateCache fxRates;
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired TransferRepository transferRepository;
+    @Autowired HoldService holdService;
+    @Autowired LedgerReconciliationService reconciliation;
+    @Autowired JdbcTemplate jdbc;
+
+    Account eur;
+    Account usd;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM holds");
+        jdbc.execute("DELETE FROM reconciliation_checkpoints");
+        jdbc.execute("DELETE FROM reconciliation_positions");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        eur = accountService.createAccount(new AccountCreateRequest("Euro", "BG00FXRT00000000000001", new BigDecimal("100.00")));
+        usd = accountService.createAccount(new AccountCreateRequest("Dollar", "BG00FXRT00000000000002", new BigDecimal("10.00"), "USD"));
+    }
+
+    private BigDecimal balance(Account a) {
+        return accountService.getAccountById(a.getId()).orElseThrow().getAvailableAmount();
+    }
+
+    @Test
+    void crossCurrencyTransfer_creditsConvertedAmount_andRecordsSnapshotVersion() {
+        long version = fxRates.publish(Map.of("USD", new BigDecimal("1.10"))).version();
+
+        Transfer debit = transferService.createTransfer(eur.getId(), usd.getId(), new BigDecimal("20.00"));
+
+        assertThat(balance(eur)).isEqualByComparingTo("80.00");
+        assertThat(balance(usd)).isEqualByComparingTo("32.00");
+        assertThat(transferRepository.findAll()).hasSize(2).allSatisfy(t -> {
+            assertThat(t.getFxRate()).isEqualByComparingTo("1.1");
+            assertThat(t.getFxRateVersion()).isEqualTo(version);
+            assertThat(t.getCurrency()).isEqualTo(t.getType() == TransferType.DEBIT ? "EUR" : "USD");
+        });
+        assertThat(debit.getAmount()).isEqualByComparingTo("20.00");
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+
+        // back the other way, at the inverse rate
+        transferService.createTransfer(usd.getId(), eur.getId(), new BigDecimal("11.00"));
+        assertThat(balance(eur)).isEqualByComparingTo("90.00");
+        assertThat(balance(usd)).isEqualByComparingTo("21.00");
+    }
+
+    @Test
+    void holdCapture_convertsIntoThePayeeCurrency() {
+        fxRates.publish(Map.of("USD", new BigDecimal("1.10")));
+        var hold = holdService.create(new HoldCreateRequest(eur.getId(), usd.getId(), new BigDecimal("50.00"), null));
+
+        holdService.capture(hold.getId(), new BigDecimal("10.00"));
+
+        assertThat(balance(eur)).isEqualByComparingTo("90.00");
+        assertThat(balance(usd)).isEqualByComparingTo("21.00");
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+    }
+
+    @Test
+    void publish_swapsInANewerSnapshot_andKeepsOmittedCurrencies() {
+        FxRateSnapshot first = fxRates.publish(Map.of("USD", new BigDecimal("1.10"), "GBP", new BigDecimal("0.85")));
+        FxRateSnapshot second = fxRates.publish(Map.of("USD", new BigDecimal("1.20")));
+
+        assertThat(second.version()).isGreaterThan(first.version());
+        assertThat(fxRates.current()).isSameAs(second);
+        assertThat(second.rate("EUR", "USD")).isEqualByComparingTo("1.2");
+        assertThat(second.rate("EUR", "GBP")).isEqualByComparingTo("0.85");
+        assertThat(first.rate("EUR", "USD")).isEqualByComparingTo("1.1");
+
+        // nothing new in the table: the snapshot is kept as is
+        fxRates.refresh();
+        assertThat(fxRates.current()).isSameAs(second);
+
+        assertThatThrownBy(() -> fxRates.publish(Map.of("usd", BigDecimal.ONE)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("currency code");
+        assertThat(fxRates.current()).isSameAs(second);
+    }
+
+    @Test
+    void crossCurrencyTransfer_withoutRate_isRejected() {
+        Account chf = accountService.createAccount(new AccountCreateRequest("Franc", "BG00FXRT00000000000003", BigDecimal.ZERO, "CHF"));
+
+        assertThatThrownBy(() -> transferService.createTransfer(eur.getId(), chf.getId(), new BigDecimal("5.00")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No FX rate for CHF");
+        assertThat(balance(eur)).isEqualByComparingTo("100.00");
+    }
+}
@@ -0,0 +1,57 @@
+package smartit_task.bank_service.service.fx;
+
+import org.junit.jupiter.api.Test;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.entity.TransferType;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FxRateSnapshotTest {
+
+    private final FxRateSnapshot rates = FxRateSnapshot.of(3, "EUR",
+            Map.of("USD", new BigDecimal("1.25"), "GBP", new BigDecimal("0.80")));
+
+    @Test
+    void crossRates_goThroughTheBase() {
+        assertThat(rates.rate("EUR", "USD")).isEqualByComparingTo("1.25");
+        assertThat(rates.rate("USD", "EUR")).isEqualByComparingTo("0.8");
+        assertThat(rates.rate("GBP", "USD")).isEqualByComparingTo("1.5625");
+        assertThat(rates.rate("USD", "USD")).isSameAs(BigDecimal.ONE);
+        assertThat(rates.perBase()).containsOnlyKeys("EUR", "GBP", "USD");
+    }
+
+    @Test
+    void convert_roundsToCentsHalfEven_andCarriesTheVersion() {
+        FxRateSnapshot.Conversion c = rates.convert(new BigDecimal("0.10"), "USD", "GBP");
+
+        assertThat(c.amount()).isEqualByComparingTo("0.06"); // 0.064
+        assertThat(c.version()).isEqualTo(3);
+        assertThat(rates.convert(new BigDecimal("0.02"), "EUR", "USD").amount()).isEqualByComparingTo("0.02"); // 0.025
+
+        Transfer row = new Transfer(1L, 2L, TransferType.CREDIT, c.amount(), "GBP");
+        c.stamp(row);
+        assertThat(row.getFxRate()).isEqualByComparingTo("0.64");
+        assertThat(row.getFxRateVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void convert_rejectsMissingRatesAndAmountsThatRoundToZero() {
+        assertThatThrownBy(() -> rates.convert(BigDecimal.TEN, "EUR", "JPY"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("No FX rate for JPY");
+        FxRateSnapshot dinar = FxRateSnapshot.of(1, "EUR", Map.of("BHD", new BigDecimal("0.41")));
+        assertThatThrownBy(() -> dinar.convert(new BigDecimal("0.01"), "EUR", "BHD"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("too small");
+    }
+
+    @Test
+    void of_rejectsInvalidRates() {
+        assertThatThrownBy(() -> FxRateSnapshot.of(1, "EUR", Map.of("USD", BigDecimal.ZERO)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("positive");
+        assertThatThrownBy(() -> FxRateSnapshot.of(1, "EUR", Map.of("EUR", new BigDecimal("1.1"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("base currency");
+        assertThat(FxRateSnapshot.of(1, "EUR", Map.of("EUR", new BigDecimal("1.000"))).perBase()).containsOnlyKeys("EUR");
+    }
+}
@@ -0,0 +1,59 @@
+package smartit_task.bank_service.service.history;
+
+import org.junit.jupiter.api.Test;
+import smartit_task.bank_service.service.history.TransferHistoryFormat.Record;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TransferHistoryFormatTest {
+
+    @Test
+    void csv_parsesAmountToCents() {
+        Record r = TransferHistoryFormat.parseCsv(7, "1, 2,12.5,2020-02-29T23:59:59");
+
+        assertThat(r).isEqualTo(new Record(7, 1, 2, 1250, LocalDateTime.of(2020, 2, 29, 23, 59, 59)));
+        assertThat(TransferHistoryFormat.parseCsv(0, "1,2,3.000,2020-01-01T00:00").amountCents()).isEqualTo(300);
+    }
+
+    @Test
+    void csv_rejectsInvalidRecords() {
+        assertThatThrownBy(() -> TransferHistoryFormat.parseCsv(0, "1,2,3"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("expected 4 fields");
+        assertThatThrownBy(() -> TransferHistoryFormat.parseCsv(0, "1,2,0.001,2020-01-01T00:00"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("two decimals");
+        assertThatThrownBy(() -> TransferHistoryFormat.parseCsv(0, "1,1,5,2020-01-01T00:00"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("same");
+        assertThatThrownBy(() -> TransferHistoryFormat.parseCsv(0, "x,2,5,2020-01-01T00:00"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransferHistoryFormat.parseCsv(0, "1,2,5,yesterday"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void binary_roundTrips_andConsumesInvalidRecords() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        TransferHistoryFormat.encode(out, 3, 3, 100, 0);
+        TransferHistoryFormat.encode(out, 3, 4, 100, 86_400_000L);
+        ByteBuffer buf = ByteBuffer.wrap(bytes.toByteArray());
+
+        assertThat(bytes.size()).isEqualTo(2 * TransferHistoryFormat.RECORD_SIZE);
+        assertThatThrownBy(() -> TransferHistoryFormat.decode(0, buf, ZoneOffset.UTC)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(TransferHistoryFormat.decode(1, buf, ZoneOffset.UTC))
+                .isEqualTo(new Record(1, 3, 4, 100, LocalDateTime.of(1970, 1, 2, 0, 0)));
+    }
+
+    @Test
+    void formatFollowsTheExtension() {
+        assertThat(TransferHistoryFormat.isCsv(Path.of("/tmp/Legacy.CSV"))).isTrue();
+        assertThat(TransferHistoryFormat.isCsv(Path.of("/tmp/legacy.bin"))).isFalse();
+    }
+}
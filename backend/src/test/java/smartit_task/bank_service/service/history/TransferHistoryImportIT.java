@@ -0,0 +1,138 @@
+package smartit_task.bank_service.service.history;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.HistoryImportReport;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.LedgerReconciliationService;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:historyimport;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.import.batch-size=2",
+        "app.import.parsers=3",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class TransferHistoryImportIT {
+
+    @Autowired TransferHistoryImportService importService;
+    @Autowired AccountService accountService;
+    @Autowired LedgerReconciliationService reconciliation;
+    @Autowired JdbcTemplate jdbc;
+
+    @TempDir Path dir;
+
+    Account ann;
+    Account ben;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM transfer_import_checkpoints");
+        jdbc.execute("DELETE FROM reconciliation_positions");
+        jdbc.execute("DELETE FROM reconciliation_checkpoints");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        String tag = Long.toString(System.nanoTime(), 36).toUpperCase();
+        ann = accountService.createAccount(new AccountCreateRequest("Ann " + tag, "BG00HI" + tag + "1", new BigDecimal("100.00")));
+        ben = accountService.createAccount(new AccountCreateRequest("Ben " + tag, "BG00HI" + tag + "2", new BigDecimal("100.00")));
+    }
+
+    @Test
+    void csv_writesBothLegs_rebalances_andReportsRejectedLines() throws IOException {
+        Path file = dir.resolve("legacy.csv");
+        Files.write(file, List.of(
+                TransferHistoryFormat.CSV_HEADER,
+                ann.getId() + "," + ben.getId() + ",10.00,2020-01-02T10:00:00",
+                ben.getId() + "," + ann.getId() + ",2.50,2020-01-03T09:00:00",
+                ann.getId() + ",999999999,1.00,2020-01-03T09:30:00",
+                ann.getId() + "," + ben.getId() + ",-1,2020-01-04T00:00:00",
+                ben.getId() + "," + ann.getId() + ",1,2020-01-05T00:00:00"));
+
+        HistoryImportReport report = importService.importFile(file);
+
+        assertThat(report.recordsRead()).isEqualTo(5);
+        assertThat(report.recordsImported()).isEqualTo(3);
+        assertThat(report.recordsRejected()).isEqualTo(2);
+        assertThat(report.rejections()).anyMatch(r -> r.startsWith("line 4: account 999999999"))
+                .anyMatch(r -> r.startsWith("line 5: amount must be positive"));
+        assertThat(report.accountsRebalanced()).isEqualTo(2);
+
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfers", Integer.class)).isEqualTo(6);
+        assertThat(jdbc.queryForObject("SELECT created_on FROM transfers WHERE account_id = ? AND type = 'DEBIT'",
+                Timestamp.class, ann.getId()).toLocalDateTime()).isEqualTo(LocalDateTime.of(2020, 1, 2, 10, 0));
+        assertThat(balance(ann)).isEqualByComparingTo("93.50");
+        assertThat(balance(ben)).isEqualByComparingTo("106.50");
+        assertThat(jdbc.queryForObject("SELECT debit_amount FROM transfer_daily_rollups WHERE account_id = ? AND business_date = ?",
+                BigDecimal.class, ann.getId(), Date.valueOf(LocalDate.of(2020, 1, 2)))).isEqualByComparingTo("10.00");
+        assertThat(jdbc.queryForObject("SELECT records_done FROM transfer_import_checkpoints WHERE source = 'legacy.csv' " +
+                "AND completed_on IS NOT NULL", Long.class)).isEqualTo(5);
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+    }
+
+    @Test
+    void binary_resumesAfterTheCheckpoint_withoutWritingRecordsTwice() throws IOException {
+        Path file = dir.resolve("legacy.bin");
+        long millis = LocalDateTime.of(2021, 6, 1, 12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        try (OutputStream os = Files.newOutputStream(file); DataOutputStream out = new DataOutputStream(os)) {
+            for (int i = 1; i <= 5; i++) {
+                TransferHistoryFormat.encode(out, ann.getId(), ben.getId(), 100L * i, millis);
+            }
+        }
+        // the first three records were committed by an earlier, interrupted run
+        jdbc.update("INSERT INTO transfer_import_checkpoints (source, source_size, records_done, transfers_written, updated_on) " +
+                "VALUES ('legacy.bin', ?, 3, 6, CURRENT_TIMESTAMP)", Files.size(file));
+
+        HistoryImportReport report = importService.importFile(file);
+
+        assertThat(report.recordsResumedAfter()).isEqualTo(3);
+        assertThat(report.recordsImported()).isEqualTo(2);
+        assertThat(jdbc.queryForList("SELECT amount FROM transfers WHERE type = 'DEBIT' ORDER BY id", BigDecimal.class))
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("4.00"), new BigDecimal("5.00"));
+        assertThat(balance(ann)).isEqualByComparingTo("91.00");
+        assertThat(jdbc.queryForObject("SELECT transfers_written FROM transfer_import_checkpoints", Long.class)).isEqualTo(10);
+    }
+
+    @Test
+    void changedFile_isRefused() throws IOException {
+        Path file = dir.resolve("changed.csv");
+        Files.write(file, List.of(TransferHistoryFormat.CSV_HEADER, ann.getId() + "," + ben.getId() + ",1,2020-01-01T00:00:00"));
+        jdbc.update("INSERT INTO transfer_import_checkpoints (source, source_size, records_done, transfers_written, updated_on) " +
+                "VALUES ('changed.csv', 1, 0, 0, CURRENT_TIMESTAMP)");
+
+        assertThatThrownBy(() -> importService.importFile(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("changed since its checkpoint");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfers", Integer.class)).isZero();
+    }
+
+    private BigDecimal balance(Account a) {
+        return jdbc.queryForObject("SELECT available_amount FROM accounts WHERE id = ?", BigDecimal.class, a.getId());
+    }
+}
@@ -0,0 +1,165 @@
+package smartit_task.bank_service.service.holds;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.HoldCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.Hold;
+import smartit_task.bank_service.entity.HoldStatus;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.LedgerReconciliationService;
+import smartit_task.bank_service.service.TransferService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:holds;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.holds.sweep-batch-size=2",
+        "app.reconciliation.settle-window=PT0S",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class HoldServiceIT {
+
+    @Autowired HoldService holdService;
+    @Autowired HoldExpirySweeper sweeper;
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired LedgerReconciliationService reconciliation;
+    @Autowired JdbcTemplate jdbc;
+
+    Account payer;
+    Account merchant;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM holds");
+        jdbc.execute("DELETE FROM reconciliation_checkpoints");
+        jdbc.execute("DELETE FROM reconciliation_positions");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        payer = accountService.createAccount(new AccountCreateRequest("Payer", "BG00HOLD00000000000001", new BigDecimal("100.00")));
+        merchant = accountService.createAccount(new AccountCreateRequest("Merchant", "BG00HOLD00000000000002", BigDecimal.ZERO));
+    }
+
+    private Hold hold(String amount) {
+        return holdService.create(new HoldCreateRequest(payer.getId(), merchant.getId(), new BigDecimal(amount), null));
+    }
+
+    private Account reload(Account a) {
+        return accountService.getAccountById(a.getId()).orElseThrow();
+    }
+
+    @Test
+    void hold_reducesAvailableButNotLedgerBalance() {
+        hold("30.00");
+
+        Account p = reload(payer);
+        assertThat(p.getAvailableAmount()).isEqualByComparingTo("70.00");
+        assertThat(p.getHeldAmount()).isEqualByComparingTo("30.00");
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+
+        assertThatThrownBy(() -> transferService.createTransfer(payer.getId(), merchant.getId(), new BigDecimal("80.00")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient");
+        assertThatThrownBy(() -> hold("70.01"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient");
+    }
+
+    @Test
+    void partialCapture_movesCapturedAmount_andReleasesTheRest() {
+        Hold h = hold("30.00");
+
+        var debit = holdService.capture(h.getId(), new BigDecimal("12.50"));
+
+        assertThat(debit.getAmount()).isEqualByComparingTo("12.50");
+        Account p = reload(payer);
+        assertThat(p.getAvailableAmount()).isEqualByComparingTo("87.50");
+        assertThat(p.getHeldAmount()).isEqualByComparingTo("0.00");
+        assertThat(reload(merchant).getAvailableAmount()).isEqualByComparingTo("12.50");
+        assertThat(holdService.getById(h.getId()).orElseThrow().getStatus()).isEqualTo(HoldStatus.CAPTURED);
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+
+        assertThatThrownBy(() -> holdService.capture(h.getId(), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("no longer active");
+        assertThatThrownBy(() -> holdService.capture(hold("5.00").getId(), new BigDecimal("5.01")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void release_restoresAvailable() {
+        Hold h = hold("30.00");
+
+        assertThat(holdService.release(h.getId()).getStatus()).isEqualTo(HoldStatus.RELEASED);
+
+        Account p = reload(payer);
+        assertThat(p.getAvailableAmount()).isEqualByComparingTo("100.00");
+        assertThat(p.getHeldAmount()).isEqualByComparingTo("0.00");
+        assertThatThrownBy(() -> holdService.release(h.getId())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sweeper_releasesExpiredHoldsInBatches_andExpiredHoldsCannotBeCaptured() {
+        Hold a = hold("10.00");
+        Hold b = hold("20.00");
+        Hold c = hold("30.00");
+        Hold live = hold("5.00");
+        jdbc.update("UPDATE holds SET expires_at = DATEADD('SECOND', -1, CURRENT_TIMESTAMP) WHERE id IN (?, ?, ?)",
+                a.getId(), b.getId(), c.getId());
+
+        assertThatThrownBy(() -> holdService.capture(a.getId(), null)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(sweeper.sweep()).isEqualTo(3);
+        assertThat(sweeper.sweep()).isZero();
+
+        Account p = reload(payer);
+        assertThat(p.getAvailableAmount()).isEqualByComparingTo("95.00");
+        assertThat(p.getHeldAmount()).isEqualByComparingTo("5.00");
+        assertThat(holdService.getById(c.getId()).orElseThrow().getStatus()).isEqualTo(HoldStatus.EXPIRED);
+        assertThat(holdService.getById(live.getId()).orElseThrow().getStatus()).isEqualTo(HoldStatus.ACTIVE);
+    }
+
+    @Test
+    void holdsCapturesAndTransfers_runConcurrently_withoutDeadlockOrLostMoney() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            int n = i;
+            futures.add(pool.submit(() -> {
+                try {
+                    switch (n % 3) {
+                        case 0 -> holdService.capture(hold("1.00").getId(), null);
+                        case 1 -> transferService.createTransfer(merchant.getId(), payer.getId(), new BigDecimal("0.50"));
+                        default -> holdService.release(hold("2.00").getId());
+                    }
+                } catch (IllegalArgumentException ignored) {
+                    // merchant may be short of funds early on
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        Account p = reload(payer);
+        Account m = reload(merchant);
+        assertThat(p.getHeldAmount()).isEqualByComparingTo("0.00");
+        assertThat(p.getAvailableAmount().add(m.getAvailableAmount())).isEqualByComparingTo("100.00");
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+    }
+}
@@ -0,0 +1,106 @@
+package smartit_task.bank_service.service.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.TransferService;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.idempotency.purge-batch-size=2",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class IdempotencyKeyIT {
+
+    @Autowired IdempotencyKeyStore store;
+    @Autowired TransferService transferService;
+    @Autowired AccountService accountService;
+    @Autowired JdbcTemplate jdbc;
+
+    Account ann;
+    Account ben;
+    Account cid;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM idempotency_keys");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        String tag = Long.toString(System.nanoTime(), 36).toUpperCase();
+        ann = accountService.createAccount(new AccountCreateRequest("Ann " + tag, "BG00IK" + tag + "1", new BigDecimal("100.00")));
+        ben = accountService.createAccount(new AccountCreateRequest("Ben " + tag, "BG00IK" + tag + "2", new BigDecimal("100.00")));
+        cid = accountService.createAccount(new AccountCreateRequest("Cid " + tag, "BG00IK" + tag + "3", new BigDecimal("100.00")));
+    }
+
+    @Test
+    void retry_returnsTheFirstTransfer_andChargesOnce() {
+        Transfer first = transferService.createTransfer(ann.getId(), ben.getId(), new BigDecimal("10.00"), "k-1");
+        Transfer retry = transferService.createTransfer(ann.getId(), ben.getId(), new BigDecimal("10"), "k-1");
+
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(balance(ann)).isEqualByComparingTo("90.00");
+        assertThat(jdbc.queryForObject("SELECT transfer_id FROM idempotency_keys", Long.class)).isEqualTo(first.getId());
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfers WHERE idempotency_key IS NOT NULL", Integer.class)).isZero();
+    }
+
+    @Test
+    void reuseWithADifferentRequest_isRejected() {
+        transferService.createTransfer(ann.getId(), ben.getId(), new BigDecimal("10.00"), "k-2");
+
+        assertThatThrownBy(() -> transferService.createTransfer(ann.getId(), ben.getId(), new BigDecimal("11.00"), "k-2"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> transferService.createTransfer(ann.getId(), cid.getId(), new BigDecimal("10.00"), "k-2"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(balance(ann)).isEqualByComparingTo("90.00");
+    }
+
+    @Test
+    void keysAreScopedToTheSourceAccount() {
+        Transfer fromAnn = transferService.createTransfer(ann.getId(), cid.getId(), BigDecimal.ONE, "k-3");
+        Transfer fromBen = transferService.createTransfer(ben.getId(), cid.getId(), BigDecimal.ONE, "k-3");
+
+        assertThat(fromBen.getId()).isNotEqualTo(fromAnn.getId());
+        assertThat(balance(cid)).isEqualByComparingTo("102.00");
+    }
+
+    @Test
+    void purge_deletesOnlyExpiredKeys_inBatches() {
+        for (int i = 0; i < 5; i++) {
+            transferService.createTransfer(ann.getId(), ben.getId(), BigDecimal.ONE, "old-" + i);
+        }
+        transferService.createTransfer(ann.getId(), ben.getId(), BigDecimal.ONE, "fresh");
+        jdbc.update("UPDATE idempotency_keys SET expires_at = ? WHERE key_hash <> ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)),
+                IdempotencyKeyStore.keyHash(ann.getId(), "fresh"));
+
+        assertThat(store.purgeExpired()).isEqualTo(5);
+        assertThat(store.find(IdempotencyKeyStore.keyHash(ann.getId(), "fresh"))).isPresent();
+        assertThat(store.find(IdempotencyKeyStore.keyHash(ann.getId(), "old-0"))).isEmpty();
+
+        // a purged key no longer replays
+        transferService.createTransfer(ann.getId(), ben.getId(), BigDecimal.ONE, "old-0");
+        assertThat(balance(ann)).isEqualByComparingTo("93.00");
+    }
+
+    private BigDecimal balance(Account a) {
+        return jdbc.queryForObject("SELECT available_amount FROM accounts WHERE id = ?", BigDecimal.class, a.getId());
+    }
+}
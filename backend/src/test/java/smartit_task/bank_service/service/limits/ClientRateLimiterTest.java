@@ -0,0 +1,152 @@
+package smartit_task.bank_service.service.limits;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import smartit_task.bank_service.config.RateLimitProperties;
+import smartit_task.bank_service.service.limits.ClientRateLimiter.Decision;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static smartit_task.bank_service.service.limits.ClientRateLimiter.RequestClass.READ;
+import static smartit_task.bank_service.service.limits.ClientRateLimiter.RequestClass.WRITE;
+
+class ClientRateLimiterTest {
+
+    static final long SECOND = 1_000_000_000L;
+
+    final AtomicLong now = new AtomicLong(5 * SECOND);
+    SimpleMeterRegistry meters;
+    RateLimitProperties properties;
+    ClientRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meters = new SimpleMeterRegistry();
+        properties = new RateLimitProperties();
+        properties.setRead(new RateLimitProperties.Budget(10, 5));
+        properties.setWrite(new RateLimitProperties.Budget(1, 2));
+        properties.setMaxClients(3);
+        properties.setPerClientMetrics(true);
+        limiter = new ClientRateLimiter(properties, meters, now::get);
+    }
+
+    @Test
+    void burstIsServed_thenRequestsWaitForRefill() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.acquire("ip:a", READ).allowed()).isTrue();
+        }
+        Decision refused = limiter.acquire("ip:a", READ);
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.retryAfterNanos()).isEqualTo(SECOND / 10);
+        assertThat(refused.remaining()).isZero();
+
+        now.addAndGet(SECOND / 10);
+        assertThat(limiter.acquire("ip:a", READ).allowed()).isTrue();
+        assertThat(limiter.acquire("ip:a", READ).allowed()).isFalse();
+
+        now.addAndGet(SECOND);
+        assertThat(limiter.acquire("ip:a", READ).remaining()).isEqualTo(4);
+    }
+
+    @Test
+    void readsWritesAndClients_haveSeparateBudgets() {
+        assertThat(limiter.acquire("ip:a", WRITE).allowed()).isTrue();
+        assertThat(limiter.acquire("ip:a", WRITE).allowed()).isTrue();
+        assertThat(limiter.acquire("ip:a", WRITE).retryAfterNanos()).isEqualTo(SECOND);
+
+        assertThat(limiter.acquire("ip:a", READ).allowed()).isTrue();
+        assertThat(limiter.acquire("key:b", WRITE).allowed()).isTrue();
+    }
+
+    @Test
+    void countsPerClientClassAndOutcome() {
+        limiter.acquire("ip:a", WRITE);
+        limiter.acquire("ip:a", WRITE);
+        limiter.acquire("ip:a", WRITE);
+        limiter.acquire("ip:a", READ);
+
+        assertThat(count("ip:a", "write", "allowed")).isEqualTo(2);
+        assertThat(count("ip:a", "write", "rejected")).isEqualTo(1);
+        assertThat(count("ip:a", "read", "allowed")).isEqualTo(1);
+        assertThat(meters.get("api.ratelimit.clients").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void byDefault_countsAreNotTaggedByClient() {
+        properties.setPerClientMetrics(false);
+        limiter.acquire("ip:a", WRITE);
+        limiter.acquire("ip:b", WRITE);
+
+        assertThat(meters.get("api.ratelimit.requests").tag("class", "write").tag("outcome", "allowed").counter().count())
+                .isEqualTo(2);
+        assertThat(meters.find("api.ratelimit.requests").counters()).hasSize(6)
+                .allSatisfy(c -> assertThat(c.getId().getTag("client")).isNull());
+        assertThat(meters.find("api.ratelimit.client.requests").counters()).isEmpty();
+    }
+
+    @Test
+    void idleClientsAreEvicted_withTheirMeters() {
+        limiter.acquire("ip:a", WRITE);
+        limiter.acquire("ip:b", READ);
+        now.addAndGet(SECOND / 2);
+        limiter.evictIdle();
+        assertThat(limiter.trackedClients()).isEqualTo(1);     // b refilled after 0.1 s, a needs 1 s
+
+        now.addAndGet(SECOND);
+        limiter.evictIdle();
+        assertThat(limiter.trackedClients()).isZero();
+        assertThat(meters.find("api.ratelimit.client.requests").counters()).isEmpty();
+    }
+
+    @Test
+    void fullMap_evictsIdleClientsFirst_thenSharesOverflowBudget() {
+        limiter.acquire("ip:a", WRITE);
+        limiter.acquire("ip:b", WRITE);
+        limiter.acquire("ip:c", READ);
+        now.addAndGet(SECOND / 2);
+
+        limiter.acquire("ip:d", WRITE);   // c is idle and makes room
+        assertThat(meters.find("api.ratelimit.client.requests").tag("client", "ip:c").counters()).isEmpty();
+        assertThat(count("ip:d", "write", "allowed")).isEqualTo(1);
+
+        now.addAndGet(SECOND / 4);
+        limiter.acquire("ip:e", WRITE);
+        limiter.acquire("ip:f", WRITE);
+        assertThat(limiter.acquire("ip:g", WRITE).allowed()).isFalse();
+        assertThat(count(ClientRateLimiter.OVERFLOW, "write", "allowed")).isEqualTo(2);
+        assertThat(limiter.trackedClients()).isEqualTo(4);
+    }
+
+    @Test
+    void concurrentClients_neverExceedTheBurst() throws Exception {
+        properties.setWrite(new RateLimitProperties.Budget(1, 50));
+        limiter = new ClientRateLimiter(properties, new SimpleMeterRegistry(), now::get);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    if (limiter.acquire("ip:hot", WRITE).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(allowed).hasValue(50);
+    }
+
+    private double count(String client, String type, String outcome) {
+        return meters.get("api.ratelimit.client.requests")
+                .tag("client", client).tag("class", type).tag("outcome", outcome).counter().count();
+    }
+}
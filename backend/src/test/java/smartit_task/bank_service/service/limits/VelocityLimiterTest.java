@@ -0,0 +1,167 @@
+package smartit_task.bank_service.service.limits;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.service.fx.FxRateSnapshot;
+import smartit_task.bank_service.service.fx.FxRates;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VelocityLimiterTest {
+
+    static class MutableClock extends Clock {
+        Instant now = Instant.parse("2026-01-01T10:00:00Z");
+
+        void advance(Duration d) { now = now.plus(d); }
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @Mock TransferRepository transferRepository;
+    @Mock AccountRepository accountRepository;
+    @Mock JdbcTemplate jdbc;
+
+    final FxRates fxRates = () -> FxRateSnapshot.of(1, "EUR", Map.of("JPY", new BigDecimal("160")));
+    MutableClock clock;
+    VelocityLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        lenient().when(accountRepository.findCurrencyById(any())).thenReturn(Optional.of("EUR"));
+        lenient().when(accountRepository.findCurrencyById(2L)).thenReturn(Optional.of("JPY"));
+        lenient().when(accountRepository.findCurrencyById(3L)).thenReturn(Optional.of("CHF"));
+        limiter = new VelocityLimiter(transferRepository, accountRepository, jdbc, fxRates, clock,
+                new BigDecimal("100.00"), new BigDecimal("250.00"), 0.8, 8);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void perMinuteLimit_rejectsOverspend_andRecoversAfterWindow() {
+        limiter.reserve(1L, new BigDecimal("60.00"));
+
+        assertThatThrownBy(() -> limiter.reserve(1L, new BigDecimal("50.00")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Per-minute transfer limit exceeded");
+
+        clock.advance(Duration.ofSeconds(70));
+        assertThatCode(() -> limiter.reserve(1L, new BigDecimal("50.00"))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void dailyLimit_spansMinutes() {
+        limiter.reserve(1L, new BigDecimal("90.00"));
+        clock.advance(Duration.ofMinutes(5));
+        limiter.reserve(1L, new BigDecimal("90.00"));
+        clock.advance(Duration.ofMinutes(5));
+
+        assertThatThrownBy(() -> limiter.reserve(1L, new BigDecimal("90.00")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Daily transfer limit exceeded");
+
+        clock.advance(Duration.ofHours(25));
+        assertThat(limiter.dailyTotalCents(1L)).isZero();
+    }
+
+    @Test
+    void accountsAreIndependent() {
+        limiter.reserve(1L, new BigDecimal("100.00"));
+
+        assertThatCode(() -> limiter.reserve(2L, new BigDecimal("100.00"))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void reportsNearLimit_onlyPastTheRatio() {
+        assertThat(limiter.reserve(1L, new BigDecimal("50.00")).nearLimit()).isFalse();
+        assertThat(limiter.reserve(1L, new BigDecimal("30.00")).nearLimit()).isTrue();
+    }
+
+    @Test
+    void rolledBackTransfer_releasesItsReservation() {
+        TransactionSynchronizationManager.initSynchronization();
+        limiter.reserve(1L, new BigDecimal("40.00"));
+        assertThat(limiter.dailyTotalCents(1L)).isEqualTo(4000);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(limiter.dailyTotalCents(1L)).isZero();
+    }
+
+    @Test
+    void releasedReservation_isGivenBackOnlyOnce() {
+        limiter.reserve(1L, new BigDecimal("30.00"));
+        TransactionSynchronizationManager.initSynchronization();
+        var replayed = limiter.reserve(1L, new BigDecimal("40.00"));
+
+        replayed.release();
+        assertThat(limiter.dailyTotalCents(1L)).isEqualTo(3000);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertThat(limiter.dailyTotalCents(1L)).isEqualTo(3000);
+    }
+
+    @Test
+    void verifyExact_usesCommittedTransfers() {
+        when(transferRepository.sumDebitsSince(eq(1L), any())).thenReturn(new BigDecimal("95.00"));
+
+        assertThatThrownBy(() -> limiter.verifyExact(1L, new BigDecimal("10.00"), "EUR"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Per-minute transfer limit exceeded");
+    }
+
+    @Test
+    void limitsAreInTheBaseCurrency_whateverTheAccountCurrency() {
+        // 100.00 EUR a minute is 16000 JPY at 160
+        assertThat(limiter.reserve(2L, new BigDecimal("15000")).nearLimit()).isTrue();
+        assertThatThrownBy(() -> limiter.reserve(2L, new BigDecimal("1001")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Per-minute transfer limit exceeded");
+
+        when(transferRepository.sumDebitsSince(eq(2L), any())).thenReturn(new BigDecimal("15000"));
+        assertThatCode(() -> limiter.verifyExact(2L, new BigDecimal("1000"), "JPY")).doesNotThrowAnyException();
+
+        assertThatThrownBy(() -> limiter.reserve(3L, BigDecimal.ONE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No FX rate for CHF");
+    }
+
+    @Test
+    void disabledWhenNoLimitsConfigured() {
+        var unlimited = new VelocityLimiter(transferRepository, accountRepository, jdbc, fxRates, clock,
+                BigDecimal.ZERO, BigDecimal.ZERO, 0.8, 8);
+
+        assertThat(unlimited.isEnabled()).isFalse();
+        assertThat(unlimited.reserve(1L, new BigDecimal("1000000.00")).nearLimit()).isFalse();
+    }
+}
@@ -0,0 +1,139 @@
+package smartit_task.bank_service.service.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.repository.OutboxEventRepository;
+import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.TransferService;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.outbox.sink=file",
+        "app.outbox.batch-size=3"
+})
+@ActiveProfiles("test")
+class OutboxRelayIT {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void sinkFile(DynamicPropertyRegistry registry) {
+        registry.add("app.outbox.file", () -> dir.resolve("outbox.jsonl").toString());
+    }
+
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired AccountRepository accountRepository;
+    @Autowired TransferRepository transferRepository;
+    @Autowired OutboxEventRepository outboxEventRepository;
+    @Autowired OutboxRelay relay;
+    @Autowired FileOutboxSink sink;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired ObjectMapper objectMapper;
+
+    Account from, to;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        outboxEventRepository.deleteAll();
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        Files.deleteIfExists(sink.path());
+
+        from = accountService.createAccount(new AccountCreateRequest("From", "BG00FROM00000000000001", new BigDecimal("100.00")));
+        to = accountService.createAccount(new AccountCreateRequest("To", "BG00TO00000000000002", BigDecimal.ZERO));
+    }
+
+    @Test
+    void transferWritesOneOutboxRowInSameTransaction_failedTransferWritesNone() {
+        transferService.createTransfer(from.getId(), to.getId(), new BigDecimal("10.00"));
+        assertThatThrownBy(() -> transferService.createTransfer(from.getId(), to.getId(), new BigDecimal("1000.00")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(outboxEventRepository.findAll())
+                .singleElement()
+                .satisfies(e -> assertThat(e.getEventType()).isEqualTo(OutboxWriter.TRANSFER_CREATED));
+    }
+
+    @Test
+    void concurrentWorkers_deliverEveryEventExactlyOnce_andPurge() throws Exception {
+        int transfers = 20;
+        for (int i = 0; i < transfers; i++) {
+            transferService.createTransfer(from.getId(), to.getId(), new BigDecimal("1.00"));
+        }
+        double deliveredBefore = meterRegistry.get("outbox.relay.delivered").counter().count();
+
+        int workers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            results.add(pool.submit(() -> {
+                int total = 0, n;
+                while ((n = relay.relayOnce()) > 0) {
+                    total += n;
+                }
+                return total;
+            }));
+        }
+        int relayed = 0;
+        for (Future<Integer> f : results) {
+            relayed += f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdownNow();
+
+        List<String> lines = Files.readAllLines(sink.path());
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            ids.add(node.get("id").asLong());
+            assertThat(node.at("/payload/debit/amount").decimalValue()).isEqualByComparingTo("1.00");
+            assertThat(node.at("/payload/credit/accountId").asLong()).isEqualTo(to.getId());
+        }
+
+        assertThat(relayed).isEqualTo(transfers);
+        assertThat(ids).hasSize(transfers).doesNotHaveDuplicates();
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(meterRegistry.get("outbox.relay.delivered").counter().count() - deliveredBefore).isEqualTo(transfers);
+        assertThat(meterRegistry.get("outbox.relay.lag").timer().count()).isGreaterThanOrEqualTo(transfers);
+    }
+
+    @Test
+    void rotatedFile_isReopenedOnTheNextBatch() throws Exception {
+        transferService.createTransfer(from.getId(), to.getId(), new BigDecimal("1.00"));
+        relay.relayOnce();
+        Path rotated = sink.path().resolveSibling("outbox.jsonl.1");
+        Files.move(sink.path(), rotated, StandardCopyOption.REPLACE_EXISTING);
+
+        transferService.createTransfer(from.getId(), to.getId(), new BigDecimal("2.00"));
+        relay.relayOnce();
+
+        assertThat(Files.readAllLines(rotated)).hasSize(1);
+        assertThat(Files.readAllLines(sink.path())).singleElement()
+                .satisfies(line -> assertThat(objectMapper.readTree(line).at("/payload/debit/amount").decimalValue())
+                        .isEqualByComparingTo("2.00"));
+    }
+}
@@ -0,0 +1,26 @@
+package smartit_task.bank_service.service.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import smartit_task.bank_service.entity.OutboxEvent;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/** Test stand-in that keeps relayed events in memory; select it with {@code app.outbox.sink=queue}. */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "queue")
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxEvent> queue = new LinkedBlockingQueue<>();
+
+    @Override
+    public void deliver(List<OutboxEvent> batch) {
+        queue.addAll(batch);
+    }
+
+    public BlockingQueue<OutboxEvent> queue() {
+        return queue;
+    }
+}
@@ -0,0 +1,132 @@
+package smartit_task.bank_service.service.purge;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccountLookupResponse;
+import smartit_task.bank_service.dto.AccountResponse;
+import smartit_task.bank_service.dto.HoldCreateRequest;
+import smartit_task.bank_service.dto.PurgeRunReport;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.LedgerReconciliationService;
+import smartit_task.bank_service.service.TransferService;
+import smartit_task.bank_service.service.holds.HoldService;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:purge;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.purge.batch-size=3",
+        "app.purge.batch-pause=0ms",
+        "app.reconciliation.settle-window=PT0S",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class AccountPurgeIT {
+
+    @Autowired AccountPurgeService purgeService;
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired HoldService holdService;
+    @Autowired LedgerReconciliationService reconciliation;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void clean() {
+        jdbc.execute("DELETE FROM holds");
+        jdbc.execute("DELETE FROM reconciliation_checkpoints");
+        jdbc.execute("DELETE FROM reconciliation_positions");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM transfers_archive");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+    }
+
+    private Account account(String name, String iban, String amount) {
+        return accountService.createAccount(new AccountCreateRequest(name, iban, new BigDecimal(amount)));
+    }
+
+    @Test
+    void delete_closesAccount_hidingItFromReadsAndTransfers() {
+        Account keep = account("Keep", "BG00PRGE00000000000001", "100.00");
+        Account gone = account("Gone", "BG00PRGE00000000000002", "0.00");
+        transferService.createTransfer(keep.getId(), gone.getId(), new BigDecimal("10.00"));
+
+        accountService.deleteAccount(gone.getId());
+
+        assertThat(accountService.getAccountById(gone.getId())).isEmpty();
+        assertThat(accountService.getAllAccounts()).extracting(AccountResponse::getName).containsExactly("Keep");
+        assertThat(accountService.findAccounts(null, null, 0, 10, null).getTotalElements()).isEqualTo(1);
+        assertThat(accountService.lookupAccounts(List.of(gone.getId()))).extracting(AccountLookupResponse::found).containsExactly(false);
+        assertThatThrownBy(() -> transferService.createTransfer(keep.getId(), gone.getId(), BigDecimal.ONE))
+                .hasMessage("Account not found with id: " + gone.getId());
+        assertThatThrownBy(() -> accountService.deleteAccount(gone.getId()))
+                .hasMessage("Account not found with id: " + gone.getId());
+
+        // nothing is removed yet, and the name stays taken until the purge
+        assertThat(jdbc.queryForObject("SELECT status FROM accounts WHERE id = ?", String.class, gone.getId())).isEqualTo("CLOSED");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfers WHERE account_id = ?", Integer.class, gone.getId())).isEqualTo(1);
+        assertThatThrownBy(() -> account("Gone", "BG00PRGE00000000000003", "0.00"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+    }
+
+    @Test
+    void purge_archivesHistoryInBatches_thenRemovesAccount() {
+        Account payer = account("Payer", "BG00PRGE00000000000011", "100.00");
+        Account closed = account("Closed", "BG00PRGE00000000000012", "50.00");
+        Account other = account("Other", "BG00PRGE00000000000013", "0.00");
+        for (int i = 0; i < 4; i++) {
+            transferService.createTransfer(payer.getId(), closed.getId(), new BigDecimal("5.00"));
+        }
+        for (int i = 0; i < 3; i++) {
+            transferService.createTransfer(closed.getId(), payer.getId(), new BigDecimal("1.00"));
+        }
+        transferService.createTransfer(payer.getId(), other.getId(), new BigDecimal("2.00"));
+        List<Long> history = jdbc.queryForList("SELECT id FROM transfers WHERE account_id = ? ORDER BY id", Long.class, closed.getId());
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+
+        accountService.deleteAccount(closed.getId());
+        PurgeRunReport report = purgeService.run();
+
+        assertThat(report.accountsPurged()).isEqualTo(1);
+        assertThat(report.accountsPending()).isZero();
+        assertThat(report.transfersArchived()).isEqualTo(7);
+        assertThat(report.batches()).isEqualTo(3);
+        assertThat(jdbc.queryForList("SELECT id FROM transfers_archive WHERE account_id = ? ORDER BY id", Long.class, closed.getId()))
+                .isEqualTo(history);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfers WHERE account_id = ?", Integer.class, closed.getId())).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfers WHERE account_id = ?", Integer.class, payer.getId())).isEqualTo(8);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM accounts WHERE id = ?", Integer.class, closed.getId())).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfer_daily_rollups WHERE account_id = ?", Integer.class, closed.getId())).isZero();
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+
+        assertThat(account("Closed", "BG00PRGE00000000000012", "0.00").getId()).isNotEqualTo(closed.getId());
+        assertThat(purgeService.run().accountsPurged()).isZero();
+    }
+
+    @Test
+    void purge_waitsForActiveHolds() {
+        Account payer = account("Holder", "BG00PRGE00000000000021", "100.00");
+        Account merchant = account("Merchant", "BG00PRGE00000000000022", "0.00");
+        var hold = holdService.create(new HoldCreateRequest(payer.getId(), merchant.getId(), new BigDecimal("30.00"), null));
+
+        accountService.deleteAccount(payer.getId());
+        assertThat(purgeService.run().accountsPurged()).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM accounts WHERE id = ?", Integer.class, payer.getId())).isEqualTo(1);
+
+        holdService.release(hold.getId());
+        assertThat(purgeService.run().accountsPurged()).isEqualTo(1);
+    }
+}
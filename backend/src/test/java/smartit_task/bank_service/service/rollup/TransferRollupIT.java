@@ -0,0 +1,140 @@
+package smartit_task.bank_service.service.rollup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.TransferDailyRollup;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.TransferService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rollups;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.rollups.backfill.range-size=2",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class TransferRollupIT {
+
+    @Autowired TransferRollupService rollupService;
+    @Autowired TransferService transferService;
+    @Autowired AccountService accountService;
+    @Autowired JdbcTemplate jdbc;
+
+    List<Account> accounts;
+    LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        accounts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            accounts.add(accountService.createAccount(new AccountCreateRequest(
+                    "Roll" + i, "BG00ROLL0000000000000" + i, new BigDecimal("1000.00"))));
+        }
+    }
+
+    private Long id(int i) {
+        return accounts.get(i).getId();
+    }
+
+    private TransferDailyRollup todayOf(int i) {
+        return rollupService.getRollups(id(i), today, today).stream().findFirst().orElseThrow();
+    }
+
+    private List<Map<String, Object>> allRows() {
+        return jdbc.queryForList("SELECT * FROM transfer_daily_rollups ORDER BY account_id, business_date");
+    }
+
+    @Test
+    void transfers_incrementRollupsInTheSameTransaction() {
+        transferService.createTransfer(id(0), id(1), new BigDecimal("10.00"));
+        transferService.createTransfer(id(0), id(2), new BigDecimal("5.50"));
+        transferService.createTransfer(id(1), id(0), new BigDecimal("1.25"));
+
+        TransferDailyRollup r = todayOf(0);
+        assertThat(r.getDebitCount()).isEqualTo(2);
+        assertThat(r.getDebitAmount()).isEqualByComparingTo("15.50");
+        assertThat(r.getCreditCount()).isEqualTo(1);
+        assertThat(r.getCreditAmount()).isEqualByComparingTo("1.25");
+
+        assertThatThrownBy(() -> transferService.createTransfer(id(3), id(4), new BigDecimal("5000.00")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(rollupService.getRollups(id(3), today, today)).isEmpty();
+    }
+
+    @Test
+    void concurrentTransfers_areAllCounted() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int from = i % 5;
+            int to = (i * 3 + 1) % 5 == from ? (from + 1) % 5 : (i * 3 + 1) % 5;
+            futures.add(pool.submit(() -> transferService.createTransfer(id(from), id(to), BigDecimal.ONE)));
+        }
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        long debits = 0;
+        long credits = 0;
+        for (int i = 0; i < 5; i++) {
+            debits += todayOf(i).getDebitCount();
+            credits += todayOf(i).getCreditCount();
+        }
+        assertThat(debits).isEqualTo(40);
+        assertThat(credits).isEqualTo(40);
+    }
+
+    @Test
+    void backfill_rebuildsTheSameRowsFromHistory() {
+        transferService.createTransfer(id(0), id(4), new BigDecimal("10.00"));
+        transferService.createTransfer(id(3), id(1), new BigDecimal("7.00"));
+        transferService.createTransfer(id(4), id(3), new BigDecimal("2.00"));
+        var live = allRows();
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+
+        var report = rollupService.backfill(null, null);
+        assertThat(report.ranges()).isEqualTo(3);
+        assertThat(report.rowsWritten()).isEqualTo(4);
+        assertThat(allRows()).isEqualTo(live);
+
+        // move the 0 -> 4 transfer three days back; account 4 now has rows on two days
+        jdbc.update("UPDATE transfers SET created_on = DATEADD('DAY', -3, created_on) WHERE account_id = ? OR beneficiary_account_id = ?",
+                id(0), id(0));
+        assertThat(rollupService.backfill(null, null).rowsWritten()).isEqualTo(5);
+        assertThat(rollupService.getRollups(id(0), today.minusDays(3), today))
+                .singleElement()
+                .satisfies(r -> assertThat(r.getBusinessDate()).isEqualTo(today.minusDays(3)));
+
+        var rebuilt = allRows();
+        rollupService.backfill(today.minusDays(3), today);
+        assertThat(allRows()).isEqualTo(rebuilt);
+    }
+
+    @Test
+    void dateRange_isValidated() {
+        assertThatThrownBy(() -> rollupService.getRollups(id(0), today, today.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> rollupService.getRollups(id(0), today.minusYears(2), today))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,151 @@
+package smartit_task.bank_service.service.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.ScheduledTransferCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.ScheduleRecurrence;
+import smartit_task.bank_service.entity.ScheduleStatus;
+import smartit_task.bank_service.entity.ScheduledTransfer;
+import smartit_task.bank_service.repository.ScheduledTransferRepository;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.ScheduledTransferService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:scheduled;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.scheduling.horizon=PT1M"
+})
+@ActiveProfiles("test")
+class ScheduledTransferIT {
+
+    @Autowired ScheduledTransferDispatcher dispatcher;
+    @Autowired ScheduledTransferService scheduledTransferService;
+    @Autowired AccountService accountService;
+    @Autowired ScheduledTransferRepository scheduledTransferRepository;
+    @Autowired JdbcTemplate jdbc;
+
+    Account from;
+    Account to;
+
+    @BeforeEach
+    void setUp() {
+        // drain anything a previous test left in memory
+        dispatcher.tick();
+        jdbc.execute("DELETE FROM scheduled_transfers");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        from = accountService.createAccount(new AccountCreateRequest("From", "BG00SCHD00000000000001", new BigDecimal("100.00")));
+        to = accountService.createAccount(new AccountCreateRequest("To", "BG00SCHD00000000000002", BigDecimal.ZERO));
+    }
+
+    private ScheduledTransfer schedule(String amount, LocalDateTime firstRunAt, ScheduleRecurrence recurrence, LocalDateTime endsOn) {
+        return scheduledTransferService.create(new ScheduledTransferCreateRequest(
+                from.getId(), to.getId(), new BigDecimal(amount), firstRunAt, recurrence, endsOn));
+    }
+
+    private long transferCount() {
+        return jdbc.queryForObject("SELECT count(*) FROM transfers WHERE type = 'DEBIT'", Long.class);
+    }
+
+    private BigDecimal balance(Account account) {
+        return accountService.getAccountById(account.getId()).orElseThrow().getAvailableAmount();
+    }
+
+    @Test
+    void dueSchedules_arePagedEarliestFirst_notById() {
+        LocalDateTime now = LocalDateTime.now();
+        var late = schedule("1.00", now.plusSeconds(30), ScheduleRecurrence.ONCE, null);
+        var early = schedule("1.00", now.minusMinutes(1), ScheduleRecurrence.ONCE, null);
+        var tied = schedule("1.00", now.plusSeconds(30), ScheduleRecurrence.ONCE, null);
+
+        List<Long> order = new ArrayList<>();
+        LocalDateTime afterRunAt = LocalDateTime.of(1970, 1, 1, 0, 0);
+        long afterId = 0;
+        for (int i = 0; i < 4; i++) {
+            var page = scheduledTransferRepository.findDue(now.plusMinutes(1), afterRunAt, afterId, PageRequest.of(0, 1));
+            if (page.isEmpty()) {
+                break;
+            }
+            order.add(page.get(0).getId());
+            afterRunAt = page.get(0).getNextRunAt();
+            afterId = page.get(0).getId();
+        }
+
+        assertThat(order).containsExactly(early.getId(), late.getId(), tied.getId());
+    }
+
+    @Test
+    void overdueDailySchedule_catchesUpOneOccurrencePerTick_thenCompletes() {
+        LocalDateTime start = LocalDateTime.now().minusDays(2).minusMinutes(5);
+        var s = schedule("10.00", start, ScheduleRecurrence.DAILY, start.plusDays(2));
+
+        assertThat(dispatcher.load()).isEqualTo(1);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.tick();
+        }
+
+        var done = scheduledTransferService.getById(s.getId()).orElseThrow();
+        assertThat(done.getStatus()).isEqualTo(ScheduleStatus.COMPLETED);
+        assertThat(done.getOccurrence()).isEqualTo(3);
+        assertThat(transferCount()).isEqualTo(3);
+        assertThat(balance(to)).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void onceSchedule_runsOnce_andRecordsFailures() {
+        var ok = schedule("40.00", LocalDateTime.now().minusSeconds(1), ScheduleRecurrence.ONCE, null);
+        var tooMuch = schedule("500.00", LocalDateTime.now().minusSeconds(1), ScheduleRecurrence.ONCE, null);
+
+        dispatcher.tick();
+        dispatcher.tick();
+
+        assertThat(scheduledTransferService.getById(ok.getId()).orElseThrow().getStatus()).isEqualTo(ScheduleStatus.COMPLETED);
+        var failed = scheduledTransferService.getById(tooMuch.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(ScheduleStatus.COMPLETED);
+        assertThat(failed.getLastError()).contains("Insufficient");
+        assertThat(transferCount()).isEqualTo(1);
+        assertThat(balance(from)).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void rerunningAnOccurrence_reusesItsIdempotencyKey() {
+        var s = schedule("10.00", LocalDateTime.now().minusSeconds(1), ScheduleRecurrence.WEEKLY, null);
+        dispatcher.tick();
+        assertThat(transferCount()).isEqualTo(1);
+
+        // simulate a crash after the transfer committed but before the schedule advanced
+        jdbc.update("UPDATE scheduled_transfers SET occurrence = 0, next_run_at = first_run_at WHERE id = ?", s.getId());
+        dispatcher.load();
+        dispatcher.tick();
+
+        assertThat(transferCount()).isEqualTo(1);
+        assertThat(balance(from)).isEqualByComparingTo("90.00");
+        assertThat(scheduledTransferService.getById(s.getId()).orElseThrow().getOccurrence()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelledSchedule_doesNotRun() {
+        var s = schedule("10.00", LocalDateTime.now().minusSeconds(1), ScheduleRecurrence.DAILY, null);
+        scheduledTransferService.cancel(s.getId());
+
+        dispatcher.load();
+        dispatcher.tick();
+
+        assertThat(transferCount()).isZero();
+        assertThat(scheduledTransferService.getById(s.getId()).orElseThrow().getStatus()).isEqualTo(ScheduleStatus.CANCELLED);
+    }
+}
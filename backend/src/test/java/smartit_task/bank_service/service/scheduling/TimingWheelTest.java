@@ -0,0 +1,60 @@
+package smartit_task.bank_service.service.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(10, 8, 3, 0);
+
+    private List<String> advanceTo(long millis) {
+        List<String> expired = new ArrayList<>();
+        wheel.advance(millis, expired::add);
+        return expired;
+    }
+
+    @Test
+    void entriesExpireAtTheirTick_inDeadlineOrder() {
+        wheel.add("b", 50);
+        wheel.add("a", 20);
+        wheel.add("c", 70);
+
+        assertThat(advanceTo(19)).isEmpty();
+        assertThat(advanceTo(55)).containsExactly("a", "b");
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(advanceTo(70)).containsExactly("c");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void entriesInHigherLevels_cascadeDownAndExpireOnTime() {
+        wheel.add("level1", 10 * 30);
+        wheel.add("level2", 10 * 200);
+
+        assertThat(advanceTo(10 * 29)).isEmpty();
+        assertThat(advanceTo(10 * 30)).containsExactly("level1");
+        assertThat(advanceTo(10 * 199)).isEmpty();
+        assertThat(advanceTo(10 * 200)).containsExactly("level2");
+    }
+
+    @Test
+    void deadlineBeyondTheTopLevel_isHeldUntilDue() {
+        wheel.add("far", 10 * 2_000);
+
+        assertThat(advanceTo(10 * 1_999)).isEmpty();
+        assertThat(advanceTo(10 * 2_000)).containsExactly("far");
+    }
+
+    @Test
+    void deadlineNotInTheFuture_isRejected() {
+        advanceTo(100);
+
+        assertThat(wheel.add("now", 100)).isFalse();
+        assertThat(wheel.add("past", 5)).isFalse();
+        assertThat(wheel.add("next", 110)).isTrue();
+    }
+}
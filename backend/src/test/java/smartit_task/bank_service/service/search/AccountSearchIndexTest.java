@@ -0,0 +1,89 @@
+package smartit_task.bank_service.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import smartit_task.bank_service.dto.AccountSearchHit;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.event.AccountChangedEvent;
+import smartit_task.bank_service.event.AccountDeletedEvent;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountSearchIndexTest {
+
+    @Mock JdbcTemplate jdbc;
+    AccountSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AccountSearchIndex(jdbc);
+        index.afterSingletonsInstantiated();
+        add(1, "Anna Smith", "BG80BNBG96611020345678");
+        add(2, "Smithers", "BG10BNBG96611020345679");
+        add(3, "John Blacksmith", "DE89370400440532013000");
+        add(4, "José Álvarez", "ES9121000418450200051332");
+    }
+
+    private void add(long id, String name, String iban) {
+        Account a = new Account();
+        a.setId(id);
+        a.setName(name);
+        a.setIban(iban);
+        index.onAccountChanged(new AccountChangedEvent(a));
+    }
+
+    private java.util.List<Long> ids(String q) {
+        return index.search(q, 0, 10).getContent().stream().map(AccountSearchHit::id).toList();
+    }
+
+    @Test
+    void substring_isRankedExactThenPrefixThenWordThenInfix() {
+        assertThat(ids("smith")).containsExactly(2L, 1L, 3L);
+        assertThat(index.search("smithers", 0, 10).getContent().get(0).rank()).isZero();
+    }
+
+    @Test
+    void shortQueries_matchWordAndIbanPrefixes() {
+        assertThat(ids("jo")).containsExactly(4L, 3L); // same rank, shorter name first
+        assertThat(ids("de")).containsExactly(3L);
+    }
+
+    @Test
+    void matching_ignoresCaseAccentsAndIbanSpacing() {
+        assertThat(ids("ALVAREZ")).containsExactly(4L);
+        assertThat(ids("bg10 bnbg")).containsExactly(2L);
+        assertThat(ids("0532 0130")).containsExactly(3L);
+    }
+
+    @Test
+    void results_arePaginated() {
+        var page = index.search("smith", 1, 2);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(AccountSearchHit::id).containsExactly(3L);
+    }
+
+    @Test
+    void updatesAndDeletes_keepIndexAndUniquenessMapsInSync() {
+        assertThat(index.nameTaken("Smithers")).isTrue();
+
+        add(2, "Renamed", "BG10BNBG96611020345679");
+        assertThat(index.nameTaken("Smithers")).isFalse();
+        assertThat(index.nameTaken("Renamed")).isTrue();
+        assertThat(ids("smith")).containsExactly(1L, 3L);
+
+        index.onAccountDeleted(new AccountDeletedEvent(2L));
+        assertThat(index.ibanTaken("BG10BNBG96611020345679")).isFalse();
+        assertThat(ids("renamed")).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void blankQuery_isRejected() {
+        assertThatThrownBy(() -> index.search("  ", 0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,308 @@
+package smartit_task.bank_service.service.sharding;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.AccountLookupResponse;
+import smartit_task.bank_service.dto.AccountResponse;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.SagaStatus;
+import smartit_task.bank_service.entity.Transfer;
+import smartit_task.bank_service.entity.TransferSaga;
+import smartit_task.bank_service.entity.TransferType;
+import smartit_task.bank_service.repository.AccountRepository;
+import smartit_task.bank_service.repository.TransferRepository;
+import smartit_task.bank_service.service.fx.FxRates;
+import smartit_task.bank_service.service.limits.VelocityLimiter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Three in-memory H2 databases act as shards 0, 1 and 2. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "app.sharding.enabled=true",
+        "app.sharding.shards[0].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "app.sharding.shards[0].driver-class-name=org.h2.Driver",
+        "app.sharding.shards[1].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+        "app.sharding.shards[1].driver-class-name=org.h2.Driver",
+        "app.sharding.id-range=1000000",
+        "app.sharding.saga-recovery-after=PT0S",
+        "app.sharding.saga-recovery-interval-ms=3600000",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class ShardingIT {
+
+    @Autowired ShardRouter router;
+    @Autowired ShardedAccountService accounts;
+    @Autowired ShardedTransferService transfers;
+    @Autowired TransferSagaSteps steps;
+    @Autowired TransferSagaRecovery recovery;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired TransferRepository transferRepository;
+    @Autowired AccountRepository accountRepository;
+    @Autowired FxRates fxRates;
+
+    private final AtomicInteger ibanSeq = new AtomicInteger();
+
+    @BeforeEach
+    void clean() {
+        router.onEachShard(s -> {
+            jdbc.execute("DELETE FROM outbox_events");
+            jdbc.execute("DELETE FROM transfer_daily_rollups");
+            jdbc.execute("DELETE FROM transfer_sagas");
+            jdbc.execute("DELETE FROM transfers");
+            jdbc.execute("DELETE FROM accounts");
+            return null;
+        });
+    }
+
+    @Test
+    void accountsArePlacedByIban_andIdsFollowTheirShard() {
+        Account a = open(0, "100.00");
+        Account b = open(1, "100.00");
+        Account c = open(2, "100.00");
+
+        assertThat(router.shardOf(a.getId())).isZero();
+        assertThat(router.shardOf(b.getId())).isEqualTo(1);
+        assertThat(router.shardOf(c.getId())).isEqualTo(2);
+        assertThat(b.getId()).isGreaterThan(1_000_000L);
+
+        assertThat(accounts.getAllAccounts()).extracting(AccountResponse::getId)
+                .containsExactly(a.getId(), b.getId(), c.getId());
+        assertThat(accounts.getAccountById(c.getId())).get().extracting(Account::getName).isEqualTo(c.getName());
+        assertThat(accounts.getAccountById(9_000_000L)).isEmpty();
+
+        assertThatThrownBy(() -> accounts.createAccount(
+                new AccountCreateRequest(b.getName(), ibanOn(0), BigDecimal.ONE)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("already exists");
+    }
+
+    @Test
+    void lookup_findsAccountsOnEveryShard_inRequestOrder() {
+        Account a = open(0, "1.00");
+        Account b = open(1, "2.00");
+        Account c = open(2, "3.00");
+
+        var found = accounts.lookupAccounts(List.of(c.getId(), 9_000_000L, a.getId(), b.getId(), c.getId()));
+
+        assertThat(found).extracting(AccountLookupResponse::id)
+                .containsExactly(c.getId(), 9_000_000L, a.getId(), b.getId(), c.getId());
+        assertThat(found).extracting(AccountLookupResponse::found).containsExactly(true, false, true, true, true);
+        assertThat(found.get(3).account().getName()).isEqualTo(b.getName());
+    }
+
+    @Test
+    void pages_areMergedAcrossShards_inTheRequestedOrder() {
+        List<Account> opened = List.of(open(2, "5.00"), open(0, "1.00"), open(1, "4.00"), open(0, "2.00"), open(2, "3.00"));
+
+        var first = accounts.findAccounts(null, null, 0, 2, "availableAmount,desc");
+        var second = accounts.findAccounts(null, null, 1, 2, "availableAmount,desc");
+
+        assertThat(first.getTotalElements()).isEqualTo(opened.size());
+        assertThat(first.getTotalPages()).isEqualTo(3);
+        assertThat(first.getContent()).extracting(AccountResponse::getId)
+                .containsExactly(opened.get(0).getId(), opened.get(2).getId());
+        assertThat(second.getContent()).extracting(AccountResponse::getId)
+                .containsExactly(opened.get(4).getId(), opened.get(3).getId());
+        assertThatThrownBy(() -> accounts.findAccounts(null, null, 100, 100, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void export_visitsEveryShard_inIdOrder() {
+        Account c = open(2, "1.00");
+        Account a = open(0, "1.00");
+        Account b = open(1, "1.00");
+
+        List<Long> exported = new ArrayList<>();
+        accounts.exportAccounts(null, null, r -> exported.add(r.getId()));
+
+        assertThat(exported).containsExactly(a.getId(), b.getId(), c.getId());
+    }
+
+    @Test
+    void sameShardTransfer_usesTheLocalTransaction() {
+        Account from = open(1, "50.00");
+        Account to = open(1, "0.00");
+
+        Transfer debit = transfers.createTransfer(from.getId(), to.getId(), new BigDecimal("20.00"), null);
+
+        assertThat(router.shardOf(debit.getId())).isEqualTo(1);
+        assertThat(balance(to)).isEqualByComparingTo("20.00");
+        assertThat(router.onShard(1, () -> jdbc.queryForObject("SELECT count(*) FROM transfer_sagas", Integer.class))).isZero();
+    }
+
+    @Test
+    void crossShardTransfer_completesSaga_andIsIdempotent() {
+        Account from = open(0, "100.00");
+        Account to = open(2, "10.00");
+
+        Transfer debit = transfers.createTransfer(from.getId(), to.getId(), new BigDecimal("30.00"), "key-1");
+        Transfer again = transfers.createTransfer(from.getId(), to.getId(), new BigDecimal("30.00"), "key-1");
+
+        assertThat(again.getId()).isEqualTo(debit.getId());
+        assertThat(balance(from)).isEqualByComparingTo("70.00");
+        assertThat(balance(to)).isEqualByComparingTo("40.00");
+        assertThat(sagaStatus(0, from, "key-1")).isEqualTo(SagaStatus.COMPLETED);
+        assertThat(router.onShard(0, () -> jdbc.queryForObject("SELECT count(*) FROM outbox_events", Integer.class))).isEqualTo(1);
+
+        assertThat(transfers.getAllTransfersByAccountId(to.getId()))
+                .singleElement()
+                .satisfies(t -> {
+                    assertThat(t.getType()).isEqualTo(TransferType.CREDIT);
+                    assertThat(t.getBeneficiaryAccountId()).isEqualTo(from.getId());
+                });
+        assertThat(transfers.getTransferById(debit.getId())).isPresent();
+        assertThat(transfers.getAllTransfers()).hasSize(2);
+    }
+
+    @Test
+    void refusedCredit_isCompensatedOnTheSourceShard() {
+        Account from = open(1, "100.00");
+        Account to = open(2, "0.00");
+
+        TransferSaga saga = router.onShard(1, () -> steps.begin(from.getId(), to.getId(), new BigDecimal("25.00"), "key-2"));
+        assertThat(balance(from)).isEqualByComparingTo("75.00");
+        accounts.freezeAccount(to.getId());
+
+        assertThatThrownBy(() -> transfers.advance(saga))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Destination account is frozen");
+
+        assertThat(balance(from)).isEqualByComparingTo("100.00");
+        assertThat(balance(to)).isEqualByComparingTo("0.00");
+        assertThat(sagaStatus(1, from, "key-2")).isEqualTo(SagaStatus.COMPENSATED);
+        assertThatThrownBy(() -> transfers.createTransfer(from.getId(), to.getId(), new BigDecimal("25.00"), "key-2"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(balance(from)).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void sagaLeftDebited_isFinishedByRecovery() {
+        Account from = open(2, "100.00");
+        Account to = open(0, "0.00");
+        router.onShard(2, () -> steps.begin(from.getId(), to.getId(), new BigDecimal("40.00"), "key-3"));
+
+        assertThat(balance(to)).isEqualByComparingTo("0.00");
+        assertThat(recovery.recoverOnce()).isEqualTo(1);
+
+        assertThat(balance(from)).isEqualByComparingTo("60.00");
+        assertThat(balance(to)).isEqualByComparingTo("40.00");
+        assertThat(recovery.recoverOnce()).isZero();
+    }
+
+    @Test
+    void repeatedCreditStep_findsItsEarlierCredit() {
+        Account from = open(0, "100.00");
+        Account to = open(1, "0.00");
+        TransferSaga saga = router.onShard(0, () -> steps.begin(from.getId(), to.getId(), new BigDecimal("15.00"), "key-4"));
+
+        Transfer credit = router.onShard(1, () -> steps.credit(saga));
+        Transfer again = router.onShard(1, () -> steps.credit(saga));
+
+        assertThat(again.getId()).isEqualTo(credit.getId());
+        assertThat(balance(to)).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    void velocityWindows_areRebuiltFromEveryShard() {
+        Account from = open(1, "100.00");
+        Account to = open(1, "0.00");
+        transfers.createTransfer(from.getId(), to.getId(), new BigDecimal("80.00"), null);
+
+        // a fresh limiter is what a restarted instance starts from
+        var restarted = new VelocityLimiter(transferRepository, accountRepository, jdbc, fxRates, router,
+                BigDecimal.ZERO, new BigDecimal("100.00"), 0.8, 8);
+        restarted.afterSingletonsInstantiated();
+
+        assertThatThrownBy(() -> router.onShard(1, () -> restarted.reserve(from.getId(), new BigDecimal("30.00"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Daily transfer limit exceeded");
+    }
+
+    @Test
+    void concurrentTransfersAcrossShards_conserveMoney_andKeepEveryLedgerBalanced() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(open(i % 3, "200.00").getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < 40; i++) {
+                    Long from = ids.get(rnd.nextInt(ids.size()));
+                    Long to = ids.get(rnd.nextInt(ids.size()));
+                    if (from.equals(to)) {
+                        continue;
+                    }
+                    try {
+                        transfers.createTransfer(from, to, BigDecimal.valueOf(rnd.nextInt(1, 5000), 2), null);
+                    } catch (IllegalArgumentException insufficient) {
+                        // expected once an account runs dry
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        BigDecimal total = accounts.getAllAccounts().stream()
+                .map(AccountResponse::getAvailableAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo("1200.00");
+
+        router.onEachShard(s -> {
+            assertThat(jdbc.queryForObject("SELECT count(*) FROM transfer_sagas WHERE status = 'DEBITED'", Integer.class)).isZero();
+            assertThat(jdbc.queryForObject(
+                    "SELECT count(*) FROM accounts a WHERE a.available_amount + a.held_amount <> a.opening_amount + " +
+                    "coalesce((SELECT sum(CASE WHEN t.type = 'CREDIT' THEN t.amount ELSE -t.amount END) " +
+                    "FROM transfers t WHERE t.account_id = a.id), 0)", Integer.class)).isZero();
+            return null;
+        });
+    }
+
+    private Account open(int shard, String amount) {
+        int n = ibanSeq.incrementAndGet();
+        return accounts.createAccount(new AccountCreateRequest("Shard " + shard + " #" + n, ibanOn(shard), new BigDecimal(amount)));
+    }
+
+    private String ibanOn(int shard) {
+        while (true) {
+            String iban = String.format("BG00SHRD%014d", ibanSeq.incrementAndGet());
+            if (router.placeNew(iban) == shard) {
+                return iban;
+            }
+        }
+    }
+
+    private BigDecimal balance(Account account) {
+        return accounts.getAccountById(account.getId()).orElseThrow().getAvailableAmount();
+    }
+
+    private SagaStatus sagaStatus(int shard, Account from, String key) {
+        return router.onShard(shard, () -> steps.find(from.getId(), key)).orElseThrow().getStatus();
+    }
+}
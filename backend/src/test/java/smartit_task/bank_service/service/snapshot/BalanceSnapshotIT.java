@@ -0,0 +1,119 @@
+package smartit_task.bank_service.service.snapshot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.dto.HoldCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.entity.AccountStatus;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.LedgerReconciliationService;
+import smartit_task.bank_service.service.TransferService;
+import smartit_task.bank_service.service.holds.HoldService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshots;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.snapshots.dir=target/test-snapshots",
+        "app.snapshots.import-chunk=2",
+        "app.reconciliation.settle-window=PT0S",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class BalanceSnapshotIT {
+
+    @Autowired BalanceSnapshotService snapshots;
+    @Autowired AccountService accountService;
+    @Autowired TransferService transferService;
+    @Autowired HoldService holdService;
+    @Autowired LedgerReconciliationService reconciliation;
+    @Autowired JdbcTemplate jdbc;
+
+    List<Account> accounts;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM holds");
+        jdbc.execute("DELETE FROM reconciliation_checkpoints");
+        jdbc.execute("DELETE FROM reconciliation_positions");
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        accounts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            accounts.add(accountService.createAccount(new AccountCreateRequest(
+                    "Snap" + i, "BG00SNAP0000000000000" + i, new BigDecimal("100.00"))));
+        }
+    }
+
+    private BigDecimal available(int i) {
+        return jdbc.queryForObject("SELECT available_amount FROM accounts WHERE id = ?", BigDecimal.class, accounts.get(i).getId());
+    }
+
+    @Test
+    void export_thenImport_restoresBalancesAndStatus_andKeepsLedgerConsistent() {
+        transferService.createTransfer(accounts.get(0).getId(), accounts.get(1).getId(), new BigDecimal("30.00"));
+        holdService.create(new HoldCreateRequest(accounts.get(2).getId(), accounts.get(3).getId(), new BigDecimal("10.00"), null));
+        jdbc.update("UPDATE accounts SET status = 'FROZEN' WHERE id = ?", accounts.get(4).getId());
+
+        var header = snapshots.export("eod");
+        assertThat(header.count()).isEqualTo(5);
+        assertThat(header.lastTransferId()).isEqualTo(
+                jdbc.queryForObject("SELECT max(id) FROM transfers", Long.class));
+        assertThat(snapshots.lookup("eod", accounts.get(2).getId())).get()
+                .satisfies(e -> {
+                    assertThat(e.availableAmount()).isEqualByComparingTo("90.00");
+                    assertThat(e.heldAmount()).isEqualByComparingTo("10.00");
+                });
+
+        transferService.createTransfer(accounts.get(1).getId(), accounts.get(0).getId(), new BigDecimal("5.00"));
+        jdbc.update("UPDATE accounts SET available_amount = 1, status = 'ACTIVE'");
+
+        var result = snapshots.importSnapshot("eod", false);
+        assertThat(result.updated()).isEqualTo(5);
+        assertThat(result.created()).isZero();
+
+        assertThat(available(0)).isEqualByComparingTo("70.00");
+        assertThat(available(1)).isEqualByComparingTo("130.00");
+        assertThat(available(2)).isEqualByComparingTo("100.00");
+        assertThat(jdbc.queryForObject("SELECT status FROM accounts WHERE id = ?", String.class, accounts.get(4).getId()))
+                .isEqualTo(AccountStatus.FROZEN.name());
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM holds WHERE status = 'ACTIVE'", Long.class)).isZero();
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+    }
+
+    @Test
+    void import_canCreateMissingAccounts_andNewIdsFollowThem() {
+        snapshots.export("seed");
+        Long lastId = accounts.get(4).getId();
+        jdbc.update("DELETE FROM accounts WHERE id >= ?", accounts.get(3).getId());
+
+        assertThat(snapshots.importSnapshot("seed", false).updated()).isEqualTo(3);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM accounts", Long.class)).isEqualTo(3);
+
+        var result = snapshots.importSnapshot("seed", true);
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(available(4)).isEqualByComparingTo("100.00");
+
+        Account next = accountService.createAccount(new AccountCreateRequest("After", "BG00SNAP00000000000099", BigDecimal.ONE));
+        assertThat(next.getId()).isGreaterThan(lastId);
+        assertThat(reconciliation.run().discrepancies()).isEmpty();
+    }
+
+    @Test
+    void invalidOrUnknownNames_areRejected() {
+        assertThatThrownBy(() -> snapshots.export("../escape")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> snapshots.describe("does-not-exist")).isInstanceOf(java.util.NoSuchElementException.class);
+    }
+}
@@ -0,0 +1,101 @@
+package smartit_task.bank_service.service.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import smartit_task.bank_service.entity.AccountStatus;
+import smartit_task.bank_service.service.snapshot.BalanceSnapshotReader.Entry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BalanceSnapshotTest {
+
+    @TempDir Path dir;
+
+    private Path writeSample(int count) throws IOException {
+        Path file = dir.resolve("sample.snap");
+        try (BalanceSnapshotWriter writer = new BalanceSnapshotWriter(file, count)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(i * 3L + 1, i % 2 == 0 ? AccountStatus.ACTIVE.ordinal() : AccountStatus.FROZEN.ordinal(),
+                        10_000L + i, i);
+            }
+            writer.finish(1_700_000_000_000L, 42);
+        }
+        return file;
+    }
+
+    @Test
+    void roundTrip_findsEveryRecordById_andMissesGaps() throws IOException {
+        Path file = writeSample(1000);
+
+        try (BalanceSnapshotReader reader = BalanceSnapshotReader.open(file)) {
+            assertThat(reader.header().count()).isEqualTo(1000);
+            assertThat(reader.header().lastTransferId()).isEqualTo(42);
+            assertThat(reader.verify()).isTrue();
+
+            Entry e = reader.find(3 * 501 + 1).orElseThrow();
+            assertThat(e.status()).isEqualTo(AccountStatus.FROZEN);
+            assertThat(e.availableAmount()).isEqualByComparingTo("105.01");
+            assertThat(e.heldAmount()).isEqualByComparingTo("5.01");
+
+            assertThat(reader.find(1)).isPresent();
+            assertThat(reader.find(3 * 999 + 1)).isPresent();
+            assertThat(reader.find(2)).isEmpty();
+            assertThat(reader.find(0)).isEmpty();
+            assertThat(reader.find(10_000)).isEmpty();
+
+            List<Long> ids = new ArrayList<>();
+            reader.forEach(entry -> ids.add(entry.id()));
+            assertThat(ids).hasSize(1000).isSorted();
+        }
+    }
+
+    @Test
+    void emptySnapshot_isValid() throws IOException {
+        Path file = writeSample(0);
+        try (BalanceSnapshotReader reader = BalanceSnapshotReader.open(file)) {
+            assertThat(reader.verify()).isTrue();
+            assertThat(reader.find(1)).isEmpty();
+        }
+    }
+
+    @Test
+    void corruptedRecord_failsVerification() throws IOException {
+        Path file = writeSample(10);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[]{0x7f}), SnapshotFormat.HEADER_SIZE + 5L * SnapshotFormat.RECORD_SIZE + 20);
+        }
+        try (BalanceSnapshotReader reader = BalanceSnapshotReader.open(file)) {
+            assertThat(reader.verify()).isFalse();
+        }
+    }
+
+    @Test
+    void truncatedOrForeignFiles_areRejected() throws IOException {
+        Path file = writeSample(10);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(Files.size(file) - 1);
+        }
+        assertThatThrownBy(() -> BalanceSnapshotReader.open(file)).isInstanceOf(IllegalArgumentException.class);
+
+        Path foreign = Files.write(dir.resolve("foreign.snap"), new byte[128]);
+        assertThatThrownBy(() -> BalanceSnapshotReader.open(foreign)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void writer_enforcesAscendingIdsAndAnnouncedCount() throws IOException {
+        try (BalanceSnapshotWriter writer = new BalanceSnapshotWriter(dir.resolve("order.snap"), 3)) {
+            writer.write(5, 0, 0, 0);
+            assertThatThrownBy(() -> writer.write(5, 0, 0, 0)).isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> writer.finish(0, 0)).isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package smartit_task.bank_service.service.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.service.search.AccountSearchIndex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.main.lazy-initialization=true",
+        "app.warmup.enabled=true",
+        "app.warmup.transfers=250",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class StartupWarmupIT {
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired AccountSearchIndex searchIndex;
+
+    @Test
+    void warmupLeavesNothingBehind() {
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM accounts", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfers", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM outbox_events", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM transfer_daily_rollups", Integer.class)).isZero();
+    }
+
+    @Test
+    void startupBeansStayEager_underLazyInitialization() {
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.nameTaken("warmup")).isFalse();
+    }
+}
@@ -0,0 +1,75 @@
+package smartit_task.bank_service.service.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import smartit_task.bank_service.dto.TransferCreateRequest;
+import smartit_task.bank_service.dto.TransferResponse;
+import smartit_task.bank_service.entity.TransferType;
+import smartit_task.bank_service.service.wire.TransferFrames.Request;
+import smartit_task.bank_service.service.wire.TransferFrames.Result;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Compares the per-transfer codec cost of the JSON API (parse {@link TransferCreateRequest},
+ * render {@link TransferResponse}) with {@link TransferFrames}. Only serialization is measured;
+ * the transfer itself costs the same on both paths.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=smartit_task.bank_service.service.wire.TransferCodecBenchmark
+ * </pre>
+ */
+public final class TransferCodecBenchmark {
+
+    private static final int BATCH = 10_000;
+
+    private TransferCodecBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        byte[] jsonRequest = json.writeValueAsBytes(new TransferCreateRequest(1234L, 5678L, new BigDecimal("125.50")));
+        TransferResponse response = new TransferResponse(987654L, 1234L, 5678L, TransferType.DEBIT,
+                new BigDecimal("125.50"), "EUR", null, null, LocalDateTime.now(), LocalDateTime.now());
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        DataOutputStream frameOut = new DataOutputStream(frames);
+        for (int i = 0; i < BATCH; i++) {
+            TransferFrames.writeRequest(frameOut, new Request(i, 1234L, 5678L, 12_550, null));
+        }
+        byte[] frameRequests = frames.toByteArray();
+
+        long jsonBest = Long.MAX_VALUE;
+        long frameBest = Long.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < rounds; round++) {
+            long t0 = System.nanoTime();
+            ByteArrayOutputStream jsonOut = new ByteArrayOutputStream(BATCH * 200);
+            for (int i = 0; i < BATCH; i++) {
+                TransferCreateRequest req = json.readValue(jsonRequest, TransferCreateRequest.class);
+                sink += req.amount().unscaledValue().longValue();
+                json.writeValue(jsonOut, response);
+            }
+            long t1 = System.nanoTime();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new ByteArrayInputStream(frameRequests)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new ByteArrayOutputStream(BATCH * 32)));
+            for (Request req; (req = TransferFrames.readRequest(in)) != null; ) {
+                sink += req.amount().unscaledValue().longValue();
+                TransferFrames.writeResult(out, Result.ok(req.correlationId(), 987654L, 1_700_000_000_000L));
+            }
+            out.flush();
+            long t2 = System.nanoTime();
+            jsonBest = Math.min(jsonBest, t1 - t0);
+            frameBest = Math.min(frameBest, t2 - t1);
+        }
+
+        System.out.printf("json   %6.0f ns/transfer  request %d B  response %d B%n",
+                (double) jsonBest / BATCH, jsonRequest.length, json.writeValueAsBytes(response).length);
+        System.out.printf("frames %6.0f ns/transfer  request %d B  response %d B%n",
+                (double) frameBest / BATCH, frameRequests.length / BATCH, 4 + 8 + 1 + 8 + 8);
+        System.out.println("(checksum " + sink + ")");
+    }
+}
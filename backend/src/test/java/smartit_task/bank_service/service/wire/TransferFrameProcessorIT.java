@@ -0,0 +1,100 @@
+package smartit_task.bank_service.service.wire;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import smartit_task.bank_service.dto.AccountCreateRequest;
+import smartit_task.bank_service.entity.Account;
+import smartit_task.bank_service.service.AccountService;
+import smartit_task.bank_service.service.wire.TransferFrames.Request;
+import smartit_task.bank_service.service.wire.TransferFrames.Result;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:wire;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.limits.per-minute-amount=0",
+        "app.limits.daily-amount=0"
+})
+@ActiveProfiles("test")
+class TransferFrameProcessorIT {
+
+    @Autowired TransferFrameProcessor processor;
+    @Autowired AccountService accountService;
+    @Autowired JdbcTemplate jdbc;
+
+    Account a;
+    Account b;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("DELETE FROM transfer_daily_rollups");
+        jdbc.execute("DELETE FROM outbox_events");
+        jdbc.execute("DELETE FROM transfers");
+        jdbc.execute("DELETE FROM accounts");
+        a = accountService.createAccount(new AccountCreateRequest("WireA", "BG00WIRE00000000000001", new BigDecimal("100.00")));
+        b = accountService.createAccount(new AccountCreateRequest("WireB", "BG00WIRE00000000000002", BigDecimal.ZERO));
+    }
+
+    private List<Result> submit(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        processor.process(new ByteArrayInputStream(body), out);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        List<Result> results = new ArrayList<>();
+        for (Result r; (r = TransferFrames.readResult(in)) != null; ) {
+            results.add(r);
+        }
+        return results;
+    }
+
+    private BigDecimal balance(Account account) {
+        return accountService.getAccountById(account.getId()).orElseThrow().getAvailableAmount();
+    }
+
+    @Test
+    void pipelinedRequests_getOneResultEach_inOrder() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        for (int i = 0; i < 50; i++) {
+            TransferFrames.writeRequest(out, new Request(i, a.getId(), b.getId(), 150, "batch-" + i));
+        }
+        TransferFrames.writeRequest(out, new Request(50, a.getId(), b.getId(), 150, "batch-3"));
+        TransferFrames.writeRequest(out, new Request(51, a.getId(), b.getId(), 1_000_000, null));
+        TransferFrames.writeRequest(out, new Request(52, a.getId(), a.getId(), 1, null));
+
+        List<Result> results = submit(body.toByteArray());
+
+        assertThat(results).hasSize(53);
+        assertThat(results).extracting(Result::correlationId).isSorted();
+        assertThat(results.subList(0, 51)).allSatisfy(r -> assertThat(r.status()).isEqualTo(TransferFrames.OK));
+        assertThat(results.get(50).transferId()).isEqualTo(results.get(3).transferId());
+        assertThat(results.get(51).status()).isEqualTo(TransferFrames.REJECTED);
+        assertThat(results.get(51).message()).isEqualTo("Insufficient funds in source account");
+        assertThat(results.get(52).message()).isEqualTo("Cannot transfer to the same account");
+
+        assertThat(balance(a)).isEqualByComparingTo("25.00");
+        assertThat(balance(b)).isEqualByComparingTo("75.00");
+    }
+
+    @Test
+    void malformedTail_isReportedAfterTheValidFrames() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        TransferFrames.writeRequest(out, new Request(1, a.getId(), b.getId(), 1000, null));
+        out.writeInt(3);
+        out.write(new byte[]{1, 2, 3});
+
+        List<Result> results = submit(body.toByteArray());
+
+        assertThat(results).extracting(Result::status).containsExactly(TransferFrames.OK, TransferFrames.MALFORMED);
+        assertThat(balance(b)).isEqualByComparingTo("10.00");
+    }
+}
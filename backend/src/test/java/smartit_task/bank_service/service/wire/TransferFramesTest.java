@@ -0,0 +1,96 @@
+package smartit_task.bank_service.service.wire;
+
+import org.junit.jupiter.api.Test;
+import smartit_task.bank_service.service.wire.TransferFrames.MalformedFrameException;
+import smartit_task.bank_service.service.wire.TransferFrames.Request;
+import smartit_task.bank_service.service.wire.TransferFrames.Result;
+
+import java.io.*;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TransferFramesTest {
+
+    private static byte[] encode(Request... requests) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Request r : requests) {
+            TransferFrames.writeRequest(out, r);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream in(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    void requests_roundTrip_withAndWithoutKey() throws IOException {
+        var a = new Request(1, 10, 20, 12_345, "batch-7-row-1");
+        var b = new Request(2, 20, 10, 1, null);
+        DataInputStream in = in(encode(a, b));
+
+        assertThat(TransferFrames.readRequest(in)).isEqualTo(a);
+        assertThat(TransferFrames.readRequest(in)).isEqualTo(b);
+        assertThat(TransferFrames.readRequest(in)).isNull();
+    }
+
+    @Test
+    void results_roundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        TransferFrames.writeResult(out, Result.ok(5, 99, 1_700_000_000_000L));
+        TransferFrames.writeResult(out, Result.error(6, TransferFrames.REJECTED, "Insufficient funds in source account"));
+
+        DataInputStream in = in(bytes.toByteArray());
+        assertThat(TransferFrames.readResult(in)).isEqualTo(Result.ok(5, 99, 1_700_000_000_000L));
+        assertThat(TransferFrames.readResult(in).message()).isEqualTo("Insufficient funds in source account");
+        assertThat(TransferFrames.readResult(in)).isNull();
+    }
+
+    @Test
+    void amountsKeepTheirScale_andVersion1FramesReadAsCents() throws IOException {
+        var yen = new Request(3, 10, 20, 5_000, 0, null);
+        assertThat(TransferFrames.readRequest(in(encode(yen))).amount()).isEqualByComparingTo("5000");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(TransferFrames.V1_REQUEST_FIXED_SIZE);
+        out.writeByte(1);
+        out.writeLong(4);
+        out.writeLong(10);
+        out.writeLong(20);
+        out.writeLong(1_250);
+        out.writeByte(0);
+        Request v1 = TransferFrames.readRequest(in(bytes.toByteArray()));
+        assertThat(v1).isEqualTo(new Request(4, 10, 20, 1_250, null));
+        assertThat(v1.amount()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    void truncatedFrame_isMalformed() throws IOException {
+        byte[] frame = encode(new Request(1, 10, 20, 100, "k"));
+        DataInputStream in = in(Arrays.copyOf(frame, frame.length - 1));
+
+        assertThatThrownBy(() -> TransferFrames.readRequest(in)).isInstanceOf(MalformedFrameException.class);
+    }
+
+    @Test
+    void oversizedLengthOrWrongVersion_isMalformed() throws IOException {
+        byte[] frame = encode(new Request(1, 10, 20, 100, null));
+        byte[] huge = frame.clone();
+        huge[0] = 0x7f;
+        assertThatThrownBy(() -> TransferFrames.readRequest(in(huge))).isInstanceOf(MalformedFrameException.class);
+
+        byte[] version = frame.clone();
+        version[4] = 9;
+        assertThatThrownBy(() -> TransferFrames.readRequest(in(version))).isInstanceOf(MalformedFrameException.class);
+    }
+
+    @Test
+    void keysLongerThanTheColumn_areRefusedWhenEncoding() {
+        assertThatThrownBy(() -> encode(new Request(1, 1, 2, 1, "x".repeat(65))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,135 @@
+package smartit_task.bank_service.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps every DataSource bean in a JDBC proxy that records each statement round trip while
+ * recording is on: one entry per {@code execute*} call and one per {@code executeBatch},
+ * whatever issued it (Hibernate, JdbcTemplate or plain JDBC). Register it with
+ * {@code @Import(SqlStatementRecorder.Config.class)}.
+ *
+ * <p>It also always times {@code FOR UPDATE} statements, whose duration is almost entirely
+ * the wait for row locks, as a cheap contention measure for load tests.
+ */
+public class SqlStatementRecorder implements BeanPostProcessor {
+
+    private static final Set<String> EXECUTE =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+        @Bean
+        static SqlStatementRecorder sqlStatementRecorder() {
+            return new SqlStatementRecorder();
+        }
+    }
+
+    /** Row-locking statements executed and the time spent in them since the last reset. */
+    public record LockWait(long statements, long nanos) {}
+
+    private final List<String> statements = new ArrayList<>();
+    private volatile boolean recording;
+    private final LongAdder lockStatements = new LongAdder();
+    private final LongAdder lockNanos = new LongAdder();
+
+    public synchronized void start() {
+        statements.clear();
+        recording = true;
+    }
+
+    public synchronized List<String> stop() {
+        recording = false;
+        return List.copyOf(statements);
+    }
+
+    public LockWait lockWait() {
+        return new LockWait(lockStatements.sum(), lockNanos.sum());
+    }
+
+    public void resetLockWait() {
+        lockStatements.reset();
+        lockNanos.reset();
+    }
+
+    private synchronized void record(String sql) {
+        if (recording) {
+            statements.add(sql.replaceAll("\\s+", " ").trim());
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource ds && !(bean instanceof Recording)) {
+            return new Recording(ds);
+        }
+        return bean;
+    }
+
+    private class Recording extends DelegatingDataSource {
+        Recording(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return (Connection) proxy(Connection.class, super.getConnection(), null);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return (Connection) proxy(Connection.class, super.getConnection(username, password), null);
+        }
+    }
+
+    private Object proxy(Class<?> type, Object target, String sql) {
+        InvocationHandler handler = (p, method, args) -> {
+            String name = method.getName();
+            Object result;
+            String executed = null;
+            if (target instanceof Statement && EXECUTE.contains(name)) {
+                executed = args != null && args.length > 0 && args[0] instanceof String s ? s : String.valueOf(sql);
+                if (recording) {
+                    record(name.contains("Batch") ? executed + " [batch]" : executed);
+                }
+            }
+            long t0 = System.nanoTime();
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            } finally {
+                if (executed != null && executed.toLowerCase().contains("for update")) {
+                    lockNanos.add(System.nanoTime() - t0);
+                    lockStatements.increment();
+                }
+            }
+            if (!(target instanceof Connection)) {
+                return result;
+            }
+            if (result instanceof CallableStatement cs) {
+                return proxy(CallableStatement.class, cs, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement ps) {
+                return proxy(PreparedStatement.class, ps, (String) args[0]);
+            }
+            if (result instanceof Statement st) {
+                return proxy(Statement.class, st, null);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -8,38 +8,16 @@ type ActiveView = 'accounts' | 'transfers' | 'create-account' | 'create-transfer
 
 const App: React.FC = () => {
   const [activeView, setActiveView] = useState<ActiveView>('accounts');
-  const [refreshKey, setRefreshKey] = useState(0);
-
-  const handleRefresh = () => {
-    setRefreshKey(prev => prev + 1);
-  };
-
-  const renderContent = () => {
+  // The lists stay mounted and follow the change streams, so switching views or
+  // creating something does not trigger a full reload.
+  const renderForm = () => {
     switch (activeView) {
-      case 'accounts':
-        return <AccountList key={refreshKey} />;
-      case 'transfers':
-        return <TransferList key={refreshKey} />;
       case 'create-account':
-        return (
-          <AccountForm 
-            onAccountCreated={() => {
-              handleRefresh();
-              setActiveView('accounts');
-            }} 
-          />
-        );
+        return <AccountForm onAccountCreated={() => setActiveView('accounts')} />;
       case 'create-transfer':
-        return (
-          <TransferForm 
-            onTransferCreated={() => {
-              handleRefresh();
-              setActiveView('transfers');
-            }} 
-          />
-        );
+        return <TransferForm onTransferCreated={() => setActiveView('transfers')} />;
       default:
-        return <AccountList key={refreshKey} />;
+        return null;
     }
   };
 
@@ -100,7 +78,13 @@ const App: React.FC = () => {
 
       <div className="container">
         <h1>Bank Management System</h1>
-        {renderContent()}
+        <div style={{ display: activeView === 'accounts' ? 'block' : 'none' }}>
+          <AccountList />
+        </div>
+        <div style={{ display: activeView === 'transfers' ? 'block' : 'none' }}>
+          <TransferList />
+        </div>
+        {renderForm()}
       </div>
     </div>
   );
@@ -1,6 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { AccountResponse  } from '../types';
 import { accountAPI } from '../services/api';
+import { subscribe } from '../services/stream';
 
 const AccountList: React.FC = () => {
   const [accounts, setAccounts] = useState<AccountResponse []>([]);
@@ -9,6 +10,11 @@ const AccountList: React.FC = () => {
 
   useEffect(() => {
     fetchAccounts();
+    return subscribe('/accounts/stream', {
+      account: upsertAccount,
+      'account-deleted': ({ id }) => setAccounts(prev => prev.filter(a => a.id !== id)),
+      reset: fetchAccounts,
+    });
   }, []);
 
   const fetchAccounts = async () => {
@@ -25,10 +31,16 @@ const AccountList: React.FC = () => {
     }
   };
 
+  const upsertAccount = (account: AccountResponse) => {
+    setAccounts(prev => prev.some(a => a.id === account.id)
+      ? prev.map(a => (a.id === account.id ? account : a))
+      : [...prev, account]);
+  };
+
   const handleFreeze = async (id: number) => {
     try {
-      await accountAPI.freeze(id);
-      fetchAccounts();
+      const response = await accountAPI.freeze(id);
+      upsertAccount(response.data);
     } catch (err) {
       setError('Failed to freeze account');
       console.error('Error freezing account:', err);
@@ -37,8 +49,8 @@ const AccountList: React.FC = () => {
 
   const handleUnfreeze = async (id: number) => {
     try {
-      await accountAPI.unfreeze(id);
-      fetchAccounts();
+      const response = await accountAPI.unfreeze(id);
+      upsertAccount(response.data);
     } catch (err) {
       setError('Failed to unfreeze account');
       console.error('Error unfreezing account:', err);
@@ -1,6 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { AccountResponse, TransferResponse  } from '../types';
 import { transferAPI, accountAPI } from '../services/api';
+import { subscribe } from '../services/stream';
 
 interface TransferListProps {
   accountId?: number;
@@ -15,8 +16,33 @@ const TransferList: React.FC<TransferListProps> = ({ accountId }) => {
   useEffect(() => {
     fetchTransfers();
     fetchAccounts();
+    const closeTransfers = subscribe('/transfers/stream', {
+      transfer: addTransfer,
+      reset: fetchTransfers,
+    });
+    const closeAccounts = subscribe('/accounts/stream', {
+      account: upsertAccount,
+      reset: fetchAccounts,
+    });
+    return () => {
+      closeTransfers();
+      closeAccounts();
+    };
   }, [accountId]);
 
+  const addTransfer = (transfer: TransferResponse) => {
+    if (accountId && transfer.accountId !== accountId && transfer.beneficiaryAccountId !== accountId) {
+      return;
+    }
+    setTransfers(prev => prev.some(t => t.id === transfer.id) ? prev : [transfer, ...prev]);
+  };
+
+  const upsertAccount = (account: AccountResponse) => {
+    setAccounts(prev => prev.some(a => a.id === account.id)
+      ? prev.map(a => (a.id === account.id ? account : a))
+      : [...prev, account]);
+  };
+
   const fetchTransfers = async () => {
     try {
       setLoading(true);
@@ -2,13 +2,14 @@
 import axios from 'axios';
 import {
   AccountResponse,
+  AccountLookupResponse,
   AccountCreateRequest,
   AccountUpdateRequest,
   TransferResponse,
   TransferCreateRequest,
 } from '../types';
 
-const API_BASE_URL = 'http://localhost:8080/api';
+export const API_BASE_URL = 'http://localhost:8080/api';
 
 const api = axios.create({
   baseURL: API_BASE_URL,
@@ -16,11 +17,37 @@ const api = axios.create({
   // auth: { username: 'admin', password: 'admin' }, // dev-only
 });
 
+// Read-your-writes with a read replica: the backend stamps write responses with X-Last-Write;
+// echoing the latest stamp keeps this tab's reads on the primary until the replica has caught up.
+const LAST_WRITE_HEADER = 'X-Last-Write';
+let lastWrite: string | undefined;
+
+api.interceptors.request.use((config) => {
+  if (lastWrite) {
+    config.headers.set(LAST_WRITE_HEADER, lastWrite);
+  }
+  return config;
+});
+
+api.interceptors.response.use((response) => {
+  const stamp = response.headers[LAST_WRITE_HEADER.toLowerCase()];
+  if (stamp && (!lastWrite || Number(stamp) > Number(lastWrite))) {
+    lastWrite = String(stamp);
+  }
+  return response;
+});
+
 // Account API
 export const accountAPI = {
   getAll: () => api.get<AccountResponse[]>('/accounts'),
   getById: (id: number) => api.get<AccountResponse>(`/accounts/${id}`),
 
+  // one request and one query for many ids; results follow the order of `ids`
+  getByIds: (ids: number[]) =>
+    ids.length > 200
+      ? api.post<AccountLookupResponse[]>('/accounts/lookup', ids)
+      : api.get<AccountLookupResponse[]>('/accounts', { params: { ids: ids.join(',') } }),
+
   create: (payload: AccountCreateRequest) =>
     api.post<AccountResponse>('/accounts', payload),
 
@@ -0,0 +1,13 @@
+import { API_BASE_URL } from './api';
+
+export type StreamHandlers = Record<string, (data: any) => void>;
+
+// Opens an SSE stream under /api. EventSource reconnects on its own and sends
+// Last-Event-ID, so the backend replays whatever was missed in between.
+export const subscribe = (path: string, handlers: StreamHandlers) => {
+  const source = new EventSource(`${API_BASE_URL}${path}`);
+  Object.entries(handlers).forEach(([name, handler]) => {
+    source.addEventListener(name, (e) => handler(JSON.parse((e as MessageEvent).data)));
+  });
+  return () => source.close();
+};
@@ -5,16 +5,25 @@ export interface AccountResponse {
   id: number;
   name: string;
   iban: string;
+  currency: string;
   status: AccountStatus;
   availableAmount: number;
+  heldAmount: number;
   createdOn: string;
   modifiedOn: string;
 }
 
+export interface AccountLookupResponse {
+  id: number;
+  found: boolean;
+  account: AccountResponse | null;
+}
+
 export interface AccountCreateRequest {
   name: string;
   iban: string;
   initialAmount?: number;
+  currency?: string;
 }
 
 export interface AccountUpdateRequest {
@@ -31,6 +40,9 @@ export interface TransferResponse {
   beneficiaryAccountId: number;
   type: TransferType;
   amount: number;
+  currency: string;
+  fxRate: number | null;
+  fxRateVersion: number | null;
   createdOn: string;
   modifiedOn: string;
 }